@@ -0,0 +1,107 @@
+package de.tudresden.inf.tcs.fcalib.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import de.tudresden.inf.tcs.fcalib.FormalContext;
+import de.tudresden.inf.tcs.fcalib.ImplicationSet;
+
+/*
+ * FCAlib: An open-source extensible library for Formal Concept Analysis
+ *         tool developers
+ * Copyright (C) 2009  Baris Sertkaya
+ *
+ * This file is part of FCAlib.
+ * FCAlib is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FCAlib is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with FCAlib.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/**
+ * Measures the closure of a set of attributes under a set of implications and
+ * the computation of the next closed set in lectic order, with and without the
+ * closure cache. There are four implications per attribute.
+ */
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ClosureBenchmark {
+
+	private static final int QUERIES = 64;
+
+	@Param({ "16", "32", "64", "128" })
+	public int attributes;
+
+	@Param({ "2" })
+	public int premiseSize;
+
+	@Param({ "0", "1024" })
+	public int cache;
+
+	private ImplicationSet<String> implications;
+
+	private List<Set<String>> queries;
+
+	private List<Set<String>> closedSets;
+
+	private int next = 0;
+
+	@Setup
+	public void setUp() {
+		FormalContext<String, String> context = ContextGenerator.randomContext(this.attributes, 0, 0, 1);
+		this.implications = ContextGenerator.randomImplications(context, 4 * this.attributes, this.premiseSize, 2,
+				2);
+		this.implications.setClosureCache(this.cache);
+		Random random = new Random(3);
+		this.queries = new ArrayList<>(QUERIES);
+		this.closedSets = new ArrayList<>(QUERIES);
+		for (int k = 0; k < QUERIES; k++) {
+			this.queries.add(ContextGenerator.randomSet(random, this.attributes, 0.1));
+			this.closedSets.add(this.implications.closure(this.queries.get(k)));
+		}
+	}
+
+	private int nextQuery() {
+		this.next = (this.next + 1) % QUERIES;
+		return this.next;
+	}
+
+	@Benchmark
+	public Set<String> closure() {
+		return this.implications.closure(this.queries.get(nextQuery()));
+	}
+
+	@Benchmark
+	public Set<String> nextClosure() {
+		return this.implications.nextClosure(this.closedSets.get(nextQuery()));
+	}
+
+}
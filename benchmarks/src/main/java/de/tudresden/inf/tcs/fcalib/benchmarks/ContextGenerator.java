@@ -0,0 +1,230 @@
+package de.tudresden.inf.tcs.fcalib.benchmarks;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import de.tudresden.inf.tcs.fcaapi.exception.IllegalObjectException;
+import de.tudresden.inf.tcs.fcalib.FormalContext;
+import de.tudresden.inf.tcs.fcalib.FullObject;
+import de.tudresden.inf.tcs.fcalib.Implication;
+import de.tudresden.inf.tcs.fcalib.ImplicationSet;
+import de.tudresden.inf.tcs.fcalib.PartialContext;
+import de.tudresden.inf.tcs.fcalib.PartialObject;
+
+/*
+ * FCAlib: An open-source extensible library for Formal Concept Analysis
+ *         tool developers
+ * Copyright (C) 2009  Baris Sertkaya
+ *
+ * This file is part of FCAlib.
+ * FCAlib is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FCAlib is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with FCAlib.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/**
+ * Generates contexts, implication sets and attribute sets for the benchmarks.
+ * Attributes are named <code>m0</code>, <code>m1</code>, ... and objects
+ * <code>g0</code>, <code>g1</code>, ... All methods are deterministic for a
+ * given seed.
+ */
+
+public final class ContextGenerator {
+
+	private ContextGenerator() {
+	}
+
+	/**
+	 * Returns the name of the attribute with a given index.
+	 *
+	 * @param i
+	 *            index of the attribute
+	 * @return the name of the attribute
+	 */
+	public static String attribute(int i) {
+		return "m" + i;
+	}
+
+	/**
+	 * Returns a random subset of the attributes <code>m0</code>, ...,
+	 * <code>m(attributes-1)</code>.
+	 *
+	 * @param random
+	 *            source of randomness
+	 * @param attributes
+	 *            number of attributes
+	 * @param density
+	 *            probability that an attribute is in the set
+	 * @return the random set
+	 */
+	public static Set<String> randomSet(Random random, int attributes, double density) {
+		Set<String> set = new HashSet<>();
+		for (int i = 0; i < attributes; i++) {
+			if (random.nextDouble() < density) {
+				set.add(attribute(i));
+			}
+		}
+		return set;
+	}
+
+	/**
+	 * Creates a formal context where every object has every attribute with
+	 * the same probability.
+	 *
+	 * @param attributes
+	 *            number of attributes
+	 * @param objects
+	 *            number of objects
+	 * @param density
+	 *            probability that an object has an attribute
+	 * @param seed
+	 *            seed of the random generator
+	 * @return the random context
+	 */
+	public static FormalContext<String, String> randomContext(int attributes, int objects, double density,
+			long seed) {
+		Random random = new Random(seed);
+		List<Set<String>> intents = new ArrayList<>();
+		for (int g = 0; g < objects; g++) {
+			intents.add(randomSet(random, attributes, density));
+		}
+		return formalContext(attributes, intents);
+	}
+
+	/**
+	 * Creates a formal context with a nominal structure. The attributes are
+	 * split into blocks of a given size and every object has exactly one
+	 * attribute of each block. Such contexts have many implications, unlike
+	 * random ones.
+	 *
+	 * @param attributes
+	 *            number of attributes
+	 * @param objects
+	 *            number of objects
+	 * @param blockSize
+	 *            number of attributes in each block
+	 * @param seed
+	 *            seed of the random generator
+	 * @return the structured context
+	 */
+	public static FormalContext<String, String> structuredContext(int attributes, int objects, int blockSize,
+			long seed) {
+		Random random = new Random(seed);
+		List<Set<String>> intents = new ArrayList<>();
+		for (int g = 0; g < objects; g++) {
+			Set<String> intent = new HashSet<>();
+			for (int start = 0; start < attributes; start += blockSize) {
+				int size = Math.min(blockSize, attributes - start);
+				intent.add(attribute(start + random.nextInt(size)));
+			}
+			intents.add(intent);
+		}
+		return formalContext(attributes, intents);
+	}
+
+	private static FormalContext<String, String> formalContext(int attributes, List<Set<String>> intents) {
+		FormalContext<String, String> context = new FormalContext<String, String>();
+		for (int i = 0; i < attributes; i++) {
+			context.addAttribute(attribute(i));
+		}
+		try {
+			for (int g = 0; g < intents.size(); g++) {
+				context.addObject(new FullObject<String, String>("g" + g, intents.get(g)));
+			}
+		} catch (IllegalObjectException e) {
+			throw new IllegalStateException(e);
+		}
+		return context;
+	}
+
+	/**
+	 * Creates a partial context. Every object has every attribute with a given
+	 * probability and, otherwise, it is known not to have it with another
+	 * given probability. All other crosses are unknown.
+	 *
+	 * @param attributes
+	 *            number of attributes
+	 * @param objects
+	 *            number of objects
+	 * @param density
+	 *            probability that an object has an attribute
+	 * @param negatedDensity
+	 *            probability that an object is known not to have an attribute
+	 * @param seed
+	 *            seed of the random generator
+	 * @return the random partial context
+	 */
+	public static PartialContext<String, String, PartialObject<String, String>> partialContext(int attributes,
+			int objects, double density, double negatedDensity, long seed) {
+		Random random = new Random(seed);
+		PartialContext<String, String, PartialObject<String, String>> context = new PartialContext<String, String, PartialObject<String, String>>();
+		for (int i = 0; i < attributes; i++) {
+			context.addAttribute(attribute(i));
+		}
+		for (int g = 0; g < objects; g++) {
+			Set<String> plus = new HashSet<>();
+			Set<String> minus = new HashSet<>();
+			for (int i = 0; i < attributes; i++) {
+				double r = random.nextDouble();
+				if (r < density) {
+					plus.add(attribute(i));
+				} else if (r < density + negatedDensity) {
+					minus.add(attribute(i));
+				}
+			}
+			context.addObject(new PartialObject<String, String>("g" + g, plus, minus));
+		}
+		return context;
+	}
+
+	/**
+	 * Creates a set of random implications over the attributes of a given
+	 * context.
+	 *
+	 * @param context
+	 *            the context whose attributes are used
+	 * @param count
+	 *            number of implications
+	 * @param premiseSize
+	 *            number of attributes in each premise
+	 * @param conclusionSize
+	 *            number of attributes in each conclusion
+	 * @param seed
+	 *            seed of the random generator
+	 * @return the implication set
+	 */
+	public static ImplicationSet<String> randomImplications(FormalContext<String, String> context, int count,
+			int premiseSize, int conclusionSize, long seed) {
+		Random random = new Random(seed);
+		int attributes = context.getAttributeCount();
+		ImplicationSet<String> implications = new ImplicationSet<String>(context);
+		while (implications.size() < count) {
+			Set<String> premise = new HashSet<>();
+			while (premise.size() < Math.min(premiseSize, attributes)) {
+				premise.add(attribute(random.nextInt(attributes)));
+			}
+			Set<String> conclusion = new HashSet<>();
+			for (int k = 0; k < conclusionSize; k++) {
+				String m = attribute(random.nextInt(attributes));
+				if (!premise.contains(m)) {
+					conclusion.add(m);
+				}
+			}
+			implications.add(new Implication<String>(premise, conclusion));
+		}
+		return implications;
+	}
+
+}
@@ -0,0 +1,122 @@
+package de.tudresden.inf.tcs.fcalib.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import de.tudresden.inf.tcs.fcalib.FormalContext;
+import de.tudresden.inf.tcs.fcalib.PartialContext;
+import de.tudresden.inf.tcs.fcalib.PartialObject;
+
+/*
+ * FCAlib: An open-source extensible library for Formal Concept Analysis
+ *         tool developers
+ * Copyright (C) 2009  Baris Sertkaya
+ *
+ * This file is part of FCAlib.
+ * FCAlib is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FCAlib is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with FCAlib.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/**
+ * Measures the second derivative of a set of attributes in formal contexts,
+ * with and without vertical storage, and in partial contexts.
+ */
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DoublePrimeBenchmark {
+
+	private static final int QUERIES = 64;
+
+	@Param({ "16", "32", "64", "128" })
+	public int attributes;
+
+	@Param({ "1000" })
+	public int objects;
+
+	@Param({ "0.1", "0.3" })
+	public double density;
+
+	private FormalContext<String, String> rows;
+
+	private FormalContext<String, String> columns;
+
+	private PartialContext<String, String, PartialObject<String, String>> partial;
+
+	private PartialContext<String, String, PartialObject<String, String>> partialColumns;
+
+	private List<Set<String>> queries;
+
+	private int next = 0;
+
+	@Setup
+	public void setUp() {
+		this.rows = ContextGenerator.randomContext(this.attributes, this.objects, this.density, 1);
+		this.columns = ContextGenerator.randomContext(this.attributes, this.objects, this.density, 1);
+		this.columns.setVerticalStorage(true);
+		this.partial = ContextGenerator.partialContext(this.attributes, this.objects, this.density, this.density, 1);
+		this.partialColumns = ContextGenerator.partialContext(this.attributes, this.objects, this.density,
+				this.density, 1);
+		this.partialColumns.setVerticalStorage(true);
+		Random random = new Random(3);
+		this.queries = new ArrayList<>(QUERIES);
+		for (int k = 0; k < QUERIES; k++) {
+			this.queries.add(ContextGenerator.randomSet(random, this.attributes, 2.0 / this.attributes));
+		}
+	}
+
+	private int nextQuery() {
+		this.next = (this.next + 1) % QUERIES;
+		return this.next;
+	}
+
+	@Benchmark
+	public Set<String> formalContext() {
+		return this.rows.doublePrime(this.queries.get(nextQuery()));
+	}
+
+	@Benchmark
+	public Set<String> formalContextVertical() {
+		return this.columns.doublePrime(this.queries.get(nextQuery()));
+	}
+
+	@Benchmark
+	public Set<String> partialContext() {
+		return this.partial.doublePrime(this.queries.get(nextQuery()));
+	}
+
+	@Benchmark
+	public Set<String> partialContextVertical() {
+		return this.partialColumns.doublePrime(this.queries.get(nextQuery()));
+	}
+
+}
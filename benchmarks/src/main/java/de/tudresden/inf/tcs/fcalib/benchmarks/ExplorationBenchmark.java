@@ -0,0 +1,188 @@
+package de.tudresden.inf.tcs.fcalib.benchmarks;
+
+import java.util.HashSet;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import de.tudresden.inf.tcs.fcaapi.FCAImplication;
+import de.tudresden.inf.tcs.fcalib.AbstractExpert;
+import de.tudresden.inf.tcs.fcalib.FormalContext;
+import de.tudresden.inf.tcs.fcalib.FullObject;
+import de.tudresden.inf.tcs.fcalib.action.CounterExampleProvidedAction;
+import de.tudresden.inf.tcs.fcalib.action.QuestionConfirmedAction;
+import de.tudresden.inf.tcs.fcalib.action.QuestionRejectedAction;
+import de.tudresden.inf.tcs.fcalib.action.StartExplorationAction;
+
+/*
+ * FCAlib: An open-source extensible library for Formal Concept Analysis
+ *         tool developers
+ * Copyright (C) 2009  Baris Sertkaya
+ *
+ * This file is part of FCAlib.
+ * FCAlib is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FCAlib is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with FCAlib.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/**
+ * Measures a complete attribute exploration of a formal context that has
+ * attributes but no objects. With the <code>none</code> expert every question
+ * is rejected and its premise is given as counterexample, so that every set of
+ * attributes is visited. With the <code>context</code> expert the questions are
+ * answered by looking at a hidden random context, so that the exploration
+ * finds the stem base of that context.
+ */
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ExplorationBenchmark {
+
+	@Param({ "6", "8", "10", "12" })
+	public int attributes;
+
+	@Param({ "none", "context" })
+	public String expert;
+
+	@Param({ "100" })
+	public int objects;
+
+	private FormalContext<String, String> truth;
+
+	@Setup
+	public void setUp() {
+		Logger.getLogger("de.tudresden.inf.tcs").setLevel(Level.WARNING);
+		this.truth = ContextGenerator.randomContext(this.attributes, this.objects, 0.3, 1);
+	}
+
+	@Benchmark
+	public int exploration() {
+		FormalContext<String, String> context = ContextGenerator.randomContext(this.attributes, 0, 0, 1);
+		AbstractExpert<String, String, FullObject<String, String>> e = this.expert.equals("none")
+				? new RejectingExpert(context) : new ContextExpert(context, this.truth);
+		e.addExpertActionListener(context);
+		context.setExpert(e);
+		StartExplorationAction<String, String, FullObject<String, String>> action = new StartExplorationAction<String, String, FullObject<String, String>>();
+		action.setContext(context);
+		e.fireExpertAction(action);
+		return context.getImplications().size() + context.getObjectCount();
+	}
+
+	/**
+	 * Expert that rejects every question and gives the premise as
+	 * counterexample.
+	 */
+	private static class RejectingExpert extends AbstractExpert<String, String, FullObject<String, String>> {
+
+		private final FormalContext<String, String> context;
+
+		private int name = 0;
+
+		RejectingExpert(FormalContext<String, String> context) {
+			this.context = context;
+		}
+
+		protected FormalContext<String, String> getContext() {
+			return this.context;
+		}
+
+		@Override
+		public void askQuestion(FCAImplication<String> question) {
+			QuestionRejectedAction<String, String, FullObject<String, String>> action = new QuestionRejectedAction<String, String, FullObject<String, String>>();
+			action.setContext(getContext());
+			action.setQuestion(question);
+			fireExpertAction(action);
+		}
+
+		@Override
+		public void requestCounterExample(FCAImplication<String> question) {
+			FullObject<String, String> counterExample = new FullObject<String, String>("c" + this.name++,
+					question.getPremise());
+			fireExpertAction(new CounterExampleProvidedAction<String, String, FullObject<String, String>>(
+					getContext(), question, counterExample));
+		}
+
+		@Override
+		public void counterExampleInvalid(FullObject<String, String> counterExample, int reason) {
+			throw new IllegalStateException("invalid counterexample " + counterExample);
+		}
+
+		@Override
+		public void forceToCounterExample(FCAImplication<String> implication) {
+		}
+
+		@Override
+		public void explorationFinished() {
+		}
+
+		@Override
+		public void implicationFollowsFromBackgroundKnowledge(FCAImplication<String> implication) {
+		}
+	}
+
+	/**
+	 * Expert that confirms the questions that hold in a hidden context and
+	 * gives an object of the hidden context as counterexample otherwise.
+	 */
+	private static class ContextExpert extends RejectingExpert {
+
+		private final FormalContext<String, String> truth;
+
+		ContextExpert(FormalContext<String, String> context, FormalContext<String, String> truth) {
+			super(context);
+			this.truth = truth;
+		}
+
+		@Override
+		public void askQuestion(FCAImplication<String> question) {
+			if (this.truth.refutes(question)) {
+				super.askQuestion(question);
+			} else {
+				QuestionConfirmedAction<String, String, FullObject<String, String>> action = new QuestionConfirmedAction<String, String, FullObject<String, String>>();
+				action.setContext(getContext());
+				action.setQuestion(question);
+				fireExpertAction(action);
+			}
+		}
+
+		@Override
+		public void requestCounterExample(FCAImplication<String> question) {
+			for (FullObject<String, String> object : this.truth.getObjects()) {
+				if (object.refutes(question)) {
+					FullObject<String, String> counterExample = new FullObject<String, String>(
+							object.getIdentifier(), new HashSet<>(object.getDescription().getAttributes()));
+					fireExpertAction(new CounterExampleProvidedAction<String, String, FullObject<String, String>>(
+							getContext(), question, counterExample));
+					return;
+				}
+			}
+			throw new IllegalStateException("no counterexample for " + question);
+		}
+	}
+
+}
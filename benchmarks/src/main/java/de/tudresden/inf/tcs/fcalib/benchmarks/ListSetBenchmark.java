@@ -0,0 +1,119 @@
+package de.tudresden.inf.tcs.fcalib.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import de.tudresden.inf.tcs.fcaapi.utils.IndexedSet;
+import de.tudresden.inf.tcs.fcalib.utils.HashIndexedSet;
+import de.tudresden.inf.tcs.fcalib.utils.ListSet;
+
+/*
+ * FCAlib: An open-source extensible library for Formal Concept Analysis
+ *         tool developers
+ * Copyright (C) 2009  Baris Sertkaya
+ *
+ * This file is part of FCAlib.
+ * FCAlib is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FCAlib is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with FCAlib.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/**
+ * Measures the operations of the indexed sets that store the attributes and
+ * objects of a context, for {@link ListSet} and {@link HashIndexedSet}.
+ */
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ListSetBenchmark {
+
+	@Param({ "16", "128", "1024" })
+	public int size;
+
+	@Param({ "ListSet", "HashIndexedSet" })
+	public String implementation;
+
+	private IndexedSet<String> set;
+
+	private String[] elements;
+
+	private int next = 0;
+
+	@Setup
+	public void setUp() {
+		this.set = this.implementation.equals("ListSet") ? new ListSet<String>() : new HashIndexedSet<String>();
+		this.elements = new String[this.size];
+		for (int i = 0; i < this.size; i++) {
+			this.elements[i] = ContextGenerator.attribute(i);
+			this.set.add(this.elements[i]);
+		}
+	}
+
+	private String nextElement() {
+		this.next = (this.next + 1) % this.size;
+		return this.elements[this.next];
+	}
+
+	@Benchmark
+	public boolean contains() {
+		return this.set.contains(nextElement());
+	}
+
+	@Benchmark
+	public int getIndexOf() {
+		return this.set.getIndexOf(nextElement());
+	}
+
+	@Benchmark
+	public String getElementAt() {
+		this.next = (this.next + 1) % this.size;
+		return this.set.getElementAt(this.next);
+	}
+
+	@Benchmark
+	public boolean removeAndAdd() {
+		String e = nextElement();
+		this.set.remove(e);
+		return this.set.add(e);
+	}
+
+	@Benchmark
+	public IndexedSet<String> changeOrder() {
+		this.set.changeOrder();
+		return this.set;
+	}
+
+	@Benchmark
+	public int iterate() {
+		int count = 0;
+		for (String e : this.set) {
+			count += e.length();
+		}
+		return count;
+	}
+
+}
@@ -1,9 +1,15 @@
 package de.tudresden.inf.tcs.fcalib;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Map;
 import java.util.Set;
 
 import java.util.logging.Logger;
 
+import de.tudresden.inf.tcs.fcaapi.ClosureOperator;
 import de.tudresden.inf.tcs.fcaapi.Context;
 import de.tudresden.inf.tcs.fcaapi.FCAImplication;
 import de.tudresden.inf.tcs.fcaapi.FCAObject;
@@ -12,7 +18,9 @@ import de.tudresden.inf.tcs.fcaapi.action.ExpertAction;
 import de.tudresden.inf.tcs.fcaapi.exception.IllegalAttributeException;
 import de.tudresden.inf.tcs.fcaapi.exception.IllegalObjectException;
 import de.tudresden.inf.tcs.fcaapi.utils.IndexedSet;
-import de.tudresden.inf.tcs.fcalib.utils.ListSet;
+import de.tudresden.inf.tcs.fcalib.utils.AttributeDictionary;
+import de.tudresden.inf.tcs.fcalib.utils.BitWords;
+import de.tudresden.inf.tcs.fcalib.utils.HashIndexedSet;
 
 /*
  * FCAlib: An open-source extensible library for Formal Concept Analysis
@@ -47,7 +55,19 @@ public abstract class AbstractContext<A, I, O extends FCAObject<A, I>>
 	/**
 	 * Attributes of this abstract context.
 	 */
-	private final IndexedSet<A> attributes = new ListSet<A>();
+	private final HashIndexedSet<A> attributes = new HashIndexedSet<A>();
+
+	/**
+	 * The identifiers of the attributes of this context, assigned in the
+	 * order in which the attributes were added.
+	 */
+	private final AttributeDictionary<A> dictionary = new AttributeDictionary<A>();
+
+	/**
+	 * The modification count of the set of attributes when all of its
+	 * attributes were last known to be in the dictionary.
+	 */
+	private int internedModCount = 0;
 
 	/**
 	 * The implication set to be used in attribute exploration
@@ -59,11 +79,66 @@ public abstract class AbstractContext<A, I, O extends FCAObject<A, I>>
 	// */
 	// private Expert<A,I,O> expert = null;
 
+	/**
+	 * The background knowledge of this context, <code>null</code> if there is
+	 * none.
+	 */
+	private ClosureOperator<A> backgroundKnowledge = null;
+
+	/**
+	 * The last premise whose closure under the background knowledge was
+	 * computed.
+	 */
+	private Set<A> backgroundPremise = null;
+
+	/**
+	 * The closure of <code>backgroundPremise</code> under the background
+	 * knowledge.
+	 */
+	private Set<A> backgroundClosure = null;
+
+	/**
+	 * Number of modifications of this context.
+	 */
+	private long modificationCount = 0;
+
+	/**
+	 * The cache of second derivatives, <code>null</code> if it is off.
+	 */
+	private DerivationCache<A> derivations = null;
+
 	/**
 	 * The last question asked to the expert.
 	 */
 	private FCAImplication<A> currentQuestion = null;
 
+	/**
+	 * The premise of the next step of the exploration.
+	 */
+	private Set<A> pendingPremise = null;
+
+	/**
+	 * Whether a step of the exploration has been scheduled and not yet
+	 * processed.
+	 */
+	private boolean pending = false;
+
+	/**
+	 * The premise of the last step of the exploration, <code>null</code> if
+	 * the exploration has finished.
+	 */
+	private Set<A> stepPremise = Collections.emptySet();
+
+	/**
+	 * Whether the pending steps are currently being processed.
+	 */
+	private boolean advancing = false;
+
+	/**
+	 * Whether {@link #continueExploration(Set)} processes the pending steps.
+	 */
+	private boolean autoAdvance = true;
+
 	/**
 	 * The logger.
 	 */
@@ -79,6 +154,48 @@ public abstract class AbstractContext<A, I, O extends FCAObject<A, I>>
 		return this.attributes;
 	}
 
+	/**
+	 * Returns the dictionary of the attributes of this context. The
+	 * identifier of an attribute is assigned when it is added and does not
+	 * change when the attributes are reordered, unlike its index. Looking up
+	 * the identifier of an attribute that is the same instance as the added
+	 * one does not call its <code>hashCode</code> or <code>equals</code>
+	 * methods.
+	 * 
+	 * @return the dictionary of the attributes of this context
+	 */
+	public AttributeDictionary<A> getAttributeDictionary() {
+		if (this.internedModCount != this.attributes.getModificationCount()) {
+			// attributes may have been added directly to the set of attributes
+			for (A attribute : getAttributes()) {
+				this.dictionary.intern(attribute);
+			}
+			this.internedModCount = this.attributes.getModificationCount();
+		}
+		return this.dictionary;
+	}
+
+	/**
+	 * Returns the current index of each attribute of this context by its
+	 * identifier in the attribute dictionary.
+	 * 
+	 * @return an array whose element <code>id</code> is the index of the
+	 *         attribute with identifier <code>id</code>
+	 * @see #getAttributeDictionary()
+	 */
+	protected int[] attributeIndicesById() {
+		AttributeDictionary<A> dict = getAttributeDictionary();
+		int[] indices = new int[dict.size()];
+		Arrays.fill(indices, -1);
+		for (int i = 0; i < getAttributeCount(); ++i) {
+			int id = dict.getId(getAttributeAtIndex(i));
+			if (id >= 0) {
+				indices[id] = i;
+			}
+		}
+		return indices;
+	}
+
 	/**
 	 * Returns the number of attributes of this context.
 	 * 
@@ -131,11 +248,17 @@ public abstract class AbstractContext<A, I, O extends FCAObject<A, I>>
 	 */
 	@Override
 	public boolean addAttribute(A attribute) throws IllegalAttributeException {
+		boolean interned = this.internedModCount == this.attributes.getModificationCount();
 		boolean added = getAttributes().add(attribute);
 		if (!added) {
 			throw new IllegalAttributeException("Attribute " + attribute
 					+ " has already been added");
 		}
+		this.dictionary.intern(attribute);
+		if (interned) {
+			this.internedModCount = this.attributes.getModificationCount();
+		}
+		modified();
 		return added;
 	}
 
@@ -323,6 +446,73 @@ public abstract class AbstractContext<A, I, O extends FCAObject<A, I>>
 	@Override
 	public abstract Set<FCAImplication<A>> getStemBase();
 
+	/**
+	 * Computes the stem base of a closure operator on the attribute indices of
+	 * this context without asking an expert. The result contains the same
+	 * implications as an exploration in which the expert confirms every
+	 * question.
+	 * 
+	 * @param closure
+	 *            the closure operator
+	 * @return the stem base of <code>closure</code>
+	 * @see CanonicalBasis
+	 */
+	protected ImplicationSet<A> computeStemBase(BitClosureOperator closure) {
+		final ImplicationSet<A> base = new ImplicationSet<A>(this);
+		new CanonicalBasis(closure).compute(new ImplicationSink() {
+			@Override
+			public void implication(long[] premise, long[] conclusion) {
+				base.add(new Implication<A>(attributesOf(premise),
+						attributesOf(conclusion)));
+			}
+		});
+		return base;
+	}
+
+	/**
+	 * Returns {@link #doublePrime(Set)} as a closure operator on the attribute
+	 * indices of this context.
+	 * 
+	 * @return the double prime operator of this context
+	 */
+	protected BitClosureOperator doublePrimeOperator() {
+		return new BitClosureOperator() {
+			@Override
+			public int getAttributeCount() {
+				return AbstractContext.this.getAttributeCount();
+			}
+
+			private final AttributeDictionary<A> dict = getAttributeDictionary();
+
+			private final int[] indices = attributeIndicesById();
+
+			@Override
+			public void closure(long[] x, long[] result) {
+				Set<A> closed = doublePrime(attributesOf(x));
+				Arrays.fill(result, 0L);
+				for (A attribute : closed) {
+					BitWords.set(result, this.indices[this.dict.getId(attribute)]);
+				}
+			}
+		};
+	}
+
+	/**
+	 * Returns the attributes of this context whose indices are given.
+	 * 
+	 * @param words
+	 *            bit words over the attribute indices
+	 * @return the attributes with the given indices, in index order
+	 */
+	protected Set<A> attributesOf(long[] words) {
+		Set<A> attrs = new LinkedHashSet<>();
+		for (int m = BitWords.nextSetBit(words, 0); m >= 0; m = BitWords
+				.nextSetBit(words, m + 1)) {
+			attrs.add(getAttributeAtIndex(m));
+		}
+		return attrs;
+	}
+
 	/**
 	 * Checks whether this context refutes a given implication, i.e., there
 	 * exists an object that does not respect the given implication.
@@ -423,11 +613,166 @@ public abstract class AbstractContext<A, I, O extends FCAObject<A, I>>
 	// }
 	// }
 
+	/**
+	 * Returns the number of modifications of the objects and attributes of this
+	 * context made through its methods. It can be used to check whether
+	 * something computed from this context is still up to date.
+	 * 
+	 * @return the modification count
+	 */
+	public long getModificationCount() {
+		return this.modificationCount;
+	}
+
+	/**
+	 * Records that the objects or attributes of this context have changed.
+	 * Implementations call it from every method that changes them, except
+	 * when an object is added, where {@link #objectAdded(FCAObject)} is called.
+	 */
+	protected void modified() {
+		++this.modificationCount;
+	}
+
+	/**
+	 * Records that an object has been added to this context, and updates the
+	 * cached second derivatives with
+	 * {@link #updateDerivation(FCAObject, Set, Set)}.
+	 * 
+	 * @param object
+	 *            the added object
+	 */
+	protected void objectAdded(O object) {
+		DerivationCache<A> cache = this.derivations;
+		boolean incremental = (cache != null) && cache.isValid(
+				this.modificationCount, getObjectCount() - 1, getAttributeCount());
+		modified();
+		if (incremental) {
+			for (Map.Entry<Set<A>, Set<A>> entry : cache.entries()) {
+				if (!updateDerivation(object, entry.getKey(), entry.getValue())) {
+					cache.clear();
+					break;
+				}
+			}
+			cache.moveTo(this.modificationCount, getObjectCount(), getAttributeCount());
+		}
+	}
+
+	/**
+	 * Updates the second derivative of a set of attributes after an object has
+	 * been added to this context. The default implementation does not update
+	 * it.
+	 * 
+	 * @param object
+	 *            the added object
+	 * @param x
+	 *            the set of attributes
+	 * @param derivation
+	 *            the second derivative of <code>x</code> before
+	 *            <code>object</code> was added, which is to be updated
+	 * @return <code>true</code> if the second derivative was updated,
+	 *         <code>false</code> if it has to be computed again
+	 */
+	protected boolean updateDerivation(O object, Set<A> x, Set<A> derivation) {
+		return false;
+	}
+
+	/**
+	 * Turns the cache of second derivatives on or off. The cache keeps the
+	 * second derivatives most recently computed by {@link #doublePrime(Set)}
+	 * and evicts the least recently used one when it is full. When an object
+	 * is added, the cached second derivatives are updated with the new object
+	 * only, so that computing the second derivative of the same set again, as
+	 * the exploration does after a counterexample, takes time linear in the
+	 * number of attributes instead of the number of objects. Any other change
+	 * of the objects or attributes empties the cache. Changes made directly
+	 * to an object description are not tracked. It is off by default.
+	 * 
+	 * @param capacity
+	 *            maximum number of cached second derivatives, <code>0</code>
+	 *            to turn the cache off
+	 */
+	public void setDerivationCache(int capacity) {
+		this.derivations = (capacity == 0) ? null : new DerivationCache<A>(capacity);
+	}
+
+	/**
+	 * Returns the cache of second derivatives, whose hit and miss counters can
+	 * be used to choose its capacity.
+	 * 
+	 * @return the cache of second derivatives, <code>null</code> if it is off
+	 * @see #setDerivationCache(int)
+	 */
+	public DerivationCache<A> getDerivationCache() {
+		return this.derivations;
+	}
+
+	/**
+	 * Returns the cached second derivative of a given set of attributes.
+	 * 
+	 * @param x
+	 *            the set of attributes
+	 * @return a copy of the cached second derivative of <code>x</code>,
+	 *         <code>null</code> if it is not cached
+	 */
+	protected Set<A> cachedDoublePrime(Set<A> x) {
+		if (this.derivations == null) {
+			return null;
+		}
+		this.derivations.validate(this.modificationCount, getObjectCount(), getAttributeCount());
+		Set<A> derivation = this.derivations.get(x);
+		return (derivation == null) ? null : new HashSet<>(derivation);
+	}
+
+	/**
+	 * Stores the second derivative of a given set of attributes in the cache,
+	 * if it is on.
+	 * 
+	 * @param x
+	 *            the set of attributes
+	 * @param derivation
+	 *            the second derivative of <code>x</code>, which is copied
+	 */
+	protected void cacheDoublePrime(Set<A> x, Set<A> derivation) {
+		if (this.derivations != null) {
+			this.derivations.put(new HashSet<>(x), new HashSet<>(derivation));
+		}
+	}
+
+	/**
+	 * Updates the objects of this context after an implication has been added
+	 * to the set of implications of this context. It is called by
+	 * {@link ImplicationSet#add(FCAImplication)}. The default implementation
+	 * does nothing.
+	 * 
+	 * @param imp
+	 *            the added implication
+	 * @return <code>true</code> if an object of this context was changed
+	 */
+	protected boolean implicationAdded(FCAImplication<A> imp) {
+		return false;
+	}
+
 	/**
 	 * Initializes the data structures used in exploration.
 	 */
 	public void initializeExploration() {
 		this.implications = new ImplicationSet<A>(this);
+		this.pendingPremise = null;
+		this.pending = false;
+		this.stepPremise = Collections.emptySet();
+	}
+
+	/**
+	 * Returns the premise from which the exploration continues: the premise
+	 * of the pending step if there is one, otherwise the premise of the last
+	 * step, whose question may not have been answered yet.
+	 * 
+	 * @return the premise from which the exploration continues,
+	 *         <code>null</code> if the exploration has finished
+	 * @see ExplorationCheckpoint
+	 */
+	Set<A> getResumePremise() {
+		return this.pending ? this.pendingPremise : this.stepPremise;
 	}
 
 	// /**
@@ -508,9 +853,49 @@ public abstract class AbstractContext<A, I, O extends FCAObject<A, I>>
 	 *            implication
 	 * @return <code>true</code> if <code>implication</code> already follows
 	 *         from background knowledge, <code>false</code> otherwise
+	 * @see #setBackgroundKnowledge(ClosureOperator)
 	 */
-	protected abstract boolean followsFromBackgroundKnowledge(
-			FCAImplication<A> implication);
+	protected boolean followsFromBackgroundKnowledge(
+			FCAImplication<A> implication) {
+		if (this.backgroundKnowledge == null) {
+			return false;
+		}
+		Set<A> premise = implication.getPremise();
+		if (!premise.equals(this.backgroundPremise)) {
+			// the same premise is checked again after each counterexample
+			this.backgroundClosure = this.backgroundKnowledge.closure(premise);
+			this.backgroundPremise = new HashSet<>(premise);
+		}
+		return this.backgroundClosure.containsAll(implication.getConclusion());
+	}
+
+	/**
+	 * Returns the background knowledge of this context.
+	 * 
+	 * @return the background knowledge, <code>null</code> if there is none
+	 */
+	public ClosureOperator<A> getBackgroundKnowledge() {
+		return this.backgroundKnowledge;
+	}
+
+	/**
+	 * Sets the background knowledge of this context. During exploration, an
+	 * implication whose conclusion is contained in the closure of its premise
+	 * under the background knowledge is accepted without asking the expert,
+	 * and the expert is only notified. The background knowledge can be, for
+	 * instance, an {@link ImplicationSet} with the implications of a domain
+	 * theory. The closure of the last premise is cached, so this method has
+	 * to be called again if the background knowledge is changed during
+	 * exploration.
+	 * 
+	 * @param closure
+	 *            the background knowledge, <code>null</code> for none
+	 */
+	public void setBackgroundKnowledge(ClosureOperator<A> closure) {
+		this.backgroundKnowledge = closure;
+		this.backgroundPremise = null;
+		this.backgroundClosure = null;
+	}
 
 	// /**
 	// * Starts attribute exploration with empty premise.
@@ -562,26 +947,126 @@ public abstract class AbstractContext<A, I, O extends FCAObject<A, I>>
 	// }
 
 	/**
-	 * The main method that keeps the exploration going. Given a set of
-	 * attributes, it computes a new left handside using the current
-	 * implications of this context, computes a right handside by using the
-	 * current objects of this context, first checks if the new implication
-	 * already follows from some background knowledge. If yes, the implication
-	 * is added to the current set of implications and the method calls itself
-	 * with the next premise computed by using the new set of implications. If
-	 * not, the expert is requested to answer the implication question.
-	 * Extensions of this class should implement the abstract method
-	 * {@link #followsFromBackgroundKnowledge(FCAImplication)} for their
-	 * specific purposes.
+	 * The main method that keeps the exploration going. Schedules the given
+	 * premise as the next step of the exploration and, unless automatic
+	 * advancing is turned off or the exploration is already being driven by
+	 * {@link #advance(int)}, runs the exploration until the expert has to
+	 * answer a question that is not answered synchronously, or the
+	 * exploration is finished.
+	 * <p>
+	 * The expert actions call this method while a step is being processed.
+	 * The steps are therefore processed in a loop instead of recursively, and
+	 * the stack does not grow with the number of steps.
 	 * 
 	 * @param premise
-	 *            premise
+	 *            premise, <code>null</code> if there is no further premise
+	 * @see #step(Set)
 	 */
 	public void continueExploration(Set<A> premise) {
+		schedulePremise(premise);
+		if (this.autoAdvance) {
+			advance(Integer.MAX_VALUE);
+		}
+	}
+
+	/**
+	 * Schedules a given premise as the next step of the exploration without
+	 * processing it.
+	 * 
+	 * @param premise
+	 *            premise, <code>null</code> if there is no further premise
+	 */
+	public void schedulePremise(Set<A> premise) {
+		this.pendingPremise = premise;
+		this.pending = true;
+	}
+
+	/**
+	 * Checks whether a step of the exploration has been scheduled and not yet
+	 * processed.
+	 * 
+	 * @return <code>true</code> if there is a pending step
+	 */
+	public boolean hasPendingStep() {
+		return this.pending;
+	}
+
+	/**
+	 * Processes at most a given number of pending steps of the exploration.
+	 * Each step handles one premise: it either adds a trivial or known
+	 * implication and schedules the next premise, or asks the expert a
+	 * question, or finishes the exploration. If the expert answers the
+	 * question during the step, the next step is scheduled by the answer. A
+	 * call made while the exploration is already being advanced returns
+	 * immediately.
+	 * 
+	 * @param maxSteps
+	 *            maximum number of steps to be processed
+	 * @return <code>true</code> if there is still a pending step
+	 */
+	public boolean advance(int maxSteps) {
+		if (this.advancing) {
+			return this.pending;
+		}
+		this.advancing = true;
+		try {
+			for (int steps = 0; (steps < maxSteps) && this.pending; ++steps) {
+				Set<A> premise = this.pendingPremise;
+				this.pendingPremise = null;
+				this.pending = false;
+				step(premise);
+			}
+		} finally {
+			this.advancing = false;
+		}
+		return this.pending;
+	}
+
+	/**
+	 * Checks whether {@link #continueExploration(Set)} advances the
+	 * exploration automatically.
+	 * 
+	 * @return <code>true</code> if the exploration is advanced automatically
+	 */
+	public boolean isAutoAdvance() {
+		return this.autoAdvance;
+	}
+
+	/**
+	 * Sets whether {@link #continueExploration(Set)} advances the exploration
+	 * automatically. If not, the steps scheduled by the expert actions are
+	 * only processed by calls to {@link #advance(int)}, which allows the
+	 * exploration to be interleaved with other work.
+	 * 
+	 * @param on
+	 *            <code>true</code> to advance automatically, which is the
+	 *            default
+	 */
+	public void setAutoAdvance(boolean on) {
+		this.autoAdvance = on;
+	}
+
+	/**
+	 * Processes one step of the exploration. Given a set of attributes, it
+	 * computes a right handside by using the current objects of this context,
+	 * first checks if the new implication already follows from some background
+	 * knowledge. If yes, the implication is added to the current set of
+	 * implications and the next premise computed by using the new set of
+	 * implications is scheduled. If not, the expert is requested to answer the
+	 * implication question. The background knowledge is given with
+	 * {@link #setBackgroundKnowledge(ClosureOperator)}, and extensions of this
+	 * class can override {@link #followsFromBackgroundKnowledge(FCAImplication)}
+	 * for their specific purposes.
+	 * 
+	 * @param premise
+	 *            premise
+	 */
+	protected void step(Set<A> premise) {
 		Set<A> conclusion = null;
 		Implication<A> implication = null;
 
 		logger.fine("premise: " + premise);
+		this.stepPremise = premise;
 		if (premise != null) {
 			conclusion = doublePrime(premise);
 			logger.fine("conclusion: " + conclusion);
@@ -593,8 +1078,9 @@ public abstract class AbstractContext<A, I, O extends FCAObject<A, I>>
 					logger.fine("Follows from background knowledge: "
 							+ implication);
 					this.implications.add(implication);
-					premise = this.implications.nextClosure(premise);
-					continueExploration(premise);
+					getExpert().implicationFollowsFromBackgroundKnowledge(
+							implication);
+					schedulePremise(this.implications.nextClosure(premise));
 				} else {
 					// if the implication does not follow from the background
 					// knowledge
@@ -604,9 +1090,8 @@ public abstract class AbstractContext<A, I, O extends FCAObject<A, I>>
 			} else {
 				// if the premise is equal to the conclusion
 				// trivial implication, compute the next premise
-				premise = this.implications.nextClosure(premise);
 				// and continue with the next question
-				continueExploration(premise);
+				schedulePremise(this.implications.nextClosure(premise));
 			}
 		} else {
 			// if the premise is null
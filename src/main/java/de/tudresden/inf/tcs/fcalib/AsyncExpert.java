@@ -0,0 +1,99 @@
+package de.tudresden.inf.tcs.fcalib;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import de.tudresden.inf.tcs.fcaapi.FCAImplication;
+import de.tudresden.inf.tcs.fcaapi.FCAObject;
+
+/*
+ * FCAlib: An open-source extensible library for Formal Concept Analysis
+ *         tool developers
+ * Copyright (C) 2009  Baris Sertkaya
+ *
+ * This file is part of FCAlib.
+ * FCAlib is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FCAlib is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with FCAlib.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/**
+ * An expert whose answers are delivered asynchronously. Unlike
+ * {@link de.tudresden.inf.tcs.fcaapi.Expert}, which answers by firing expert
+ * actions on the thread that asked, the methods of this interface return
+ * immediately with a future of the answer. An {@link AsyncExploration} does not
+ * block a thread while a question is open.
+ *
+ * @param <A>
+ *            type of the attributes
+ * @param <I>
+ *            type of the object identifiers
+ * @param <O>
+ *            type of the objects
+ */
+
+public interface AsyncExpert<A, I, O extends FCAObject<A, I>> {
+
+	/**
+	 * Asks whether a given implication holds.
+	 *
+	 * @param question
+	 *            the implication question
+	 * @return the future answer of the expert
+	 */
+	CompletableFuture<ExpertAnswer<O>> askQuestion(FCAImplication<A> question);
+
+	/**
+	 * Requests a counterexample to a given implication, after the expert
+	 * rejected it without one or gave an invalid one.
+	 *
+	 * @param question
+	 *            the implication question
+	 * @return the future counterexample
+	 */
+	CompletableFuture<O> requestCounterExample(FCAImplication<A> question);
+
+	/**
+	 * Requests counterexamples to a given implication, after the expert
+	 * rejected it without one or gave only invalid ones. The valid
+	 * counterexamples are all added to the context before the exploration
+	 * continues. By default, this requests a single counterexample with
+	 * {@link #requestCounterExample(FCAImplication)}.
+	 *
+	 * @param question
+	 *            the implication question
+	 * @return the future counterexamples, at least one
+	 */
+	default CompletableFuture<List<O>> requestCounterExamples(FCAImplication<A> question) {
+		return requestCounterExample(question).thenApply(Collections::singletonList);
+	}
+
+	/**
+	 * Called to notify the expert that the specified counterexample is invalid
+	 * due to the given reason, which is one of
+	 * {@link de.tudresden.inf.tcs.fcaapi.Expert#COUNTEREXAMPLE_EXISTS} or
+	 * {@link de.tudresden.inf.tcs.fcaapi.Expert#COUNTEREXAMPLE_INVALID}.
+	 *
+	 * @param counterExample
+	 *            the counterexample given by the expert
+	 * @param reasonCode
+	 *            the reason why the counterexample is not valid
+	 */
+	void counterExampleInvalid(O counterExample, int reasonCode);
+
+	/**
+	 * Called to notify the expert that the exploration finished.
+	 */
+	void explorationFinished();
+
+}
@@ -0,0 +1,173 @@
+package de.tudresden.inf.tcs.fcalib;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import de.tudresden.inf.tcs.fcaapi.FCAImplication;
+import de.tudresden.inf.tcs.fcaapi.FCAObject;
+import de.tudresden.inf.tcs.fcaapi.action.ExpertAction;
+import de.tudresden.inf.tcs.fcaapi.action.ExpertActionListener;
+import de.tudresden.inf.tcs.fcalib.action.CounterExampleProvidedAction;
+import de.tudresden.inf.tcs.fcalib.action.CounterExamplesProvidedAction;
+import de.tudresden.inf.tcs.fcalib.action.QuestionConfirmedAction;
+import de.tudresden.inf.tcs.fcalib.action.QuestionRejectedAction;
+
+/*
+ * FCAlib: An open-source extensible library for Formal Concept Analysis
+ *         tool developers
+ * Copyright (C) 2009  Baris Sertkaya
+ *
+ * This file is part of FCAlib.
+ * FCAlib is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FCAlib is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with FCAlib.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/**
+ * Makes an {@link AbstractExpert} usable as an {@link AsyncExpert}. The
+ * adapter registers itself as a listener of the expert and turns the expert
+ * actions fired in response to a question into the completion of the
+ * corresponding future. The actions are not performed, so the context must not
+ * be registered as a listener of the same expert.
+ *
+ * @param <A>
+ *            type of the attributes
+ * @param <I>
+ *            type of the object identifiers
+ * @param <O>
+ *            type of the objects
+ */
+
+public class AsyncExpertAdapter<A, I, O extends FCAObject<A, I>>
+		implements AsyncExpert<A, I, O>, ExpertActionListener<A, I> {
+
+	/**
+	 * The adapted expert.
+	 */
+	private final AbstractExpert<A, I, O> expert;
+
+	/**
+	 * The answer to the open question, <code>null</code> if there is none.
+	 */
+	private volatile CompletableFuture<ExpertAnswer<O>> pendingAnswer = null;
+
+	/**
+	 * The requested counterexamples, <code>null</code> if there are none.
+	 */
+	private volatile CompletableFuture<List<O>> pendingCounterExamples = null;
+
+	/**
+	 * Creates an adapter for a given expert and registers it as a listener of
+	 * the expert.
+	 *
+	 * @param expert
+	 *            the expert to be adapted
+	 */
+	public AsyncExpertAdapter(AbstractExpert<A, I, O> expert) {
+		this.expert = expert;
+		expert.addExpertActionListener(this);
+	}
+
+	/**
+	 * Returns the adapted expert.
+	 *
+	 * @return the adapted expert
+	 */
+	public AbstractExpert<A, I, O> getExpert() {
+		return this.expert;
+	}
+
+	@Override
+	public CompletableFuture<ExpertAnswer<O>> askQuestion(FCAImplication<A> question) {
+		CompletableFuture<ExpertAnswer<O>> answer = new CompletableFuture<>();
+		this.pendingAnswer = answer;
+		this.expert.askQuestion(question);
+		return answer;
+	}
+
+	/**
+	 * Requests a counterexample from the adapted expert. If the expert
+	 * provides a batch of counterexamples, only the first one is returned.
+	 */
+	@Override
+	public CompletableFuture<O> requestCounterExample(FCAImplication<A> question) {
+		return requestCounterExamples(question).thenApply(counterExamples -> counterExamples.get(0));
+	}
+
+	@Override
+	public CompletableFuture<List<O>> requestCounterExamples(FCAImplication<A> question) {
+		CompletableFuture<List<O>> counterExamples = new CompletableFuture<>();
+		this.pendingCounterExamples = counterExamples;
+		this.expert.requestCounterExample(question);
+		return counterExamples;
+	}
+
+	@Override
+	public void counterExampleInvalid(O counterExample, int reasonCode) {
+		this.expert.counterExampleInvalid(counterExample, reasonCode);
+	}
+
+	@Override
+	public void explorationFinished() {
+		this.expert.explorationFinished();
+	}
+
+	/**
+	 * Completes the pending future that corresponds to a given expert action.
+	 * Other actions are ignored.
+	 *
+	 * @param action
+	 *            the action fired by the expert
+	 */
+	@Override
+	@SuppressWarnings("unchecked")
+	public void expertPerformedAction(ExpertAction action) {
+		if (action instanceof QuestionConfirmedAction) {
+			completeAnswer(ExpertAnswer.<O> confirm());
+		} else if (action instanceof QuestionRejectedAction) {
+			completeAnswer(ExpertAnswer.<O> reject());
+		} else if (action instanceof CounterExampleProvidedAction) {
+			O counterExample = ((CounterExampleProvidedAction<A, I, O>) action).getCounterExample();
+			if (!completeCounterExamples(Collections.singletonList(counterExample))) {
+				completeAnswer(ExpertAnswer.counterExample(counterExample));
+			}
+		} else if (action instanceof CounterExamplesProvidedAction) {
+			List<O> counterExamples = ((CounterExamplesProvidedAction<A, I, O>) action).getCounterExamples();
+			if (!completeCounterExamples(counterExamples)) {
+				completeAnswer(ExpertAnswer.counterExamples(counterExamples));
+			}
+		}
+	}
+
+	/**
+	 * Completes the requested counterexamples, if any were requested.
+	 */
+	private boolean completeCounterExamples(List<O> counterExamples) {
+		CompletableFuture<List<O>> pending = this.pendingCounterExamples;
+		if (pending == null) {
+			return false;
+		}
+		this.pendingCounterExamples = null;
+		pending.complete(counterExamples);
+		return true;
+	}
+
+	private void completeAnswer(ExpertAnswer<O> answer) {
+		CompletableFuture<ExpertAnswer<O>> pending = this.pendingAnswer;
+		if (pending != null) {
+			this.pendingAnswer = null;
+			pending.complete(answer);
+		}
+	}
+
+}
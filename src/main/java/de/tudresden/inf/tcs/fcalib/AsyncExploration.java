@@ -0,0 +1,401 @@
+package de.tudresden.inf.tcs.fcalib;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Supplier;
+import java.util.logging.Logger;
+
+import de.tudresden.inf.tcs.fcaapi.Expert;
+import de.tudresden.inf.tcs.fcaapi.FCAImplication;
+import de.tudresden.inf.tcs.fcaapi.FCAObject;
+import de.tudresden.inf.tcs.fcaapi.exception.IllegalObjectException;
+
+/*
+ * FCAlib: An open-source extensible library for Formal Concept Analysis
+ *         tool developers
+ * Copyright (C) 2009  Baris Sertkaya
+ *
+ * This file is part of FCAlib.
+ * FCAlib is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FCAlib is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with FCAlib.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/**
+ * Attribute exploration of a context with an {@link AsyncExpert}. The
+ * exploration runs until a question has to be asked, and continues on a thread
+ * of the given executor when the answer arrives, so no thread is blocked while
+ * the expert thinks. Answers that are already available when a question is
+ * asked are processed in a loop on the current thread.
+ * <p>
+ * While a question is open, the exploration speculates that it will be
+ * confirmed: it adds the question to the implications of the context and
+ * computes the next premise and its closure. If the question is confirmed,
+ * the exploration continues from there. Otherwise the question is removed from
+ * the implications again, which only takes it out of their closure engine, and
+ * the speculative work is discarded. The expert
+ * must therefore not modify the context while a question is open.
+ *
+ * @param <A>
+ *            type of the attributes
+ * @param <I>
+ *            type of the object identifiers
+ * @param <O>
+ *            type of the objects
+ */
+
+public class AsyncExploration<A, I, O extends FCAObject<A, I>> {
+
+	/**
+	 * The logger.
+	 */
+	private static final Logger logger = Logger.getLogger(AsyncExploration.class.getName());
+
+	/**
+	 * The context being explored.
+	 */
+	private final AbstractContext<A, I, O> context;
+
+	/**
+	 * The expert answering the questions.
+	 */
+	private final AsyncExpert<A, I, O> expert;
+
+	/**
+	 * The executor running the exploration after an answer arrives.
+	 */
+	private final Executor executor;
+
+	/**
+	 * Completed with the implications when the exploration finishes.
+	 */
+	private final CompletableFuture<Set<FCAImplication<A>>> result = new CompletableFuture<>();
+
+	/**
+	 * Whether the next premise is computed while a question is open.
+	 */
+	private boolean speculative = true;
+
+	/**
+	 * Number of questions whose speculative work was used.
+	 */
+	private volatile int speculationHits = 0;
+
+	/**
+	 * Number of questions whose speculative work was discarded.
+	 */
+	private volatile int speculationMisses = 0;
+
+	/**
+	 * Creates an exploration that continues on the common fork-join pool.
+	 *
+	 * @param context
+	 *            the context to be explored
+	 * @param expert
+	 *            the expert
+	 */
+	public AsyncExploration(AbstractContext<A, I, O> context, AsyncExpert<A, I, O> expert) {
+		this(context, expert, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Creates an exploration.
+	 *
+	 * @param context
+	 *            the context to be explored
+	 * @param expert
+	 *            the expert
+	 * @param executor
+	 *            the executor running the exploration after an answer arrives
+	 *            and the speculative work
+	 */
+	public AsyncExploration(AbstractContext<A, I, O> context, AsyncExpert<A, I, O> expert, Executor executor) {
+		this.context = context;
+		this.expert = expert;
+		this.executor = executor;
+	}
+
+	/**
+	 * Checks whether the next premise is computed while a question is open.
+	 *
+	 * @return <code>true</code> if the exploration speculates
+	 */
+	public boolean isSpeculative() {
+		return this.speculative;
+	}
+
+	/**
+	 * Sets whether the next premise is computed while a question is open.
+	 *
+	 * @param on
+	 *            <code>true</code> to speculate, which is the default
+	 */
+	public void setSpeculative(boolean on) {
+		this.speculative = on;
+	}
+
+	/**
+	 * Returns the number of confirmed questions whose speculative work was
+	 * used.
+	 *
+	 * @return the number of speculation hits
+	 */
+	public int getSpeculationHits() {
+		return this.speculationHits;
+	}
+
+	/**
+	 * Returns the number of rejected questions whose speculative work was
+	 * discarded.
+	 *
+	 * @return the number of speculation misses
+	 */
+	public int getSpeculationMisses() {
+		return this.speculationMisses;
+	}
+
+	/**
+	 * Starts the exploration. It runs on the current thread until the first
+	 * question that is not answered immediately.
+	 *
+	 * @return the future implications of the context, completed when the
+	 *         exploration finishes
+	 */
+	public CompletableFuture<Set<FCAImplication<A>>> start() {
+		logger.info("== Exploration starting ===");
+		this.context.initializeExploration();
+		run(new Step(Collections.<A> emptySet(), null));
+		return this.result;
+	}
+
+	/**
+	 * Returns the future implications of the context.
+	 *
+	 * @return the future implications, completed when the exploration
+	 *         finishes
+	 */
+	public CompletableFuture<Set<FCAImplication<A>>> getResult() {
+		return this.result;
+	}
+
+	/**
+	 * Runs the exploration from a given step until a question is open or the
+	 * exploration is finished.
+	 */
+	private void run(Step step) {
+		try {
+			while (step != null) {
+				step = process(step);
+			}
+		} catch (RuntimeException e) {
+			this.result.completeExceptionally(e);
+		}
+	}
+
+	/**
+	 * Processes one step.
+	 *
+	 * @return the next step, <code>null</code> if a question is open or the
+	 *         exploration is finished
+	 */
+	private Step process(Step step) {
+		Set<A> premise = step.premise;
+		if (premise == null) {
+			this.expert.explorationFinished();
+			logger.info("=== Exploration finished ===");
+			this.result.complete(this.context.getImplications());
+			return null;
+		}
+		Set<A> closure = (step.closure == null) ? this.context.doublePrime(premise) : step.closure;
+		if (premise.equals(closure)) {
+			return new Step(this.context.getNextPremise(premise), null);
+		}
+		Set<A> conclusion = new HashSet<>(closure);
+		conclusion.removeAll(premise);
+		final Implication<A> question = new Implication<A>(premise, conclusion);
+		this.context.setCurrentQuestion(question);
+		if (this.context.followsFromBackgroundKnowledge(question)) {
+			this.context.getImplications().add(question);
+			return new Step(this.context.getNextPremise(premise), null);
+		}
+		final CompletableFuture<ExpertAnswer<O>> answer = this.expert.askQuestion(question);
+		if (answer.isDone()) {
+			return answered(question, answer.join(), null);
+		}
+		if (!this.speculative) {
+			resumeAfter(answer, () -> answered(question, answer.join(), null));
+			return null;
+		}
+		final CompletableFuture<Step> speculation = CompletableFuture.supplyAsync(() -> speculate(question),
+				this.executor);
+		resumeAfter(answer.thenCombine(speculation, (a, s) -> a),
+				() -> answered(question, answer.join(), speculation.join()));
+		return null;
+	}
+
+	/**
+	 * Continues the exploration on the executor when a given future is
+	 * completed, with the step computed by a given supplier.
+	 */
+	private void resumeAfter(CompletableFuture<?> future, Supplier<Step> next) {
+		future.whenCompleteAsync((value, error) -> {
+			if (error != null) {
+				this.result.completeExceptionally(error);
+				return;
+			}
+			Step step;
+			try {
+				step = next.get();
+			} catch (RuntimeException e) {
+				this.result.completeExceptionally(e);
+				return;
+			}
+			run(step);
+		}, this.executor);
+	}
+
+	/**
+	 * Assumes that a question is confirmed and computes the next premise and
+	 * its closure.
+	 */
+	private Step speculate(FCAImplication<A> question) {
+		ImplicationSet<A> implications = (ImplicationSet<A>) this.context.getImplications();
+		// the objects are only updated once the question is confirmed
+		implications.setPropagating(false);
+		try {
+			implications.add(question);
+		} finally {
+			implications.setPropagating(true);
+		}
+		Set<A> next = this.context.getNextPremise(question.getPremise());
+		return new Step(next, (next == null) ? null : this.context.doublePrime(next));
+	}
+
+	/**
+	 * Handles the answer to a question.
+	 *
+	 * @param speculation
+	 *            the speculative next step, <code>null</code> if there is none
+	 * @return the next step, <code>null</code> if the exploration waits for a
+	 *         counterexample
+	 */
+	private Step answered(FCAImplication<A> question, ExpertAnswer<O> answer, Step speculation) {
+		if (answer.isConfirmed()) {
+			logger.info("Expert confirmed implication: " + question);
+			if (speculation != null) {
+				++this.speculationHits;
+				if (this.context.implicationAdded(question)) {
+					// the objects have changed, so the speculative closure is
+					// out of date
+					return new Step(speculation.premise, null);
+				}
+				return speculation;
+			}
+			this.context.getImplications().add(question);
+			return new Step(this.context.getNextPremise(question.getPremise()), null);
+		}
+		logger.info("Expert rejected implication: " + question);
+		if (speculation != null) {
+			++this.speculationMisses;
+			this.context.getImplications().remove(question);
+		}
+		if (!answer.getCounterExamples().isEmpty()) {
+			Step next = counterExamplesProvided(question, answer.getCounterExamples());
+			if (next != null) {
+				return next;
+			}
+		}
+		return requestCounterExamples(question);
+	}
+
+	/**
+	 * Requests counterexamples until a valid one is provided or they are not
+	 * available immediately.
+	 *
+	 * @return the next step, <code>null</code> if the exploration waits for
+	 *         counterexamples
+	 */
+	private Step requestCounterExamples(final FCAImplication<A> question) {
+		while (true) {
+			final CompletableFuture<List<O>> counterExamples = this.expert.requestCounterExamples(question);
+			if (!counterExamples.isDone()) {
+				resumeAfter(counterExamples, () -> {
+					Step next = counterExamplesProvided(question, counterExamples.join());
+					return (next == null) ? requestCounterExamples(question) : next;
+				});
+				return null;
+			}
+			Step next = counterExamplesProvided(question, counterExamples.join());
+			if (next != null) {
+				return next;
+			}
+		}
+	}
+
+	/**
+	 * Adds the valid ones of a batch of counterexamples to the context. The
+	 * expert is notified of each counterexample that is not valid or whose
+	 * identifier already exists. The premise is closed again once for the
+	 * whole batch.
+	 *
+	 * @return the next step, <code>null</code> if no counterexample was added
+	 */
+	private Step counterExamplesProvided(FCAImplication<A> question, List<O> counterExamples) {
+		logger.info("Expert provided counterexamples: " + counterExamples);
+		List<O> valid = new ArrayList<O>(counterExamples.size());
+		for (O counterExample : counterExamples) {
+			if (this.context.isCounterExampleValid(counterExample, question)) {
+				valid.add(counterExample);
+			} else {
+				this.expert.counterExampleInvalid(counterExample, Expert.COUNTEREXAMPLE_INVALID);
+			}
+		}
+		boolean added = false;
+		for (O counterExample : valid) {
+			boolean addedOne;
+			try {
+				addedOne = this.context.addObject(counterExample);
+			} catch (IllegalObjectException e) {
+				addedOne = false;
+			}
+			if (addedOne) {
+				added = true;
+			} else {
+				this.expert.counterExampleInvalid(counterExample, Expert.COUNTEREXAMPLE_EXISTS);
+			}
+		}
+		return added ? new Step(question.getPremise(), null) : null;
+	}
+
+	/**
+	 * A premise to be processed, together with its closure if it is already
+	 * known.
+	 */
+	private final class Step {
+
+		final Set<A> premise;
+
+		final Set<A> closure;
+
+		Step(Set<A> premise, Set<A> closure) {
+			this.premise = premise;
+			this.closure = closure;
+		}
+	}
+
+}
@@ -0,0 +1,48 @@
+package de.tudresden.inf.tcs.fcalib;
+
+/*
+ * FCAlib: An open-source extensible library for Formal Concept Analysis
+ *         tool developers
+ * Copyright (C) 2009  Baris Sertkaya
+ *
+ * This file is part of FCAlib.
+ * FCAlib is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FCAlib is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with FCAlib.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/**
+ * A closure operator on attribute sets represented as bit words over the
+ * attribute indices. Implementations are not required to be thread-safe.
+ */
+
+public interface BitClosureOperator {
+
+	/**
+	 * Returns the number of attributes.
+	 *
+	 * @return the number of attributes
+	 */
+	int getAttributeCount();
+
+	/**
+	 * Computes the closure of a given attribute set.
+	 *
+	 * @param x
+	 *            the attribute set
+	 * @param result
+	 *            the array where the closure is stored, it may be the same as
+	 *            <code>x</code>
+	 */
+	void closure(long[] x, long[] result);
+
+}
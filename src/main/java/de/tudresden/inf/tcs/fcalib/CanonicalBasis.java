@@ -0,0 +1,117 @@
+package de.tudresden.inf.tcs.fcalib;
+
+import java.util.Arrays;
+
+import de.tudresden.inf.tcs.fcalib.utils.BitWords;
+
+/*
+ * FCAlib: An open-source extensible library for Formal Concept Analysis
+ *         tool developers
+ * Copyright (C) 2009  Baris Sertkaya
+ *
+ * This file is part of FCAlib.
+ * FCAlib is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FCAlib is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with FCAlib.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/**
+ * Computes the Duquenne-Guigues base (stem base) of a closure operator without
+ * an expert. The pseudo-closed sets are enumerated in lectic order with Ganter's
+ * NextClosure algorithm, where the closures with respect to the implications
+ * found so far are computed by {@link LinClosure}. Following Bazhanov and
+ * Obiedkov, after an implication <code>A -&gt; B</code> is found, the candidates
+ * that are known to contain a new attribute below the one added are skipped:
+ * if the smallest attribute of <code>B \ A</code> is greater than every
+ * attribute of <code>A</code>, the search continues directly at that attribute.
+ * The closure of each candidate stops as soon as it adds an attribute that
+ * makes the candidate fail the canonicity test.
+ */
+
+public class CanonicalBasis {
+
+	/**
+	 * The closure operator whose base is computed.
+	 */
+	private final BitClosureOperator operator;
+
+	/**
+	 * Creates a base computation for a given closure operator.
+	 *
+	 * @param operator
+	 *            the closure operator
+	 */
+	public CanonicalBasis(BitClosureOperator operator) {
+		this.operator = operator;
+	}
+
+	/**
+	 * Computes the base and reports each implication to the given sink, in the
+	 * lectic order of the premises. The premises are the pseudo-closed sets of
+	 * the closure operator.
+	 *
+	 * @param sink
+	 *            the sink receiving the implications
+	 * @return the implications of the base as a closure engine
+	 */
+	public LinClosure compute(ImplicationSink sink) {
+		int n = this.operator.getAttributeCount();
+		int words = BitWords.wordCount(n);
+		LinClosure implications = new LinClosure(n);
+		long[] current = new long[words];
+		long[] closure = new long[words];
+		long[] conclusion = new long[words];
+		long[] candidate = new long[words];
+		implications.closure(current, current);
+		while (true) {
+			this.operator.closure(current, closure);
+			int start;
+			if (Arrays.equals(current, closure)) {
+				if (BitWords.cardinality(current) == n) {
+					break;
+				}
+				start = n - 1;
+			} else {
+				implications.addImplication(current, closure);
+				for (int w = 0; w < words; ++w) {
+					conclusion[w] = closure[w] & ~current[w];
+				}
+				sink.implication(current, conclusion);
+				// candidates above both the last attribute of the premise and the first new
+				// attribute of the conclusion contain that new attribute, so they all fail
+				int first = BitWords.nextSetBit(conclusion, 0);
+				int last = BitWords.previousSetBit(current, n - 1);
+				start = (first > last) ? first : last - 1;
+			}
+			int i = start;
+			for (; i >= 0; --i) {
+				if (BitWords.get(current, i)) {
+					continue;
+				}
+				System.arraycopy(current, 0, candidate, 0, words);
+				BitWords.clearFrom(candidate, i);
+				BitWords.set(candidate, i);
+				if (implications.closure(candidate, candidate, i)) {
+					break;
+				}
+			}
+			if (i < 0) {
+				break;
+			}
+			long[] tmp = current;
+			current = candidate;
+			candidate = tmp;
+		}
+		return implications;
+	}
+
+}
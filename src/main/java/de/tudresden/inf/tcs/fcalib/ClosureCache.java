@@ -0,0 +1,229 @@
+package de.tudresden.inf.tcs.fcalib;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import de.tudresden.inf.tcs.fcalib.utils.BitWords;
+
+/*
+ * FCAlib: An open-source extensible library for Formal Concept Analysis
+ *         tool developers
+ * Copyright (C) 2009  Baris Sertkaya
+ *
+ * This file is part of FCAlib.
+ * FCAlib is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FCAlib is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with FCAlib.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/**
+ * A bounded cache of closures of an {@link ImplicationSet}, keyed by the bit
+ * words of the sets that were closed. When the cache is full, the least
+ * recently used entry is evicted. When an implication is added, only the
+ * cached closures that it changes are removed, that is, those that contain
+ * its premise but not its conclusion. When the implication added last is
+ * removed, only the cached closures that contain its premise are removed. The
+ * cache counts hits and misses so that its capacity can be chosen.
+ *
+ * @see ImplicationSet#setClosureCache(int)
+ */
+
+public class ClosureCache {
+
+	/**
+	 * A copy of the bit words of a set, used as key.
+	 */
+	private static final class Key {
+
+		private final long[] words;
+
+		private final int hash;
+
+		Key(long[] words) {
+			this.words = words;
+			this.hash = Arrays.hashCode(words);
+		}
+
+		@Override
+		public int hashCode() {
+			return this.hash;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			return (o instanceof Key) && Arrays.equals(this.words, ((Key) o).words);
+		}
+	}
+
+	/**
+	 * Maximum number of entries.
+	 */
+	private final int capacity;
+
+	/**
+	 * The cached closures in access order.
+	 */
+	private final LinkedHashMap<Key, long[]> entries;
+
+	/**
+	 * Number of lookups that found a closure.
+	 */
+	private long hits = 0;
+
+	/**
+	 * Number of lookups that did not find a closure.
+	 */
+	private long misses = 0;
+
+	/**
+	 * Creates an empty cache.
+	 *
+	 * @param capacity
+	 *            maximum number of entries
+	 */
+	ClosureCache(final int capacity) {
+		if (capacity <= 0) {
+			throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+		}
+		this.capacity = capacity;
+		this.entries = new LinkedHashMap<Key, long[]>(16, 0.75f, true) {
+
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Key, long[]> eldest) {
+				return size() > capacity;
+			}
+		};
+	}
+
+	/**
+	 * Returns the maximum number of entries of this cache.
+	 *
+	 * @return the capacity
+	 */
+	public int getCapacity() {
+		return this.capacity;
+	}
+
+	/**
+	 * Returns the number of cached closures.
+	 *
+	 * @return the number of entries
+	 */
+	public int size() {
+		return this.entries.size();
+	}
+
+	/**
+	 * Returns the number of lookups that found a closure.
+	 *
+	 * @return the number of hits
+	 */
+	public long getHits() {
+		return this.hits;
+	}
+
+	/**
+	 * Returns the number of lookups that did not find a closure.
+	 *
+	 * @return the number of misses
+	 */
+	public long getMisses() {
+		return this.misses;
+	}
+
+	/**
+	 * Resets the hit and miss counters.
+	 */
+	public void resetStatistics() {
+		this.hits = 0;
+		this.misses = 0;
+	}
+
+	/**
+	 * Removes all entries.
+	 */
+	public void clear() {
+		this.entries.clear();
+	}
+
+	/**
+	 * Looks up the closure of a given set.
+	 *
+	 * @param x
+	 *            the set
+	 * @param result
+	 *            the array where the closure is copied if it is found
+	 * @return <code>true</code> if the closure was found
+	 */
+	boolean lookup(long[] x, long[] result) {
+		long[] closure = this.entries.get(new Key(x));
+		if (closure == null) {
+			++this.misses;
+			return false;
+		}
+		++this.hits;
+		System.arraycopy(closure, 0, result, 0, closure.length);
+		return true;
+	}
+
+	/**
+	 * Stores the closure of a given set. The array of the set is kept as key
+	 * and must not be modified afterwards, the closure is copied.
+	 *
+	 * @param x
+	 *            the set
+	 * @param closure
+	 *            its closure
+	 */
+	void store(long[] x, long[] closure) {
+		this.entries.put(new Key(x), closure.clone());
+	}
+
+	/**
+	 * Removes the closures that may have been computed with an implication
+	 * that is removed, i.e., those that contain its premise.
+	 *
+	 * @param premise
+	 *            the premise of the removed implication
+	 */
+	void implicationRemoved(long[] premise) {
+		Iterator<long[]> it = this.entries.values().iterator();
+		while (it.hasNext()) {
+			if (BitWords.isSubsetOf(premise, it.next())) {
+				it.remove();
+			}
+		}
+	}
+
+	/**
+	 * Removes the closures that are changed by a new implication.
+	 *
+	 * @param premise
+	 *            the premise of the new implication
+	 * @param conclusion
+	 *            the conclusion of the new implication
+	 */
+	void implicationAdded(long[] premise, long[] conclusion) {
+		Iterator<long[]> it = this.entries.values().iterator();
+		while (it.hasNext()) {
+			long[] closure = it.next();
+			if (BitWords.isSubsetOf(premise, closure) && !BitWords.isSubsetOf(conclusion, closure)) {
+				it.remove();
+			}
+		}
+	}
+
+}
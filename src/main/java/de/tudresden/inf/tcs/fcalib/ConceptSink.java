@@ -0,0 +1,44 @@
+package de.tudresden.inf.tcs.fcalib;
+
+/*
+ * FCAlib: An open-source extensible library for Formal Concept Analysis
+ *         tool developers
+ * Copyright (C) 2009  Baris Sertkaya
+ *
+ * This file is part of FCAlib.
+ * FCAlib is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FCAlib is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with FCAlib.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/**
+ * Receives the formal concepts computed by {@link ParallelCloseByOne}.
+ * Implementations must be thread-safe, since concepts are reported by several
+ * worker threads at the same time.
+ */
+
+public interface ConceptSink {
+
+	/**
+	 * Called once for every formal concept. The arrays are bit words over the
+	 * object and attribute indices of the cross table. They are reused by the
+	 * caller after this method returns, so they have to be copied if they are
+	 * kept.
+	 *
+	 * @param extent
+	 *            the extent of the concept
+	 * @param intent
+	 *            the intent of the concept
+	 */
+	void concept(long[] extent, long[] intent);
+
+}
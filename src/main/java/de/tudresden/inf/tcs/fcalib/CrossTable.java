@@ -0,0 +1,394 @@
+package de.tudresden.inf.tcs.fcalib;
+
+import java.util.Arrays;
+
+import de.tudresden.inf.tcs.fcalib.utils.BitWords;
+
+/*
+ * FCAlib: An open-source extensible library for Formal Concept Analysis
+ *         tool developers
+ * Copyright (C) 2009  Baris Sertkaya
+ *
+ * This file is part of FCAlib.
+ * FCAlib is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FCAlib is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with FCAlib.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/**
+ * The incidence relation of a formal context stored as bit words, both row by
+ * row (the attributes of each object) and column by column (the objects of
+ * each attribute). Objects and attributes are identified by their indices.
+ * Objects and attributes can be added after the table is created, and objects
+ * can be removed, in which case the objects with a greater index move one
+ * position down. A table can also be created without rows, to keep only the
+ * columns when the rows are stored elsewhere.
+ */
+
+public class CrossTable {
+
+	/**
+	 * Number of objects.
+	 */
+	private int objectCount;
+
+	/**
+	 * Number of attributes.
+	 */
+	private int attributeCount;
+
+	/**
+	 * The attributes of each object. Rows beyond <code>objectCount</code> are
+	 * spare capacity and empty. <code>null</code> if the table does not store
+	 * its rows.
+	 */
+	private long[][] rows;
+
+	/**
+	 * The objects of each attribute. Columns beyond
+	 * <code>attributeCount</code> are spare capacity and empty.
+	 */
+	private long[][] columns;
+
+	/**
+	 * Number of words allocated for each row.
+	 */
+	private int rowWords;
+
+	/**
+	 * Number of words allocated for each column.
+	 */
+	private int columnWords;
+
+	/**
+	 * Creates an empty cross table.
+	 *
+	 * @param objectCount
+	 *            number of objects
+	 * @param attributeCount
+	 *            number of attributes
+	 */
+	public CrossTable(int objectCount, int attributeCount) {
+		this(objectCount, attributeCount, true);
+	}
+
+	/**
+	 * Creates an empty cross table, possibly without rows. Without rows,
+	 * {@link #getRow(int)}, {@link #intent(long[], long[])},
+	 * {@link #union(long[], long[])} and the closure cannot be computed.
+	 *
+	 * @param objectCount
+	 *            number of objects
+	 * @param attributeCount
+	 *            number of attributes
+	 * @param withRows
+	 *            <code>false</code> to store only the columns
+	 */
+	public CrossTable(int objectCount, int attributeCount, boolean withRows) {
+		this.objectCount = objectCount;
+		this.attributeCount = attributeCount;
+		this.rowWords = BitWords.wordCount(attributeCount);
+		this.columnWords = BitWords.wordCount(objectCount);
+		this.rows = withRows ? new long[objectCount][this.rowWords] : null;
+		this.columns = new long[attributeCount][this.columnWords];
+	}
+
+	/**
+	 * Returns the number of objects.
+	 *
+	 * @return the number of objects
+	 */
+	public int getObjectCount() {
+		return this.objectCount;
+	}
+
+	/**
+	 * Returns the number of attributes.
+	 *
+	 * @return the number of attributes
+	 */
+	public int getAttributeCount() {
+		return this.attributeCount;
+	}
+
+	/**
+	 * Returns the number of words of a set of objects.
+	 *
+	 * @return the number of words
+	 */
+	public int getObjectWordCount() {
+		return BitWords.wordCount(this.objectCount);
+	}
+
+	/**
+	 * Returns the number of words of a set of attributes.
+	 *
+	 * @return the number of words
+	 */
+	public int getAttributeWordCount() {
+		return BitWords.wordCount(this.attributeCount);
+	}
+
+	/**
+	 * Adds an object without attributes.
+	 *
+	 * @return the index of the new object
+	 */
+	public int addObject() {
+		int g = this.objectCount;
+		if (this.rows != null) {
+			if (g == this.rows.length) {
+				this.rows = Arrays.copyOf(this.rows, Math.max(4, 2 * g));
+			}
+			if (this.rows[g] == null) {
+				this.rows[g] = new long[this.rowWords];
+			}
+		}
+		if (BitWords.wordCount(g + 1) > this.columnWords) {
+			this.columnWords = Math.max(1, 2 * this.columnWords);
+			for (int m = 0; m < this.columns.length; ++m) {
+				if (this.columns[m] != null) {
+					this.columns[m] = Arrays.copyOf(this.columns[m], this.columnWords);
+				}
+			}
+		}
+		++this.objectCount;
+		return g;
+	}
+
+	/**
+	 * Adds an attribute that no object has.
+	 *
+	 * @return the index of the new attribute
+	 */
+	public int addAttribute() {
+		int m = this.attributeCount;
+		if (m == this.columns.length) {
+			this.columns = Arrays.copyOf(this.columns, Math.max(4, 2 * m));
+		}
+		if (this.columns[m] == null) {
+			this.columns[m] = new long[this.columnWords];
+		}
+		if (BitWords.wordCount(m + 1) > this.rowWords) {
+			this.rowWords = Math.max(1, 2 * this.rowWords);
+			for (int g = 0; this.rows != null && g < this.rows.length; ++g) {
+				if (this.rows[g] != null) {
+					this.rows[g] = Arrays.copyOf(this.rows[g], this.rowWords);
+				}
+			}
+		}
+		++this.attributeCount;
+		return m;
+	}
+
+	/**
+	 * Removes an object. The objects with a greater index move one position
+	 * down.
+	 *
+	 * @param object
+	 *            index of the object
+	 */
+	public void removeObject(int object) {
+		if (this.rows != null) {
+			long[] removed = this.rows[object];
+			System.arraycopy(this.rows, object + 1, this.rows, object, this.objectCount - object - 1);
+			Arrays.fill(removed, 0L);
+			this.rows[this.objectCount - 1] = removed;
+		}
+		--this.objectCount;
+		for (int m = 0; m < this.attributeCount; ++m) {
+			BitWords.removeBit(this.columns[m], object);
+		}
+	}
+
+	/**
+	 * Removes all objects.
+	 */
+	public void clearObjects() {
+		for (int g = 0; this.rows != null && g < this.objectCount; ++g) {
+			Arrays.fill(this.rows[g], 0L);
+		}
+		for (int m = 0; m < this.attributeCount; ++m) {
+			Arrays.fill(this.columns[m], 0L);
+		}
+		this.objectCount = 0;
+	}
+
+	/**
+	 * Records that an object has an attribute.
+	 *
+	 * @param object
+	 *            index of the object
+	 * @param attribute
+	 *            index of the attribute
+	 */
+	public void set(int object, int attribute) {
+		if (this.rows != null) {
+			BitWords.set(this.rows[object], attribute);
+		}
+		BitWords.set(this.columns[attribute], object);
+	}
+
+	/**
+	 * Records that an object does not have an attribute.
+	 *
+	 * @param object
+	 *            index of the object
+	 * @param attribute
+	 *            index of the attribute
+	 */
+	public void clear(int object, int attribute) {
+		if (this.rows != null) {
+			BitWords.clear(this.rows[object], attribute);
+		}
+		BitWords.clear(this.columns[attribute], object);
+	}
+
+	/**
+	 * Checks whether an object has an attribute.
+	 *
+	 * @param object
+	 *            index of the object
+	 * @param attribute
+	 *            index of the attribute
+	 * @return <code>true</code> if the object has the attribute
+	 */
+	public boolean get(int object, int attribute) {
+		return BitWords.get(this.columns[attribute], object);
+	}
+
+	/**
+	 * Returns the attributes of an object. The array is owned by this table
+	 * and must not be modified. It has at least
+	 * {@link #getAttributeWordCount()} words.
+	 *
+	 * @param object
+	 *            index of the object
+	 * @return the attributes of the object
+	 */
+	public long[] getRow(int object) {
+		return this.rows[object];
+	}
+
+	/**
+	 * Returns the objects of an attribute. The array is owned by this table
+	 * and must not be modified. It has at least {@link #getObjectWordCount()}
+	 * words.
+	 *
+	 * @param attribute
+	 *            index of the attribute
+	 * @return the objects having the attribute
+	 */
+	public long[] getColumn(int attribute) {
+		return this.columns[attribute];
+	}
+
+	/**
+	 * Computes the objects that have all attributes of a given set.
+	 *
+	 * @param attributes
+	 *            the set of attributes
+	 * @param extent
+	 *            the array where the objects are stored
+	 */
+	public void extent(long[] attributes, long[] extent) {
+		BitWords.fill(extent, this.objectCount);
+		for (int m = BitWords.nextSetBit(attributes, 0); m >= 0; m = BitWords
+				.nextSetBit(attributes, m + 1)) {
+			long[] column = this.columns[m];
+			for (int w = 0; w < extent.length; ++w) {
+				extent[w] &= column[w];
+			}
+		}
+	}
+
+	/**
+	 * Computes the attributes that all objects of a given set have.
+	 *
+	 * @param objects
+	 *            the set of objects
+	 * @param intent
+	 *            the array where the attributes are stored
+	 */
+	public void intent(long[] objects, long[] intent) {
+		BitWords.fill(intent, this.attributeCount);
+		for (int g = BitWords.nextSetBit(objects, 0); g >= 0; g = BitWords
+				.nextSetBit(objects, g + 1)) {
+			long[] row = this.rows[g];
+			for (int w = 0; w < intent.length; ++w) {
+				intent[w] &= row[w];
+			}
+		}
+	}
+
+	/**
+	 * Computes the attributes that at least one object of a given set has.
+	 *
+	 * @param objects
+	 *            the set of objects
+	 * @param attributes
+	 *            the array where the attributes are stored
+	 */
+	public void union(long[] objects, long[] attributes) {
+		Arrays.fill(attributes, 0L);
+		for (int g = BitWords.nextSetBit(objects, 0); g >= 0; g = BitWords
+				.nextSetBit(objects, g + 1)) {
+			long[] row = this.rows[g];
+			for (int w = 0; w < attributes.length; ++w) {
+				attributes[w] |= row[w];
+			}
+		}
+	}
+
+	/**
+	 * Computes the second derivative of a given set of attributes.
+	 *
+	 * @param attributes
+	 *            the set of attributes
+	 * @param result
+	 *            the array where the second derivative is stored
+	 * @param extent
+	 *            scratch array of {@link #getObjectWordCount()} words
+	 */
+	public void closure(long[] attributes, long[] result, long[] extent) {
+		extent(attributes, extent);
+		intent(extent, result);
+	}
+
+	/**
+	 * Returns the closure operator of this cross table, i.e., the second
+	 * derivative on sets of attributes. The returned operator has its own
+	 * scratch space and must not be used by several threads at the same time.
+	 *
+	 * @return the closure operator of this cross table
+	 */
+	public BitClosureOperator closureOperator() {
+		return new BitClosureOperator() {
+
+			private long[] extent = new long[0];
+
+			@Override
+			public int getAttributeCount() {
+				return CrossTable.this.attributeCount;
+			}
+
+			@Override
+			public void closure(long[] x, long[] result) {
+				if (this.extent.length != getObjectWordCount()) {
+					this.extent = new long[getObjectWordCount()];
+				}
+				CrossTable.this.closure(x, result, this.extent);
+			}
+		};
+	}
+
+}
@@ -0,0 +1,208 @@
+package de.tudresden.inf.tcs.fcalib;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/*
+ * FCAlib: An open-source extensible library for Formal Concept Analysis
+ *         tool developers
+ * Copyright (C) 2009  Baris Sertkaya
+ *
+ * This file is part of FCAlib.
+ * FCAlib is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FCAlib is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with FCAlib.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/**
+ * A bounded cache of second derivatives of attribute sets of a context. When
+ * the cache is full, the least recently used entry is evicted. The cache
+ * belongs to a given version of the context, as counted by
+ * {@link AbstractContext#getModificationCount()}, and is emptied when it is
+ * used with another version. When an object is added, the context updates the
+ * cached derivatives instead, so that the cache stays valid.
+ *
+ * @param <A>
+ *            type of the attributes
+ * @see AbstractContext#setDerivationCache(int)
+ */
+
+public class DerivationCache<A> {
+
+	/**
+	 * Maximum number of entries.
+	 */
+	private final int capacity;
+
+	/**
+	 * The cached second derivatives in access order.
+	 */
+	private final LinkedHashMap<Set<A>, Set<A>> entries;
+
+	/**
+	 * The modification count of the context when the entries were valid.
+	 */
+	private long version = -1;
+
+	/**
+	 * The number of objects of the context when the entries were valid.
+	 */
+	private int objectCount = -1;
+
+	/**
+	 * The number of attributes of the context when the entries were valid.
+	 */
+	private int attributeCount = -1;
+
+	/**
+	 * Number of lookups that found a second derivative.
+	 */
+	private long hits = 0;
+
+	/**
+	 * Number of lookups that did not find a second derivative.
+	 */
+	private long misses = 0;
+
+	/**
+	 * Creates an empty cache.
+	 *
+	 * @param capacity
+	 *            maximum number of entries
+	 */
+	DerivationCache(final int capacity) {
+		if (capacity <= 0) {
+			throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+		}
+		this.capacity = capacity;
+		this.entries = new LinkedHashMap<Set<A>, Set<A>>(16, 0.75f, true) {
+
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Set<A>, Set<A>> eldest) {
+				return size() > capacity;
+			}
+		};
+	}
+
+	/**
+	 * Returns the maximum number of entries of this cache.
+	 *
+	 * @return the capacity
+	 */
+	public int getCapacity() {
+		return this.capacity;
+	}
+
+	/**
+	 * Returns the number of cached second derivatives.
+	 *
+	 * @return the number of entries
+	 */
+	public int size() {
+		return this.entries.size();
+	}
+
+	/**
+	 * Returns the number of lookups that found a second derivative.
+	 *
+	 * @return the number of hits
+	 */
+	public long getHits() {
+		return this.hits;
+	}
+
+	/**
+	 * Returns the number of lookups that did not find a second derivative.
+	 *
+	 * @return the number of misses
+	 */
+	public long getMisses() {
+		return this.misses;
+	}
+
+	/**
+	 * Resets the hit and miss counters.
+	 */
+	public void resetStatistics() {
+		this.hits = 0;
+		this.misses = 0;
+	}
+
+	/**
+	 * Removes all entries.
+	 */
+	public void clear() {
+		this.entries.clear();
+	}
+
+	/**
+	 * Checks whether the entries are valid for a given state of the context.
+	 */
+	boolean isValid(long version, int objects, int attributes) {
+		return (this.version == version) && (this.objectCount == objects) && (this.attributeCount == attributes);
+	}
+
+	/**
+	 * Makes the entries valid for a given state of the context, and removes
+	 * them if they were valid for another state.
+	 */
+	void validate(long version, int objects, int attributes) {
+		if (!isValid(version, objects, attributes)) {
+			this.entries.clear();
+			this.version = version;
+			this.objectCount = objects;
+			this.attributeCount = attributes;
+		}
+	}
+
+	/**
+	 * Moves the entries to a new state of the context, after they have been
+	 * updated for it.
+	 */
+	void moveTo(long version, int objects, int attributes) {
+		this.version = version;
+		this.objectCount = objects;
+		this.attributeCount = attributes;
+	}
+
+	/**
+	 * Returns the cached second derivative of a given set, which must not be
+	 * modified.
+	 */
+	Set<A> get(Set<A> x) {
+		Set<A> derivation = this.entries.get(x);
+		if (derivation == null) {
+			++this.misses;
+		} else {
+			++this.hits;
+		}
+		return derivation;
+	}
+
+	/**
+	 * Stores the second derivative of a given set. The sets are not copied.
+	 */
+	void put(Set<A> x, Set<A> derivation) {
+		this.entries.put(x, derivation);
+	}
+
+	/**
+	 * Returns the entries, whose values can be updated.
+	 */
+	Iterable<Map.Entry<Set<A>, Set<A>>> entries() {
+		return this.entries.entrySet();
+	}
+
+}
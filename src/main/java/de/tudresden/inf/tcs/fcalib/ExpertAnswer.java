@@ -0,0 +1,165 @@
+package de.tudresden.inf.tcs.fcalib;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/*
+ * FCAlib: An open-source extensible library for Formal Concept Analysis
+ *         tool developers
+ * Copyright (C) 2009  Baris Sertkaya
+ *
+ * This file is part of FCAlib.
+ * FCAlib is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FCAlib is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with FCAlib.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/**
+ * The answer of an {@link AsyncExpert} to an implication question. The
+ * question is either confirmed, rejected without a counterexample, or
+ * rejected with one or more counterexamples.
+ *
+ * @param <O>
+ *            type of the objects
+ */
+
+public final class ExpertAnswer<O> {
+
+	@SuppressWarnings("rawtypes")
+	private static final ExpertAnswer CONFIRMED = new ExpertAnswer<>(true, Collections.emptyList());
+
+	@SuppressWarnings("rawtypes")
+	private static final ExpertAnswer REJECTED = new ExpertAnswer<>(false, Collections.emptyList());
+
+	/**
+	 * Whether the question is confirmed.
+	 */
+	private final boolean confirmed;
+
+	/**
+	 * The counterexamples, empty if none is given.
+	 */
+	private final List<O> counterExamples;
+
+	private ExpertAnswer(boolean confirmed, List<O> counterExamples) {
+		this.confirmed = confirmed;
+		this.counterExamples = counterExamples;
+	}
+
+	/**
+	 * Returns the answer confirming the question.
+	 *
+	 * @param <O>
+	 *            type of the objects
+	 * @return the answer confirming the question
+	 */
+	@SuppressWarnings("unchecked")
+	public static <O> ExpertAnswer<O> confirm() {
+		return CONFIRMED;
+	}
+
+	/**
+	 * Returns the answer rejecting the question without a counterexample. The
+	 * exploration then requests a counterexample with
+	 * {@link AsyncExpert#requestCounterExample(de.tudresden.inf.tcs.fcaapi.FCAImplication)}.
+	 *
+	 * @param <O>
+	 *            type of the objects
+	 * @return the answer rejecting the question
+	 */
+	@SuppressWarnings("unchecked")
+	public static <O> ExpertAnswer<O> reject() {
+		return REJECTED;
+	}
+
+	/**
+	 * Returns the answer rejecting the question with a given counterexample.
+	 *
+	 * @param <O>
+	 *            type of the objects
+	 * @param counterExample
+	 *            the counterexample
+	 * @return the answer rejecting the question
+	 */
+	public static <O> ExpertAnswer<O> counterExample(O counterExample) {
+		if (counterExample == null) {
+			throw new NullPointerException();
+		}
+		return new ExpertAnswer<O>(false, Collections.singletonList(counterExample));
+	}
+
+	/**
+	 * Returns the answer rejecting the question with a batch of
+	 * counterexamples. The valid ones are all added to the context before the
+	 * exploration continues. The counterexamples are copied.
+	 *
+	 * @param <O>
+	 *            type of the objects
+	 * @param counterExamples
+	 *            the counterexamples, at least one
+	 * @return the answer rejecting the question
+	 */
+	public static <O> ExpertAnswer<O> counterExamples(Collection<? extends O> counterExamples) {
+		List<O> copy = new ArrayList<O>(counterExamples);
+		if (copy.isEmpty()) {
+			throw new IllegalArgumentException("No counterexample");
+		}
+		if (copy.contains(null)) {
+			throw new NullPointerException();
+		}
+		return new ExpertAnswer<O>(false, Collections.unmodifiableList(copy));
+	}
+
+	/**
+	 * Checks whether the question is confirmed.
+	 *
+	 * @return <code>true</code> if the question is confirmed
+	 */
+	public boolean isConfirmed() {
+		return this.confirmed;
+	}
+
+	/**
+	 * Returns the counterexample, or the first one of a batch.
+	 *
+	 * @return the counterexample, <code>null</code> if the question is
+	 *         confirmed or rejected without a counterexample
+	 */
+	public O getCounterExample() {
+		return this.counterExamples.isEmpty() ? null : this.counterExamples.get(0);
+	}
+
+	/**
+	 * Returns the counterexamples.
+	 *
+	 * @return the counterexamples in the given order, empty if the question
+	 *         is confirmed or rejected without a counterexample
+	 */
+	public List<O> getCounterExamples() {
+		return this.counterExamples;
+	}
+
+	@Override
+	public String toString() {
+		if (this.confirmed) {
+			return "confirmed";
+		}
+		if (this.counterExamples.isEmpty()) {
+			return "rejected";
+		}
+		return (this.counterExamples.size() == 1) ? "counterexample " + this.counterExamples.get(0)
+				: "counterexamples " + this.counterExamples;
+	}
+
+}
@@ -0,0 +1,351 @@
+package de.tudresden.inf.tcs.fcalib;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import de.tudresden.inf.tcs.fcaapi.FCAImplication;
+import de.tudresden.inf.tcs.fcaapi.FCAObject;
+import de.tudresden.inf.tcs.fcaapi.exception.IllegalObjectException;
+import de.tudresden.inf.tcs.fcalib.utils.BitWords;
+
+/*
+ * FCAlib: An open-source extensible library for Formal Concept Analysis
+ *         tool developers
+ * Copyright (C) 2009  Baris Sertkaya
+ *
+ * This file is part of FCAlib.
+ * FCAlib is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FCAlib is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with FCAlib.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/**
+ * Saves the state of an attribute exploration to a file and restores it, so
+ * that an exploration can be continued after the program has been stopped.
+ * The state consists of the attributes in their current order, the objects,
+ * the implications accepted so far and the premise from which the exploration
+ * continues. The current question is not stored, since it is computed again
+ * from this premise when the exploration is resumed.
+ * <p>
+ * Attributes and object identifiers are stored with Java serialization and
+ * have to be serializable; descriptions, implications and the premise are
+ * stored as bit words over the attribute indices. The background knowledge
+ * and the expert are not stored and have to be set again.
+ * </p>
+ */
+
+public class ExplorationCheckpoint {
+
+	/**
+	 * First bytes of a checkpoint, <code>FCAX</code>.
+	 */
+	private static final int MAGIC = 0x46434158;
+
+	private static final int VERSION = 1;
+
+	private ExplorationCheckpoint() {
+	}
+
+	/**
+	 * Creates an object of a restored context.
+	 */
+	private interface ObjectFactory<A, I, O> {
+		O create(I id, String name, Set<A> attributes, Set<A> negatedAttributes);
+	}
+
+	private static <A> void writeSet(ObjectOutputStream out, Set<A> set, Map<A, Integer> indices, int words)
+			throws IOException {
+		long[] bits = new long[words];
+		for (A attribute : set) {
+			Integer m = indices.get(attribute);
+			if (m != null) {
+				BitWords.set(bits, m);
+			}
+		}
+		for (long word : bits) {
+			out.writeLong(word);
+		}
+	}
+
+	private static <A> Set<A> readSet(ObjectInputStream in, List<A> attributes) throws IOException {
+		Set<A> set = new LinkedHashSet<>();
+		for (int w = 0; w < BitWords.wordCount(attributes.size()); ++w) {
+			long word = in.readLong();
+			while (word != 0) {
+				int m = (w << 6) + Long.numberOfTrailingZeros(word);
+				if (m >= attributes.size()) {
+					throw new IOException("attribute index out of range");
+				}
+				set.add(attributes.get(m));
+				word &= word - 1;
+			}
+		}
+		return set;
+	}
+
+	/**
+	 * Writes the state of the exploration of a given context to a file. The
+	 * file is first written under a temporary name and then moved, so that an
+	 * existing checkpoint is only replaced by a complete one.
+	 *
+	 * @param <A>
+	 *            type of the attributes
+	 * @param <I>
+	 *            type of the object identifiers
+	 * @param <O>
+	 *            type of the objects
+	 * @param context
+	 *            the context whose exploration is saved
+	 * @param file
+	 *            the file to be written
+	 * @throws IOException
+	 *             if writing fails or an attribute or object identifier is not
+	 *             serializable
+	 */
+	public static <A, I, O extends FCAObject<A, I>> void save(AbstractContext<A, I, O> context, Path file)
+			throws IOException {
+		Path parent = file.toAbsolutePath().getParent();
+		Path tmp = Files.createTempFile(parent, file.getFileName().toString(), ".tmp");
+		try {
+			try (OutputStream out = Files.newOutputStream(tmp)) {
+				write(context, out);
+			}
+			try {
+				Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			} catch (AtomicMoveNotSupportedException e) {
+				Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+			}
+		} finally {
+			Files.deleteIfExists(tmp);
+		}
+	}
+
+	private static <A, I, O extends FCAObject<A, I>> void write(AbstractContext<A, I, O> context, OutputStream stream)
+			throws IOException {
+		ObjectOutputStream out = new ObjectOutputStream(new BufferedOutputStream(stream, 1 << 16));
+		out.writeInt(MAGIC);
+		out.writeInt(VERSION);
+		int words = BitWords.wordCount(context.getAttributeCount());
+		Map<A, Integer> indices = new HashMap<>();
+		out.writeInt(context.getAttributeCount());
+		for (A attribute : context.getAttributes()) {
+			indices.put(attribute, indices.size());
+			out.writeObject(attribute);
+		}
+		boolean partial = context instanceof PartialContext;
+		out.writeBoolean(partial);
+		out.writeInt(context.getObjectCount());
+		for (O object : context.getObjects()) {
+			out.writeObject(object.getIdentifier());
+			out.writeObject(object.getName());
+			if (partial) {
+				PartialObjectDescription<A> description = (PartialObjectDescription<A>) object.getDescription();
+				writeSet(out, description.getAttributes(), indices, words);
+				writeSet(out, description.getNegatedAttributes(), indices, words);
+			} else {
+				writeSet(out, ((FullObjectDescription<A>) object.getDescription()).getAttributes(), indices, words);
+			}
+		}
+		Set<FCAImplication<A>> implications = context.getImplications();
+		out.writeBoolean(implications != null);
+		if (implications != null) {
+			out.writeInt(implications.size());
+			for (FCAImplication<A> imp : implications) {
+				writeSet(out, imp.getPremise(), indices, words);
+				writeSet(out, imp.getConclusion(), indices, words);
+			}
+		}
+		Set<A> premise = (implications == null) ? new LinkedHashSet<A>() : context.getResumePremise();
+		out.writeBoolean(premise != null);
+		if (premise != null) {
+			writeSet(out, premise, indices, words);
+		}
+		out.flush();
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <A, I, O extends FCAObject<A, I>> Set<A> read(InputStream stream, AbstractContext<A, I, O> context,
+			boolean partial, ObjectFactory<A, I, O> factory) throws IOException {
+		if ((context.getAttributeCount() > 0) || (context.getObjectCount() > 0)) {
+			throw new IllegalArgumentException("The context has to be empty");
+		}
+		try {
+			ObjectInputStream in = new ObjectInputStream(new BufferedInputStream(stream, 1 << 16));
+			if (in.readInt() != MAGIC) {
+				throw new IOException("not an exploration checkpoint");
+			}
+			int version = in.readInt();
+			if (version != VERSION) {
+				throw new IOException("unsupported version " + version);
+			}
+			int attributeCount = in.readInt();
+			List<A> attributes = new ArrayList<>(attributeCount);
+			for (int m = 0; m < attributeCount; ++m) {
+				A attribute = (A) in.readObject();
+				attributes.add(attribute);
+				context.addAttribute(attribute);
+			}
+			if (in.readBoolean() != partial) {
+				throw new IOException(partial ? "checkpoint of a formal context" : "checkpoint of a partial context");
+			}
+			int objectCount = in.readInt();
+			for (int g = 0; g < objectCount; ++g) {
+				I id = (I) in.readObject();
+				String name = (String) in.readObject();
+				Set<A> plus = readSet(in, attributes);
+				Set<A> minus = partial ? readSet(in, attributes) : null;
+				context.addObject(factory.create(id, name, plus, minus));
+			}
+			context.initializeExploration();
+			if (in.readBoolean()) {
+				ImplicationSet<A> implications = (ImplicationSet<A>) context.getImplications();
+				// the objects already respect the implications
+				implications.setPropagating(false);
+				for (int k = in.readInt(); k > 0; --k) {
+					implications.add(new Implication<A>(readSet(in, attributes), readSet(in, attributes)));
+				}
+				implications.setPropagating(true);
+			}
+			return in.readBoolean() ? readSet(in, attributes) : null;
+		} catch (ClassNotFoundException | ClassCastException e) {
+			throw new IOException("cannot read checkpoint", e);
+		} catch (IllegalObjectException e) {
+			throw new IOException("cannot restore object: " + e.getMessage(), e);
+		}
+	}
+
+	/**
+	 * Restores the state of an exploration of a formal context without
+	 * resuming it.
+	 *
+	 * @param <A>
+	 *            type of the attributes
+	 * @param <I>
+	 *            type of the object identifiers
+	 * @param file
+	 *            the checkpoint written by
+	 *            {@link #save(AbstractContext, Path)}
+	 * @param context
+	 *            an empty context, which receives the attributes, objects and
+	 *            implications of the checkpoint
+	 * @return the premise from which the exploration continues,
+	 *         <code>null</code> if it had finished
+	 * @throws IOException
+	 *             if reading fails or the file is not a checkpoint of a
+	 *             formal context
+	 * @throws IllegalArgumentException
+	 *             if the context has attributes or objects
+	 */
+	public static <A, I> Set<A> restore(Path file, FormalContext<A, I> context) throws IOException {
+		try (InputStream in = Files.newInputStream(file)) {
+			return read(in, context, false, (id, name, attributes, negatedAttributes) -> {
+				FullObject<A, I> object = new FullObject<A, I>(id, attributes);
+				object.setName(name);
+				return object;
+			});
+		}
+	}
+
+	/**
+	 * Restores the state of an exploration of a partial context without
+	 * resuming it.
+	 *
+	 * @param <A>
+	 *            type of the attributes
+	 * @param <I>
+	 *            type of the object identifiers
+	 * @param file
+	 *            the checkpoint written by
+	 *            {@link #save(AbstractContext, Path)}
+	 * @param context
+	 *            an empty context, which receives the attributes, objects and
+	 *            implications of the checkpoint
+	 * @return the premise from which the exploration continues,
+	 *         <code>null</code> if it had finished
+	 * @throws IOException
+	 *             if reading fails or the file is not a checkpoint of a
+	 *             partial context
+	 * @throws IllegalArgumentException
+	 *             if the context has attributes or objects
+	 */
+	public static <A, I> Set<A> restore(Path file, PartialContext<A, I, PartialObject<A, I>> context)
+			throws IOException {
+		try (InputStream in = Files.newInputStream(file)) {
+			return read(in, context, true, (id, name, attributes, negatedAttributes) -> {
+				PartialObject<A, I> object = new PartialObject<A, I>(id, attributes, negatedAttributes);
+				object.setName(name);
+				return object;
+			});
+		}
+	}
+
+	/**
+	 * Restores the state of an exploration of a formal context and resumes
+	 * the exploration with {@link AbstractContext#continueExploration(Set)}
+	 * at the stored premise. The expert has to be set before.
+	 *
+	 * @param <A>
+	 *            type of the attributes
+	 * @param <I>
+	 *            type of the object identifiers
+	 * @param file
+	 *            the checkpoint written by
+	 *            {@link #save(AbstractContext, Path)}
+	 * @param context
+	 *            an empty context with an expert
+	 * @throws IOException
+	 *             if reading fails or the file is not a checkpoint of a
+	 *             formal context
+	 */
+	public static <A, I> void resume(Path file, FormalContext<A, I> context) throws IOException {
+		context.continueExploration(restore(file, context));
+	}
+
+	/**
+	 * Restores the state of an exploration of a partial context and resumes
+	 * the exploration with {@link AbstractContext#continueExploration(Set)}
+	 * at the stored premise. The expert has to be set before.
+	 *
+	 * @param <A>
+	 *            type of the attributes
+	 * @param <I>
+	 *            type of the object identifiers
+	 * @param file
+	 *            the checkpoint written by
+	 *            {@link #save(AbstractContext, Path)}
+	 * @param context
+	 *            an empty context with an expert
+	 * @throws IOException
+	 *             if reading fails or the file is not a checkpoint of a
+	 *             partial context
+	 */
+	public static <A, I> void resume(Path file, PartialContext<A, I, PartialObject<A, I>> context)
+			throws IOException {
+		context.continueExploration(restore(file, context));
+	}
+
+}
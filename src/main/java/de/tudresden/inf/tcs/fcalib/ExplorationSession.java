@@ -0,0 +1,409 @@
+package de.tudresden.inf.tcs.fcalib;
+
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import de.tudresden.inf.tcs.fcaapi.Expert;
+import de.tudresden.inf.tcs.fcaapi.FCAImplication;
+import de.tudresden.inf.tcs.fcaapi.exception.IllegalAttributeException;
+import de.tudresden.inf.tcs.fcaapi.exception.IllegalObjectException;
+import de.tudresden.inf.tcs.fcaapi.utils.IndexedSet;
+import de.tudresden.inf.tcs.fcalib.utils.BitWords;
+
+/*
+ * FCAlib: An open-source extensible library for Formal Concept Analysis
+ *         tool developers
+ * Copyright (C) 2009  Baris Sertkaya
+ *
+ * This file is part of FCAlib.
+ * FCAlib is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FCAlib is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with FCAlib.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/**
+ * An attribute exploration over some of the attributes of a
+ * {@link SharedContext}. A session has its own attributes, implications,
+ * question and expert, and can run on its own thread while other sessions
+ * over the same shared context run on other threads. The objects are those of
+ * the shared context: a counterexample added by any session is seen by all
+ * of them. Therefore a counterexample has to be described over all attributes
+ * of the shared context, not only over the attributes of the session that
+ * asked for it, and the experts of the sessions have to agree.
+ * <p>
+ * {@link #doublePrime(Set)}, {@link #refutes(FCAImplication)} and
+ * {@link #getStemBase()} each work on one snapshot of the shared objects. A
+ * session itself must not be used by several threads at the same time.
+ * Objects can only be added, which adds them to the shared context, and the
+ * cache of second derivatives is not used, since objects are added by other
+ * sessions as well.
+ * </p>
+ * 
+ * @param <A>
+ *            type of the attributes
+ * @param <I>
+ *            type of the object identifiers
+ */
+
+public class ExplorationSession<A, I> extends AbstractContext<A, I, FullObject<A, I>> {
+
+	private final SharedContext<A, I> shared;
+
+	private Expert<A, I, FullObject<A, I>> expert = null;
+
+	/**
+	 * Creates a session over some of the attributes of a shared context.
+	 * 
+	 * @param shared
+	 *            the shared context
+	 * @param attrs
+	 *            the attributes to be explored
+	 * @throws IllegalAttributeException
+	 *             if one of the attributes is not an attribute of the shared
+	 *             context, or occurs twice
+	 */
+	ExplorationSession(SharedContext<A, I> shared, Collection<A> attrs) throws IllegalAttributeException {
+		this.shared = shared;
+		for (A attribute : attrs) {
+			addAttribute(attribute);
+		}
+	}
+
+	/**
+	 * Returns the shared context of this session.
+	 * 
+	 * @return the shared context
+	 */
+	public SharedContext<A, I> getSharedContext() {
+		return this.shared;
+	}
+
+	/**
+	 * Adds an attribute of the shared context to the attributes explored by
+	 * this session.
+	 * 
+	 * @param attribute
+	 *            the attribute to be added
+	 * @return <code>true</code> if the attribute is successfully added
+	 * @throws IllegalAttributeException
+	 *             if the attribute is not an attribute of the shared context,
+	 *             or has already been added
+	 */
+	@Override
+	public boolean addAttribute(A attribute) throws IllegalAttributeException {
+		if (this.shared.attributeId(attribute) < 0) {
+			throw new IllegalAttributeException("Attribute " + attribute + " is not in the shared context");
+		}
+		return super.addAttribute(attribute);
+	}
+
+	/**
+	 * Adds an object to the shared context, so that all sessions see it.
+	 * 
+	 * @param object
+	 *            the object to be added
+	 * @return <code>true</code> if the object is successfully added
+	 * @throws IllegalObjectException
+	 *             if an object with the same identifier exists in the shared
+	 *             context
+	 */
+	@Override
+	public boolean addObject(FullObject<A, I> object) throws IllegalObjectException {
+		if (!this.shared.addObject(object)) {
+			throw new IllegalObjectException("Object " + object.getIdentifier() + " has already been added");
+		}
+		modified();
+		return true;
+	}
+
+	/**
+	 * Returns the identifiers in the shared context of the attributes of this
+	 * session, by their index.
+	 */
+	private int[] attributeIds() {
+		int[] ids = new int[getAttributeCount()];
+		for (int i = 0; i < ids.length; ++i) {
+			ids[i] = this.shared.attributeId(getAttributeAtIndex(i));
+		}
+		return ids;
+	}
+
+	/**
+	 * Returns the identifiers in the shared context of a set of attributes,
+	 * or <code>null</code> if it contains an attribute that is not in the
+	 * shared context.
+	 */
+	private int[] attributeIds(Set<A> x) {
+		int[] ids = new int[x.size()];
+		int k = 0;
+		for (A attribute : x) {
+			int id = this.shared.attributeId(attribute);
+			if (id < 0) {
+				return null;
+			}
+			ids[k++] = id;
+		}
+		return ids;
+	}
+
+	/**
+	 * Returns the closure operator of this session, i.e., the second
+	 * derivative on sets of attribute indices. The operator works on the
+	 * snapshot of the shared objects taken when it is created, and it can be
+	 * used by several threads at the same time.
+	 * 
+	 * @return the closure operator of this session
+	 */
+	public BitClosureOperator closureOperator() {
+		final SharedContext.Snapshot<A, I> snapshot = this.shared.snapshot();
+		final int[] ids = attributeIds();
+		return new BitClosureOperator() {
+
+			@Override
+			public int getAttributeCount() {
+				return ids.length;
+			}
+
+			@Override
+			public void closure(long[] x, long[] result) {
+				int[] selected = new int[ids.length];
+				int count = 0;
+				for (int m = BitWords.nextSetBit(x, 0); m >= 0; m = BitWords.nextSetBit(x, m + 1)) {
+					selected[count++] = ids[m];
+				}
+				long[] extent = snapshot.extent(selected, count);
+				for (int m = 0; m < ids.length; ++m) {
+					if (snapshot.allHave(extent, ids[m])) {
+						BitWords.set(result, m);
+					} else {
+						BitWords.clear(result, m);
+					}
+				}
+			}
+		};
+	}
+
+	/**
+	 * Computes the second derivative of a given set of attributes in the
+	 * current snapshot of the shared objects.
+	 * 
+	 * @param x
+	 *            the attribute set whose second derivative is to be computed
+	 * @return the second derivative of <code>x</code>, restricted to the
+	 *         attributes of this session
+	 */
+	@Override
+	public Set<A> doublePrime(Set<A> x) {
+		int[] ids = attributeIds();
+		long[] intent = new long[BitWords.wordCount(ids.length)];
+		int[] selected = attributeIds(x);
+		if (selected == null) {
+			// no object has an attribute outside the shared context
+			BitWords.fill(intent, ids.length);
+		} else {
+			SharedContext.Snapshot<A, I> snapshot = this.shared.snapshot();
+			long[] extent = snapshot.extent(selected, selected.length);
+			for (int m = 0; m < ids.length; ++m) {
+				if (snapshot.allHave(extent, ids[m])) {
+					BitWords.set(intent, m);
+				}
+			}
+		}
+		return attributesOf(intent);
+	}
+
+	/**
+	 * Checks whether an object in the current snapshot of the shared objects
+	 * does not respect a given implication.
+	 * 
+	 * @param imp
+	 *            the implication to be tested
+	 * @return <code>true</code> if some object does not respect
+	 *         <code>imp</code>
+	 */
+	@Override
+	public boolean refutes(FCAImplication<A> imp) {
+		int[] premise = attributeIds(imp.getPremise());
+		if (premise == null) {
+			return false;
+		}
+		SharedContext.Snapshot<A, I> snapshot = this.shared.snapshot();
+		long[] extent = snapshot.extent(premise, premise.length);
+		if (BitWords.isEmpty(extent)) {
+			return false;
+		}
+		for (A attribute : imp.getConclusion()) {
+			int id = this.shared.attributeId(attribute);
+			if ((id < 0) || !snapshot.allHave(extent, id)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	@Override
+	public boolean isCounterExampleValid(FullObject<A, I> counterExample, FCAImplication<A> imp) {
+		return !counterExample.respects(imp);
+	}
+
+	/**
+	 * Computes the stem base of this session on one snapshot of the shared
+	 * objects.
+	 * 
+	 * @return the stem base of this session
+	 */
+	@Override
+	public Set<FCAImplication<A>> getStemBase() {
+		return computeStemBase(closureOperator());
+	}
+
+	@Override
+	public Set<FCAImplication<A>> getDuquenneGuiguesBase() {
+		return getStemBase();
+	}
+
+	/**
+	 * Returns the objects of the current snapshot of the shared context. The
+	 * returned set does not change when objects are added later.
+	 * 
+	 * @return the objects of the current snapshot
+	 */
+	@Override
+	public IndexedSet<FullObject<A, I>> getObjects() {
+		return new ObjectSet(this.shared.snapshot());
+	}
+
+	@Override
+	public int getObjectCount() {
+		return this.shared.getObjectCount();
+	}
+
+	@Override
+	public FullObject<A, I> getObject(I id) {
+		return this.shared.getObject(id);
+	}
+
+	@Override
+	public boolean containsObject(I id) {
+		return this.shared.getObject(id) != null;
+	}
+
+	@Override
+	public FullObject<A, I> getObjectAtIndex(int index) {
+		return getObjects().getElementAt(index);
+	}
+
+	@Override
+	public boolean objectHasAttribute(FullObject<A, I> object, A attribute) {
+		return object.getDescription().containsAttribute(attribute);
+	}
+
+	@Override
+	public Expert<A, I, FullObject<A, I>> getExpert() {
+		return this.expert;
+	}
+
+	@Override
+	public void setExpert(Expert<A, I, FullObject<A, I>> e) {
+		this.expert = e;
+	}
+
+	private static UnsupportedOperationException appendOnly() {
+		return new UnsupportedOperationException("objects of a shared context can only be added");
+	}
+
+	@Override
+	public boolean removeObject(I id) {
+		throw appendOnly();
+	}
+
+	@Override
+	public boolean removeObject(FullObject<A, I> object) {
+		throw appendOnly();
+	}
+
+	@Override
+	public void clearObjects() {
+		throw appendOnly();
+	}
+
+	@Override
+	public boolean addAttributeToObject(A attribute, I id) {
+		throw appendOnly();
+	}
+
+	/**
+	 * The objects of a snapshot of the shared context.
+	 */
+	private final class ObjectSet extends AbstractSet<FullObject<A, I>> implements IndexedSet<FullObject<A, I>> {
+
+		private final SharedContext.Snapshot<A, I> snapshot;
+
+		ObjectSet(SharedContext.Snapshot<A, I> snapshot) {
+			this.snapshot = snapshot;
+		}
+
+		@Override
+		public Iterator<FullObject<A, I>> iterator() {
+			return new Iterator<FullObject<A, I>>() {
+
+				private int next = 0;
+
+				@Override
+				public boolean hasNext() {
+					return this.next < ObjectSet.this.snapshot.objectCount;
+				}
+
+				@Override
+				public FullObject<A, I> next() {
+					if (!hasNext()) {
+						throw new NoSuchElementException();
+					}
+					return ObjectSet.this.snapshot.objects[this.next++];
+				}
+			};
+		}
+
+		@Override
+		public int size() {
+			return this.snapshot.objectCount;
+		}
+
+		@Override
+		public boolean contains(Object o) {
+			return (o instanceof FullObject) && (ExplorationSession.this.shared.indexOf(this.snapshot,
+					((FullObject<?, ?>) o).getIdentifier()) >= 0);
+		}
+
+		@Override
+		public int getIndexOf(FullObject<A, I> e) {
+			return ExplorationSession.this.shared.indexOf(this.snapshot, e.getIdentifier());
+		}
+
+		@Override
+		public FullObject<A, I> getElementAt(int i) {
+			if ((i < 0) || (i >= this.snapshot.objectCount)) {
+				throw new IndexOutOfBoundsException("Index: " + i + ", Size: " + this.snapshot.objectCount);
+			}
+			return this.snapshot.objects[i];
+		}
+
+		@Override
+		public void changeOrder() {
+			throw appendOnly();
+		}
+	}
+
+}
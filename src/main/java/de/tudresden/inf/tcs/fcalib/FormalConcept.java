@@ -0,0 +1,95 @@
+/**
+ * An implementation of formal concepts.
+ */
+package de.tudresden.inf.tcs.fcalib;
+
+import java.util.Set;
+
+import de.tudresden.inf.tcs.fcaapi.Concept;
+
+/*
+ * FCAlib: An open-source extensible library for Formal Concept Analysis
+ *         tool developers
+ * Copyright (C) 2009  Baris Sertkaya
+ *
+ * This file is part of FCAlib.
+ * FCAlib is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FCAlib is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with FCAlib.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/**
+ * A formal concept, i.e., a pair of an extent and an intent such that the
+ * intent is the set of attributes shared by the objects of the extent, and
+ * the extent is the set of objects having the attributes of the intent.
+ *
+ * @param <A>
+ *            type of the attributes
+ * @param <O>
+ *            type of the objects
+ */
+
+public class FormalConcept<A, O> implements Concept<A, O> {
+
+	/**
+	 * The intent of this concept.
+	 */
+	private final Set<A> intent;
+
+	/**
+	 * The extent of this concept.
+	 */
+	private final Set<O> extent;
+
+	/**
+	 * Creates a formal concept with the given extent and intent.
+	 *
+	 * @param extent
+	 *            the extent
+	 * @param intent
+	 *            the intent
+	 */
+	public FormalConcept(Set<O> extent, Set<A> intent) {
+		this.extent = extent;
+		this.intent = intent;
+	}
+
+	@Override
+	public Set<A> getIntent() {
+		return this.intent;
+	}
+
+	@Override
+	public Set<O> getExtent() {
+		return this.extent;
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (!(o instanceof Concept)) {
+			return false;
+		}
+		Concept<?, ?> other = (Concept<?, ?>) o;
+		return this.intent.equals(other.getIntent()) && this.extent.equals(other.getExtent());
+	}
+
+	@Override
+	public int hashCode() {
+		return this.intent.hashCode() + 31 * this.extent.hashCode();
+	}
+
+	@Override
+	public String toString() {
+		return "(" + this.extent + ", " + this.intent + ")";
+	}
+
+}
@@ -1,7 +1,13 @@
 package de.tudresden.inf.tcs.fcalib;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 
 import de.tudresden.inf.tcs.fcaapi.utils.IndexedSet;
 import de.tudresden.inf.tcs.fcaapi.FCAImplication;
@@ -10,7 +16,9 @@ import de.tudresden.inf.tcs.fcaapi.Concept;
 import de.tudresden.inf.tcs.fcaapi.Expert;
 import de.tudresden.inf.tcs.fcaapi.exception.IllegalObjectException;
 import de.tudresden.inf.tcs.fcaapi.exception.IllegalAttributeException;
-import de.tudresden.inf.tcs.fcalib.utils.ListSet;
+import de.tudresden.inf.tcs.fcalib.utils.AttributeDictionary;
+import de.tudresden.inf.tcs.fcalib.utils.BitWords;
+import de.tudresden.inf.tcs.fcalib.utils.HashIndexedSet;
 
 
 /*
@@ -46,16 +54,33 @@ public class FormalContext<A,I> extends AbstractContext<A,I,FullObject<A,I>> imp
 	 */
 	protected IndexedSet<FullObject<A,I>> objects;
 	
+	/**
+	 * The objects of this formal context by identifier.
+	 */
+	private Map<I,FullObject<A,I>> objectsById = new HashMap<>();
+	
 	/**
 	 * The expert for this formal context.
 	 */
 	protected Expert<A,I,FullObject<A,I>> expert = null;
 	
+	/**
+	 * Number of worker threads used for computing the concepts of this context.
+	 */
+	private int parallelism = Runtime.getRuntime().availableProcessors();
+	
+	/**
+	 * The cross table maintained in vertical storage mode, <code>null</code> if the mode is off.
+	 * Its attribute indices are the identifiers of the attribute dictionary of this context, which
+	 * do not change when the attributes of this context are reordered.
+	 */
+	private CrossTable table = null;
+	
 	/**
 	 * Creates a formal context with empty set of attributes and objects.
 	 */
 	public FormalContext() {
-		objects = new ListSet<FullObject<A,I>>();
+		objects = new HashIndexedSet<FullObject<A,I>>();
 	}
 	
 	/** 
@@ -67,12 +92,52 @@ public class FormalContext<A,I> extends AbstractContext<A,I,FullObject<A,I>> imp
 	 */
 	@Override
 	public boolean addObject(FullObject<A,I> o) throws IllegalObjectException {
-		for (FullObject<A,I> object : objects) {
-			if (object.getIdentifier().equals(o.getIdentifier())) {
-				throw new IllegalObjectException("An object with name " + object.getName() + " already exists");
+		FullObject<A,I> object = getObject(o.getIdentifier());
+		if (object != null) {
+			throw new IllegalObjectException("An object with name " + object.getName() + " already exists");
+		}
+		boolean added = objects.add(o);
+		if (added) {
+			objectsById.put(o.getIdentifier(), o);
+		}
+		if (added && table != null) {
+			AttributeDictionary<A> dictionary = getAttributeDictionary();
+			int g = table.addObject();
+			for (A attribute : o.getDescription().getAttributes()) {
+				int m = dictionary.getId(attribute);
+				if (m >= 0) {
+					table.set(g, m);
+				}
+			}
+		}
+		if (added) {
+			objectAdded(o);
+		}
+		return added;
+	}
+	
+	/**
+	 * Adds a given attribute to the attributes of this context.
+	 * @param attribute the attribute to be added
+	 * @return <code>true</code> if the <code>attribute</code> is successfully added
+	 * @throws IllegalAttributeException if the given attribute is already in the set of attributes
+	 */
+	@Override
+	public boolean addAttribute(A attribute) throws IllegalAttributeException {
+		boolean added = super.addAttribute(attribute);
+		if (table != null) {
+			int m = table.addAttribute();
+			if (m != getAttributeDictionary().getId(attribute)) {
+				buildTable();
+				return added;
+			}
+			for (int g = 0; g < objects.size(); ++g) {
+				if (objects.getElementAt(g).getDescription().containsAttribute(attribute)) {
+					table.set(g, m);
+				}
 			}
 		}
-		return objects.add(o);
+		return added;
 	}
 	
 	/** 
@@ -113,12 +178,14 @@ public class FormalContext<A,I> extends AbstractContext<A,I,FullObject<A,I>> imp
 	 * does not exist
 	 */
 	public FullObject<A,I> getObject(I id) {
-		for (FullObject<A,I> object : getObjects()) {
-			if (object.getIdentifier().equals(id)) {
-				return object;
+		if (objectsById.size() != objects.size()) {
+			// the set of objects was modified directly
+			objectsById.clear();
+			for (FullObject<A,I> object : objects) {
+				objectsById.put(object.getIdentifier(), object);
 			}
 		}
-		return null;
+		return objectsById.get(id);
 	}
 	
 	/**
@@ -130,10 +197,17 @@ public class FormalContext<A,I> extends AbstractContext<A,I,FullObject<A,I>> imp
 	 */
 	@Override
 	public boolean removeObject(I id) throws IllegalObjectException {
-		boolean removed = getObjects().remove(getObject(id));
+		FullObject<A,I> object = getObject(id);
+		int index = (object == null) ? -1 : objects.getIndexOf(object);
+		boolean removed = getObjects().remove(object);
 		if (!removed) {
 			throw new IllegalObjectException("Object" + id + "not successfully removed");
 		}
+		objectsById.remove(id);
+		if (table != null) {
+			table.removeObject(index);
+		}
+		modified();
 		return true;
 	}
 	
@@ -146,10 +220,18 @@ public class FormalContext<A,I> extends AbstractContext<A,I,FullObject<A,I>> imp
 	 */
 	@Override
 	public boolean removeObject(FullObject<A,I> object) throws IllegalObjectException {
+		int index = objects.getIndexOf(object);
 		boolean removed = getObjects().remove(object);
 		if (!removed) {
 			throw new IllegalObjectException("Object" + object.getIdentifier() + "not successfully removed");
 		}
+		if (objectsById.get(object.getIdentifier()) == object) {
+			objectsById.remove(object.getIdentifier());
+		}
+		if (table != null) {
+			table.removeObject(index);
+		}
+		modified();
 		return true;
 	}
 	
@@ -159,6 +241,11 @@ public class FormalContext<A,I> extends AbstractContext<A,I,FullObject<A,I>> imp
 	 */
 	public void clearObjects() {
 		objects.clear();
+		objectsById.clear();
+		if (table != null) {
+			table.clearObjects();
+		}
+		modified();
 	}
 	
 	/**
@@ -177,13 +264,19 @@ public class FormalContext<A,I> extends AbstractContext<A,I,FullObject<A,I>> imp
 		if (!getAttributes().contains(attribute)) {
 			throw new IllegalAttributeException("Attribute " + attribute + "does not exist");
 		}
-		if (!containsObject(id)) {
+		FullObject<A,I> object = getObject(id);
+		if (object == null) {
 			throw new IllegalObjectException("Object " + id + "does not exist");
 		}
-		if (getObject(id).getDescription().containsAttribute(attribute)) {
+		if (object.getDescription().containsAttribute(attribute)) {
 			throw new IllegalAttributeException("Object already has attribute " + attribute); 
 		}
-		return getObject(id).getDescription().addAttribute(attribute);
+		boolean added = object.getDescription().addAttribute(attribute);
+		if (table != null) {
+			verticalTable().set(objects.getIndexOf(object), getAttributeDictionary().getId(attribute));
+		}
+		modified();
+		return added;
 	}
 	/**
 	 * Removes a given attribute from the attributes of the given object. 
@@ -200,13 +293,19 @@ public class FormalContext<A,I> extends AbstractContext<A,I,FullObject<A,I>> imp
 		if (!getAttributes().contains(attribute)) {
 			throw new IllegalAttributeException("Attribute " + attribute + "does not exist");
 		}
-		if (!containsObject(id)) {
+		FullObject<A,I> object = getObject(id);
+		if (object == null) {
 			throw new IllegalObjectException("Object " + id + "does not exist");
 		}
-		if (!getObject(id).getDescription().containsAttribute(attribute)) {
+		if (!object.getDescription().containsAttribute(attribute)) {
 			throw new IllegalAttributeException("Object does not have attribute " + attribute); 
 		}
-		return getObject(id).getDescription().removeAttribute(attribute);
+		boolean removed = object.getDescription().removeAttribute(attribute);
+		if (table != null) {
+			verticalTable().clear(objects.getIndexOf(object), getAttributeDictionary().getId(attribute));
+		}
+		modified();
+		return removed;
 	}
 	
 	/**
@@ -227,6 +326,26 @@ public class FormalContext<A,I> extends AbstractContext<A,I,FullObject<A,I>> imp
 	 */
 	@Override
 	public Set<A> doublePrime(Set<A> x) {
+		Set<A> result = cachedDoublePrime(x);
+		if (result == null) {
+			result = computeDoublePrime(x);
+			cacheDoublePrime(x, result);
+		}
+		return result;
+	}
+	
+	/**
+	 * Computes the second derivative of a given set of attributes without using the cache.
+	 * @param x the attribute set whose second derivative is to be computed
+	 * @return the second derivative of <code>x</code>
+	 */
+	private Set<A> computeDoublePrime(Set<A> x) {
+		if (table != null) {
+			Set<A> result = verticalDoublePrime(x);
+			if (result != null) {
+				return result;
+			}
+		}
 		Set<A> tmp = new HashSet<>(getAttributes());
 		
 		for (FullObject<A,I> object : getObjects()) {
@@ -237,6 +356,106 @@ public class FormalContext<A,I> extends AbstractContext<A,I,FullObject<A,I>> imp
 		return tmp;
 	}
 	
+	/**
+	 * Updates the second derivative of a set of attributes after an object has been added: if the
+	 * object has all attributes of the set, the second derivative is intersected with its attributes.
+	 * @param object the added object
+	 * @param x the set of attributes
+	 * @param derivation the second derivative of <code>x</code> to be updated
+	 * @return <code>true</code>
+	 */
+	@Override
+	protected boolean updateDerivation(FullObject<A,I> object, Set<A> x, Set<A> derivation) {
+		if (object.getDescription().containsAttributes(x)) {
+			derivation.retainAll(object.getDescription().getAttributes());
+		}
+		return true;
+	}
+	
+	/**
+	 * Computes the second derivative of a given set of attributes on the maintained cross table.
+	 * @param x the attribute set whose second derivative is to be computed
+	 * @return the second derivative of <code>x</code>, <code>null</code> if <code>x</code> contains
+	 * an attribute that is not an attribute of this context
+	 */
+	private Set<A> verticalDoublePrime(Set<A> x) {
+		CrossTable t = verticalTable();
+		AttributeDictionary<A> dictionary = getAttributeDictionary();
+		long[] attrs = new long[t.getAttributeWordCount()];
+		for (A attribute : x) {
+			int m = dictionary.getId(attribute);
+			if (m < 0) {
+				return null;
+			}
+			BitWords.set(attrs, m);
+		}
+		long[] extent = new long[t.getObjectWordCount()];
+		t.closure(attrs, attrs, extent);
+		Set<A> result = new HashSet<>();
+		for (int m = BitWords.nextSetBit(attrs, 0); m >= 0; m = BitWords.nextSetBit(attrs, m + 1)) {
+			result.add(dictionary.get(m));
+		}
+		return result;
+	}
+	
+	/**
+	 * Returns the maintained cross table. The table is rebuilt if the objects or attributes of this
+	 * context were changed without going through the methods of this context. Its columns are
+	 * the identifiers of the attribute dictionary, which are not reused when attributes are removed.
+	 * @return the maintained cross table
+	 */
+	private CrossTable verticalTable() {
+		if (table.getObjectCount() != objects.size()
+				|| table.getAttributeCount() != getAttributeDictionary().size()) {
+			buildTable();
+		}
+		return table;
+	}
+	
+	/**
+	 * Builds the maintained cross table from the object descriptions.
+	 */
+	private void buildTable() {
+		AttributeDictionary<A> dictionary = getAttributeDictionary();
+		table = new CrossTable(objects.size(), dictionary.size());
+		for (int g = 0; g < objects.size(); ++g) {
+			for (A attribute : objects.getElementAt(g).getDescription().getAttributes()) {
+				int m = dictionary.getId(attribute);
+				if (m >= 0) {
+					table.set(g, m);
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Checks whether this context keeps its incidence relation in vertical storage mode.
+	 * @return <code>true</code> if vertical storage mode is on
+	 * @see #setVerticalStorage(boolean)
+	 */
+	public boolean isVerticalStorage() {
+		return table != null;
+	}
+	
+	/**
+	 * Turns vertical storage mode on or off. In vertical storage mode this context maintains, next
+	 * to the object descriptions, a cross table with one bitset of objects per attribute, and 
+	 * {@link #doublePrime(Set)} is computed by intersecting these bitsets instead of scanning the
+	 * object descriptions. The table is kept in sync by {@link #addObject(FullObject)}, 
+	 * {@link #removeObject(FullObject)}, {@link #addAttributeToObject(Object, Object)} and
+	 * {@link #removeAttributeFromObject(Object, Object)}. Changes made directly to an object
+	 * description are not tracked.
+	 * @param on <code>true</code> to turn vertical storage mode on
+	 */
+	public void setVerticalStorage(boolean on) {
+		if (on) {
+			buildTable();
+		}
+		else {
+			table = null;
+		}
+	}
+	
 	/**
 	 * Computes the closure of a given attribute set in this formal context, i.e., its second
 	 * derivative. (just a renaming for de.tudresden.inf.tcs.fcalib.FormalContext#doublePrime)
@@ -257,21 +476,100 @@ public class FormalContext<A,I> extends AbstractContext<A,I,FullObject<A,I>> imp
 		return x.equals(closure(x));
 	}
 	
+	/**
+	 * Returns the number of worker threads used for computing the concepts of this context.
+	 * @return the number of worker threads
+	 */
+	public int getParallelism() {
+		return parallelism;
+	}
+	
+	/**
+	 * Sets the number of worker threads used for computing the concepts of this context.
+	 * @param n the number of worker threads, <code>1</code> computes the concepts in the 
+	 * calling thread
+	 */
+	public void setParallelism(int n) {
+		if (n < 1) {
+			throw new IllegalArgumentException("Parallelism must be positive: " + n);
+		}
+		parallelism = n;
+	}
+	
+	/**
+	 * Returns a snapshot of the incidence relation of this context. Objects and attributes 
+	 * are identified by their current indices in this context.
+	 * @return the cross table of this context
+	 */
+	public CrossTable toCrossTable() {
+		AttributeDictionary<A> dictionary = getAttributeDictionary();
+		int[] indices = attributeIndicesById();
+		CrossTable table = new CrossTable(getObjectCount(), getAttributeCount());
+		for (int g = 0; g < getObjectCount(); ++g) {
+			for (A attribute : getObjectAtIndex(g).getDescription().getAttributes()) {
+				int id = dictionary.getId(attribute);
+				if (id >= 0) {
+					table.set(g, indices[id]);
+				}
+			}
+		}
+		return table;
+	}
+	
+	/**
+	 * Computes all formal concepts of this context with the Close-by-One algorithm and 
+	 * reports them to the given sink. The extents and intents are bit words over the 
+	 * indices of objects and attributes in this context. The concepts are computed by
+	 * {@link #getParallelism()} worker threads.
+	 * @param sink the sink receiving the concepts, it has to be thread-safe
+	 */
+	public void enumerateConcepts(ConceptSink sink) {
+		new ParallelCloseByOne(toCrossTable(), parallelism).enumerate(sink);
+	}
+	
+	/**
+	 * Computes all concepts and returns copies of their extents and intents.
+	 * @return pairs of extent and intent
+	 */
+	private List<long[][]> collectConcepts() {
+		final List<long[][]> concepts = Collections.synchronizedList(new ArrayList<long[][]>());
+		enumerateConcepts(new ConceptSink() {
+			@Override
+			public void concept(long[] extent, long[] intent) {
+				concepts.add(new long[][] { extent.clone(), intent.clone() });
+			}
+		});
+		return concepts;
+	}
+	
+	private Set<FullObject<A,I>> objectsOf(long[] words) {
+		Set<FullObject<A,I>> objs = new LinkedHashSet<>();
+		for (int g = BitWords.nextSetBit(words, 0); g >= 0; g = BitWords.nextSetBit(words, g + 1)) {
+			objs.add(getObjectAtIndex(g));
+		}
+		return objs;
+	}
+	
 	/**
 	 * Computes all closed attribute sets of this formal context, i.e., all concept intents.
 	 * @return all closed attribute sets
 	 */
 	public Set<Set<A>> allClosures() {
-		return null;
+		Set<Set<A>> intents = new HashSet<>();
+		for (long[][] concept : collectConcepts()) {
+			intents.add(attributesOf(concept[1]));
+		}
+		return intents;
 	}
 
 	/**
-	 * Computes the stem base of this formal context.
+	 * Computes the stem base of this formal context directly, without an expert. The closures
+	 * are computed on a snapshot of the incidence relation as bit words.
 	 * @return the stem base of this formal context
+	 * @see CanonicalBasis
 	 */
 	public Set<FCAImplication<A>> getStemBase() {
-		// TODO Auto-generated method stub
-		return null;
+		return computeStemBase(toCrossTable().closureOperator());
 	}
 
 	
@@ -281,8 +579,7 @@ public class FormalContext<A,I> extends AbstractContext<A,I,FullObject<A,I>> imp
 	 * @see de.tudresden.inf.tcs.fcalib.FormalContext#getStemBase()
 	 */
 	public Set<FCAImplication<A>> getDuquenneGuiguesBase() {
-		// TODO Auto-generated method stub
-		return null;
+		return getStemBase();
 	}
 	
 	/**
@@ -306,7 +603,11 @@ public class FormalContext<A,I> extends AbstractContext<A,I,FullObject<A,I>> imp
 	 * @return the set of formal concepts
 	 */
 	public Set<Concept<A,FullObject<A,I>>> getConcepts() {
-		return null;
+		Set<Concept<A,FullObject<A,I>>> concepts = new HashSet<>();
+		for (long[][] concept : collectConcepts()) {
+			concepts.add(new FormalConcept<A,FullObject<A,I>>(objectsOf(concept[0]), attributesOf(concept[1])));
+		}
+		return concepts;
 	}
 	
 	/**
@@ -314,7 +615,7 @@ public class FormalContext<A,I> extends AbstractContext<A,I,FullObject<A,I>> imp
 	 * @return the set of formal concepts
 	 */
 	public Set<Concept<A,FullObject<A,I>>> getConceptLattice() {
-		return null;
+		return getConcepts();
 	}
 
 	/**
@@ -352,8 +653,7 @@ public class FormalContext<A,I> extends AbstractContext<A,I,FullObject<A,I>> imp
 
 	@Override
 	public boolean followsFromBackgroundKnowledge(FCAImplication<A> implication) {
-		// TODO:
-		return false;
+		return super.followsFromBackgroundKnowledge(implication);
 	}
 	
 	/**
@@ -0,0 +1,508 @@
+package de.tudresden.inf.tcs.fcalib;
+
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import de.tudresden.inf.tcs.fcaapi.FCAImplication;
+import de.tudresden.inf.tcs.fcalib.utils.AttributeDictionary;
+import de.tudresden.inf.tcs.fcalib.utils.BitWords;
+
+/*
+ * FCAlib: An open-source extensible library for Formal Concept Analysis
+ *         tool developers
+ * Copyright (C) 2009  Baris Sertkaya
+ *
+ * This file is part of FCAlib.
+ * FCAlib is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FCAlib is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with FCAlib.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/**
+ * A read-only copy of an implication set compiled into flat arrays, for
+ * answering many closure and entailment queries against a fixed set of
+ * implications. Premises and conclusions are stored as bit words, one slice
+ * per implication, and the implications in whose premise each attribute
+ * occurs are stored as one array of occurrence lists with an array of
+ * offsets into it. Attributes are identified by their indices in the base
+ * context at the time the copy was made.
+ * <p>
+ * An instance can be shared by several threads without locking. The scratch
+ * space of the linear closure algorithm is kept per thread, so the queries on
+ * bit words do not allocate once a thread has made its first query. The
+ * queries on attribute sets look the attributes up by identity in the
+ * attribute dictionary of the base context, so no attribute may be added to
+ * the base context while they run on other threads.
+ * </p>
+ * 
+ * @param <A>
+ *            type of the attributes
+ * @see ImplicationSet#freeze()
+ */
+
+public class FrozenImplicationSet<A> implements BitClosureOperator {
+
+	/**
+	 * Number of attributes.
+	 */
+	private final int attributeCount;
+
+	/**
+	 * Number of words of an attribute set.
+	 */
+	private final int wordCount;
+
+	/**
+	 * Number of implications.
+	 */
+	private final int implicationCount;
+
+	/**
+	 * The attributes by index.
+	 */
+	private final Object[] attributes;
+
+	/**
+	 * The attribute dictionary of the base context.
+	 */
+	private final AttributeDictionary<A> dictionary;
+
+	/**
+	 * The index of each attribute by its identifier in
+	 * <code>dictionary</code>, <code>-1</code> for identifiers of attributes
+	 * that were not attributes of the base context when the copy was made.
+	 */
+	private final int[] indicesById;
+
+	/**
+	 * Premises of the implications, one slice per implication.
+	 */
+	private final long[] premises;
+
+	/**
+	 * Conclusions of the implications, one slice per implication.
+	 */
+	private final long[] conclusions;
+
+	/**
+	 * Number of attributes in the premise of each implication.
+	 */
+	private final int[] premiseSizes;
+
+	/**
+	 * The implications in whose premise attribute <code>m</code> occurs are
+	 * <code>occurrences[occurrenceStarts[m]]</code> up to
+	 * <code>occurrences[occurrenceStarts[m + 1] - 1]</code>.
+	 */
+	private final int[] occurrenceStarts;
+
+	/**
+	 * The occurrence lists of all attributes.
+	 */
+	private final int[] occurrences;
+
+	/**
+	 * Implications with empty premise.
+	 */
+	private final int[] emptyPremises;
+
+	/**
+	 * The attributes of the premise of implication <code>i</code> are
+	 * <code>premiseAttributes[attributeStarts[2 * i]]</code> up to
+	 * <code>premiseAttributes[attributeStarts[2 * i + 1] - 1]</code>, and
+	 * those of its conclusion follow up to
+	 * <code>premiseAttributes[attributeStarts[2 * i + 2] - 1]</code>.
+	 */
+	private final int[] attributeStarts;
+
+	/**
+	 * The attributes of the premises and conclusions as lists of indices.
+	 */
+	private final int[] premiseAttributes;
+
+	/**
+	 * Scratch space of each thread.
+	 */
+	private final ThreadLocal<Scratch> scratch = new ThreadLocal<Scratch>() {
+		@Override
+		protected Scratch initialValue() {
+			return new Scratch();
+		}
+	};
+
+	/**
+	 * Scratch space of the closure computations of one thread.
+	 */
+	private final class Scratch {
+
+		final int[] counters = new int[implicationCount];
+
+		final int[] queue = new int[attributeCount];
+
+		final long[] words = new long[wordCount];
+
+		final long[] masks = new long[attributeCount];
+	}
+
+	/**
+	 * Compiles a given implication set. Attributes that do not belong to the
+	 * base context of the implication set are left out of the conclusions,
+	 * and an implication with such an attribute in its premise never fires.
+	 * 
+	 * @param implications
+	 *            the implication set
+	 */
+	FrozenImplicationSet(ImplicationSet<A> implications) {
+		AbstractContext<A, ?, ?> context = implications.getContext();
+		implications.getClosureEngine();
+		this.attributeCount = context.getAttributeCount();
+		this.wordCount = BitWords.wordCount(this.attributeCount);
+		this.implicationCount = implications.size();
+		this.attributes = new Object[this.attributeCount];
+		for (int m = 0; m < this.attributeCount; ++m) {
+			this.attributes[m] = context.getAttributeAtIndex(m);
+		}
+		this.dictionary = context.getAttributeDictionary();
+		this.indicesById = context.attributeIndicesById();
+		this.premises = new long[this.implicationCount * this.wordCount];
+		this.conclusions = new long[this.implicationCount * this.wordCount];
+		this.premiseSizes = new int[this.implicationCount];
+		this.attributeStarts = new int[2 * this.implicationCount + 1];
+		long[][] premiseWords = new long[this.implicationCount][];
+		long[][] conclusionWords = new long[this.implicationCount][];
+		int[] counts = new int[this.attributeCount + 1];
+		int emptyCount = 0;
+		int listed = 0;
+		int i = 0;
+		for (FCAImplication<A> imp : implications) {
+			long[] premise = implications.toWords(imp.getPremise());
+			long[] conclusion = implications.toWords(imp.getConclusion());
+			premiseWords[i] = premise;
+			conclusionWords[i] = conclusion;
+			System.arraycopy(premise, 0, this.premises, i * this.wordCount, this.wordCount);
+			System.arraycopy(conclusion, 0, this.conclusions, i * this.wordCount, this.wordCount);
+			int size = BitWords.cardinality(premise);
+			// the counter of a premise with attributes outside the context never drops to zero
+			this.premiseSizes[i] = Math.max(size, imp.getPremise().size());
+			if (this.premiseSizes[i] == 0) {
+				++emptyCount;
+			}
+			for (int m = BitWords.nextSetBit(premise, 0); m >= 0; m = BitWords.nextSetBit(premise, m + 1)) {
+				++counts[m + 1];
+			}
+			listed += size;
+			if (this.premiseSizes[i] == size) {
+				listed += BitWords.cardinality(conclusion);
+			}
+			++i;
+		}
+		this.occurrenceStarts = new int[this.attributeCount + 1];
+		for (int m = 0; m < this.attributeCount; ++m) {
+			this.occurrenceStarts[m + 1] = this.occurrenceStarts[m] + counts[m + 1];
+		}
+		this.occurrences = new int[this.occurrenceStarts[this.attributeCount]];
+		this.emptyPremises = new int[emptyCount];
+		this.premiseAttributes = new int[listed];
+		int[] next = Arrays.copyOf(this.occurrenceStarts, this.attributeCount);
+		int empty = 0;
+		int position = 0;
+		for (i = 0; i < this.implicationCount; ++i) {
+			long[] premise = premiseWords[i];
+			long[] conclusion = conclusionWords[i];
+			this.attributeStarts[2 * i] = position;
+			for (int m = BitWords.nextSetBit(premise, 0); m >= 0; m = BitWords.nextSetBit(premise, m + 1)) {
+				this.occurrences[next[m]++] = i;
+				this.premiseAttributes[position++] = m;
+			}
+			this.attributeStarts[2 * i + 1] = position;
+			if (this.premiseSizes[i] > BitWords.cardinality(premise)) {
+				// never fires, so the batch closure sees an empty conclusion
+				conclusion = new long[this.wordCount];
+			}
+			for (int m = BitWords.nextSetBit(conclusion, 0); m >= 0; m = BitWords.nextSetBit(conclusion, m + 1)) {
+				this.premiseAttributes[position++] = m;
+			}
+			if (this.premiseSizes[i] == 0) {
+				this.emptyPremises[empty++] = i;
+			}
+		}
+		this.attributeStarts[2 * this.implicationCount] = position;
+	}
+
+	/**
+	 * Returns the number of attributes.
+	 * 
+	 * @return the number of attributes
+	 */
+	@Override
+	public int getAttributeCount() {
+		return this.attributeCount;
+	}
+
+	/**
+	 * Returns the number of words of an attribute set.
+	 * 
+	 * @return the number of words
+	 */
+	public int getWordCount() {
+		return this.wordCount;
+	}
+
+	/**
+	 * Returns the number of implications.
+	 * 
+	 * @return the number of implications
+	 */
+	public int getImplicationCount() {
+		return this.implicationCount;
+	}
+
+	/**
+	 * Returns the attribute with a given index.
+	 * 
+	 * @param index
+	 *            the index
+	 * @return the attribute with index <code>index</code>
+	 */
+	@SuppressWarnings("unchecked")
+	public A getAttributeAtIndex(int index) {
+		return (A) this.attributes[index];
+	}
+
+	/**
+	 * Computes the closure of a given attribute set. It does not allocate
+	 * once the calling thread has made a query.
+	 * 
+	 * @param x
+	 *            the attribute set as bit words
+	 * @param result
+	 *            the array where the closure is stored, it may be the same as
+	 *            <code>x</code>
+	 */
+	@Override
+	public void closure(long[] x, long[] result) {
+		if (x != result) {
+			System.arraycopy(x, 0, result, 0, this.wordCount);
+		}
+		close(result, null, this.scratch.get());
+	}
+
+	/**
+	 * Checks whether an implication follows from the implications of this
+	 * set, i.e., whether its conclusion is contained in the closure of its
+	 * premise. The closure computation stops as soon as the conclusion is
+	 * reached. It does not allocate once the calling thread has made a query.
+	 * 
+	 * @param premise
+	 *            the premise as bit words
+	 * @param conclusion
+	 *            the conclusion as bit words
+	 * @return <code>true</code> if the implication follows from this set
+	 */
+	public boolean entails(long[] premise, long[] conclusion) {
+		if (BitWords.isSubsetOf(conclusion, premise)) {
+			return true;
+		}
+		Scratch s = this.scratch.get();
+		System.arraycopy(premise, 0, s.words, 0, this.wordCount);
+		return close(s.words, conclusion, s);
+	}
+
+	/**
+	 * Computes the closures of several attribute sets at once. The sets are
+	 * stored one after the other in a flat array, {@link #getWordCount()}
+	 * words each. They are processed in blocks of 64: the sets of a block are
+	 * transposed into one word per attribute, whose bit <code>k</code> tells
+	 * whether set <code>k</code> of the block contains the attribute, and the
+	 * implications are applied to all sets of the block together by scanning
+	 * the flat premise and conclusion lists until nothing changes. This works
+	 * best when the closures are reached in few scans, as is the case for
+	 * bases whose implications are mostly ordered by dependency. It does not
+	 * allocate once the calling thread has made a query.
+	 * 
+	 * @param xs
+	 *            the attribute sets
+	 * @param results
+	 *            the array where the closures are stored, it may be the same
+	 *            as <code>xs</code>
+	 * @param count
+	 *            number of attribute sets
+	 */
+	public void closure(long[] xs, long[] results, int count) {
+		long[] masks = this.scratch.get().masks;
+		for (int start = 0; start < count; start += 64) {
+			int n = Math.min(64, count - start);
+			Arrays.fill(masks, 0L);
+			for (int k = 0; k < n; ++k) {
+				int base = (start + k) * this.wordCount;
+				for (int w = 0; w < this.wordCount; ++w) {
+					for (long word = xs[base + w]; word != 0; word &= word - 1) {
+						masks[(w << 6) + Long.numberOfTrailingZeros(word)] |= 1L << k;
+					}
+				}
+			}
+			long all = (n == 64) ? -1L : ((1L << n) - 1);
+			boolean changed = true;
+			while (changed) {
+				changed = false;
+				for (int i = 0; i < this.implicationCount; ++i) {
+					long satisfied = all;
+					int p = this.attributeStarts[2 * i];
+					int end = this.attributeStarts[2 * i + 1];
+					for (; (p < end) && (satisfied != 0); ++p) {
+						satisfied &= masks[this.premiseAttributes[p]];
+					}
+					if (satisfied == 0) {
+						continue;
+					}
+					end = this.attributeStarts[2 * i + 2];
+					for (p = this.attributeStarts[2 * i + 1]; p < end; ++p) {
+						int m = this.premiseAttributes[p];
+						if ((masks[m] | satisfied) != masks[m]) {
+							masks[m] |= satisfied;
+							changed = true;
+						}
+					}
+				}
+			}
+			Arrays.fill(results, start * this.wordCount, (start + n) * this.wordCount, 0L);
+			for (int m = 0; m < this.attributeCount; ++m) {
+				for (long mask = masks[m]; mask != 0; mask &= mask - 1) {
+					int k = Long.numberOfTrailingZeros(mask);
+					results[(start + k) * this.wordCount + (m >>> 6)] |= 1L << m;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Closes a set in place with the linear closure algorithm. If a target is
+	 * given, stops and returns <code>true</code> as soon as the set contains
+	 * it.
+	 */
+	private boolean close(long[] result, long[] target, Scratch s) {
+		int[] counters = s.counters;
+		int[] queue = s.queue;
+		System.arraycopy(this.premiseSizes, 0, counters, 0, this.implicationCount);
+		int pending = 0;
+		for (int w = 0; w < this.wordCount; ++w) {
+			for (long word = result[w]; word != 0; word &= word - 1) {
+				queue[pending++] = (w << 6) + Long.numberOfTrailingZeros(word);
+			}
+		}
+		for (int k = 0; k < this.emptyPremises.length; ++k) {
+			pending = fire(this.emptyPremises[k], result, queue, pending);
+		}
+		if ((target != null) && BitWords.isSubsetOf(target, result)) {
+			return true;
+		}
+		while (pending > 0) {
+			int attr = queue[--pending];
+			int end = this.occurrenceStarts[attr + 1];
+			for (int k = this.occurrenceStarts[attr]; k < end; ++k) {
+				int imp = this.occurrences[k];
+				if (--counters[imp] == 0) {
+					pending = fire(imp, result, queue, pending);
+					if ((target != null) && BitWords.isSubsetOf(target, result)) {
+						return true;
+					}
+				}
+			}
+		}
+		return (target == null) || BitWords.isSubsetOf(target, result);
+	}
+
+	/**
+	 * Adds the conclusion of an implication to a set and queues the new
+	 * attributes.
+	 */
+	private int fire(int imp, long[] result, int[] queue, int pending) {
+		int base = imp * this.wordCount;
+		for (int w = 0; w < this.wordCount; ++w) {
+			long added = this.conclusions[base + w] & ~result[w];
+			if (added != 0) {
+				result[w] |= added;
+				for (; added != 0; added &= added - 1) {
+					queue[pending++] = (w << 6) + Long.numberOfTrailingZeros(added);
+				}
+			}
+		}
+		return pending;
+	}
+
+	/**
+	 * Returns the index of a given attribute, <code>-1</code> if it does not
+	 * belong to this set.
+	 */
+	private int indexOf(A attribute) {
+		int id = this.dictionary.getId(attribute);
+		return ((id >= 0) && (id < this.indicesById.length)) ? this.indicesById[id] : -1;
+	}
+
+	/**
+	 * Converts a given attribute set into bit words. Attributes that do not
+	 * belong to this set are ignored.
+	 */
+	private long[] toWords(Set<A> s) {
+		long[] words = new long[this.wordCount];
+		for (A attribute : s) {
+			int m = indexOf(attribute);
+			if (m >= 0) {
+				BitWords.set(words, m);
+			}
+		}
+		return words;
+	}
+
+	/**
+	 * Computes the closure of a given attribute set. Attributes that are not
+	 * attributes of the base context are kept but do not take part in the
+	 * closure.
+	 * 
+	 * @param x
+	 *            the attribute set
+	 * @return the closure of <code>x</code>
+	 */
+	public Set<A> closure(Set<A> x) {
+		long[] words = toWords(x);
+		boolean foreign = BitWords.cardinality(words) < x.size();
+		closure(words, words);
+		Set<A> result = new LinkedHashSet<>();
+		for (int m = BitWords.nextSetBit(words, 0); m >= 0; m = BitWords.nextSetBit(words, m + 1)) {
+			result.add(getAttributeAtIndex(m));
+		}
+		if (foreign) {
+			result.addAll(x);
+		}
+		return result;
+	}
+
+	/**
+	 * Checks whether an implication follows from the implications of this
+	 * set.
+	 * 
+	 * @param imp
+	 *            the implication
+	 * @return <code>true</code> if the conclusion of <code>imp</code> is
+	 *         contained in the closure of its premise
+	 */
+	public boolean entails(FCAImplication<A> imp) {
+		for (A attribute : imp.getConclusion()) {
+			if ((indexOf(attribute) < 0) && !imp.getPremise().contains(attribute)) {
+				return false;
+			}
+		}
+		return entails(toWords(imp.getPremise()), toWords(imp.getConclusion()));
+	}
+
+}
@@ -112,6 +112,15 @@ public class FullObjectDescription<T> implements ObjectDescription<T> {
 		return attributes;
 	}
 	
+	/**
+	 * Replaces the set that stores the attributes of this description by a given set with the same
+	 * attributes.
+	 * @param attrs the new set, which must contain exactly the attributes of this description
+	 */
+	void setAttributeSet(Set<T> attrs) {
+		attributes = attrs;
+	}
+	
 	/**
 	 * Produces a deep copy of this description.
 	 * @return a deep copy of this description
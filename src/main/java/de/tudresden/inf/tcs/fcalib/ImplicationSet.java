@@ -4,16 +4,21 @@
  */
 package de.tudresden.inf.tcs.fcalib;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.BitSet;
 import java.util.HashSet;
-import java.util.Hashtable;
-import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import de.tudresden.inf.tcs.fcaapi.ClosureOperator;
 // import de.tudresden.inf.tcs.fcaapi.FCAObject;
 import de.tudresden.inf.tcs.fcaapi.FCAImplication;
+import de.tudresden.inf.tcs.fcalib.utils.AttributeDictionary;
+import de.tudresden.inf.tcs.fcalib.utils.BitWords;
 
 /*
  * FCAlib: An open-source extensible library for Formal Concept Analysis
@@ -48,9 +53,55 @@ public class ImplicationSet<A> extends LinkedHashSet<FCAImplication<A>>
 	final private AbstractContext<A, ?, ?> theContext;
 
 	/**
-	 * To keeps track of in which premises an attribute occurs.
+	 * The closure engine working on attribute indices. It is rebuilt when the
+	 * attributes of the context or their order change.
 	 */
-	private final Hashtable<A, Set<FCAImplication<A>>> occursInPremises;
+	private transient LinClosure engine = null;
+
+	/**
+	 * The attributes of the context, in the order used by <code>engine</code>.
+	 */
+	private transient Object[] engineAttributes;
+
+	/**
+	 * The index in <code>engineAttributes</code> of each attribute, by its
+	 * identifier in the attribute dictionary of the context.
+	 */
+	private transient int[] engineIndices;
+
+	/**
+	 * The attribute dictionary of the context when the engine was built.
+	 */
+	private transient AttributeDictionary<A> engineDictionary;
+
+	/**
+	 * The implications containing attributes that are not attributes of the
+	 * context when the engine was built. The engine never fires them if such
+	 * an attribute is in the premise, and it does not add such attributes of
+	 * the conclusion, so {@link #closure(Set)} applies them separately.
+	 */
+	private transient List<FCAImplication<A>> foreignImplications;
+
+	/**
+	 * The implication added last to the closure engine, <code>null</code> if
+	 * it is not known.
+	 */
+	private transient FCAImplication<A> engineLast = null;
+
+	/**
+	 * The cache of closures, <code>null</code> if closures are not cached.
+	 */
+	private transient ClosureCache cache = null;
+
+	/**
+	 * The closure engine whose closures are in <code>cache</code>.
+	 */
+	private transient LinClosure cacheEngine = null;
+
+	/**
+	 * Whether the base context is notified of added implications.
+	 */
+	private boolean propagating = true;
 
 	/**
 	 * Creates an empty implication set.
@@ -62,10 +113,6 @@ public class ImplicationSet<A> extends LinkedHashSet<FCAImplication<A>>
 	public ImplicationSet(AbstractContext<A, ?, ?> context) {
 		super();
 		this.theContext = context;
-		this.occursInPremises = new Hashtable<>();
-		for (A attr : context.getAttributes()) {
-			this.occursInPremises.put(attr, new HashSet<>());
-		}
 	}
 
 	/**
@@ -88,18 +135,230 @@ public class ImplicationSet<A> extends LinkedHashSet<FCAImplication<A>>
 	 */
 	@Override
 	public boolean add(FCAImplication<A> imp) {
-		Set<FCAImplication<A>> tmp;
-		for (A attr : imp.getPremise()) {
-			tmp = this.occursInPremises.get(attr);
-			tmp.add(imp);
-			this.occursInPremises.put(attr, tmp);
+		boolean added = super.add(imp);
+		if (added && (this.engine != null)) {
+			long[] premise = toWords(imp.getPremise());
+			long[] conclusion = toWords(imp.getConclusion());
+			if (addToEngine(imp, premise, conclusion)
+					&& (this.cache != null) && (this.cacheEngine == this.engine)) {
+				this.cache.implicationAdded(premise, conclusion);
+			}
+		}
+		if (added && this.propagating
+				&& (this.theContext.getImplications() == this)) {
+			this.theContext.implicationAdded(imp);
+		}
+		return added;
+	}
+
+	/**
+	 * Sets whether the base context is notified of the implications added to
+	 * this set, so that it can update its objects.
+	 * 
+	 * @param on
+	 *            <code>true</code> to notify the base context, which is the
+	 *            default
+	 * @see AbstractContext#implicationAdded(FCAImplication)
+	 */
+	void setPropagating(boolean on) {
+		this.propagating = on;
+	}
+
+	/**
+	 * Removes an implication from this implication set. If it is the
+	 * implication added last, it is taken out of the closure engine and only
+	 * the cached closures containing its premise are dropped. Otherwise the
+	 * engine is rebuilt when it is used next.
+	 * 
+	 * @param o
+	 *            the implication to be removed
+	 * @return <code>true</code> if the implication is removed
+	 */
+	@Override
+	public boolean remove(Object o) {
+		boolean removed = super.remove(o);
+		if (removed) {
+			if ((o == this.engineLast) && (this.engine.getImplicationCount() == size() + 1)) {
+				this.engine.removeLastImplication();
+				int last = this.foreignImplications.size() - 1;
+				if ((last >= 0) && (this.foreignImplications.get(last) == o)) {
+					this.foreignImplications.remove(last);
+				}
+				if ((this.cache != null) && (this.cacheEngine == this.engine)) {
+					this.cache.implicationRemoved(toWords(this.engineLast.getPremise()));
+				}
+			} else {
+				this.engine = null;
+			}
+			this.engineLast = null;
+		}
+		return removed;
+	}
+
+	/**
+	 * Removes all implications from this implication set.
+	 */
+	@Override
+	public void clear() {
+		super.clear();
+		this.engine = null;
+		this.engineLast = null;
+	}
+
+	/**
+	 * Turns the cache of closures on or off. The cache keeps the closures most
+	 * recently computed by {@link #closure(Set)}, {@link #closure(BitSet)} and
+	 * {@link #nextClosure(Set)}, and evicts the least recently used one when
+	 * it is full. Adding an implication only removes the cached closures that
+	 * it changes. Removing implications or changing the attributes of the base
+	 * context empties the cache. It is off by default.
+	 * 
+	 * @param capacity
+	 *            maximum number of cached closures, <code>0</code> to turn
+	 *            the cache off
+	 */
+	public void setClosureCache(int capacity) {
+		this.cache = (capacity == 0) ? null : new ClosureCache(capacity);
+		this.cacheEngine = null;
+	}
+
+	/**
+	 * Returns the cache of closures, whose hit and miss counters can be used
+	 * to choose its capacity.
+	 * 
+	 * @return the cache of closures, <code>null</code> if it is off
+	 * @see #setClosureCache(int)
+	 */
+	public ClosureCache getClosureCache() {
+		return this.cache;
+	}
+
+	/**
+	 * Computes the closure of a set of bit words, using the cache if it is
+	 * on. The arrays may be the same.
+	 */
+	void closure(long[] x, long[] result) {
+		LinClosure closureEngine = getClosureEngine();
+		if (this.cache == null) {
+			closureEngine.closure(x, result);
+			return;
+		}
+		if (this.cacheEngine != closureEngine) {
+			this.cache.clear();
+			this.cacheEngine = closureEngine;
+		}
+		if (!this.cache.lookup(x, result)) {
+			long[] key = x.clone();
+			closureEngine.closure(x, result);
+			this.cache.store(key, result);
 		}
-		return (super.add(imp));
+	}
+
+	/**
+	 * Returns the closure engine of this implication set, which works on the
+	 * indices of the attributes in the base context. The engine is rebuilt if
+	 * the attributes of the context have changed since it was last used.
+	 * 
+	 * @return the closure engine
+	 */
+	public LinClosure getClosureEngine() {
+		if (!isEngineValid()) {
+			int n = this.theContext.getAttributeCount();
+			this.engineAttributes = new Object[n];
+			for (int i = 0; i < n; ++i) {
+				this.engineAttributes[i] = this.theContext.getAttributeAtIndex(i);
+			}
+			this.engineDictionary = this.theContext.getAttributeDictionary();
+			this.engineIndices = this.theContext.attributeIndicesById();
+			this.engine = new LinClosure(n);
+			this.engineLast = null;
+			this.foreignImplications = new ArrayList<>();
+			for (FCAImplication<A> imp : this) {
+				addToEngine(imp, toWords(imp.getPremise()),
+						toWords(imp.getConclusion()));
+			}
+		}
+		return this.engine;
+	}
+
+	/**
+	 * Adds an implication to the closure engine and returns whether it can
+	 * fire there, i.e., whether all attributes of its premise are attributes
+	 * of the context. An implication with other attributes is recorded in
+	 * <code>foreignImplications</code>.
+	 */
+	private boolean addToEngine(FCAImplication<A> imp, long[] premise, long[] conclusion) {
+		int missing = imp.getPremise().size() - BitWords.cardinality(premise);
+		this.engine.addImplication(premise, conclusion, missing);
+		this.engineLast = imp;
+		if ((missing > 0) || (imp.getConclusion().size() > BitWords.cardinality(conclusion))) {
+			this.foreignImplications.add(imp);
+		}
+		return missing == 0;
+	}
+
+	/**
+	 * Checks whether all attributes of an implication are attributes of the
+	 * context. The closure engine must be valid.
+	 */
+	private boolean isLocal(FCAImplication<A> imp) {
+		return (imp.getPremise().size() == BitWords.cardinality(toWords(imp.getPremise())))
+				&& (imp.getConclusion().size() == BitWords.cardinality(toWords(imp.getConclusion())));
+	}
+
+	private boolean isEngineValid() {
+		if ((this.engine == null)
+				|| (this.engine.getImplicationCount() != size())
+				|| (this.engineAttributes.length != this.theContext
+						.getAttributeCount())) {
+			return false;
+		}
+		for (int i = 0; i < this.engineAttributes.length; ++i) {
+			if (this.engineAttributes[i] != this.theContext
+					.getAttributeAtIndex(i)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Converts a given attribute set into bit words over the attribute indices
+	 * of the closure engine. Attributes that do not belong to the context are
+	 * ignored. The attributes are looked up by their identifiers, so that
+	 * their <code>hashCode</code> is not computed for the instances added to
+	 * the context.
+	 */
+	long[] toWords(Set<A> s) {
+		long[] words = new long[BitWords.wordCount(this.engineAttributes.length)];
+		for (A attr : s) {
+			int id = this.engineDictionary.getId(attr);
+			if ((id >= 0) && (id < this.engineIndices.length) && (this.engineIndices[id] >= 0)) {
+				BitWords.set(words, this.engineIndices[id]);
+			}
+		}
+		return words;
+	}
+
+	/**
+	 * Converts bit words over the attribute indices of the closure engine into
+	 * an attribute set.
+	 */
+	@SuppressWarnings("unchecked")
+	Set<A> toSet(long[] words) {
+		Set<A> s = new LinkedHashSet<>();
+		for (int i = BitWords.nextSetBit(words, 0); i >= 0; i = BitWords
+				.nextSetBit(words, i + 1)) {
+			s.add((A) this.engineAttributes[i]);
+		}
+		return s;
 	}
 
 	/**
 	 * Computes the closure of a given attribute set under this implication set.
-	 * Implementation the linear closure algorithm.
+	 * Implementation the linear closure algorithm. Attributes that are not
+	 * attributes of the base context are kept, and the implications containing
+	 * such attributes are applied to the result until nothing changes.
 	 * 
 	 * @param x
 	 *            the attribute set to be closed
@@ -107,46 +366,50 @@ public class ImplicationSet<A> extends LinkedHashSet<FCAImplication<A>>
 	 */
 	@Override
 	public Set<A> closure(Set<A> x) {
-		Set<A> update = new HashSet<>(x);
-		Set<A> newDep = new LinkedHashSet<>(x);
-		Hashtable<FCAImplication<A>, Integer> premiseSizes = new Hashtable<>();
-
-		// update.addAll(x);
-		// newDep.addAll(x);
-
-		for (FCAImplication<A> imp : this) {
-			premiseSizes.put(imp, imp.getPremise().size());
-			if (imp.getPremise().isEmpty()) {
-				newDep.addAll(imp.getConclusion());
-				update.addAll(imp.getConclusion());
-			}
+		getClosureEngine();
+		long[] words = toWords(x);
+		boolean foreign = BitWords.cardinality(words) < x.size();
+		closure(words, words);
+		Set<A> result = toSet(words);
+		if (foreign) {
+			// x has attributes that are not attributes of the context
+			result.addAll(x);
 		}
-		// int impId, attrId;
-		A attr;
-		while (!update.isEmpty()) {
-			// attrId = update.firstElement();
-			Iterator<A> it = update.iterator();
-			attr = it.next();
-			// update.removeIndex(attrId);
-			update.remove(attr);
-			// for (int i = 0; i < elementOfPremises[attrId].size(); i++) {
-			for (FCAImplication<A> imp : this.occursInPremises.get(attr)) {
-				// impId = elementOfPremises[attrId].get(i);
-				// tmpPremiseSizes.set(impId, tmpPremiseSizes.get(impId) - 1);
-				int tmp = premiseSizes.get(imp);
-				premiseSizes.put(imp, --tmp);
-				// if (tmpPremiseSizes.get(impId) == 0) {
-				if (tmp == 0) {
-					// add = (get(impId)).getConclusion().difference(newDep);
-					// newDep.addAll(add);
-					// update.addAll(add);
-					update.addAll(imp.getConclusion());
-					update.removeAll(newDep);
-					newDep.addAll(imp.getConclusion());
+		boolean changed = !this.foreignImplications.isEmpty();
+		while (changed) {
+			changed = false;
+			for (FCAImplication<A> imp : this.foreignImplications) {
+				if (result.containsAll(imp.getPremise()) && !result.containsAll(imp.getConclusion())) {
+					result.addAll(imp.getConclusion());
+					changed = true;
 				}
 			}
+			if (changed) {
+				words = toWords(result);
+				closure(words, words);
+				result.addAll(toSet(words));
+			}
 		}
-		return newDep;
+		return result;
+	}
+
+	/**
+	 * Computes the closure of a given attribute set under this implication set.
+	 * Bit <code>i</code> of the sets stands for the attribute at index
+	 * <code>i</code> of the base context.
+	 * 
+	 * @param x
+	 *            the attribute set to be closed
+	 * @return the closure of <code>x</code> under this implication set
+	 */
+	public BitSet closure(BitSet x) {
+		LinClosure closureEngine = getClosureEngine();
+		long[] words = new long[closureEngine.getWordCount()];
+		long[] given = x.toLongArray();
+		System.arraycopy(given, 0, words, 0,
+				Math.min(given.length, words.length));
+		closure(words, words);
+		return BitSet.valueOf(words);
 	}
 
 	/**
@@ -162,24 +425,6 @@ public class ImplicationSet<A> extends LinkedHashSet<FCAImplication<A>>
 		return x.equals(closure(x));
 	}
 
-	/**
-	 * Converts a given set into its bit vector representation.
-	 * 
-	 * @param s
-	 *            the set to be converted to bit vector representation
-	 * @return the bit vector representation of <code>s</code>
-	 */
-	private BitSet setToBitVector(Set<A> s) {
-		BitSet b = new BitSet(this.theContext.getAttributeCount());
-
-		for (int i = 0; i < this.theContext.getAttributeCount(); ++i) {
-			if (s.contains(this.theContext.getAttributeAtIndex(i))) {
-				b.set(i);
-			}
-		}
-		return b;
-	}
-
 	/**
 	 * Converts a given bit vector into its set representation.
 	 * 
@@ -208,42 +453,26 @@ public class ImplicationSet<A> extends LinkedHashSet<FCAImplication<A>>
 	 * @return the closed set coming after <code>x</code>
 	 */
 	public Set<A> nextClosure(Set<A> x) {
-		// AttributeSet<A> tmp = x.clone();
-		BitSet tmp = setToBitVector(x);
-
-		// if (x.cardinality() == theContext.getAttributeCount()) {
-		// return null;
-		// }
 		if (x.size() == this.theContext.getAttributeCount()) {
 			return null;
 		}
-		label: for (int i = this.theContext.getAttributeCount() - 1; i >= 0; i--) {
-			// if (tmp.containsIndex(i)) {
-			if (tmp.get(i)) {
-				// tmp.removeIndex(i);
-				tmp.flip(i);
-			} else {
-				// tmp.addIndex(i);
-				tmp.flip(i);
-				// tmp = closure(tmp);
-				tmp = setToBitVector(closure(bitVectorToSet(tmp)));
-				// for (int j = tmp.nextElement(0); j >= 0 && j < i; j =
-				// tmp.nextElement(j + 1)) {
-				for (int j = tmp.nextSetBit(0); (j >= 0) && (j < i); j = tmp
-						.nextSetBit(j + 1)) {
-					// if (!x.containsIndex(j)) {
-					if (!x.contains(this.theContext.getAttributeAtIndex(j))) {
-						// tmp = x.clone();
-						tmp = setToBitVector(x);
-						// tmp.removeIndex(i, theContext.getAttributeCount());
-						tmp.clear(i, this.theContext.getAttributeCount());
-						continue label;
-					}
-				}
-				return bitVectorToSet(tmp);
-			}
-		}
-		return bitVectorToSet(tmp);
+		NextClosureCursor<A> cursor = cursor(x);
+		return cursor.next() ? cursor.toSet() : null;
+	}
+
+	/**
+	 * Returns a cursor positioned at a given attribute set, which can be used
+	 * to enumerate the closed sets of this implication set coming after it in
+	 * the lectic order without converting every closed set into a
+	 * {@link java.util.Set}.
+	 * 
+	 * @param x
+	 *            the starting attribute set, which does not need to be closed
+	 * @return a cursor positioned at <code>x</code>
+	 */
+	public NextClosureCursor<A> cursor(Set<A> x) {
+		getClosureEngine();
+		return new NextClosureCursor<A>(this, toWords(x));
 	}
 
 	/**
@@ -255,15 +484,13 @@ public class ImplicationSet<A> extends LinkedHashSet<FCAImplication<A>>
 	 * @return set of closed sets that are lectically bigger than <code>x</code>
 	 */
 	public Set<Set<A>> closuresStartingFrom(Set<A> x) {
-		Set<A> tmp;
 		Set<Set<A>> result = new LinkedHashSet<Set<A>>();
+		NextClosureCursor<A> cursor = cursor(x);
 
-		tmp = closure(x);
-		result.add(tmp);
-		tmp = nextClosure(tmp);
-		while (tmp != null) {
-			result.add(tmp);
-			tmp = nextClosure(tmp);
+		cursor.close();
+		result.add(cursor.toSet());
+		while (cursor.next()) {
+			result.add(cursor.toSet());
 		}
 		return result;
 	}
@@ -278,4 +505,199 @@ public class ImplicationSet<A> extends LinkedHashSet<FCAImplication<A>>
 		return closuresStartingFrom(new HashSet<>());
 	}
 
+	/**
+	 * Returns a read-only copy of this implication set compiled into flat
+	 * arrays, which can be queried by several threads at the same time.
+	 * Later changes of this set or of the attributes of the base context do
+	 * not affect the copy.
+	 * 
+	 * @return a frozen copy of this implication set
+	 */
+	public FrozenImplicationSet<A> freeze() {
+		return new FrozenImplicationSet<A>(this);
+	}
+
+	/**
+	 * Returns the implications of this set whose attributes are all attributes
+	 * of the base context, in iteration order, and adds the other ones to a
+	 * given set unchanged.
+	 */
+	private List<FCAImplication<A>> localImplications(ImplicationSet<A> others) {
+		getClosureEngine();
+		List<FCAImplication<A>> list = new ArrayList<>(size());
+		for (FCAImplication<A> imp : this) {
+			if (isLocal(imp)) {
+				list.add(imp);
+			} else {
+				others.add(imp);
+			}
+		}
+		return list;
+	}
+
+	/**
+	 * Returns the premises and conclusions of the implications of this set as
+	 * bit words over the attribute indices of the closure engine, in
+	 * iteration order, together with an engine containing all of them.
+	 */
+	private LinClosure engineOf(List<FCAImplication<A>> list, long[][] premises, long[][] conclusions) {
+		LinClosure lin = new LinClosure(getClosureEngine().getAttributeCount());
+		for (int i = 0; i < list.size(); ++i) {
+			premises[i] = toWords(list.get(i).getPremise());
+			conclusions[i] = toWords(list.get(i).getConclusion());
+			lin.addImplication(premises[i], conclusions[i]);
+		}
+		return lin;
+	}
+
+	/**
+	 * Checks whether an implication of an engine follows from the other
+	 * enabled implications, and disables it if so.
+	 */
+	private static boolean disableIfRedundant(LinClosure lin, int imp, long[] premise, long[] conclusion,
+			long[] scratch) {
+		lin.setEnabled(imp, false);
+		lin.closure(premise, scratch);
+		if (BitWords.isSubsetOf(conclusion, scratch)) {
+			return true;
+		}
+		lin.setEnabled(imp, true);
+		return false;
+	}
+
+	/**
+	 * Returns a non-redundant cover of this implication set, i.e., an
+	 * equivalent subset in which no implication follows from the others. The
+	 * implications are checked in iteration order, and each one that follows
+	 * from the remaining ones is dropped. This takes one closure per
+	 * implication, that is, time in O(|L|<sup>2</sup>&middot;|M|/64) for
+	 * |L| implications over |M| attributes.
+	 * 
+	 * Implications with attributes that are not attributes of the base
+	 * context are kept unchanged.
+	 * 
+	 * @return a non-redundant subset of this implication set that has the
+	 *         same closed sets
+	 */
+	public ImplicationSet<A> nonRedundantCover() {
+		ImplicationSet<A> cover = new ImplicationSet<A>(this.theContext);
+		List<FCAImplication<A>> list = localImplications(cover);
+		long[][] premises = new long[list.size()][];
+		long[][] conclusions = new long[list.size()][];
+		LinClosure lin = engineOf(list, premises, conclusions);
+		long[] scratch = new long[lin.getWordCount()];
+		for (int i = 0; i < list.size(); ++i) {
+			if (!disableIfRedundant(lin, i, premises[i], conclusions[i], scratch)) {
+				cover.add(list.get(i));
+			}
+		}
+		return cover;
+	}
+
+	/**
+	 * Returns a minimal cover of this implication set. Its implications are
+	 * right-closed, i.e., the premise together with the conclusion is closed,
+	 * and left-minimal, i.e., no attribute can be removed from a premise
+	 * without losing equivalence, and none of them follows from the others.
+	 * No two implications have the same premise, and the conclusions do not
+	 * contain attributes of the premises. Reducing a premise takes one
+	 * closure per attribute of it. Implications with attributes that are not
+	 * attributes of the base context are kept unchanged.
+	 * 
+	 * @return a minimal cover of this implication set
+	 */
+	public ImplicationSet<A> minimalCover() {
+		ImplicationSet<A> cover = new ImplicationSet<A>(this.theContext);
+		List<FCAImplication<A>> list = localImplications(cover);
+		long[][] premises = new long[list.size()][];
+		long[][] conclusions = new long[list.size()][];
+		LinClosure lin = engineOf(list, premises, conclusions);
+		long[] scratch = new long[lin.getWordCount()];
+		// all sets computed here are equivalent, so closures are taken in the original one
+		Map<BitSet, long[]> reduced = new LinkedHashMap<>();
+		for (int i = 0; i < list.size(); ++i) {
+			long[] closed = new long[lin.getWordCount()];
+			lin.closure(premises[i], closed);
+			if (BitWords.isSubsetOf(closed, premises[i])) {
+				continue;
+			}
+			long[] premise = premises[i].clone();
+			for (int m = BitWords.nextSetBit(premise, 0); m >= 0; m = BitWords.nextSetBit(premise, m + 1)) {
+				BitWords.clear(premise, m);
+				lin.closure(premise, scratch);
+				if (!BitWords.isSubsetOf(closed, scratch)) {
+					BitWords.set(premise, m);
+				}
+			}
+			reduced.putIfAbsent(BitSet.valueOf(premise), closed);
+		}
+		int n = reduced.size();
+		List<long[]> reducedPremises = new ArrayList<>(n);
+		List<long[]> reducedConclusions = new ArrayList<>(n);
+		LinClosure reducedEngine = new LinClosure(lin.getAttributeCount());
+		for (Map.Entry<BitSet, long[]> entry : reduced.entrySet()) {
+			long[] premise = Arrays.copyOf(entry.getKey().toLongArray(), lin.getWordCount());
+			long[] conclusion = entry.getValue();
+			for (int w = 0; w < conclusion.length; ++w) {
+				conclusion[w] &= ~premise[w];
+			}
+			reducedPremises.add(premise);
+			reducedConclusions.add(conclusion);
+			reducedEngine.addImplication(premise, conclusion);
+		}
+		for (int i = 0; i < n; ++i) {
+			if (!disableIfRedundant(reducedEngine, i, reducedPremises.get(i), reducedConclusions.get(i), scratch)) {
+				cover.add(new Implication<A>(toSet(reducedPremises.get(i)), toSet(reducedConclusions.get(i))));
+			}
+		}
+		return cover;
+	}
+
+	/**
+	 * Returns the canonical form of this implication set, i.e., the
+	 * Duquenne-Guigues basis of its closed sets. Its premises are the
+	 * pseudo-closed sets and each conclusion consists of the attributes that
+	 * the closure adds to the premise. It is computed without enumerating the
+	 * closed sets: first every conclusion is replaced by the closure of its
+	 * premise, then every implication is removed in turn, its premise is
+	 * closed under the remaining ones, and it is put back with this premise
+	 * unless it follows from them. This takes two closures per implication.
+	 * Implications with attributes that are not attributes of the base
+	 * context are kept unchanged.
+	 * 
+	 * @return the Duquenne-Guigues basis of this implication set
+	 * @see AbstractContext#getStemBase()
+	 */
+	public ImplicationSet<A> canonicalBasis() {
+		ImplicationSet<A> basis = new ImplicationSet<A>(this.theContext);
+		List<FCAImplication<A>> list = localImplications(basis);
+		int n = list.size();
+		long[][] premises = new long[n][];
+		long[][] conclusions = new long[n][];
+		LinClosure lin = engineOf(list, premises, conclusions);
+		int words = lin.getWordCount();
+		LinClosure closed = new LinClosure(lin.getAttributeCount());
+		long[][] closures = new long[n][];
+		for (int i = 0; i < n; ++i) {
+			closures[i] = new long[words];
+			lin.closure(premises[i], closures[i]);
+			closed.addImplication(premises[i], closures[i]);
+		}
+		long[] premise = new long[words];
+		for (int i = 0; i < n; ++i) {
+			closed.setEnabled(i, false);
+			closed.closure(premises[i], premise);
+			if (!BitWords.isSubsetOf(closures[i], premise)) {
+				long[] p = premise.clone();
+				closed.addImplication(p, closures[i]);
+				long[] conclusion = closures[i].clone();
+				for (int w = 0; w < words; ++w) {
+					conclusion[w] &= ~p[w];
+				}
+				basis.add(new Implication<A>(toSet(p), toSet(conclusion)));
+			}
+		}
+		return basis;
+	}
+
 }
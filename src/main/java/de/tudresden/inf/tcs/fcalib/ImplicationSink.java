@@ -0,0 +1,41 @@
+package de.tudresden.inf.tcs.fcalib;
+
+/*
+ * FCAlib: An open-source extensible library for Formal Concept Analysis
+ *         tool developers
+ * Copyright (C) 2009  Baris Sertkaya
+ *
+ * This file is part of FCAlib.
+ * FCAlib is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FCAlib is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with FCAlib.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/**
+ * Receives the implications computed by {@link CanonicalBasis}.
+ */
+
+public interface ImplicationSink {
+
+	/**
+	 * Called once for every implication. The arrays are bit words over the
+	 * attribute indices. They are reused by the caller after this method
+	 * returns, so they have to be copied if they are kept.
+	 *
+	 * @param premise
+	 *            the premise of the implication
+	 * @param conclusion
+	 *            the attributes that follow from the premise and are not in it
+	 */
+	void implication(long[] premise, long[] conclusion);
+
+}
@@ -0,0 +1,392 @@
+package de.tudresden.inf.tcs.fcalib;
+
+import java.util.Arrays;
+
+/*
+ * FCAlib: An open-source extensible library for Formal Concept Analysis
+ *         tool developers
+ * Copyright (C) 2009  Baris Sertkaya
+ *
+ * This file is part of FCAlib.
+ * FCAlib is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FCAlib is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with FCAlib.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/**
+ * The linear closure algorithm working on attribute indices. Premises and
+ * conclusions are stored as bit words (see
+ * {@link de.tudresden.inf.tcs.fcalib.utils.BitWords}), one slice of
+ * <code>getWordCount()</code> words per implication. The premise counters and
+ * the update queue are allocated once and reused by every closure
+ * computation, so an instance must not be used by several threads at the same
+ * time.
+ */
+
+public class LinClosure {
+
+	/**
+	 * Number of attributes.
+	 */
+	private final int attributeCount;
+
+	/**
+	 * Number of words of an attribute set.
+	 */
+	private final int wordCount;
+
+	/**
+	 * Number of implications.
+	 */
+	private int implicationCount = 0;
+
+	/**
+	 * Premises of the implications, one slice per implication.
+	 */
+	private long[] premises;
+
+	/**
+	 * Conclusions of the implications, one slice per implication.
+	 */
+	private long[] conclusions;
+
+	/**
+	 * Number of attributes in the premise of each implication, including the
+	 * ones that are not represented.
+	 */
+	private int[] premiseSizes;
+
+	/**
+	 * For each attribute, the implications in whose premise it occurs.
+	 */
+	private final int[][] occurrences;
+
+	/**
+	 * Number of used entries in each row of <code>occurrences</code>.
+	 */
+	private final int[] occurrenceCounts;
+
+	/**
+	 * Implications with empty premise.
+	 */
+	private int[] emptyPremises = new int[4];
+
+	/**
+	 * Number of used entries in <code>emptyPremises</code>.
+	 */
+	private int emptyPremiseCount = 0;
+
+	/**
+	 * Whether each implication is disabled.
+	 */
+	private boolean[] disabled = new boolean[4];
+
+	/**
+	 * The disabled implications.
+	 */
+	private int[] disabledList = new int[4];
+
+	/**
+	 * Number of used entries in <code>disabledList</code>.
+	 */
+	private int disabledCount = 0;
+
+	/**
+	 * Scratch premise counters.
+	 */
+	private int[] counters;
+
+	/**
+	 * Scratch queue of attributes whose occurrences have not been processed.
+	 */
+	private final int[] queue;
+
+	/**
+	 * Creates an engine without implications.
+	 *
+	 * @param attributeCount
+	 *            number of attributes
+	 */
+	public LinClosure(int attributeCount) {
+		this.attributeCount = attributeCount;
+		this.wordCount = (attributeCount + 63) >>> 6;
+		this.premises = new long[4 * this.wordCount];
+		this.conclusions = new long[4 * this.wordCount];
+		this.premiseSizes = new int[4];
+		this.counters = new int[4];
+		this.occurrences = new int[attributeCount][];
+		this.occurrenceCounts = new int[attributeCount];
+		this.queue = new int[attributeCount];
+	}
+
+	/**
+	 * Returns the number of attributes.
+	 *
+	 * @return the number of attributes
+	 */
+	public int getAttributeCount() {
+		return this.attributeCount;
+	}
+
+	/**
+	 * Returns the number of words of an attribute set.
+	 *
+	 * @return the number of words
+	 */
+	public int getWordCount() {
+		return this.wordCount;
+	}
+
+	/**
+	 * Returns the number of implications.
+	 *
+	 * @return the number of implications
+	 */
+	public int getImplicationCount() {
+		return this.implicationCount;
+	}
+
+	/**
+	 * Adds an implication.
+	 *
+	 * @param premise
+	 *            the premise as bit words
+	 * @param conclusion
+	 *            the conclusion as bit words
+	 * @return the index of the new implication
+	 */
+	public int addImplication(long[] premise, long[] conclusion) {
+		return addImplication(premise, conclusion, 0);
+	}
+
+	/**
+	 * Adds an implication whose premise may contain attributes that this
+	 * engine does not represent. Such an implication never fires, since its
+	 * premise is never contained in a set of attributes of this engine.
+	 *
+	 * @param premise
+	 *            the premise as bit words, without the attributes that are
+	 *            not represented
+	 * @param conclusion
+	 *            the conclusion as bit words
+	 * @param missing
+	 *            number of attributes of the premise that are not
+	 *            represented
+	 * @return the index of the new implication
+	 */
+	public int addImplication(long[] premise, long[] conclusion, int missing) {
+		int imp = this.implicationCount;
+		if (imp == this.premiseSizes.length) {
+			int capacity = 2 * imp;
+			this.premises = Arrays.copyOf(this.premises, capacity * this.wordCount);
+			this.conclusions = Arrays.copyOf(this.conclusions, capacity * this.wordCount);
+			this.premiseSizes = Arrays.copyOf(this.premiseSizes, capacity);
+			this.disabled = Arrays.copyOf(this.disabled, capacity);
+			this.counters = new int[capacity];
+		}
+		int base = imp * this.wordCount;
+		int size = 0;
+		for (int w = 0; w < this.wordCount; ++w) {
+			long word = premise[w];
+			this.premises[base + w] = word;
+			this.conclusions[base + w] = conclusion[w];
+			size += Long.bitCount(word);
+			for (; word != 0; word &= word - 1) {
+				addOccurrence((w << 6) + Long.numberOfTrailingZeros(word), imp);
+			}
+		}
+		// the counter of an implication with missing attributes never drops to zero
+		this.premiseSizes[imp] = size + missing;
+		if (size + missing == 0) {
+			if (this.emptyPremiseCount == this.emptyPremises.length) {
+				this.emptyPremises = Arrays.copyOf(this.emptyPremises, 2 * this.emptyPremiseCount);
+			}
+			this.emptyPremises[this.emptyPremiseCount++] = imp;
+		}
+		++this.implicationCount;
+		return imp;
+	}
+
+	/**
+	 * Removes the implication that was added last, in time linear in the size
+	 * of its premise. Its index is used again by the next added implication.
+	 */
+	public void removeLastImplication() {
+		int imp = this.implicationCount - 1;
+		setEnabled(imp, true);
+		int base = imp * this.wordCount;
+		for (int w = 0; w < this.wordCount; ++w) {
+			for (long word = this.premises[base + w]; word != 0; word &= word - 1) {
+				// the implication is the last one in each of its occurrence lists
+				--this.occurrenceCounts[(w << 6) + Long.numberOfTrailingZeros(word)];
+			}
+		}
+		if ((this.emptyPremiseCount > 0) && (this.emptyPremises[this.emptyPremiseCount - 1] == imp)) {
+			--this.emptyPremiseCount;
+		}
+		this.implicationCount = imp;
+	}
+
+	/**
+	 * Disables or enables an implication. A disabled implication is ignored
+	 * by the closure computations, as if it had been removed, which allows to
+	 * test whether an implication follows from the others without rebuilding
+	 * the engine.
+	 *
+	 * @param imp
+	 *            index of the implication
+	 * @param enabled
+	 *            <code>false</code> to disable the implication,
+	 *            <code>true</code> to enable it again
+	 */
+	public void setEnabled(int imp, boolean enabled) {
+		if (this.disabled[imp] != enabled) {
+			return;
+		}
+		this.disabled[imp] = !enabled;
+		if (enabled) {
+			for (int k = 0; k < this.disabledCount; ++k) {
+				if (this.disabledList[k] == imp) {
+					this.disabledList[k] = this.disabledList[--this.disabledCount];
+					break;
+				}
+			}
+		} else {
+			if (this.disabledCount == this.disabledList.length) {
+				this.disabledList = Arrays.copyOf(this.disabledList, 2 * this.disabledCount);
+			}
+			this.disabledList[this.disabledCount++] = imp;
+		}
+	}
+
+	/**
+	 * Checks whether an implication is enabled.
+	 *
+	 * @param imp
+	 *            index of the implication
+	 * @return <code>true</code> unless the implication has been disabled
+	 * @see #setEnabled(int, boolean)
+	 */
+	public boolean isEnabled(int imp) {
+		return !this.disabled[imp];
+	}
+
+	private void addOccurrence(int attr, int imp) {
+		int[] row = this.occurrences[attr];
+		int count = this.occurrenceCounts[attr];
+		if (row == null) {
+			row = new int[4];
+			this.occurrences[attr] = row;
+		} else if (count == row.length) {
+			row = Arrays.copyOf(row, 2 * count);
+			this.occurrences[attr] = row;
+		}
+		row[count] = imp;
+		this.occurrenceCounts[attr] = count + 1;
+	}
+
+	/**
+	 * Computes the closure of a given attribute set. <code>x</code> and
+	 * <code>result</code> may be the same array.
+	 *
+	 * @param x
+	 *            the attribute set to be closed
+	 * @param result
+	 *            the array where the closure of <code>x</code> is stored
+	 */
+	public void closure(long[] x, long[] result) {
+		closure(x, result, 0);
+	}
+
+	/**
+	 * Computes the closure of a given attribute set unless it contains an
+	 * attribute below a given bound that is not in the set. This is the
+	 * canonicity test of NextClosure, and the computation stops as soon as it
+	 * is known to fail. <code>x</code> and <code>result</code> may be the same
+	 * array.
+	 *
+	 * @param x
+	 *            the attribute set to be closed
+	 * @param result
+	 *            the array where the closure of <code>x</code> is stored; its
+	 *            contents are unspecified if the test fails
+	 * @param bound
+	 *            the exclusive upper bound of the attributes that must not be
+	 *            added
+	 * @return <code>true</code> if no attribute below <code>bound</code> was
+	 *         added, in which case <code>result</code> is the closure
+	 */
+	public boolean closure(long[] x, long[] result, int bound) {
+		if (x != result) {
+			System.arraycopy(x, 0, result, 0, this.wordCount);
+		}
+		System.arraycopy(this.premiseSizes, 0, this.counters, 0, this.implicationCount);
+		for (int k = 0; k < this.disabledCount; ++k) {
+			// the counter never drops to zero again
+			this.counters[this.disabledList[k]] = 0;
+		}
+		int pending = 0;
+		for (int w = 0; w < this.wordCount; ++w) {
+			for (long word = result[w]; word != 0; word &= word - 1) {
+				this.queue[pending++] = (w << 6) + Long.numberOfTrailingZeros(word);
+			}
+		}
+		for (int k = 0; k < this.emptyPremiseCount; ++k) {
+			if (this.disabled[this.emptyPremises[k]]) {
+				continue;
+			}
+			pending = fire(this.emptyPremises[k], result, pending, bound);
+			if (pending < 0) {
+				return false;
+			}
+		}
+		while (pending > 0) {
+			int attr = this.queue[--pending];
+			int[] row = this.occurrences[attr];
+			int count = this.occurrenceCounts[attr];
+			for (int k = 0; k < count; ++k) {
+				int imp = row[k];
+				if (--this.counters[imp] == 0) {
+					pending = fire(imp, result, pending, bound);
+					if (pending < 0) {
+						return false;
+					}
+				}
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Adds the conclusion of an implication to a set and queues the new
+	 * attributes. Returns <code>-1</code> if an attribute below
+	 * <code>bound</code> is added.
+	 */
+	private int fire(int imp, long[] result, int pending, int bound) {
+		int base = imp * this.wordCount;
+		for (int w = 0; w < this.wordCount; ++w) {
+			long added = this.conclusions[base + w] & ~result[w];
+			if (added != 0) {
+				int below = bound - (w << 6);
+				if ((below >= 64) || ((below > 0) && ((added & ((1L << below) - 1)) != 0))) {
+					return -1;
+				}
+				result[w] |= added;
+				for (; added != 0; added &= added - 1) {
+					this.queue[pending++] = (w << 6) + Long.numberOfTrailingZeros(added);
+				}
+			}
+		}
+		return pending;
+	}
+
+}
@@ -0,0 +1,182 @@
+package de.tudresden.inf.tcs.fcalib;
+
+import java.util.BitSet;
+import java.util.Set;
+
+import de.tudresden.inf.tcs.fcalib.utils.BitWords;
+
+/*
+ * FCAlib: An open-source extensible library for Formal Concept Analysis
+ *         tool developers
+ * Copyright (C) 2009  Baris Sertkaya
+ *
+ * This file is part of FCAlib.
+ * FCAlib is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FCAlib is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with FCAlib.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/**
+ * A cursor that walks through the closed sets of an implication set in lectic
+ * order. The current set is kept as bit words over the attribute indices of
+ * the base context, and the buffers used by {@link #next()} are allocated once
+ * when the cursor is created. The current set is only converted into a
+ * {@link java.util.Set} when {@link #toSet()} is called.
+ * <p>
+ * Implications may be added to the implication set while the cursor is in
+ * use, later steps take them into account. Adding attributes to the base
+ * context or changing their order invalidates the cursor.
+ * </p>
+ */
+
+public class NextClosureCursor<A> {
+
+	/**
+	 * The implication set whose closed sets are enumerated.
+	 */
+	private final ImplicationSet<A> implications;
+
+	/**
+	 * Number of attributes when the cursor was created.
+	 */
+	private final int attributeCount;
+
+	/**
+	 * The current set.
+	 */
+	private long[] current;
+
+	/**
+	 * Scratch set used while searching for the next closed set.
+	 */
+	private final long[] tmp;
+
+	/**
+	 * Scratch set for closures of candidates.
+	 */
+	private long[] candidate;
+
+	/**
+	 * Creates a cursor positioned at the given set.
+	 *
+	 * @param implications
+	 *            the implication set
+	 * @param start
+	 *            the initial set as bit words, not copied
+	 */
+	NextClosureCursor(ImplicationSet<A> implications, long[] start) {
+		this.implications = implications;
+		this.attributeCount = implications.getClosureEngine().getAttributeCount();
+		this.current = start;
+		this.tmp = new long[start.length];
+		this.candidate = new long[start.length];
+	}
+
+	private LinClosure engine() {
+		LinClosure engine = this.implications.getClosureEngine();
+		if (engine.getAttributeCount() != this.attributeCount) {
+			throw new IllegalStateException(
+					"The attributes of the context changed while enumerating closed sets");
+		}
+		return engine;
+	}
+
+	/**
+	 * Replaces the current set by its closure.
+	 */
+	public void close() {
+		engine();
+		this.implications.closure(this.current, this.current);
+	}
+
+	/**
+	 * Moves to the closed set coming after the current set in the lectic
+	 * order.
+	 *
+	 * @return <code>true</code> if there is such a set, <code>false</code> if
+	 *         the current set is the last one, in which case the cursor does
+	 *         not move
+	 */
+	public boolean next() {
+		engine();
+		int n = this.attributeCount;
+		if (BitWords.cardinality(this.current) == n) {
+			return false;
+		}
+		System.arraycopy(this.current, 0, this.tmp, 0, this.tmp.length);
+		for (int i = n - 1; i >= 0; i--) {
+			if (BitWords.get(this.tmp, i)) {
+				BitWords.clear(this.tmp, i);
+			} else {
+				BitWords.set(this.tmp, i);
+				this.implications.closure(this.tmp, this.candidate);
+				if (!BitWords.hasNewBitBelow(this.candidate, this.current, i)) {
+					long[] swap = this.current;
+					this.current = this.candidate;
+					this.candidate = swap;
+					return true;
+				}
+				BitWords.clear(this.tmp, i);
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Returns the current set as bit words. The array is owned by the cursor
+	 * and must not be modified; its contents change when the cursor moves.
+	 *
+	 * @return the current set
+	 */
+	public long[] getWords() {
+		return this.current;
+	}
+
+	/**
+	 * Checks whether the current set contains the attribute at a given index.
+	 *
+	 * @param index
+	 *            index of the attribute in the base context
+	 * @return <code>true</code> if the attribute is in the current set
+	 */
+	public boolean contains(int index) {
+		return BitWords.get(this.current, index);
+	}
+
+	/**
+	 * Returns the number of attributes in the current set.
+	 *
+	 * @return the cardinality of the current set
+	 */
+	public int cardinality() {
+		return BitWords.cardinality(this.current);
+	}
+
+	/**
+	 * Returns a copy of the current set as a bit set.
+	 *
+	 * @return the current set
+	 */
+	public BitSet toBitSet() {
+		return BitSet.valueOf(this.current);
+	}
+
+	/**
+	 * Returns a copy of the current set as a set of attributes.
+	 *
+	 * @return the current set
+	 */
+	public Set<A> toSet() {
+		return this.implications.toSet(this.current);
+	}
+
+}
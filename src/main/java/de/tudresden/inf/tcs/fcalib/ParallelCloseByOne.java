@@ -0,0 +1,310 @@
+package de.tudresden.inf.tcs.fcalib;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import de.tudresden.inf.tcs.fcalib.utils.BitWords;
+
+/*
+ * FCAlib: An open-source extensible library for Formal Concept Analysis
+ *         tool developers
+ * Copyright (C) 2009  Baris Sertkaya
+ *
+ * This file is part of FCAlib.
+ * FCAlib is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FCAlib is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with FCAlib.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/**
+ * Computes all formal concepts of a cross table with the Fast Close-by-One
+ * algorithm (FCbO) of Krajca, Outrata and Vychodil. The search tree is split
+ * by attribute prefix: the nodes above the split depth are fork-join tasks,
+ * and every subtree below it is explored sequentially by one worker with its
+ * own scratch buffers.
+ */
+
+public class ParallelCloseByOne {
+
+	/**
+	 * The default depth up to which the search tree is split into tasks.
+	 */
+	public static final int DEFAULT_SPLIT_DEPTH = 2;
+
+	/**
+	 * The cross table whose concepts are computed.
+	 */
+	private final CrossTable table;
+
+	/**
+	 * Number of worker threads.
+	 */
+	private final int parallelism;
+
+	/**
+	 * Depth up to which the search tree is split into tasks.
+	 */
+	private int splitDepth = DEFAULT_SPLIT_DEPTH;
+
+	/**
+	 * Set of attributes used as empty failure set.
+	 */
+	private final long[] noAttributes;
+
+	/**
+	 * Scratch buffers of each worker.
+	 */
+	private final ThreadLocal<Scratch> scratch = new ThreadLocal<Scratch>() {
+		@Override
+		protected Scratch initialValue() {
+			return new Scratch();
+		}
+	};
+
+	/**
+	 * Creates an enumerator.
+	 *
+	 * @param table
+	 *            the cross table
+	 * @param parallelism
+	 *            number of worker threads, <code>1</code> computes the
+	 *            concepts in the calling thread
+	 */
+	public ParallelCloseByOne(CrossTable table, int parallelism) {
+		if (parallelism < 1) {
+			throw new IllegalArgumentException("Parallelism must be positive: " + parallelism);
+		}
+		this.table = table;
+		this.parallelism = parallelism;
+		this.noAttributes = new long[table.getAttributeWordCount()];
+	}
+
+	/**
+	 * Returns the depth up to which the search tree is split into tasks.
+	 *
+	 * @return the split depth
+	 */
+	public int getSplitDepth() {
+		return this.splitDepth;
+	}
+
+	/**
+	 * Sets the depth up to which the search tree is split into tasks. Deeper
+	 * splits give smaller tasks and a better balance for skewed contexts.
+	 *
+	 * @param depth
+	 *            the split depth
+	 */
+	public void setSplitDepth(int depth) {
+		this.splitDepth = depth;
+	}
+
+	/**
+	 * Computes all concepts and reports each of them exactly once to the given
+	 * sink.
+	 *
+	 * @param sink
+	 *            the sink receiving the concepts
+	 */
+	public void enumerate(ConceptSink sink) {
+		long[] extent = new long[this.table.getObjectWordCount()];
+		long[] intent = new long[this.table.getAttributeWordCount()];
+		BitWords.fill(extent, this.table.getObjectCount());
+		this.table.intent(extent, intent);
+		long[][] failures = new long[this.table.getAttributeCount()][];
+		for (int j = 0; j < failures.length; ++j) {
+			failures[j] = this.noAttributes;
+		}
+		if (this.parallelism == 1) {
+			generate(this.scratch.get(), 0, sink, extent, intent, 0, failures);
+			this.scratch.remove();
+		} else {
+			ForkJoinPool pool = new ForkJoinPool(this.parallelism);
+			try {
+				pool.invoke(new Task(sink, extent, intent, 0, failures, 0));
+			} finally {
+				pool.shutdown();
+			}
+		}
+	}
+
+	/**
+	 * Checks whether a child may be generated by adding attribute
+	 * <code>j</code>, i.e., whether the failure set inherited for
+	 * <code>j</code> does not already prove it non-canonical.
+	 */
+	private static boolean mayExtend(long[] intent, long[] inherited, int j) {
+		return !BitWords.get(intent, j) && !BitWords.hasNewBitBelow(inherited, intent, j);
+	}
+
+	/**
+	 * Computes the extent of the child obtained by adding attribute
+	 * <code>j</code>.
+	 */
+	private void childExtent(long[] extent, int j, long[] result) {
+		long[] column = this.table.getColumn(j);
+		for (int w = 0; w < result.length; ++w) {
+			result[w] = extent[w] & column[w];
+		}
+	}
+
+	/**
+	 * Explores the subtree below a concept sequentially.
+	 */
+	private void generate(Scratch s, int depth, ConceptSink sink, long[] extent, long[] intent, int y,
+			long[][] inherited) {
+		sink.concept(extent, intent);
+		int n = this.table.getAttributeCount();
+		if ((y >= n) || (BitWords.cardinality(intent) == n)) {
+			return;
+		}
+		Level level = s.level(depth);
+		int queued = 0;
+		for (int j = y; j < n; ++j) {
+			long[] failure = level.failures[j];
+			System.arraycopy(inherited[j], 0, failure, 0, failure.length);
+			if (mayExtend(intent, inherited[j], j)) {
+				childExtent(extent, j, level.extent);
+				long[] childIntent = level.intents[queued];
+				this.table.intent(level.extent, childIntent);
+				if (BitWords.hasNewBitBelow(childIntent, intent, j)) {
+					System.arraycopy(childIntent, 0, failure, 0, failure.length);
+				} else {
+					level.attributes[queued++] = j;
+				}
+			}
+		}
+		for (int k = 0; k < queued; ++k) {
+			int j = level.attributes[k];
+			childExtent(extent, j, level.extent);
+			generate(s, depth + 1, sink, level.extent, level.intents[k], j + 1, level.failures);
+		}
+	}
+
+	/**
+	 * A node of the search tree above the split depth.
+	 */
+	private final class Task extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+
+		private final ConceptSink sink;
+		private final long[] extent;
+		private final long[] intent;
+		private final int y;
+		private final long[][] inherited;
+		private final int depth;
+
+		Task(ConceptSink sink, long[] extent, long[] intent, int y, long[][] inherited, int depth) {
+			this.sink = sink;
+			this.extent = extent;
+			this.intent = intent;
+			this.y = y;
+			this.inherited = inherited;
+			this.depth = depth;
+		}
+
+		@Override
+		protected void compute() {
+			if (this.depth >= ParallelCloseByOne.this.splitDepth) {
+				generate(ParallelCloseByOne.this.scratch.get(), 0, this.sink, this.extent, this.intent, this.y,
+						this.inherited);
+				return;
+			}
+			this.sink.concept(this.extent, this.intent);
+			CrossTable t = ParallelCloseByOne.this.table;
+			int n = t.getAttributeCount();
+			if ((this.y >= n) || (BitWords.cardinality(this.intent) == n)) {
+				return;
+			}
+			long[][] failures = new long[n][];
+			List<long[]> extents = new ArrayList<>();
+			List<long[]> intents = new ArrayList<>();
+			List<Integer> attributes = new ArrayList<>();
+			for (int j = this.y; j < n; ++j) {
+				failures[j] = this.inherited[j];
+				if (mayExtend(this.intent, this.inherited[j], j)) {
+					long[] childExtent = new long[t.getObjectWordCount()];
+					long[] childIntent = new long[t.getAttributeWordCount()];
+					childExtent(this.extent, j, childExtent);
+					t.intent(childExtent, childIntent);
+					if (BitWords.hasNewBitBelow(childIntent, this.intent, j)) {
+						failures[j] = childIntent;
+					} else {
+						extents.add(childExtent);
+						intents.add(childIntent);
+						attributes.add(j);
+					}
+				}
+			}
+			List<Task> children = new ArrayList<>();
+			for (int k = 0; k < attributes.size(); ++k) {
+				children.add(new Task(this.sink, extents.get(k), intents.get(k), attributes.get(k) + 1, failures,
+						this.depth + 1));
+			}
+			invokeAll(children);
+		}
+	}
+
+	/**
+	 * The scratch buffers of one level of the sequential search.
+	 */
+	private final class Level {
+
+		/**
+		 * Failure sets passed to the children.
+		 */
+		final long[][] failures;
+
+		/**
+		 * Intents of the queued children.
+		 */
+		final long[][] intents;
+
+		/**
+		 * Attributes that generated the queued children.
+		 */
+		final int[] attributes;
+
+		/**
+		 * Extent of the child being examined.
+		 */
+		final long[] extent;
+
+		Level() {
+			CrossTable t = ParallelCloseByOne.this.table;
+			int n = t.getAttributeCount();
+			this.failures = new long[n][t.getAttributeWordCount()];
+			this.intents = new long[n][t.getAttributeWordCount()];
+			this.attributes = new int[n];
+			this.extent = new long[t.getObjectWordCount()];
+		}
+	}
+
+	/**
+	 * The scratch buffers of one worker, one level per depth of the search.
+	 */
+	private final class Scratch {
+
+		private final List<Level> levels = new ArrayList<>();
+
+		Level level(int depth) {
+			while (this.levels.size() <= depth) {
+				this.levels.add(new Level());
+			}
+			return this.levels.get(depth);
+		}
+	}
+
+}
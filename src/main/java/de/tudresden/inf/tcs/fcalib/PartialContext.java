@@ -1,17 +1,28 @@
 
 package de.tudresden.inf.tcs.fcalib;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.HashMap;
 import java.util.HashSet;
 
-// import java.util.logging.Logger;
+import java.util.logging.Logger;
 
 import de.tudresden.inf.tcs.fcaapi.Expert;
 import de.tudresden.inf.tcs.fcaapi.FCAImplication;
 import de.tudresden.inf.tcs.fcaapi.exception.IllegalObjectException;
 import de.tudresden.inf.tcs.fcaapi.exception.IllegalAttributeException;
 import de.tudresden.inf.tcs.fcaapi.utils.IndexedSet;
-import de.tudresden.inf.tcs.fcalib.utils.ListSet;
+import de.tudresden.inf.tcs.fcalib.utils.AttributeDictionary;
+import de.tudresden.inf.tcs.fcalib.utils.BitWords;
+import de.tudresden.inf.tcs.fcalib.utils.HashIndexedSet;
 
 
 /*
@@ -47,23 +58,81 @@ public class PartialContext<A,I,O extends PartialObject<A,I>> extends AbstractCo
 	/**
 	 * The objects of this partial context.
 	 */
-	protected ListSet<O> objects;
+	protected IndexedSet<O> objects;
+	
+	/**
+	 * The objects of this partial context by identifier.
+	 */
+	private Map<I,O> objectsById = new HashMap<>();
 	
 	/**
 	 * The expert for this formal context.
 	 */
 	protected Expert<A,I,O> expert = null;
 	
-	// /**
-	//  * The logger.
-	//  */
-	// private static final Logger logger = Logger.getLogger(PartialContext.class.getName());
+	/**
+	 * The columns of the attributes that the objects have, maintained in vertical storage mode,
+	 * <code>null</code> if the mode is off. The rows are the bit words of the object descriptions.
+	 * Its attribute indices are the identifiers of the attribute dictionary of this context, which
+	 * do not change when the attributes of this context are reordered.
+	 */
+	private CrossTable plusTable = null;
+	
+	/**
+	 * The columns of the attributes that the objects are known not to have, maintained in vertical
+	 * storage mode. It uses the same indices as <code>plusTable</code>.
+	 */
+	private CrossTable minusTable = null;
+	
+	/**
+	 * Whether the implications of this context are propagated into the object descriptions.
+	 */
+	private boolean propagation = true;
+	
+	/**
+	 * The implications in the implication indexes, in the order in which they were indexed. The
+	 * indexes refer to them by their position in this list.
+	 */
+	private final List<FCAImplication<A>> indexed = new ArrayList<>();
+	
+	/**
+	 * The positions of the indexed implications by the identifiers of the attributes of their
+	 * premises, used to propagate the implications.
+	 */
+	private final PostingLists premiseIndex = new PostingLists();
+	
+	/**
+	 * The positions of the indexed implications by the identifiers of the attributes of their
+	 * conclusions.
+	 */
+	private final PostingLists conclusionIndex = new PostingLists();
+	
+	/**
+	 * The positions of the indexed implications with an attribute that has no identifier in the
+	 * attribute dictionary. They are returned for every such attribute.
+	 */
+	private final PostingLists foreignIndex = new PostingLists();
+	
+	/**
+	 * The implication set that the indexes were built from.
+	 */
+	private Set<FCAImplication<A>> indexedImplications = null;
+	
+	/**
+	 * The size of the attribute dictionary when the indexes were built.
+	 */
+	private int indexedAttributeCount = 0;
+	
+	/**
+	 * The logger.
+	 */
+	private static final Logger logger = Logger.getLogger(PartialContext.class.getName());
 	
 	/**
 	 * Creates a partial context with empty set of objects and attributes.
 	 */
 	public PartialContext() {
-		objects = new ListSet<O>();
+		objects = new HashIndexedSet<O>();
 	}
 	
 	/**
@@ -82,12 +151,14 @@ public class PartialContext<A,I,O extends PartialObject<A,I>> extends AbstractCo
 	 * does not exist
 	 */
 	public O getObject(I id) {
-		for (O object : getObjects()) {
-			if (object.getIdentifier().equals(id)) {
-				return object;
+		if (objectsById.size() != objects.size()) {
+			// the set of objects was modified directly
+			objectsById.clear();
+			for (O object : objects) {
+				objectsById.put(object.getIdentifier(), object);
 			}
 		}
-		return null;
+		return objectsById.get(id);
 	}
 	
 	/**
@@ -117,10 +188,19 @@ public class PartialContext<A,I,O extends PartialObject<A,I>> extends AbstractCo
 	 */
 	@Override
 	public boolean removeObject(I id) throws IllegalObjectException {
-		boolean removed = getObjects().remove(getObject(id));
+		O object = getObject(id);
+		int index = (object == null) ? -1 : objects.getIndexOf(object);
+		boolean removed = getObjects().remove(object);
 		if (!removed) {
 			throw new IllegalObjectException("Object" + id + "not successfully removed");
 		}
+		objectsById.remove(id);
+		if (plusTable != null) {
+			plusTable.removeObject(index);
+			minusTable.removeObject(index);
+			object.getDescription().storeAsHashSets();
+		}
+		modified();
 		return true;
 	}
 	
@@ -133,10 +213,20 @@ public class PartialContext<A,I,O extends PartialObject<A,I>> extends AbstractCo
 	 */
 	@Override
 	public boolean removeObject(O object) throws IllegalObjectException {
+		int index = objects.getIndexOf(object);
 		boolean removed = getObjects().remove(object);
 		if (!removed) {
 			throw new IllegalObjectException("Object" + object.getIdentifier() + "not successfully removed");
 		}
+		if (objectsById.get(object.getIdentifier()) == object) {
+			objectsById.remove(object.getIdentifier());
+		}
+		if (plusTable != null) {
+			plusTable.removeObject(index);
+			minusTable.removeObject(index);
+			object.getDescription().storeAsHashSets();
+		}
+		modified();
 		return true;
 	}
 	
@@ -149,6 +239,12 @@ public class PartialContext<A,I,O extends PartialObject<A,I>> extends AbstractCo
 	 */
 	@Override
 	public boolean refutes(FCAImplication<A> imp) {
+		if (plusTable != null) {
+			Boolean refuted = verticalRefutes(imp);
+			if (refuted != null) {
+				return refuted;
+			}
+		}
 		for (O object: getObjects()) {
 			if (object.refutes(imp)) {
 				return true;
@@ -192,13 +288,62 @@ public class PartialContext<A,I,O extends PartialObject<A,I>> extends AbstractCo
 		if (containsObject(o.getIdentifier())) {
 			return false;
 		}
-		getObjects().add(o);
+		if (getObjects().add(o)) {
+			objectsById.put(o.getIdentifier(), o);
+			if (plusTable != null) {
+				int g = plusTable.addObject();
+				minusTable.addObject();
+				setRow(g, o);
+			}
+			if (propagation && getImplications() != null && !getImplications().isEmpty()) {
+				complete(o);
+			}
+			objectAdded(o);
+		}
 		return true;
 	}
 	
+	/**
+	 * Adds a given attribute to the attributes of this context.
+	 * @param attribute the attribute to be added
+	 * @return <code>true</code> if the <code>attribute</code> is successfully added
+	 * @throws IllegalAttributeException if the given attribute is already in the set of attributes
+	 */
+	@Override
+	public boolean addAttribute(A attribute) throws IllegalAttributeException {
+		boolean added = super.addAttribute(attribute);
+		if (plusTable != null) {
+			int m = plusTable.addAttribute();
+			minusTable.addAttribute();
+			if (m != getAttributeDictionary().getId(attribute)) {
+				buildTables();
+				return added;
+			}
+			for (int g = 0; g < objects.size(); ++g) {
+				PartialObjectDescription<A> description = objects.getElementAt(g).getDescription();
+				if (description.containsAttribute(attribute)) {
+					plusTable.set(g, m);
+				}
+				else if (description.containsNegatedAttribute(attribute)) {
+					minusTable.set(g, m);
+				}
+			}
+		}
+		return added;
+	}
+	
 	@Override
 	public void clearObjects() {
+		if (plusTable != null) {
+			for (O object : getObjects()) {
+				object.getDescription().storeAsHashSets();
+			}
+			plusTable.clearObjects();
+			minusTable.clearObjects();
+		}
 		getObjects().clear();
+		objectsById.clear();
+		modified();
 	}
 	
 	/**
@@ -216,13 +361,62 @@ public class PartialContext<A,I,O extends PartialObject<A,I>> extends AbstractCo
 		if (!getAttributes().contains(attribute)) {
 			throw new IllegalAttributeException("Attribute " + attribute + "does not exist");
 		}
-		if (!containsObject(id)) {
+		O object = getObject(id);
+		if (object == null) {
 			throw new IllegalObjectException("Object " + id + "does not exist");
 		}
-		if (getObject(id).getDescription().containsAttribute(attribute)) {
+		if (object.getDescription().containsAttribute(attribute)) {
 			throw new IllegalAttributeException("Object already has attribute " + attribute); 
 		}
-		return getObject(id).getDescription().addAttribute(attribute);
+		boolean added = object.getDescription().addAttribute(attribute);
+		if (plusTable != null) {
+			verticalTables();
+			plusTable.set(objects.getIndexOf(object), getAttributeDictionary().getId(attribute));
+		}
+		if (propagation && getImplications() != null && !getImplications().isEmpty()) {
+			List<FCAImplication<A>> premises = new ArrayList<>();
+			addImplicationsWith(premiseIndex, attribute, premises);
+			complete(object, premises);
+		}
+		modified();
+		return added;
+	}
+	
+	/**
+	 * Adds a given attribute to the negated attributes of the given object. 
+	 * @param attribute the attribute to be added
+	 * @param id identifier of the object where the negation of <code>attribute</code> is to be added
+	 * @return <code>true</code> if of the negation of <code>attribute</code> is successfully added, 
+	 * <code>false</code> otherwise
+	 * @throws IllegalAttributeException if the object <code>name</code> already has the attribute or
+	 * its negation
+	 * @throws IllegalObjectException if an object with identifier <code>id</code> does not exist in this 
+	 * context
+	 */
+	public boolean addNegatedAttributeToObject(A attribute, I id) throws IllegalAttributeException,
+	IllegalObjectException {
+		if (!getAttributes().contains(attribute)) {
+			throw new IllegalAttributeException("Attribute " + attribute + "does not exist");
+		}
+		O object = getObject(id);
+		if (object == null) {
+			throw new IllegalObjectException("Object " + id + "does not exist");
+		}
+		if (object.getDescription().containsNegatedAttribute(attribute)) {
+			throw new IllegalAttributeException("Object already has negated attribute " + attribute); 
+		}
+		boolean added = object.getDescription().addNegatedAttribute(attribute);
+		if (plusTable != null) {
+			verticalTables();
+			minusTable.set(objects.getIndexOf(object), getAttributeDictionary().getId(attribute));
+		}
+		if (propagation && getImplications() != null && !getImplications().isEmpty()) {
+			List<FCAImplication<A>> conclusions = new ArrayList<>();
+			addImplicationsWith(conclusionIndex, attribute, conclusions);
+			complete(object, conclusions);
+		}
+		modified();
+		return added;
 	}
 	
 	/**
@@ -240,13 +434,20 @@ public class PartialContext<A,I,O extends PartialObject<A,I>> extends AbstractCo
 		if (!getAttributes().contains(attribute)) {
 			throw new IllegalAttributeException("Attribute " + attribute + "does not exist");
 		}
-		if (!containsObject(id)) {
+		O object = getObject(id);
+		if (object == null) {
 			throw new IllegalObjectException("Object " + id + "does not exist");
 		}
-		if (!getObject(id).getDescription().containsAttribute(attribute)) {
+		if (!object.getDescription().containsAttribute(attribute)) {
 			throw new IllegalAttributeException("Object does not have attribute " + attribute); 
 		}
-		return getObject(id).getDescription().removeAttribute(attribute);
+		boolean removed = object.getDescription().removeAttribute(attribute);
+		if (plusTable != null) {
+			verticalTables();
+			plusTable.clear(objects.getIndexOf(object), getAttributeDictionary().getId(attribute));
+		}
+		modified();
+		return removed;
 	}
 	
 	/**
@@ -288,6 +489,26 @@ public class PartialContext<A,I,O extends PartialObject<A,I>> extends AbstractCo
 	 */
 	@Override
 	public Set<A> doublePrime(Set<A> x) {
+		Set<A> result = cachedDoublePrime(x);
+		if (result == null) {
+			result = computeDoublePrime(x);
+			cacheDoublePrime(x, result);
+		}
+		return result;
+	}
+	
+	/**
+	 * Computes the second derivative of a given set of attributes without using the cache.
+	 * @param x the attribute set whose second derivative is to be computed
+	 * @return the second derivative of <code>x</code>
+	 */
+	private Set<A> computeDoublePrime(Set<A> x) {
+		if (plusTable != null) {
+			Set<A> result = verticalDoublePrime(x);
+			if (result != null) {
+				return result;
+			}
+		}
 		Set<A> tmp = new HashSet<>(getAttributes());
 		
 		for (O object : getObjects()) {
@@ -297,6 +518,193 @@ public class PartialContext<A,I,O extends PartialObject<A,I>> extends AbstractCo
 		}
 		return tmp;
 	}
+	
+	/**
+	 * Updates the second derivative of a set of attributes after an object has been added: if the
+	 * object has all attributes of the set, the attributes it is known not to have are removed from
+	 * the second derivative.
+	 * @param object the added object
+	 * @param x the set of attributes
+	 * @param derivation the second derivative of <code>x</code> to be updated
+	 * @return <code>true</code>
+	 */
+	@Override
+	protected boolean updateDerivation(O object, Set<A> x, Set<A> derivation) {
+		if (object.getDescription().containsAttributes(x)) {
+			derivation.removeAll(object.getDescription().getNegatedAttributes());
+		}
+		return true;
+	}
+	
+	/**
+	 * Returns the bitset of a given set of attributes in the maintained cross tables.
+	 * @param x the set of attributes
+	 * @return the bitset of <code>x</code>, <code>null</code> if <code>x</code> contains an attribute
+	 * that is not an attribute of this context
+	 */
+	private long[] tableBits(Set<A> x) {
+		AttributeDictionary<A> dictionary = getAttributeDictionary();
+		long[] bits = new long[plusTable.getAttributeWordCount()];
+		for (A attribute : x) {
+			int m = dictionary.getId(attribute);
+			if (m < 0) {
+				return null;
+			}
+			BitWords.set(bits, m);
+		}
+		return bits;
+	}
+	
+	/**
+	 * Computes the second derivative of a given set of attributes on the maintained cross tables.
+	 * The objects that have all attributes of <code>x</code> are the intersection of their columns in
+	 * the plus table, and the result consists of the attributes that none of these objects is known
+	 * not to have, i.e., that are not in the union of their negated attribute words.
+	 * @param x the attribute set whose second derivative is to be computed
+	 * @return the second derivative of <code>x</code>, <code>null</code> if <code>x</code> contains
+	 * an attribute that is not an attribute of this context
+	 */
+	private Set<A> verticalDoublePrime(Set<A> x) {
+		verticalTables();
+		long[] attrs = tableBits(x);
+		if (attrs == null) {
+			return null;
+		}
+		long[] extent = new long[plusTable.getObjectWordCount()];
+		plusTable.extent(attrs, extent);
+		Arrays.fill(attrs, 0L);
+		AttributeDictionary<A> dictionary = getAttributeDictionary();
+		for (int g = BitWords.nextSetBit(extent, 0); g >= 0; g = BitWords.nextSetBit(extent, g + 1)) {
+			PartialObjectDescription<A> description = objects.getElementAt(g).getDescription();
+			description.storeAsBits(dictionary);
+			long[] minus = description.getNegatedAttributeBits(dictionary).getWords();
+			for (int w = 0; w < minus.length && w < attrs.length; ++w) {
+				attrs[w] |= minus[w];
+			}
+		}
+		Set<A> result = new HashSet<>();
+		for (int m = 0; m < dictionary.size(); ++m) {
+			if (!BitWords.get(attrs, m)) {
+				result.add(dictionary.get(m));
+			}
+		}
+		return result;
+	}
+	
+	/**
+	 * Checks on the maintained cross tables whether an object of this context refutes a given
+	 * implication.
+	 * @param imp the implication to be tested
+	 * @return whether <code>imp</code> is refuted, <code>null</code> if <code>imp</code> contains
+	 * an attribute that is not an attribute of this context
+	 */
+	private Boolean verticalRefutes(FCAImplication<A> imp) {
+		verticalTables();
+		long[] premise = tableBits(imp.getPremise());
+		if (premise == null) {
+			return null;
+		}
+		long[] extent = new long[plusTable.getObjectWordCount()];
+		plusTable.extent(premise, extent);
+		AttributeDictionary<A> dictionary = getAttributeDictionary();
+		for (A attribute : imp.getConclusion()) {
+			int m = dictionary.getId(attribute);
+			if (m < 0) {
+				return null;
+			}
+			long[] column = minusTable.getColumn(m);
+			for (int w = 0; w < extent.length; ++w) {
+				if ((extent[w] & column[w]) != 0) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+	
+	/**
+	 * Makes sure that the maintained cross tables are up to date. They are rebuilt if the objects
+	 * or attributes of this context were changed without going through the methods of this context.
+	 * Their columns are the identifiers of the attribute dictionary.
+	 */
+	private void verticalTables() {
+		if (plusTable.getObjectCount() != objects.size()
+				|| plusTable.getAttributeCount() != getAttributeDictionary().size()) {
+			buildTables();
+		}
+	}
+	
+	/**
+	 * Builds the maintained cross tables from the object descriptions, and stores the descriptions
+	 * as bit words.
+	 */
+	private void buildTables() {
+		int attributeCount = getAttributeDictionary().size();
+		plusTable = new CrossTable(objects.size(), attributeCount, false);
+		minusTable = new CrossTable(objects.size(), attributeCount, false);
+		for (int g = 0; g < objects.size(); ++g) {
+			setRow(g, objects.getElementAt(g));
+		}
+	}
+	
+	/**
+	 * Copies the description of a given object into row <code>g</code> of the maintained cross tables.
+	 * @param g index of the object in the tables
+	 * @param object the object
+	 */
+	private void setRow(int g, O object) {
+		AttributeDictionary<A> dictionary = getAttributeDictionary();
+		object.getDescription().storeAsBits(dictionary);
+		for (A attribute : object.getDescription().getAttributes()) {
+			int m = dictionary.getId(attribute);
+			if (m >= 0) {
+				plusTable.set(g, m);
+			}
+		}
+		for (A attribute : object.getDescription().getNegatedAttributes()) {
+			int m = dictionary.getId(attribute);
+			if (m >= 0) {
+				minusTable.set(g, m);
+			}
+		}
+	}
+	
+	/**
+	 * Checks whether this context keeps its incidence relation in vertical storage mode.
+	 * @return <code>true</code> if vertical storage mode is on
+	 * @see #setVerticalStorage(boolean)
+	 */
+	public boolean isVerticalStorage() {
+		return plusTable != null;
+	}
+	
+	/**
+	 * Turns vertical storage mode on or off. In vertical storage mode the descriptions of the objects
+	 * of this context store their attributes and negated attributes as bit words over the attribute
+	 * dictionary of this context instead of hash sets, so every cross of the context takes two bits
+	 * in the rows, and this context maintains two tables of columns: the objects that have each
+	 * attribute and the objects that are known not to have it. 
+	 * {@link #doublePrime(Set)} and {@link #refutes(FCAImplication)} are then computed with bitwise
+	 * operations on these tables instead of scanning the object descriptions. The tables are kept in
+	 * sync by {@link #addObject(PartialObject)}, {@link #removeObject(PartialObject)}, 
+	 * {@link #addAttributeToObject(Object, Object)}, {@link #addNegatedAttributeToObject(Object, Object)}
+	 * and {@link #removeAttributeFromObject(Object, Object)}. Changes made directly to an object
+	 * description are kept in its rows, but not in the columns. Turning the mode off, or removing an
+	 * object, stores the descriptions in hash sets again.
+	 * @param on <code>true</code> to turn vertical storage mode on
+	 */
+	public void setVerticalStorage(boolean on) {
+		if (on) {
+			buildTables();
+		}
+		else {
+			for (O object : getObjects()) {
+				object.getDescription().storeAsHashSets();
+			}
+			plusTable = null;
+			minusTable = null;
+		}
+	}
 
 	// /**
 	//  * Performs the necessary operations when the expert confirms a question. For instance add the
@@ -309,19 +717,291 @@ public class PartialContext<A,I,O extends PartialObject<A,I>> extends AbstractCo
 	// 	// TODO: update the descriptions of the partial objects in the context!
 	// }
 	
-	protected boolean followsFromBackgroundKnowledge(FCAImplication<A> implication) {
-		// TODO: 
-		return false;
+	/**
+	 * Checks whether the implications of this context are propagated into the object descriptions.
+	 * @return <code>true</code> if the implications are propagated
+	 * @see #setImplicationPropagation(boolean)
+	 */
+	public boolean isImplicationPropagation() {
+		return propagation;
 	}
 	
+	/**
+	 * Sets whether the implications of this context are propagated into the object descriptions.
+	 * If so, every implication added to the implications of this context, for instance a question
+	 * confirmed by the expert, completes the partial objects: an object that has all attributes of
+	 * the premise gets the attributes of the conclusion, and an object that has all attributes of
+	 * the premise but one, and is known not to have an attribute of the conclusion, is known not to
+	 * have the remaining attribute of the premise either. This is repeated, with the implications
+	 * in which a newly set attribute occurs, until the descriptions do not change. Objects added
+	 * later, and objects whose descriptions are changed by {@link #addAttributeToObject} or
+	 * {@link #addNegatedAttributeToObject}, are completed in the same way. Attributes whose negation is already in a description
+	 * are never added to it, such conflicts are logged as warnings. In vertical storage mode the
+	 * affected objects of an implication are found with the columns of the cross tables, otherwise
+	 * all objects are checked for every added implication.
+	 * @param on <code>true</code> to propagate the implications, which is the default
+	 */
+	public void setImplicationPropagation(boolean on) {
+		propagation = on;
+	}
+	
+	/**
+	 * Completes the descriptions of the objects that are affected by a new implication.
+	 * @param imp the added implication
+	 * @return <code>true</code> if an object description was changed
+	 */
+	@Override
+	protected boolean implicationAdded(FCAImplication<A> imp) {
+		if (!propagation) {
+			return false;
+		}
+		indexImplication(imp);
+		boolean changed = false;
+		for (O object : affectedObjects(imp)) {
+			changed |= complete(object, Collections.singletonList(imp));
+		}
+		if (changed) {
+			modified();
+		}
+		return changed;
+	}
+	
+	/**
+	 * Returns the objects whose description may change because of a given implication, that is,
+	 * the objects that have all attributes of its premise, and the objects that are known not to
+	 * have an attribute of its conclusion. In vertical storage mode they are found with the columns
+	 * of the cross tables, without looking at the other objects. Otherwise every object is checked,
+	 * which takes time linear in the number of objects for every added implication.
+	 * @param imp the implication
+	 * @return the objects that may be affected by <code>imp</code>
+	 */
+	private List<O> affectedObjects(FCAImplication<A> imp) {
+		List<O> affected = new ArrayList<>();
+		if (plusTable != null) {
+			verticalTables();
+			long[] premise = tableBits(imp.getPremise());
+			long[] conclusion = tableBits(imp.getConclusion());
+			if (premise != null && conclusion != null) {
+				long[] candidates = new long[plusTable.getObjectWordCount()];
+				plusTable.extent(premise, candidates);
+				for (int m = BitWords.nextSetBit(conclusion, 0); m >= 0; m = BitWords.nextSetBit(conclusion, m + 1)) {
+					long[] column = minusTable.getColumn(m);
+					for (int w = 0; w < candidates.length; ++w) {
+						candidates[w] |= column[w];
+					}
+				}
+				for (int g = BitWords.nextSetBit(candidates, 0); g >= 0; g = BitWords.nextSetBit(candidates, g + 1)) {
+					affected.add(objects.getElementAt(g));
+				}
+				return affected;
+			}
+		}
+		for (O object : getObjects()) {
+			PartialObjectDescription<A> description = object.getDescription();
+			if (description.containsAttributes(imp.getPremise())
+					|| !Collections.disjoint(description.getNegatedAttributes(), imp.getConclusion())) {
+				affected.add(object);
+			}
+		}
+		return affected;
+	}
+	
+	/**
+	 * Completes the description of a given object with the implications of this context until it
+	 * does not change. Only the given implications and the implications in which a newly set
+	 * attribute occurs are checked: the attributes of the object are closed under all implications,
+	 * and an implication can only make the object known not to have an attribute of its premise
+	 * if the object is known not to have an attribute of its conclusion, and has all attributes of
+	 * its premise but one. An attribute of the closure that the object is known not to have means
+	 * that the object does not respect an implication of this context. Such a conflict is logged
+	 * and the attribute is not added.
+	 * @param object the object to be completed
+	 * @param implications the implications to be checked besides those of the newly set attributes
+	 * @return <code>true</code> if the description was changed
+	 * @see #setImplicationPropagation(boolean)
+	 */
+	private boolean complete(O object, Collection<FCAImplication<A>> implications) {
+		ImplicationSet<A> imps = (ImplicationSet<A>) getImplications();
+		PartialObjectDescription<A> description = object.getDescription();
+		Deque<FCAImplication<A>> pending = new ArrayDeque<>(implications);
+		boolean changed = false;
+		for (A attribute : imps.closure(description.getAttributes())) {
+			if (description.containsAttribute(attribute)) {
+				continue;
+			}
+			if (description.containsNegatedAttribute(attribute)) {
+				logger.warning("Object " + object.getIdentifier() + " does not respect the implications of the context: "
+						+ "it is known not to have " + attribute + ", which follows from " + description.getAttributes());
+				continue;
+			}
+			description.addAttribute(attribute);
+			setBit(plusTable, object, attribute);
+			addImplicationsWith(premiseIndex, attribute, pending);
+			changed = true;
+		}
+		// new negated attributes do not change the closure of the attributes
+		while (!pending.isEmpty()) {
+			FCAImplication<A> imp = pending.poll();
+			A missing = missingPremiseAttribute(description, imp);
+			if (missing != null && !description.containsNegatedAttribute(missing)
+					&& !Collections.disjoint(description.getNegatedAttributes(), imp.getConclusion())) {
+				description.addNegatedAttribute(missing);
+				setBit(minusTable, object, missing);
+				addImplicationsWith(conclusionIndex, missing, pending);
+				changed = true;
+			}
+		}
+		return changed;
+	}
+	
+	/**
+	 * Completes the description of a newly added object with the implications of this context.
+	 * Its negated attributes select the implications that are checked.
+	 * @param object the added object
+	 * @return <code>true</code> if the description was changed
+	 */
+	private boolean complete(O object) {
+		List<FCAImplication<A>> negated = new ArrayList<>();
+		for (A attribute : object.getDescription().getNegatedAttributes()) {
+			addImplicationsWith(conclusionIndex, attribute, negated);
+		}
+		return complete(object, negated);
+	}
+	
+	/**
+	 * Adds the implications in which a given attribute occurs, according to one of the implication
+	 * indexes, to a collection. The indexes are rebuilt if the implications of this context or its
+	 * attribute dictionary were changed without them. For an attribute without an identifier, all
+	 * implications with such an attribute are added.
+	 * @param index the premise or the conclusion index
+	 * @param attribute the attribute
+	 * @param target the collection the implications are added to
+	 */
+	private void addImplicationsWith(PostingLists index, A attribute, Collection<FCAImplication<A>> target) {
+		Set<FCAImplication<A>> imps = getImplications();
+		AttributeDictionary<A> dictionary = getAttributeDictionary();
+		if (indexedImplications != imps || indexed.size() != imps.size()
+				|| indexedAttributeCount != dictionary.size()) {
+			indexed.clear();
+			premiseIndex.clear();
+			conclusionIndex.clear();
+			foreignIndex.clear();
+			indexedImplications = imps;
+			indexedAttributeCount = dictionary.size();
+			for (FCAImplication<A> imp : imps) {
+				addToIndex(imp);
+			}
+		}
+		int id = dictionary.getId(attribute);
+		if (id < 0) {
+			index = foreignIndex;
+			id = 0;
+		}
+		int[] row = index.row(id);
+		for (int k = 0; k < index.count(id); ++k) {
+			target.add(indexed.get(row[k]));
+		}
+	}
+	
+	/**
+	 * Adds an implication that was added to the implications of this context to the implication
+	 * indexes, if they are up to date otherwise.
+	 * @param imp the added implication
+	 */
+	private void indexImplication(FCAImplication<A> imp) {
+		Set<FCAImplication<A>> imps = getImplications();
+		if (indexedImplications == imps && indexed.size() == imps.size() - 1
+				&& indexedAttributeCount == getAttributeDictionary().size()) {
+			addToIndex(imp);
+		}
+	}
+	
+	/**
+	 * Adds an implication to the premise and the conclusion index.
+	 * @param imp the implication
+	 */
+	private void addToIndex(FCAImplication<A> imp) {
+		AttributeDictionary<A> dictionary = getAttributeDictionary();
+		int position = indexed.size();
+		indexed.add(imp);
+		boolean foreign = false;
+		for (A attribute : imp.getPremise()) {
+			int id = dictionary.getId(attribute);
+			if (id >= 0) {
+				premiseIndex.add(id, position);
+			}
+			else {
+				foreign = true;
+			}
+		}
+		for (A attribute : imp.getConclusion()) {
+			int id = dictionary.getId(attribute);
+			if (id >= 0) {
+				conclusionIndex.add(id, position);
+			}
+			else {
+				foreign = true;
+			}
+		}
+		if (foreign) {
+			foreignIndex.add(0, position);
+		}
+	}
+	
+	/**
+	 * Returns the only attribute of the premise of a given implication that a description does not
+	 * contain.
+	 * @param description the description
+	 * @param imp the implication
+	 * @return the missing attribute, <code>null</code> if the description does not contain zero or
+	 * more than one of the attributes of the premise
+	 */
+	private A missingPremiseAttribute(PartialObjectDescription<A> description, FCAImplication<A> imp) {
+		A missing = null;
+		for (A attribute : imp.getPremise()) {
+			if (!description.containsAttribute(attribute)) {
+				if (missing != null) {
+					return null;
+				}
+				missing = attribute;
+			}
+		}
+		return missing;
+	}
+	
+	/**
+	 * Records a cross of a given object in one of the maintained cross tables, if vertical storage
+	 * mode is on.
+	 * @param table the plus or the minus table
+	 * @param object the object
+	 * @param attribute the attribute
+	 */
+	private void setBit(CrossTable table, O object, A attribute) {
+		if (table != null) {
+			int m = getAttributeDictionary().getId(attribute);
+			if (m >= 0) {
+				table.set(objects.getIndexOf(object), m);
+			}
+		}
+	}
+	
+	/**
+	 * Computes the implications that an exploration of this partial context would produce if the
+	 * expert confirmed every question, without asking an expert.
+	 * @return the stem base of the double prime operator of this partial context
+	 * @see CanonicalBasis
+	 */
 	public Set<FCAImplication<A>> getStemBase() {
-		// TODO: 
-		return null;
+		return computeStemBase(doublePrimeOperator());
 	}
 
+	/**
+	 * Computes the Duquenne Guigues base of this partial context.
+	 * @return the Duquenne Guigues base of this partial context
+	 * @see #getStemBase()
+	 */
 	public Set<FCAImplication<A>> getDuquenneGuiguesBase() {
-		// TODO: 
-		return null;
+		return getStemBase();
 	}
 	
 	/**
@@ -340,4 +1020,70 @@ public class PartialContext<A,I,O extends PartialObject<A,I>> extends AbstractCo
 		return expert;
 	}
 	
+	/**
+	 * Lists of implication positions by attribute identifier, grown as needed.
+	 */
+	private static final class PostingLists {
+		
+		/**
+		 * The positions for each identifier, <code>null</code> if there are none.
+		 */
+		private int[][] rows = new int[0][];
+		
+		/**
+		 * Number of used entries in each row of <code>rows</code>.
+		 */
+		private int[] counts = new int[0];
+		
+		/**
+		 * Appends a position to the list of a given identifier.
+		 * @param id the identifier
+		 * @param position the position
+		 */
+		void add(int id, int position) {
+			if (id >= rows.length) {
+				int length = Math.max(id + 1, 2 * rows.length);
+				rows = Arrays.copyOf(rows, length);
+				counts = Arrays.copyOf(counts, length);
+			}
+			int[] row = rows[id];
+			if (row == null) {
+				row = new int[4];
+				rows[id] = row;
+			}
+			else if (counts[id] == row.length) {
+				row = Arrays.copyOf(row, 2 * row.length);
+				rows[id] = row;
+			}
+			row[counts[id]++] = position;
+		}
+		
+		/**
+		 * Returns the positions of a given identifier, only the first {@link #count(int)} of which
+		 * are used.
+		 * @param id the identifier
+		 * @return the positions of <code>id</code>, <code>null</code> if there are none
+		 */
+		int[] row(int id) {
+			return (id < rows.length) ? rows[id] : null;
+		}
+		
+		/**
+		 * Returns the number of positions of a given identifier.
+		 * @param id the identifier
+		 * @return the number of positions of <code>id</code>
+		 */
+		int count(int id) {
+			return (id < counts.length) ? counts[id] : 0;
+		}
+		
+		/**
+		 * Removes all positions.
+		 */
+		void clear() {
+			rows = new int[0][];
+			counts = new int[0];
+		}
+	}
+	
 }
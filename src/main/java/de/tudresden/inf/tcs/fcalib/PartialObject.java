@@ -4,7 +4,6 @@
  */
 package de.tudresden.inf.tcs.fcalib;
 
-import java.util.HashSet;
 import java.util.Set;
 
 // import java.util.logging.Logger;
@@ -110,14 +109,30 @@ public class PartialObject<A, I> implements FCAObject<A, I> {
 	// return description.getAttributes();
 	// }
 
+	/**
+	 * Checks whether this object respects a given implication, i.e., it does
+	 * not have all attributes of the premise, or it is not known not to have
+	 * any attribute of the conclusion. If the description is stored as bit
+	 * words, each attribute is tested by its identifier, without computing
+	 * its hash code.
+	 *
+	 * @param imp
+	 *            the implication
+	 * @return <code>true</code> if this object respects <code>imp</code>
+	 */
 	@Override
 	public boolean respects(FCAImplication<A> imp) {
-		Set<A> tmp = new HashSet<>(imp.getConclusion());
-		tmp.retainAll(getDescription().getNegatedAttributes());
 		// return description.containsAttributes(imp.getPremise()) &&
 		// tmp.isEmpty();
-		return !getDescription().containsAttributes(imp.getPremise())
-				|| tmp.isEmpty();
+		if (!getDescription().containsAttributes(imp.getPremise())) {
+			return true;
+		}
+		for (A attribute : imp.getConclusion()) {
+			if (getDescription().containsNegatedAttribute(attribute)) {
+				return false;
+			}
+		}
+		return true;
 	}
 
 	public boolean refutes(FCAImplication<A> imp) {
@@ -12,6 +12,8 @@ import java.util.Set;
 import java.util.HashSet;
 
 import de.tudresden.inf.tcs.fcaapi.exception.IllegalAttributeException;
+import de.tudresden.inf.tcs.fcalib.utils.AttributeBitSet;
+import de.tudresden.inf.tcs.fcalib.utils.AttributeDictionary;
 
 
 /*
@@ -124,6 +126,61 @@ public class PartialObjectDescription<T> extends FullObjectDescription<T> {
 		return negatedAttributes;
 	}
 	
+	/**
+	 * Stores the attributes and the negated attributes of this description as bit words over the
+	 * identifiers of a given dictionary, instead of hash sets. Nothing changes if they are already
+	 * stored over this dictionary.
+	 * @param dictionary the dictionary
+	 */
+	void storeAsBits(AttributeDictionary<T> dictionary) {
+		if (getAttributeBits(dictionary) == null) {
+			setAttributeSet(new AttributeBitSet<>(dictionary, getAttributes()));
+			negatedAttributes = new AttributeBitSet<>(dictionary, negatedAttributes);
+		}
+	}
+	
+	/**
+	 * Stores the attributes and the negated attributes of this description in hash sets again.
+	 * @see #storeAsBits(AttributeDictionary)
+	 */
+	void storeAsHashSets() {
+		if (getAttributes() instanceof AttributeBitSet) {
+			setAttributeSet(new HashSet<>(getAttributes()));
+			negatedAttributes = new HashSet<>(negatedAttributes);
+		}
+	}
+	
+	/**
+	 * Returns the attributes of this description if they are stored as bit words over a given
+	 * dictionary.
+	 * @param dictionary the dictionary
+	 * @return the attributes, <code>null</code> if they are not stored over <code>dictionary</code>
+	 * @see #storeAsBits(AttributeDictionary)
+	 */
+	AttributeBitSet<T> getAttributeBits(AttributeDictionary<T> dictionary) {
+		Set<T> attributes = getAttributes();
+		if (attributes instanceof AttributeBitSet && ((AttributeBitSet<T>) attributes).getDictionary() == dictionary) {
+			return (AttributeBitSet<T>) attributes;
+		}
+		return null;
+	}
+	
+	/**
+	 * Returns the negated attributes of this description if they are stored as bit words over a
+	 * given dictionary.
+	 * @param dictionary the dictionary
+	 * @return the negated attributes, <code>null</code> if they are not stored over 
+	 * <code>dictionary</code>
+	 * @see #storeAsBits(AttributeDictionary)
+	 */
+	AttributeBitSet<T> getNegatedAttributeBits(AttributeDictionary<T> dictionary) {
+		if (negatedAttributes instanceof AttributeBitSet 
+				&& ((AttributeBitSet<T>) negatedAttributes).getDictionary() == dictionary) {
+			return (AttributeBitSet<T>) negatedAttributes;
+		}
+		return null;
+	}
+	
 	public Object clone() {
 		PartialObjectDescription<T> clone = new PartialObjectDescription<T>(getAttributes(),negatedAttributes);
 		return clone;
@@ -0,0 +1,293 @@
+package de.tudresden.inf.tcs.fcalib;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import de.tudresden.inf.tcs.fcaapi.exception.IllegalAttributeException;
+import de.tudresden.inf.tcs.fcalib.utils.AttributeDictionary;
+import de.tudresden.inf.tcs.fcalib.utils.BitWords;
+
+/*
+ * FCAlib: An open-source extensible library for Formal Concept Analysis
+ *         tool developers
+ * Copyright (C) 2009  Baris Sertkaya
+ *
+ * This file is part of FCAlib.
+ * FCAlib is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FCAlib is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with FCAlib.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/**
+ * A set of objects over a fixed set of attributes that is shared by several
+ * {@link ExplorationSession}s, which explore different subsets or orders of
+ * the attributes at the same time, possibly on different threads, without
+ * copying the objects. Each session has its own implications and question,
+ * and the counterexamples that a session adds are published to all sessions.
+ * <p>
+ * The objects are read through immutable snapshots. Adding an object creates
+ * a new snapshot and publishes it, so that readers never lock and always see
+ * a consistent set of objects. Since objects are only appended, a new snapshot
+ * shares the arrays of the previous one as long as they have room, and only
+ * sets bits that the previous snapshots do not read. Adding objects is
+ * serialized. The objects must not be changed after they have been added.
+ * </p>
+ * 
+ * @param <A>
+ *            type of the attributes
+ * @param <I>
+ *            type of the object identifiers
+ */
+
+public class SharedContext<A, I> {
+
+	/**
+	 * The attributes, identified by their position.
+	 */
+	private final AttributeDictionary<A> attributes = new AttributeDictionary<A>();
+
+	/**
+	 * The attributes in their order.
+	 */
+	private final List<A> attributeList;
+
+	/**
+	 * Position of each object. An entry may belong to an object that is not
+	 * yet in the current snapshot.
+	 */
+	private final Map<I, Integer> indices = new ConcurrentHashMap<>();
+
+	/**
+	 * The current snapshot.
+	 */
+	private volatile Snapshot<A, I> snapshot;
+
+	/**
+	 * An immutable view of the objects at some point in time.
+	 */
+	static final class Snapshot<A, I> {
+
+		/**
+		 * Number of objects.
+		 */
+		final int objectCount;
+
+		/**
+		 * The objects by position. Positions from <code>objectCount</code> on
+		 * may be used by later snapshots.
+		 */
+		final FullObject<A, I>[] objects;
+
+		/**
+		 * The objects of each attribute as bit words. Bits from
+		 * <code>objectCount</code> on may be used by later snapshots.
+		 */
+		final long[][] columns;
+
+		/**
+		 * Number of words of a set of objects.
+		 */
+		final int columnWords;
+
+		Snapshot(int objectCount, FullObject<A, I>[] objects, long[][] columns, int columnWords) {
+			this.objectCount = objectCount;
+			this.objects = objects;
+			this.columns = columns;
+			this.columnWords = columnWords;
+		}
+
+		/**
+		 * Returns the objects that have all attributes with given
+		 * identifiers.
+		 */
+		long[] extent(int[] ids, int count) {
+			long[] extent = new long[this.columnWords];
+			BitWords.fill(extent, this.objectCount);
+			for (int k = 0; k < count; ++k) {
+				long[] column = this.columns[ids[k]];
+				for (int w = 0; w < extent.length; ++w) {
+					extent[w] &= column[w];
+				}
+			}
+			return extent;
+		}
+
+		/**
+		 * Checks whether all objects of a given set have the attribute with
+		 * a given identifier.
+		 */
+		boolean allHave(long[] extent, int id) {
+			return BitWords.isSubsetOf(extent, this.columns[id]);
+		}
+	}
+
+	/**
+	 * Creates a shared context with the attributes and objects of a given
+	 * formal context. The objects are copied, so later changes of the formal
+	 * context do not affect the shared context.
+	 * 
+	 * @param context
+	 *            the formal context
+	 */
+	@SuppressWarnings({ "rawtypes", "unchecked" })
+	public SharedContext(FormalContext<A, I> context) {
+		List<A> list = new ArrayList<>(context.getAttributeCount());
+		for (A attribute : context.getAttributes()) {
+			this.attributes.intern(attribute);
+			list.add(attribute);
+		}
+		this.attributeList = Collections.unmodifiableList(list);
+		int count = context.getObjectCount();
+		int words = BitWords.wordCount(count);
+		FullObject<A, I>[] objects = new FullObject[Math.max(4, count)];
+		long[][] columns = new long[list.size()][words];
+		for (int g = 0; g < count; ++g) {
+			FullObject<A, I> original = context.getObjectAtIndex(g);
+			objects[g] = copy(original);
+			this.indices.put(original.getIdentifier(), g);
+			setColumns(columns, g, original);
+		}
+		this.snapshot = new Snapshot<A, I>(count, objects, columns, words);
+	}
+
+	private static <A, I> FullObject<A, I> copy(FullObject<A, I> object) {
+		FullObject<A, I> copy = new FullObject<A, I>(object.getIdentifier(), object.getDescription().getAttributes());
+		copy.setName(object.getName());
+		return copy;
+	}
+
+	private void setColumns(long[][] columns, int g, FullObject<A, I> object) {
+		for (A attribute : object.getDescription().getAttributes()) {
+			int id = this.attributes.getId(attribute);
+			if (id >= 0) {
+				BitWords.set(columns[id], g);
+			}
+		}
+	}
+
+	/**
+	 * Returns the attributes of this shared context.
+	 * 
+	 * @return the attributes in their order, which cannot be changed
+	 */
+	public List<A> getAttributes() {
+		return this.attributeList;
+	}
+
+	/**
+	 * Returns the number of objects in the current snapshot.
+	 * 
+	 * @return the number of objects
+	 */
+	public int getObjectCount() {
+		return this.snapshot.objectCount;
+	}
+
+	/**
+	 * Returns the object with a given identifier.
+	 * 
+	 * @param id
+	 *            the identifier
+	 * @return the object, <code>null</code> if there is no such object in
+	 *         the current snapshot
+	 */
+	public FullObject<A, I> getObject(I id) {
+		Snapshot<A, I> s = this.snapshot;
+		int g = indexOf(s, id);
+		return (g < 0) ? null : s.objects[g];
+	}
+
+	/**
+	 * Adds an object and publishes it to all sessions. The object is copied.
+	 * Attributes that are not attributes of this shared context are ignored
+	 * by the sessions.
+	 * 
+	 * @param object
+	 *            the object to be added
+	 * @return <code>true</code> if the object was added, <code>false</code> if
+	 *         an object with the same identifier exists
+	 */
+	public synchronized boolean addObject(FullObject<A, I> object) {
+		if (this.indices.containsKey(object.getIdentifier())) {
+			return false;
+		}
+		Snapshot<A, I> s = this.snapshot;
+		int g = s.objectCount;
+		FullObject<A, I>[] objects = s.objects;
+		if (g == objects.length) {
+			objects = Arrays.copyOf(objects, 2 * g);
+		}
+		long[][] columns = s.columns;
+		int words = s.columnWords;
+		if (BitWords.wordCount(g + 1) > words) {
+			// the previous snapshots keep the old arrays
+			words = Math.max(1, 2 * words);
+			long[][] grown = new long[columns.length][];
+			for (int m = 0; m < columns.length; ++m) {
+				grown[m] = Arrays.copyOf(columns[m], words);
+			}
+			columns = grown;
+		}
+		FullObject<A, I> copy = copy(object);
+		objects[g] = copy;
+		setColumns(columns, g, copy);
+		this.indices.put(copy.getIdentifier(), g);
+		this.snapshot = new Snapshot<A, I>(g + 1, objects, columns, words);
+		return true;
+	}
+
+	/**
+	 * Opens a new exploration session over a given list of attributes of
+	 * this shared context.
+	 * 
+	 * @param attrs
+	 *            the attributes to be explored, in the order in which they
+	 *            are explored
+	 * @return a new exploration session
+	 * @throws IllegalAttributeException
+	 *             if one of the attributes is not an attribute of this shared
+	 *             context
+	 */
+	public ExplorationSession<A, I> openSession(Collection<A> attrs) throws IllegalAttributeException {
+		return new ExplorationSession<A, I>(this, attrs);
+	}
+
+	/**
+	 * Returns the current snapshot.
+	 */
+	Snapshot<A, I> snapshot() {
+		return this.snapshot;
+	}
+
+	/**
+	 * Returns the position of an object in a given snapshot, <code>-1</code>
+	 * if it is not in the snapshot.
+	 */
+	int indexOf(Snapshot<A, I> s, Object id) {
+		Integer g = this.indices.get(id);
+		return ((g == null) || (g >= s.objectCount)) ? -1 : g;
+	}
+
+	/**
+	 * Returns the identifier of an attribute, <code>-1</code> if it is not an
+	 * attribute of this shared context.
+	 */
+	int attributeId(Object attribute) {
+		return this.attributes.getId(attribute);
+	}
+
+}
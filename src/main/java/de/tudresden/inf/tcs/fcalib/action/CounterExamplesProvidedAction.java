@@ -0,0 +1,135 @@
+package de.tudresden.inf.tcs.fcalib.action;
+
+import java.awt.event.ActionEvent;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.logging.Logger;
+
+import de.tudresden.inf.tcs.fcaapi.FCAImplication;
+import de.tudresden.inf.tcs.fcaapi.Expert;
+import de.tudresden.inf.tcs.fcaapi.FCAObject;
+import de.tudresden.inf.tcs.fcaapi.exception.IllegalObjectException;
+import de.tudresden.inf.tcs.fcalib.AbstractContext;
+
+
+/*
+ * FCAlib: An open-source extensible library for Formal Concept Analysis 
+ *         tool developers
+ * Copyright (C) 2009  Baris Sertkaya
+ *
+ * This file is part of FCAlib.
+ * FCAlib is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FCAlib is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with FCAlib.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/**
+ * The expert action fired when several counterexamples to the same question are provided at
+ * once, for instance by an automated expert that takes them from a database. The valid
+ * counterexamples are added together and the exploration continues once with the same premise,
+ * so the second derivative of the premise is computed once for the whole batch, and the
+ * questions that are refuted by the counterexamples of the batch are not asked.
+ */
+
+public class CounterExamplesProvidedAction<A,I,O extends FCAObject<A,I>> extends AbstractExpertAction<A,I,O> {
+
+	private static final long serialVersionUID = 1L;
+	
+	/**
+	 * The question rejected with the counterexamples.
+	 */
+	private FCAImplication<A> question;
+	
+	/**
+	 * The counterexamples, in the order in which the expert provided them.
+	 */
+	private List<O> counterExamples;
+	
+	/**
+	 * The logger.
+	 */
+	private static final Logger logger = Logger.getLogger(CounterExamplesProvidedAction.class.getName());
+
+	/**
+	 * Creates an action that rejects a question with a batch of counterexamples. The
+	 * counterexamples are copied.
+	 * @param c the context of the exploration
+	 * @param q the question rejected with the counterexamples
+	 * @param ces the counterexamples
+	 */
+	public CounterExamplesProvidedAction(AbstractContext<A,I,O> c,FCAImplication<A> q,Collection<? extends O> ces) {
+		setContext(c);
+		question = q;
+		counterExamples = Collections.unmodifiableList(new ArrayList<O>(ces));
+	}
+	
+	/**
+	 * Returns the question rejected with the counterexamples in this action.
+	 * @return the question rejected with the counterexamples in this action
+	 */
+	public FCAImplication<A> getQuestion() {
+		return question;
+	}
+	
+	/**
+	 * Returns the counterexamples provided by the expert with this action.
+	 * @return the counterexamples provided by the expert with this action, in the given order
+	 */
+	public List<O> getCounterExamples() {
+		return counterExamples;
+	}
+	
+	/**
+	 * Checks the counterexamples for validity and adds the valid ones to the set of objects. The
+	 * expert is told about each counterexample that is not valid or whose identifier already
+	 * exists. If at least one counterexample was added, the exploration continues with the same
+	 * premise; otherwise another counterexample is requested.
+	 */
+	@Override
+	public void actionPerformed(ActionEvent e) {
+		logger.info("Expert provided " + counterExamples.size() + " counterexamples");
+		List<O> valid = new ArrayList<O>(counterExamples.size());
+		for (O counterExample : counterExamples) {
+			if (getContext().isCounterExampleValid(counterExample, question)) {
+				valid.add(counterExample);
+			}
+			else {
+				getContext().getExpert().counterExampleInvalid(counterExample, 
+						Expert.COUNTEREXAMPLE_INVALID);
+			}
+		}
+		boolean added = false;
+		for (O counterExample : valid) {
+			try {
+				if (getContext().addObject(counterExample)) {
+					added = true;
+				}
+				else {
+					getContext().getExpert().counterExampleInvalid(counterExample, 
+							Expert.COUNTEREXAMPLE_EXISTS);
+				}
+			}
+			catch (IllegalObjectException x) {
+				getContext().getExpert().counterExampleInvalid(counterExample, 
+						Expert.COUNTEREXAMPLE_EXISTS);
+			}
+		}
+		if (added) {
+			getContext().continueExploration(getQuestion().getPremise());
+		}
+		else {
+			getContext().getExpert().requestCounterExample(getQuestion());
+		}
+	}
+}
@@ -0,0 +1,366 @@
+package de.tudresden.inf.tcs.fcalib.io;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.Set;
+
+import de.tudresden.inf.tcs.fcaapi.Context;
+import de.tudresden.inf.tcs.fcaapi.exception.IllegalAttributeException;
+import de.tudresden.inf.tcs.fcaapi.exception.IllegalObjectException;
+import de.tudresden.inf.tcs.fcalib.FormalContext;
+import de.tudresden.inf.tcs.fcalib.FullObject;
+import de.tudresden.inf.tcs.fcalib.PartialContext;
+import de.tudresden.inf.tcs.fcalib.PartialObject;
+import de.tudresden.inf.tcs.fcalib.PartialObjectDescription;
+
+/*
+ * FCAlib: An open-source extensible library for Formal Concept Analysis
+ *         tool developers
+ * Copyright (C) 2009  Baris Sertkaya
+ *
+ * This file is part of FCAlib.
+ * FCAlib is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FCAlib is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with FCAlib.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/**
+ * Reads and writes contexts in the Burmeister format (<code>.cxt</code>). A
+ * file consists of a line <code>B</code>, an optional name line, the number of
+ * objects and the number of attributes, the names of the objects and of the
+ * attributes, one per line, and one row per object with a character per
+ * attribute: <code>X</code> if the object has the attribute and
+ * <code>.</code> if it does not. Partial contexts additionally use
+ * <code>?</code> for attributes that are not known. Blank lines before the
+ * counts and before the names are ignored.
+ * <p>
+ * The readers make a single pass over the input and keep only the names in
+ * memory besides the context that they build. The rows are parsed byte by
+ * byte. Objects are identified by their names. Text is encoded in UTF-8.
+ * </p>
+ */
+
+public final class BurmeisterFormat {
+
+	private BurmeisterFormat() {
+	}
+
+	/**
+	 * The names of the objects and attributes of a file.
+	 */
+	private static final class Header {
+
+		private final String[] objects;
+
+		private final String[] attributes;
+
+		Header(int objectCount, int attributeCount) {
+			this.objects = new String[objectCount];
+			this.attributes = new String[attributeCount];
+		}
+	}
+
+	private static int readCount(ByteScanner scanner, String line) throws ContextFormatException {
+		try {
+			int count = Integer.parseInt(line.trim());
+			if (count >= 0) {
+				return count;
+			}
+		} catch (NumberFormatException e) {
+			// reported below
+		}
+		throw scanner.recordError("expected a number, found '" + line + "'");
+	}
+
+	private static String readNonBlankLine(ByteScanner scanner) throws IOException {
+		scanner.startRecord();
+		String line = scanner.readLine();
+		while ((line != null) && line.trim().isEmpty()) {
+			scanner.startRecord();
+			line = scanner.readLine();
+		}
+		if (line == null) {
+			throw scanner.error("unexpected end of input");
+		}
+		return line;
+	}
+
+	private static String readName(ByteScanner scanner) throws IOException {
+		String line = scanner.readLine();
+		if (line == null) {
+			throw scanner.error("unexpected end of input");
+		}
+		return line;
+	}
+
+	private static Header readHeader(ByteScanner scanner) throws IOException {
+		String line = readNonBlankLine(scanner);
+		if (!line.trim().equals("B")) {
+			throw scanner.recordError("expected 'B'");
+		}
+		line = readNonBlankLine(scanner);
+		int objectCount;
+		try {
+			objectCount = Integer.parseInt(line.trim());
+		} catch (NumberFormatException e) {
+			// the name of the context
+			objectCount = readCount(scanner, readNonBlankLine(scanner));
+		}
+		if (objectCount < 0) {
+			throw scanner.recordError("negative number of objects");
+		}
+		int attributeCount = readCount(scanner, readNonBlankLine(scanner));
+		Header header = new Header(objectCount, attributeCount);
+		int k = 0;
+		int count = objectCount + attributeCount;
+		if (count > 0) {
+			String first = readNonBlankLine(scanner);
+			if (objectCount > 0) {
+				header.objects[0] = first;
+			} else {
+				header.attributes[0] = first;
+			}
+			k = 1;
+		}
+		for (; k < count; ++k) {
+			if (k < objectCount) {
+				header.objects[k] = readName(scanner);
+			} else {
+				header.attributes[k - objectCount] = readName(scanner);
+			}
+		}
+		return header;
+	}
+
+	/**
+	 * Reads the row of an object into a given array of markers.
+	 */
+	private static void readRow(ByteScanner scanner, int[] row) throws IOException {
+		int c = scanner.read();
+		if (row.length > 0) {
+			while ((c == '\n') || (c == '\r')) {
+				c = scanner.read();
+			}
+		}
+		scanner.startRecord();
+		int m = 0;
+		while ((c != '\n') && (c != -1)) {
+			if ((c != '\r') && (c != ' ') && (c != '\t')) {
+				if (m == row.length) {
+					throw scanner.error("more than " + row.length + " attributes in row");
+				}
+				row[m++] = c;
+			}
+			c = scanner.read();
+		}
+		if (m < row.length) {
+			throw scanner.recordError(m + " attributes in row, expected " + row.length);
+		}
+	}
+
+	/**
+	 * Reads a formal context.
+	 *
+	 * @param in
+	 *            the stream to read from, which is not closed
+	 * @return a new formal context whose attributes and objects are identified
+	 *         by their names
+	 * @throws ContextFormatException
+	 *             if the input is not in the Burmeister format, contains a
+	 *             character other than <code>X</code> and <code>.</code> in a
+	 *             row, or names an object or an attribute twice
+	 * @throws IOException
+	 *             if reading fails
+	 */
+	public static FormalContext<String, String> readFormalContext(InputStream in) throws IOException {
+		ByteScanner scanner = new ByteScanner(in);
+		Header header = readHeader(scanner);
+		FormalContext<String, String> context = new FormalContext<String, String>();
+		addAttributes(scanner, header, context);
+		int[] row = new int[header.attributes.length];
+		Set<String> attributes = new HashSet<>();
+		for (String name : header.objects) {
+			readRow(scanner, row);
+			attributes.clear();
+			for (int m = 0; m < row.length; ++m) {
+				if ((row[m] == 'X') || (row[m] == 'x')) {
+					attributes.add(header.attributes[m]);
+				} else if (row[m] != '.') {
+					throw scanner.recordError("unexpected character '" + (char) row[m] + "'");
+				}
+			}
+			try {
+				context.addObject(new FullObject<String, String>(name, attributes));
+			} catch (IllegalObjectException e) {
+				throw scanner.recordError(e.getMessage());
+			}
+		}
+		return context;
+	}
+
+	/**
+	 * Reads a partial context. Attributes marked with <code>X</code> are
+	 * positive, attributes marked with <code>.</code> are negated.
+	 *
+	 * @param in
+	 *            the stream to read from, which is not closed
+	 * @return a new partial context whose attributes and objects are
+	 *         identified by their names
+	 * @throws ContextFormatException
+	 *             if the input is not in the Burmeister format, contains a
+	 *             character other than <code>X</code>, <code>.</code> and
+	 *             <code>?</code> in a row, or names an object or an attribute
+	 *             twice
+	 * @throws IOException
+	 *             if reading fails
+	 */
+	public static PartialContext<String, String, PartialObject<String, String>> readPartialContext(InputStream in)
+			throws IOException {
+		ByteScanner scanner = new ByteScanner(in);
+		Header header = readHeader(scanner);
+		PartialContext<String, String, PartialObject<String, String>> context = new PartialContext<String, String, PartialObject<String, String>>();
+		addAttributes(scanner, header, context);
+		int[] row = new int[header.attributes.length];
+		Set<String> plus = new HashSet<>();
+		Set<String> minus = new HashSet<>();
+		for (String name : header.objects) {
+			readRow(scanner, row);
+			plus.clear();
+			minus.clear();
+			for (int m = 0; m < row.length; ++m) {
+				if ((row[m] == 'X') || (row[m] == 'x')) {
+					plus.add(header.attributes[m]);
+				} else if (row[m] == '.') {
+					minus.add(header.attributes[m]);
+				} else if (row[m] != '?') {
+					throw scanner.recordError("unexpected character '" + (char) row[m] + "'");
+				}
+			}
+			if (!context.addObject(new PartialObject<String, String>(name, plus, minus))) {
+				throw scanner.recordError("object " + name + " occurs twice");
+			}
+		}
+		return context;
+	}
+
+	private static void addAttributes(ByteScanner scanner, Header header, Context<String, String, ?> context)
+			throws ContextFormatException {
+		for (String attribute : header.attributes) {
+			try {
+				context.addAttribute(attribute);
+			} catch (IllegalAttributeException e) {
+				throw scanner.error(e.getMessage());
+			}
+		}
+	}
+
+	private static void writeCounts(Writer writer, int objectCount, int attributeCount) throws IOException {
+		writer.write("B\n\n");
+		writer.write(Integer.toString(objectCount));
+		writer.write('\n');
+		writer.write(Integer.toString(attributeCount));
+		writer.write("\n\n");
+	}
+
+	private static void writeName(Writer writer, Object name) throws IOException {
+		writer.write(String.valueOf(name));
+		writer.write('\n');
+	}
+
+	/**
+	 * Writes a formal context. Objects are written with their identifiers.
+	 *
+	 * @param <A>
+	 *            type of the attributes
+	 * @param <I>
+	 *            type of the object identifiers
+	 * @param context
+	 *            the context to be written
+	 * @param out
+	 *            the stream to write to, which is flushed but not closed
+	 * @throws IOException
+	 *             if writing fails
+	 */
+	public static <A, I> void write(FormalContext<A, I> context, OutputStream out) throws IOException {
+		Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+		writeCounts(writer, context.getObjects().size(), context.getAttributes().size());
+		for (FullObject<A, I> object : context.getObjects()) {
+			writeName(writer, object.getIdentifier());
+		}
+		for (A attribute : context.getAttributes()) {
+			writeName(writer, attribute);
+		}
+		char[] row = new char[context.getAttributes().size() + 1];
+		row[row.length - 1] = '\n';
+		for (FullObject<A, I> object : context.getObjects()) {
+			int m = 0;
+			for (A attribute : context.getAttributes()) {
+				row[m++] = object.getDescription().containsAttribute(attribute) ? 'X' : '.';
+			}
+			writer.write(row);
+		}
+		writer.flush();
+	}
+
+	/**
+	 * Writes a partial context. Objects are written with their identifiers,
+	 * attributes that are not known with <code>?</code>.
+	 *
+	 * @param <A>
+	 *            type of the attributes
+	 * @param <I>
+	 *            type of the object identifiers
+	 * @param <O>
+	 *            type of the objects
+	 * @param context
+	 *            the context to be written
+	 * @param out
+	 *            the stream to write to, which is flushed but not closed
+	 * @throws IOException
+	 *             if writing fails
+	 */
+	public static <A, I, O extends PartialObject<A, I>> void write(PartialContext<A, I, O> context, OutputStream out)
+			throws IOException {
+		Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+		writeCounts(writer, context.getObjects().size(), context.getAttributes().size());
+		for (O object : context.getObjects()) {
+			writeName(writer, object.getIdentifier());
+		}
+		for (A attribute : context.getAttributes()) {
+			writeName(writer, attribute);
+		}
+		char[] row = new char[context.getAttributes().size() + 1];
+		row[row.length - 1] = '\n';
+		for (O object : context.getObjects()) {
+			PartialObjectDescription<A> description = object.getDescription();
+			int m = 0;
+			for (A attribute : context.getAttributes()) {
+				if (description.containsAttribute(attribute)) {
+					row[m++] = 'X';
+				} else if (description.containsNegatedAttribute(attribute)) {
+					row[m++] = '.';
+				} else {
+					row[m++] = '?';
+				}
+			}
+			writer.write(row);
+		}
+		writer.flush();
+	}
+
+}
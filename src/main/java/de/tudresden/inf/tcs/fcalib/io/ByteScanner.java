@@ -0,0 +1,289 @@
+package de.tudresden.inf.tcs.fcalib.io;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/*
+ * FCAlib: An open-source extensible library for Formal Concept Analysis
+ *         tool developers
+ * Copyright (C) 2009  Baris Sertkaya
+ *
+ * This file is part of FCAlib.
+ * FCAlib is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FCAlib is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with FCAlib.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/**
+ * Reads the tokens of the text formats directly from the bytes of a stream
+ * with a fixed buffer, so that lines are never materialized as strings. Only
+ * names are decoded, as UTF-8. A byte order mark at the beginning of the
+ * stream is skipped. Lines end with <code>\n</code>, an optional
+ * <code>\r</code> before it is ignored.
+ */
+
+final class ByteScanner {
+
+	private static final int BUFFER_SIZE = 1 << 16;
+
+	private final InputStream in;
+
+	private final byte[] buffer = new byte[BUFFER_SIZE];
+
+	/**
+	 * Position of the next byte in <code>buffer</code>.
+	 */
+	private int pos = 0;
+
+	/**
+	 * Number of valid bytes in <code>buffer</code>.
+	 */
+	private int limit = 0;
+
+	/**
+	 * Number of the current line, starting with 1.
+	 */
+	private int line = 1;
+
+	/**
+	 * Number of the line where the current record started.
+	 */
+	private int recordLine = 1;
+
+	/**
+	 * Bytes of the name being read.
+	 */
+	private byte[] text = new byte[64];
+
+	/**
+	 * Whether the last field read ended its line.
+	 */
+	private boolean endOfRecord = false;
+
+	ByteScanner(InputStream in) throws IOException {
+		this.in = in;
+		fill();
+		if ((this.limit >= 3) && (this.buffer[0] == (byte) 0xEF) && (this.buffer[1] == (byte) 0xBB)
+				&& (this.buffer[2] == (byte) 0xBF)) {
+			this.pos = 3;
+		}
+	}
+
+	/**
+	 * Refills the buffer, returns <code>false</code> at the end of the stream.
+	 */
+	private boolean fill() throws IOException {
+		int n;
+		do {
+			n = this.in.read(this.buffer, 0, this.buffer.length);
+		} while (n == 0);
+		this.pos = 0;
+		this.limit = Math.max(n, 0);
+		return n > 0;
+	}
+
+	/**
+	 * Returns the next byte without consuming it, <code>-1</code> at the end
+	 * of the stream.
+	 */
+	int peek() throws IOException {
+		if ((this.pos == this.limit) && !fill()) {
+			return -1;
+		}
+		return this.buffer[this.pos] & 0xFF;
+	}
+
+	/**
+	 * Consumes the next byte and returns it, <code>-1</code> at the end of the
+	 * stream.
+	 */
+	int read() throws IOException {
+		if ((this.pos == this.limit) && !fill()) {
+			return -1;
+		}
+		int c = this.buffer[this.pos++] & 0xFF;
+		if (c == '\n') {
+			++this.line;
+		}
+		return c;
+	}
+
+	/**
+	 * Returns the number of the current line, starting with 1.
+	 */
+	int getLine() {
+		return this.line;
+	}
+
+	/**
+	 * Returns <code>true</code> if there are bytes left.
+	 */
+	boolean hasMore() throws IOException {
+		return peek() != -1;
+	}
+
+	/**
+	 * Returns <code>true</code> if the last field read by
+	 * {@link #readField()} or {@link #readMarker()} ended its line.
+	 */
+	boolean isEndOfRecord() {
+		return this.endOfRecord;
+	}
+
+	/**
+	 * Marks the current line as the start of a record, to which the errors
+	 * found after reading the record refer.
+	 */
+	void startRecord() {
+		this.recordLine = this.line;
+	}
+
+	ContextFormatException error(String msg) {
+		return new ContextFormatException(this.line, msg);
+	}
+
+	ContextFormatException recordError(String msg) {
+		return new ContextFormatException(this.recordLine, msg);
+	}
+
+	private void append(int n, int c) {
+		if (n == this.text.length) {
+			this.text = Arrays.copyOf(this.text, 2 * n);
+		}
+		this.text[n] = (byte) c;
+	}
+
+	private String text(int n) {
+		if ((n > 0) && (this.text[n - 1] == '\r')) {
+			--n;
+		}
+		return new String(this.text, 0, n, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Reads the rest of the current line and consumes its end.
+	 *
+	 * @return the line without its end, <code>null</code> at the end of the
+	 *         stream
+	 */
+	String readLine() throws IOException {
+		int c = read();
+		if (c == -1) {
+			return null;
+		}
+		int n = 0;
+		while ((c != '\n') && (c != -1)) {
+			append(n++, c);
+			c = read();
+		}
+		return text(n);
+	}
+
+	/**
+	 * Reads the next non-negative integer of the current line. Spaces and tabs
+	 * are skipped.
+	 *
+	 * @return the integer, <code>-1</code> if the line has ended, in which
+	 *         case its end has been consumed
+	 * @throws ContextFormatException
+	 *             if something other than a digit is found
+	 */
+	int nextInt() throws IOException {
+		int c = read();
+		while ((c == ' ') || (c == '\t') || (c == '\r')) {
+			c = read();
+		}
+		if ((c == '\n') || (c == -1)) {
+			return -1;
+		}
+		if ((c < '0') || (c > '9')) {
+			throw error("unexpected character '" + (char) c + "'");
+		}
+		long value = 0;
+		do {
+			value = 10 * value + (c - '0');
+			if (value > Integer.MAX_VALUE) {
+				throw error("number too large");
+			}
+			c = peek();
+			if ((c >= '0') && (c <= '9')) {
+				++this.pos;
+			}
+		} while ((c >= '0') && (c <= '9'));
+		return (int) value;
+	}
+
+	/**
+	 * Reads a comma-separated field, which may be enclosed in double quotes,
+	 * with a double quote inside escaped by another double quote.
+	 *
+	 * @return the field
+	 */
+	String readField() throws IOException {
+		int c = read();
+		int n = 0;
+		if (c == '"') {
+			while (true) {
+				c = read();
+				if (c == -1) {
+					throw error("unterminated quoted field");
+				}
+				if (c == '"') {
+					if (peek() != '"') {
+						c = read();
+						break;
+					}
+					c = read();
+				}
+				append(n++, c);
+			}
+			while (c == '\r') {
+				c = read();
+			}
+			if ((c != ',') && (c != '\n') && (c != -1)) {
+				throw error("unexpected character after quoted field");
+			}
+			this.endOfRecord = (c != ',');
+			return new String(this.text, 0, n, StandardCharsets.UTF_8);
+		}
+		while ((c != ',') && (c != '\n') && (c != -1)) {
+			append(n++, c);
+			c = read();
+		}
+		this.endOfRecord = (c != ',');
+		return text(n);
+	}
+
+	/**
+	 * Reads a comma-separated field that marks whether an object has an
+	 * attribute, without decoding it. Surrounding spaces and quotes are
+	 * ignored.
+	 *
+	 * @return the first significant character of the field, <code>0</code> if
+	 *         it is empty
+	 */
+	int readMarker() throws IOException {
+		int marker = 0;
+		int c = read();
+		while ((c != ',') && (c != '\n') && (c != -1)) {
+			if ((marker == 0) && (c != ' ') && (c != '"') && (c != '\r') && (c != '\t')) {
+				marker = c;
+			}
+			c = read();
+		}
+		this.endOfRecord = (c != ',');
+		return marker;
+	}
+
+}
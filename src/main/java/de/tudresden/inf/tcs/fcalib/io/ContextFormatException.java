@@ -0,0 +1,61 @@
+package de.tudresden.inf.tcs.fcalib.io;
+
+import java.io.IOException;
+
+/*
+ * FCAlib: An open-source extensible library for Formal Concept Analysis
+ *         tool developers
+ * Copyright (C) 2009  Baris Sertkaya
+ *
+ * This file is part of FCAlib.
+ * FCAlib is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FCAlib is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with FCAlib.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/**
+ * Signals that the input of a context reader does not conform to its format.
+ * The message starts with the number of the line where the problem was found.
+ */
+
+public class ContextFormatException extends IOException {
+
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * Line where the problem was found.
+	 */
+	private final int line;
+
+	/**
+	 * Creates an exception for a problem in a given line.
+	 *
+	 * @param line
+	 *            number of the line, starting with 1
+	 * @param msg
+	 *            description of the problem
+	 */
+	public ContextFormatException(int line, String msg) {
+		super("line " + line + ": " + msg);
+		this.line = line;
+	}
+
+	/**
+	 * Returns the line where the problem was found.
+	 *
+	 * @return number of the line, starting with 1
+	 */
+	public int getLine() {
+		return this.line;
+	}
+
+}
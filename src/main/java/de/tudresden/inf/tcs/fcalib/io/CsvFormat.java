@@ -0,0 +1,323 @@
+package de.tudresden.inf.tcs.fcalib.io;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import de.tudresden.inf.tcs.fcaapi.Context;
+import de.tudresden.inf.tcs.fcaapi.exception.IllegalAttributeException;
+import de.tudresden.inf.tcs.fcaapi.exception.IllegalObjectException;
+import de.tudresden.inf.tcs.fcalib.FormalContext;
+import de.tudresden.inf.tcs.fcalib.FullObject;
+import de.tudresden.inf.tcs.fcalib.PartialContext;
+import de.tudresden.inf.tcs.fcalib.PartialObject;
+import de.tudresden.inf.tcs.fcalib.PartialObjectDescription;
+
+/*
+ * FCAlib: An open-source extensible library for Formal Concept Analysis
+ *         tool developers
+ * Copyright (C) 2009  Baris Sertkaya
+ *
+ * This file is part of FCAlib.
+ * FCAlib is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FCAlib is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with FCAlib.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/**
+ * Reads and writes contexts as comma-separated cross tables. The first row
+ * contains the names of the attributes after an ignored first field, every
+ * other row the name of an object followed by one field per attribute. A field
+ * starting with <code>1</code>, <code>X</code> or <code>T</code> (in either
+ * case) means that the object has the attribute, a field starting with
+ * <code>0</code>, <code>.</code>, <code>-</code> or <code>F</code> that it does
+ * not. In partial contexts, an empty field or <code>?</code> means that this is
+ * not known; formal contexts treat them as the object not having the
+ * attribute. Missing fields at the end of a row are empty. Names may be
+ * enclosed in double quotes as in RFC 4180. Blank lines are ignored.
+ * <p>
+ * The readers make a single pass over the input and keep only the attribute
+ * names in memory besides the context that they build. Fields are classified
+ * by their first character without being decoded. Text is encoded in UTF-8.
+ * </p>
+ */
+
+public final class CsvFormat {
+
+	/**
+	 * Field value of an object having an attribute.
+	 */
+	private static final int PLUS = 1;
+
+	/**
+	 * Field value of an object not having an attribute.
+	 */
+	private static final int MINUS = -1;
+
+	/**
+	 * Field value of an unknown attribute.
+	 */
+	private static final int UNKNOWN = 0;
+
+	private CsvFormat() {
+	}
+
+	private static int value(ByteScanner scanner, int marker) throws ContextFormatException {
+		switch (marker) {
+		case '1':
+		case 'X':
+		case 'x':
+		case 'T':
+		case 't':
+			return PLUS;
+		case '0':
+		case '.':
+		case '-':
+		case 'F':
+		case 'f':
+			return MINUS;
+		case 0:
+		case '?':
+			return UNKNOWN;
+		default:
+			throw scanner.recordError("unexpected field starting with '" + (char) marker + "'");
+		}
+	}
+
+	private static List<String> readAttributes(ByteScanner scanner) throws IOException {
+		List<String> attributes = new ArrayList<>();
+		if (scanner.hasMore()) {
+			scanner.readField();
+			while (!scanner.isEndOfRecord()) {
+				attributes.add(scanner.readField());
+			}
+		}
+		return attributes;
+	}
+
+	/**
+	 * Reads the next row into a given array of field values.
+	 *
+	 * @return the name of the object, <code>null</code> at the end of the
+	 *         input
+	 */
+	private static String readRow(ByteScanner scanner, int[] row) throws IOException {
+		String name = null;
+		while ((name == null) && scanner.hasMore()) {
+			scanner.startRecord();
+			name = scanner.readField();
+			if (name.isEmpty() && scanner.isEndOfRecord()) {
+				name = null;
+			}
+		}
+		if (name == null) {
+			return null;
+		}
+		int m = 0;
+		while (!scanner.isEndOfRecord()) {
+			if (m == row.length) {
+				throw scanner.recordError("more than " + row.length + " attributes in row");
+			}
+			row[m++] = value(scanner, scanner.readMarker());
+		}
+		for (; m < row.length; ++m) {
+			row[m] = UNKNOWN;
+		}
+		return name;
+	}
+
+	/**
+	 * Reads a formal context.
+	 *
+	 * @param in
+	 *            the stream to read from, which is not closed
+	 * @return a new formal context whose attributes and objects are identified
+	 *         by their names
+	 * @throws ContextFormatException
+	 *             if a row has more fields than attributes or an unknown
+	 *             field, or if an object or an attribute is named twice
+	 * @throws IOException
+	 *             if reading fails
+	 */
+	public static FormalContext<String, String> readFormalContext(InputStream in) throws IOException {
+		ByteScanner scanner = new ByteScanner(in);
+		FormalContext<String, String> context = new FormalContext<String, String>();
+		String[] attributes = addAttributes(scanner, context);
+		int[] row = new int[attributes.length];
+		Set<String> description = new HashSet<>();
+		for (String name = readRow(scanner, row); name != null; name = readRow(scanner, row)) {
+			description.clear();
+			for (int m = 0; m < row.length; ++m) {
+				if (row[m] == PLUS) {
+					description.add(attributes[m]);
+				}
+			}
+			try {
+				context.addObject(new FullObject<String, String>(name, description));
+			} catch (IllegalObjectException e) {
+				throw scanner.recordError(e.getMessage());
+			}
+		}
+		return context;
+	}
+
+	/**
+	 * Reads a partial context.
+	 *
+	 * @param in
+	 *            the stream to read from, which is not closed
+	 * @return a new partial context whose attributes and objects are
+	 *         identified by their names
+	 * @throws ContextFormatException
+	 *             if a row has more fields than attributes or an unknown
+	 *             field, or if an object or an attribute is named twice
+	 * @throws IOException
+	 *             if reading fails
+	 */
+	public static PartialContext<String, String, PartialObject<String, String>> readPartialContext(InputStream in)
+			throws IOException {
+		ByteScanner scanner = new ByteScanner(in);
+		PartialContext<String, String, PartialObject<String, String>> context = new PartialContext<String, String, PartialObject<String, String>>();
+		String[] attributes = addAttributes(scanner, context);
+		int[] row = new int[attributes.length];
+		Set<String> plus = new HashSet<>();
+		Set<String> minus = new HashSet<>();
+		for (String name = readRow(scanner, row); name != null; name = readRow(scanner, row)) {
+			plus.clear();
+			minus.clear();
+			for (int m = 0; m < row.length; ++m) {
+				if (row[m] == PLUS) {
+					plus.add(attributes[m]);
+				} else if (row[m] == MINUS) {
+					minus.add(attributes[m]);
+				}
+			}
+			if (!context.addObject(new PartialObject<String, String>(name, plus, minus))) {
+				throw scanner.recordError("object " + name + " occurs twice");
+			}
+		}
+		return context;
+	}
+
+	private static String[] addAttributes(ByteScanner scanner,
+			Context<String, String, ?> context) throws IOException {
+		List<String> attributes = readAttributes(scanner);
+		for (String attribute : attributes) {
+			try {
+				context.addAttribute(attribute);
+			} catch (IllegalAttributeException e) {
+				throw scanner.error(e.getMessage());
+			}
+		}
+		return attributes.toArray(new String[attributes.size()]);
+	}
+
+	private static void writeField(Writer writer, Object value) throws IOException {
+		String field = String.valueOf(value);
+		boolean quote = field.isEmpty();
+		for (int i = 0; !quote && (i < field.length()); ++i) {
+			char c = field.charAt(i);
+			quote = (c == ',') || (c == '"') || (c == '\n') || (c == '\r');
+		}
+		if (quote) {
+			writer.write('"');
+			writer.write(field.replace("\"", "\"\""));
+			writer.write('"');
+		} else {
+			writer.write(field);
+		}
+	}
+
+	private static void writeAttributes(Writer writer, Iterable<?> attributes) throws IOException {
+		writer.write("\"\"");
+		for (Object attribute : attributes) {
+			writer.write(',');
+			writeField(writer, attribute);
+		}
+		writer.write('\n');
+	}
+
+	/**
+	 * Writes a formal context, with <code>1</code> and <code>0</code> as
+	 * fields. Objects are written with their identifiers.
+	 *
+	 * @param <A>
+	 *            type of the attributes
+	 * @param <I>
+	 *            type of the object identifiers
+	 * @param context
+	 *            the context to be written
+	 * @param out
+	 *            the stream to write to, which is flushed but not closed
+	 * @throws IOException
+	 *             if writing fails
+	 */
+	public static <A, I> void write(FormalContext<A, I> context, OutputStream out) throws IOException {
+		Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+		writeAttributes(writer, context.getAttributes());
+		for (FullObject<A, I> object : context.getObjects()) {
+			writeField(writer, object.getIdentifier());
+			for (A attribute : context.getAttributes()) {
+				writer.write(object.getDescription().containsAttribute(attribute) ? ",1" : ",0");
+			}
+			writer.write('\n');
+		}
+		writer.flush();
+	}
+
+	/**
+	 * Writes a partial context, with <code>1</code>, <code>0</code> and
+	 * <code>?</code> as fields. Objects are written with their identifiers.
+	 *
+	 * @param <A>
+	 *            type of the attributes
+	 * @param <I>
+	 *            type of the object identifiers
+	 * @param <O>
+	 *            type of the objects
+	 * @param context
+	 *            the context to be written
+	 * @param out
+	 *            the stream to write to, which is flushed but not closed
+	 * @throws IOException
+	 *             if writing fails
+	 */
+	public static <A, I, O extends PartialObject<A, I>> void write(PartialContext<A, I, O> context, OutputStream out)
+			throws IOException {
+		Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+		writeAttributes(writer, context.getAttributes());
+		for (O object : context.getObjects()) {
+			PartialObjectDescription<A> description = object.getDescription();
+			writeField(writer, object.getIdentifier());
+			for (A attribute : context.getAttributes()) {
+				if (description.containsAttribute(attribute)) {
+					writer.write(",1");
+				} else if (description.containsNegatedAttribute(attribute)) {
+					writer.write(",0");
+				} else {
+					writer.write(",?");
+				}
+			}
+			writer.write('\n');
+		}
+		writer.flush();
+	}
+
+}
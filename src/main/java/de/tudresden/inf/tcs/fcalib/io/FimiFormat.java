@@ -0,0 +1,141 @@
+package de.tudresden.inf.tcs.fcalib.io;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import de.tudresden.inf.tcs.fcaapi.exception.IllegalObjectException;
+import de.tudresden.inf.tcs.fcalib.FormalContext;
+import de.tudresden.inf.tcs.fcalib.FullObject;
+
+/*
+ * FCAlib: An open-source extensible library for Formal Concept Analysis
+ *         tool developers
+ * Copyright (C) 2009  Baris Sertkaya
+ *
+ * This file is part of FCAlib.
+ * FCAlib is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FCAlib is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with FCAlib.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/**
+ * Reads and writes formal contexts in the transaction format of the FIMI
+ * repository (<code>.dat</code>). Every line is a transaction, that is, an
+ * object, and lists the items it contains, that is, its attributes, as
+ * non-negative integers separated by spaces. An empty line is an object
+ * without attributes.
+ * <p>
+ * The reader makes a single pass over the input, parses the numbers directly
+ * from the bytes and shares one boxed integer per item among all objects, so
+ * that it keeps nothing in memory besides the context that it builds.
+ * </p>
+ */
+
+public final class FimiFormat {
+
+	private FimiFormat() {
+	}
+
+	/**
+	 * Reads a formal context. The attributes are the items in the order of
+	 * their first occurrence, and the objects are identified by the number of
+	 * their line, starting with 0.
+	 *
+	 * @param in
+	 *            the stream to read from, which is not closed
+	 * @return a new formal context
+	 * @throws ContextFormatException
+	 *             if a line contains something other than numbers
+	 * @throws IOException
+	 *             if reading fails
+	 */
+	public static FormalContext<Integer, Integer> readFormalContext(InputStream in) throws IOException {
+		ByteScanner scanner = new ByteScanner(in);
+		FormalContext<Integer, Integer> context = new FormalContext<Integer, Integer>();
+		Integer[] items = new Integer[256];
+		Set<Integer> description = new HashSet<>();
+		for (int g = 0; scanner.hasMore(); ++g) {
+			scanner.startRecord();
+			description.clear();
+			for (int item = scanner.nextInt(); item >= 0; item = scanner.nextInt()) {
+				if (item >= items.length) {
+					items = Arrays.copyOf(items, Math.max(item + 1, 2 * items.length));
+				}
+				Integer attribute = items[item];
+				if (attribute == null) {
+					attribute = Integer.valueOf(item);
+					items[item] = attribute;
+					context.addAttribute(attribute);
+				}
+				description.add(attribute);
+			}
+			try {
+				context.addObject(new FullObject<Integer, Integer>(g, description));
+			} catch (IllegalObjectException e) {
+				throw scanner.recordError(e.getMessage());
+			}
+		}
+		return context;
+	}
+
+	/**
+	 * Writes a formal context whose attributes are items, that is,
+	 * non-negative integers. The items of each object are written in ascending
+	 * order.
+	 *
+	 * @param context
+	 *            the context to be written
+	 * @param out
+	 *            the stream to write to, which is flushed but not closed
+	 * @throws IOException
+	 *             if writing fails
+	 */
+	public static void write(FormalContext<Integer, ?> context, OutputStream out) throws IOException {
+		Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.US_ASCII));
+		int[] items = new int[16];
+		char[] digits = new char[11];
+		for (FullObject<Integer, ?> object : context.getObjects()) {
+			Set<Integer> attributes = object.getDescription().getAttributes();
+			if (attributes.size() > items.length) {
+				items = new int[Math.max(attributes.size(), 2 * items.length)];
+			}
+			int n = 0;
+			for (Integer attribute : attributes) {
+				items[n++] = attribute;
+			}
+			Arrays.sort(items, 0, n);
+			for (int k = 0; k < n; ++k) {
+				if (k > 0) {
+					writer.write(' ');
+				}
+				int start = digits.length;
+				int value = items[k];
+				do {
+					digits[--start] = (char) ('0' + (value % 10));
+					value /= 10;
+				} while (value > 0);
+				writer.write(digits, start, digits.length - start);
+			}
+			writer.write('\n');
+		}
+		writer.flush();
+	}
+
+}
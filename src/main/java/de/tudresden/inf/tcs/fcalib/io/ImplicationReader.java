@@ -0,0 +1,222 @@
+package de.tudresden.inf.tcs.fcalib.io;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import de.tudresden.inf.tcs.fcalib.AbstractContext;
+import de.tudresden.inf.tcs.fcalib.Implication;
+import de.tudresden.inf.tcs.fcalib.ImplicationSet;
+import de.tudresden.inf.tcs.fcalib.utils.BitWords;
+
+/*
+ * FCAlib: An open-source extensible library for Formal Concept Analysis
+ *         tool developers
+ * Copyright (C) 2009  Baris Sertkaya
+ *
+ * This file is part of FCAlib.
+ * FCAlib is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FCAlib is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with FCAlib.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/**
+ * Reads implications written by {@link ImplicationWriter} one at a time, so
+ * that a set of implications can be loaded without holding its encoding in
+ * memory.
+ */
+
+public class ImplicationReader {
+
+	private final DataInputStream in;
+
+	private final List<String> attributes;
+
+	private boolean finished = false;
+
+	/**
+	 * Creates a reader and reads the attribute dictionary. The stream is
+	 * buffered, so bytes after the end of the implications may be consumed.
+	 *
+	 * @param in
+	 *            the stream to read from, which is not closed
+	 * @throws IOException
+	 *             if reading fails or the stream was not written by
+	 *             {@link ImplicationWriter}
+	 */
+	public ImplicationReader(InputStream in) throws IOException {
+		this.in = new DataInputStream(new BufferedInputStream(in, 1 << 16));
+		if (this.in.readInt() != ImplicationWriter.MAGIC) {
+			throw new IOException("not an implication stream");
+		}
+		int version = this.in.readUnsignedByte();
+		if (version != ImplicationWriter.VERSION) {
+			throw new IOException("unsupported version " + version);
+		}
+		int count = readVarint();
+		List<String> names = new ArrayList<>(count);
+		for (int m = 0; m < count; ++m) {
+			byte[] name = new byte[readVarint()];
+			this.in.readFully(name);
+			names.add(new String(name, StandardCharsets.UTF_8));
+		}
+		this.attributes = Collections.unmodifiableList(names);
+	}
+
+	/**
+	 * Reads all implications of a stream into a new implication set of a
+	 * given context. The attributes of the stream are matched with the
+	 * attributes of the context by their string values.
+	 *
+	 * @param <A>
+	 *            type of the attributes
+	 * @param in
+	 *            the stream to read from, which is not closed
+	 * @param context
+	 *            the context of the new implication set
+	 * @return the implications of the stream
+	 * @throws IOException
+	 *             if reading fails, the stream was not written by
+	 *             {@link ImplicationWriter} or contains an attribute that is
+	 *             not in the context
+	 */
+	public static <A> ImplicationSet<A> read(InputStream in, AbstractContext<A, ?, ?> context) throws IOException {
+		ImplicationReader reader = new ImplicationReader(in);
+		Map<String, A> byName = new HashMap<>();
+		for (A attribute : context.getAttributes()) {
+			byName.put(String.valueOf(attribute), attribute);
+		}
+		List<A> attributes = new ArrayList<>(reader.getAttributes().size());
+		for (String name : reader.getAttributes()) {
+			A attribute = byName.get(name);
+			if (attribute == null) {
+				throw new IOException("attribute " + name + " is not in the context");
+			}
+			attributes.add(attribute);
+		}
+		ImplicationSet<A> implications = new ImplicationSet<A>(context);
+		long[] premise = new long[reader.getWordCount()];
+		long[] conclusion = new long[premise.length];
+		while (reader.next(premise, conclusion)) {
+			implications.add(new Implication<A>(attributesOf(premise, attributes), attributesOf(conclusion, attributes)));
+		}
+		return implications;
+	}
+
+	private static <A> Set<A> attributesOf(long[] words, List<A> attributes) {
+		Set<A> set = new LinkedHashSet<>();
+		for (int m = BitWords.nextSetBit(words, 0); m >= 0; m = BitWords.nextSetBit(words, m + 1)) {
+			set.add(attributes.get(m));
+		}
+		return set;
+	}
+
+	/**
+	 * Returns the names of the attributes, in the order of their indices.
+	 *
+	 * @return the attribute dictionary
+	 */
+	public List<String> getAttributes() {
+		return this.attributes;
+	}
+
+	/**
+	 * Returns the number of words of the sets of attributes.
+	 *
+	 * @return the number of words
+	 */
+	public int getWordCount() {
+		return BitWords.wordCount(this.attributes.size());
+	}
+
+	private int readVarint() throws IOException {
+		int value = 0;
+		for (int shift = 0; shift < 35; shift += 7) {
+			int b = this.in.readUnsignedByte();
+			value |= (b & 0x7F) << shift;
+			if ((b & 0x80) == 0) {
+				return value;
+			}
+		}
+		throw new IOException("malformed variable-length integer");
+	}
+
+	private void readSet(long[] words) throws IOException {
+		int wordCount = getWordCount();
+		int header = readVarint();
+		if (header == 1) {
+			for (int w = 0; w < wordCount; ++w) {
+				words[w] = this.in.readLong();
+			}
+			return;
+		}
+		if ((header & 1) != 0) {
+			throw new IOException("malformed set of attributes");
+		}
+		Arrays.fill(words, 0, wordCount, 0L);
+		int m = -1;
+		for (int k = header >>> 1; k > 0; --k) {
+			m += readVarint() + 1;
+			if ((m < 0) || (m >= this.attributes.size())) {
+				throw new IOException("attribute index out of range");
+			}
+			BitWords.set(words, m);
+		}
+	}
+
+	/**
+	 * Reads the next implication as bit words over the attribute indices.
+	 *
+	 * @param premise
+	 *            the array where the premise is stored, of at least
+	 *            {@link #getWordCount()} words
+	 * @param conclusion
+	 *            the array where the conclusion is stored, of at least
+	 *            {@link #getWordCount()} words
+	 * @return <code>false</code> if there are no more implications
+	 * @throws IOException
+	 *             if reading fails or the stream is malformed
+	 */
+	public boolean next(long[] premise, long[] conclusion) throws IOException {
+		if (this.finished) {
+			return false;
+		}
+		int tag;
+		try {
+			tag = this.in.readUnsignedByte();
+		} catch (EOFException e) {
+			throw new IOException("implication stream ends without end marker", e);
+		}
+		if (tag == 0) {
+			this.finished = true;
+			return false;
+		}
+		if (tag != 1) {
+			throw new IOException("malformed implication stream");
+		}
+		readSet(premise);
+		readSet(conclusion);
+		return true;
+	}
+
+}
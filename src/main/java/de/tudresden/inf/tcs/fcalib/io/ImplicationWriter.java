@@ -0,0 +1,250 @@
+package de.tudresden.inf.tcs.fcalib.io;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import de.tudresden.inf.tcs.fcaapi.FCAImplication;
+import de.tudresden.inf.tcs.fcalib.ImplicationSet;
+import de.tudresden.inf.tcs.fcalib.ImplicationSink;
+import de.tudresden.inf.tcs.fcalib.utils.BitWords;
+
+/*
+ * FCAlib: An open-source extensible library for Formal Concept Analysis
+ *         tool developers
+ * Copyright (C) 2009  Baris Sertkaya
+ *
+ * This file is part of FCAlib.
+ * FCAlib is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FCAlib is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with FCAlib.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/**
+ * Writes implications to a stream in a compact binary format, which is read by
+ * {@link ImplicationReader}. The stream starts with the bytes
+ * <code>FCAI</code>, a version byte and the attribute dictionary, that is, the
+ * number of attributes followed by their UTF-8 encoded names. Every
+ * implication is written as a byte <code>1</code> followed by its premise and
+ * its conclusion, and the stream ends with a byte <code>0</code>.
+ * <p>
+ * A set of attributes is written either as a list of attribute indices in
+ * ascending order, the first one as is and every other one as its distance to
+ * the previous one minus one, or as bit words, whichever is shorter. A list
+ * starts with its length times two, a set of bit words with <code>1</code>.
+ * All counts, lengths and indices are unsigned variable-length integers with
+ * seven bits per byte, least significant first; bit words are big-endian
+ * 64-bit integers.
+ * </p>
+ * <p>
+ * Implications are written as soon as they are given, so that a writer can
+ * receive the implications of {@link de.tudresden.inf.tcs.fcalib.CanonicalBasis}
+ * directly as an {@link ImplicationSink}.
+ * </p>
+ *
+ * @param <A>
+ *            type of the attributes
+ */
+
+public class ImplicationWriter<A> implements ImplicationSink {
+
+	static final int MAGIC = 0x46434149;
+
+	static final int VERSION = 1;
+
+	private final DataOutputStream out;
+
+	private final Map<A, Integer> indices = new HashMap<>();
+
+	private final int attributeCount;
+
+	private final long[] premise;
+
+	private final long[] conclusion;
+
+	/**
+	 * Creates a writer and writes the attribute dictionary. Attributes are
+	 * written as their string values.
+	 *
+	 * @param out
+	 *            the stream to write to, which is not closed
+	 * @param attributes
+	 *            the attributes, whose indices are used in the bit words
+	 *            given to {@link #implication(long[], long[])}
+	 * @throws IOException
+	 *             if writing fails
+	 */
+	public ImplicationWriter(OutputStream out, List<A> attributes) throws IOException {
+		this.out = new DataOutputStream(new BufferedOutputStream(out, 1 << 16));
+		this.attributeCount = attributes.size();
+		this.premise = new long[BitWords.wordCount(this.attributeCount)];
+		this.conclusion = new long[this.premise.length];
+		this.out.writeInt(MAGIC);
+		this.out.writeByte(VERSION);
+		writeVarint(this.attributeCount);
+		for (A attribute : attributes) {
+			this.indices.put(attribute, this.indices.size());
+			byte[] name = String.valueOf(attribute).getBytes(StandardCharsets.UTF_8);
+			writeVarint(name.length);
+			this.out.write(name);
+		}
+	}
+
+	/**
+	 * Writes all implications of a given implication set. The attributes are
+	 * those of the context of the set, in their current order.
+	 *
+	 * @param <A>
+	 *            type of the attributes
+	 * @param implications
+	 *            the implications to be written
+	 * @param out
+	 *            the stream to write to, which is flushed but not closed
+	 * @throws IOException
+	 *             if writing fails
+	 */
+	public static <A> void write(ImplicationSet<A> implications, OutputStream out) throws IOException {
+		List<A> attributes = new ArrayList<>(implications.getContext().getAttributes());
+		ImplicationWriter<A> writer = new ImplicationWriter<A>(out, attributes);
+		for (FCAImplication<A> imp : implications) {
+			writer.write(imp);
+		}
+		writer.finish();
+	}
+
+	private void writeVarint(int value) throws IOException {
+		while ((value & ~0x7F) != 0) {
+			this.out.writeByte((value & 0x7F) | 0x80);
+			value >>>= 7;
+		}
+		this.out.writeByte(value);
+	}
+
+	private static int varintLength(int value) {
+		int length = 1;
+		while ((value & ~0x7F) != 0) {
+			value >>>= 7;
+			++length;
+		}
+		return length;
+	}
+
+	private void writeSet(long[] words) throws IOException {
+		int size = 0;
+		int length = 0;
+		int previous = -1;
+		for (int m = BitWords.nextSetBit(words, 0); m >= 0; m = BitWords.nextSetBit(words, m + 1)) {
+			++size;
+			length += varintLength(m - previous - 1);
+			previous = m;
+		}
+		int wordCount = this.premise.length;
+		if (length + varintLength(2 * size) > 1 + 8 * wordCount) {
+			writeVarint(1);
+			for (int w = 0; w < wordCount; ++w) {
+				this.out.writeLong(words[w]);
+			}
+			return;
+		}
+		writeVarint(2 * size);
+		previous = -1;
+		for (int m = BitWords.nextSetBit(words, 0); m >= 0; m = BitWords.nextSetBit(words, m + 1)) {
+			writeVarint(m - previous - 1);
+			previous = m;
+		}
+	}
+
+	/**
+	 * Writes an implication given as bit words over the attribute indices.
+	 * Bits beyond the number of attributes must be clear.
+	 *
+	 * @param premise
+	 *            the premise
+	 * @param conclusion
+	 *            the conclusion
+	 * @throws IOException
+	 *             if writing fails
+	 */
+	public void write(long[] premise, long[] conclusion) throws IOException {
+		this.out.writeByte(1);
+		writeSet(premise);
+		writeSet(conclusion);
+	}
+
+	private void toWords(Set<A> attributes, long[] words) {
+		Arrays.fill(words, 0L);
+		for (A attribute : attributes) {
+			Integer m = this.indices.get(attribute);
+			if (m == null) {
+				throw new IllegalArgumentException("Attribute " + attribute + " is not in the dictionary");
+			}
+			BitWords.set(words, m);
+		}
+	}
+
+	/**
+	 * Writes an implication.
+	 *
+	 * @param imp
+	 *            the implication
+	 * @throws IOException
+	 *             if writing fails
+	 * @throws IllegalArgumentException
+	 *             if the implication contains an attribute that is not in the
+	 *             dictionary
+	 */
+	public void write(FCAImplication<A> imp) throws IOException {
+		toWords(imp.getPremise(), this.premise);
+		toWords(imp.getConclusion(), this.conclusion);
+		write(this.premise, this.conclusion);
+	}
+
+	/**
+	 * Writes an implication received from a base computation.
+	 *
+	 * @param premise
+	 *            the premise
+	 * @param conclusion
+	 *            the conclusion
+	 * @throws UncheckedIOException
+	 *             if writing fails
+	 */
+	@Override
+	public void implication(long[] premise, long[] conclusion) {
+		try {
+			write(premise, conclusion);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * Writes the end of the stream and flushes it. The stream is not closed.
+	 *
+	 * @throws IOException
+	 *             if writing fails
+	 */
+	public void finish() throws IOException {
+		this.out.writeByte(0);
+		this.out.flush();
+	}
+
+}
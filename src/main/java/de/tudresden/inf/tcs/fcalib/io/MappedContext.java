@@ -0,0 +1,747 @@
+package de.tudresden.inf.tcs.fcalib.io;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import de.tudresden.inf.tcs.fcaapi.Expert;
+import de.tudresden.inf.tcs.fcaapi.FCAImplication;
+import de.tudresden.inf.tcs.fcaapi.utils.IndexedSet;
+import de.tudresden.inf.tcs.fcalib.AbstractContext;
+import de.tudresden.inf.tcs.fcalib.BitClosureOperator;
+import de.tudresden.inf.tcs.fcalib.CrossTable;
+import de.tudresden.inf.tcs.fcalib.FormalContext;
+import de.tudresden.inf.tcs.fcalib.FullObject;
+import de.tudresden.inf.tcs.fcalib.utils.BitWords;
+
+/*
+ * FCAlib: An open-source extensible library for Formal Concept Analysis
+ *         tool developers
+ * Copyright (C) 2009  Baris Sertkaya
+ *
+ * This file is part of FCAlib.
+ * FCAlib is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FCAlib is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with FCAlib.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/**
+ * A read-only formal context backed by a memory-mapped file, so that opening
+ * it takes time independent of the number of objects. The file is written by
+ * {@link #write(FormalContext, Path)} and consists of
+ * <ul>
+ * <li>a header with the numbers of objects and attributes and the offsets of
+ * the other sections,</li>
+ * <li>the attribute dictionary and the object dictionary, each an array of end
+ * offsets followed by the UTF-8 encoded names,</li>
+ * <li>a hash table from object names to object indices,</li>
+ * <li>the incidence relation as bit words, row by row and column by
+ * column.</li>
+ * </ul>
+ * All numbers are big-endian and every section starts at a multiple of 8
+ * bytes. Each section has to be smaller than 2 GiB.
+ * <p>
+ * Only the attribute names are read when the file is opened. Objects are
+ * created from the mapped rows when they are requested, and
+ * {@link #doublePrime(Set)}, {@link #refutes(FCAImplication)} and
+ * {@link #closureOperator()} work on the mapped bit words directly. Objects
+ * and attributes are identified by their names. Methods that would modify the
+ * context throw {@link UnsupportedOperationException}. The context can be read
+ * by several threads at the same time.
+ * </p>
+ */
+
+public class MappedContext extends AbstractContext<String, String, FullObject<String, String>> {
+
+	/**
+	 * First bytes of a file, <code>FCAB</code>.
+	 */
+	private static final int MAGIC = 0x46434142;
+
+	private static final int VERSION = 1;
+
+	private static final int HEADER_SIZE = 64;
+
+	private final int objectCount;
+
+	private final int attributeCount;
+
+	/**
+	 * Number of words of a row, i.e., of a set of attributes.
+	 */
+	private final int rowWords;
+
+	/**
+	 * Number of words of a column, i.e., of a set of objects.
+	 */
+	private final int columnWords;
+
+	private final AttributeSet attributes;
+
+	private final IndexedSet<FullObject<String, String>> objects;
+
+	/**
+	 * End offsets of the object names in <code>objectNames</code>.
+	 */
+	private final ByteBuffer objectEnds;
+
+	private final ByteBuffer objectNames;
+
+	/**
+	 * Open addressing table of object indices plus one, <code>0</code> for
+	 * free slots.
+	 */
+	private final ByteBuffer objectTable;
+
+	private final int objectTableMask;
+
+	private final LongBuffer rows;
+
+	private final LongBuffer columns;
+
+	private Expert<String, String, FullObject<String, String>> expert = null;
+
+	private MappedContext(FileChannel channel) throws IOException {
+		if (channel.size() < HEADER_SIZE) {
+			throw new IOException("not a mapped context file");
+		}
+		ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE);
+		if (header.getInt(0) != MAGIC) {
+			throw new IOException("not a mapped context file");
+		}
+		if (header.getInt(4) != VERSION) {
+			throw new IOException("unsupported version " + header.getInt(4));
+		}
+		this.objectCount = header.getInt(8);
+		this.attributeCount = header.getInt(12);
+		this.rowWords = BitWords.wordCount(this.attributeCount);
+		this.columnWords = BitWords.wordCount(this.objectCount);
+		long attributeOffset = header.getLong(16);
+		long objectOffset = header.getLong(24);
+		long tableOffset = header.getLong(32);
+		long rowOffset = header.getLong(40);
+		long columnOffset = header.getLong(48);
+		long end = header.getLong(56);
+		if (end != channel.size()) {
+			throw new IOException("truncated mapped context file");
+		}
+
+		ByteBuffer attributeSection = map(channel, attributeOffset, objectOffset);
+		int namesStart = 4 * (this.attributeCount + 1);
+		String[] names = new String[this.attributeCount];
+		byte[] bytes = new byte[64];
+		for (int m = 0; m < this.attributeCount; ++m) {
+			int from = attributeSection.getInt(4 * m);
+			int to = attributeSection.getInt(4 * (m + 1));
+			if (to - from > bytes.length) {
+				bytes = new byte[to - from];
+			}
+			for (int k = from; k < to; ++k) {
+				bytes[k - from] = attributeSection.get(namesStart + k);
+			}
+			names[m] = new String(bytes, 0, to - from, StandardCharsets.UTF_8);
+		}
+		this.attributes = new AttributeSet(names);
+
+		ByteBuffer objectSection = map(channel, objectOffset, tableOffset);
+		objectSection.limit(4 * (this.objectCount + 1));
+		this.objectEnds = objectSection.slice();
+		objectSection.limit(objectSection.capacity());
+		objectSection.position(4 * (this.objectCount + 1));
+		this.objectNames = objectSection.slice();
+		this.objectTable = map(channel, tableOffset, rowOffset);
+		this.objectTableMask = (this.objectTable.capacity() / 4) - 1;
+		this.rows = map(channel, rowOffset, columnOffset).asLongBuffer();
+		this.columns = map(channel, columnOffset, end).asLongBuffer();
+		if ((this.rows.capacity() < (long) this.objectCount * this.rowWords)
+				|| (this.columns.capacity() < (long) this.attributeCount * this.columnWords)) {
+			throw new IOException("truncated mapped context file");
+		}
+		this.objects = new ObjectSet();
+	}
+
+	private static ByteBuffer map(FileChannel channel, long from, long to) throws IOException {
+		if ((from < 0) || (to < from) || (to > channel.size())) {
+			throw new IOException("invalid section in mapped context file");
+		}
+		if (to - from > Integer.MAX_VALUE) {
+			throw new IOException("section of mapped context file too large");
+		}
+		return channel.map(FileChannel.MapMode.READ_ONLY, from, to - from);
+	}
+
+	/**
+	 * Opens a file written by {@link #write(FormalContext, Path)}. The file
+	 * must not be modified while the context is in use. It is unmapped when
+	 * the context is garbage collected.
+	 *
+	 * @param file
+	 *            the file to be opened
+	 * @return the context stored in the file
+	 * @throws IOException
+	 *             if the file cannot be read or is not a mapped context file
+	 */
+	public static MappedContext open(Path file) throws IOException {
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			return new MappedContext(channel);
+		}
+	}
+
+	private static long padded(long size) {
+		return (size + 7) & ~7L;
+	}
+
+	private static void pad(DataOutputStream out, long size) throws IOException {
+		for (long k = size; k < padded(size); ++k) {
+			out.writeByte(0);
+		}
+	}
+
+	private static int hash(String name) {
+		int h = name.hashCode();
+		return h ^ (h >>> 16);
+	}
+
+	/**
+	 * Writes the names of a dictionary and returns the size of the section.
+	 */
+	private static long writeDictionary(DataOutputStream out, List<byte[]> names) throws IOException {
+		int end = 0;
+		out.writeInt(0);
+		for (byte[] name : names) {
+			end += name.length;
+			out.writeInt(end);
+		}
+		for (byte[] name : names) {
+			out.write(name);
+		}
+		long size = 4L * (names.size() + 1) + end;
+		pad(out, size);
+		return padded(size);
+	}
+
+	private static long dictionarySize(List<byte[]> names) {
+		long size = 4L * (names.size() + 1);
+		for (byte[] name : names) {
+			size += name.length;
+		}
+		return padded(size);
+	}
+
+	/**
+	 * Writes a formal context to a file that can be opened with
+	 * {@link #open(Path)}. Objects are written with their identifiers and
+	 * attributes as their string values, which have to be unique.
+	 *
+	 * @param <A>
+	 *            type of the attributes
+	 * @param <I>
+	 *            type of the object identifiers
+	 * @param context
+	 *            the context to be written
+	 * @param file
+	 *            the file to be written, which is replaced if it exists
+	 * @throws IOException
+	 *             if writing fails
+	 */
+	public static <A, I> void write(FormalContext<A, I> context, Path file) throws IOException {
+		int objectCount = context.getObjectCount();
+		int attributeCount = context.getAttributeCount();
+		List<byte[]> attributeNames = new ArrayList<>(attributeCount);
+		for (A attribute : context.getAttributes()) {
+			attributeNames.add(String.valueOf(attribute).getBytes(StandardCharsets.UTF_8));
+		}
+		List<byte[]> objectNames = new ArrayList<>(objectCount);
+		int tableSize = 2;
+		while (tableSize < 2L * objectCount) {
+			tableSize *= 2;
+		}
+		int[] table = new int[tableSize];
+		for (int g = 0; g < objectCount; ++g) {
+			String name = String.valueOf(context.getObjectAtIndex(g).getIdentifier());
+			objectNames.add(name.getBytes(StandardCharsets.UTF_8));
+			int slot = hash(name) & (tableSize - 1);
+			while (table[slot] != 0) {
+				slot = (slot + 1) & (tableSize - 1);
+			}
+			table[slot] = g + 1;
+		}
+		CrossTable crossTable = context.toCrossTable();
+
+		long attributeOffset = HEADER_SIZE;
+		long objectOffset = attributeOffset + dictionarySize(attributeNames);
+		long tableOffset = objectOffset + dictionarySize(objectNames);
+		long rowOffset = tableOffset + 4L * tableSize;
+		long columnOffset = rowOffset + 8L * objectCount * crossTable.getAttributeWordCount();
+		long end = columnOffset + 8L * attributeCount * crossTable.getObjectWordCount();
+
+		try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file), 1 << 16))) {
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			out.writeInt(objectCount);
+			out.writeInt(attributeCount);
+			out.writeLong(attributeOffset);
+			out.writeLong(objectOffset);
+			out.writeLong(tableOffset);
+			out.writeLong(rowOffset);
+			out.writeLong(columnOffset);
+			out.writeLong(end);
+			writeDictionary(out, attributeNames);
+			writeDictionary(out, objectNames);
+			for (int slot : table) {
+				out.writeInt(slot);
+			}
+			for (int g = 0; g < objectCount; ++g) {
+				long[] row = crossTable.getRow(g);
+				for (int w = 0; w < crossTable.getAttributeWordCount(); ++w) {
+					out.writeLong(row[w]);
+				}
+			}
+			for (int m = 0; m < attributeCount; ++m) {
+				long[] column = crossTable.getColumn(m);
+				for (int w = 0; w < crossTable.getObjectWordCount(); ++w) {
+					out.writeLong(column[w]);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Returns the name of the object with a given index.
+	 */
+	private String objectName(int g) {
+		int from = this.objectEnds.getInt(4 * g);
+		int to = this.objectEnds.getInt(4 * (g + 1));
+		byte[] bytes = new byte[to - from];
+		for (int k = from; k < to; ++k) {
+			bytes[k - from] = this.objectNames.get(k);
+		}
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Returns the index of the object with a given name, <code>-1</code> if
+	 * there is none.
+	 */
+	private int objectIndex(Object name) {
+		if (!(name instanceof String)) {
+			return -1;
+		}
+		int slot = hash((String) name) & this.objectTableMask;
+		for (int g = this.objectTable.getInt(4 * slot); g != 0; g = this.objectTable.getInt(4 * slot)) {
+			if (objectName(g - 1).equals(name)) {
+				return g - 1;
+			}
+			slot = (slot + 1) & this.objectTableMask;
+		}
+		return -1;
+	}
+
+	/**
+	 * Creates the object with a given index from its row.
+	 */
+	private FullObject<String, String> object(int g) {
+		Set<String> description = new LinkedHashSet<>();
+		int offset = g * this.rowWords;
+		for (int w = 0; w < this.rowWords; ++w) {
+			long word = this.rows.get(offset + w);
+			while (word != 0) {
+				description.add(this.attributes.getElementAt((w << 6) + Long.numberOfTrailingZeros(word)));
+				word &= word - 1;
+			}
+		}
+		return new FullObject<String, String>(objectName(g), description);
+	}
+
+	/**
+	 * Returns the bit words of a set of attributes, or <code>null</code> if it
+	 * contains an attribute that is not in this context.
+	 */
+	private long[] bits(Set<String> x) {
+		long[] words = new long[this.rowWords];
+		for (String attribute : x) {
+			int m = this.attributes.getIndexOf(attribute);
+			if (m < 0) {
+				return null;
+			}
+			BitWords.set(words, m);
+		}
+		return words;
+	}
+
+	/**
+	 * Computes the objects that have all attributes of a given set.
+	 */
+	private void extent(long[] x, long[] extent) {
+		BitWords.fill(extent, this.objectCount);
+		for (int m = BitWords.nextSetBit(x, 0); m >= 0; m = BitWords.nextSetBit(x, m + 1)) {
+			int offset = m * this.columnWords;
+			for (int w = 0; w < this.columnWords; ++w) {
+				extent[w] &= this.columns.get(offset + w);
+			}
+		}
+	}
+
+	/**
+	 * Computes the attributes that all objects of a given set have. Small sets
+	 * are intersected row by row, large ones are tested column by column.
+	 */
+	private void intent(long[] extent, long[] intent) {
+		int size = BitWords.cardinality(extent);
+		if ((long) size * this.rowWords <= (long) this.attributeCount * this.columnWords) {
+			BitWords.fill(intent, this.attributeCount);
+			for (int g = BitWords.nextSetBit(extent, 0); g >= 0; g = BitWords.nextSetBit(extent, g + 1)) {
+				int offset = g * this.rowWords;
+				for (int w = 0; w < this.rowWords; ++w) {
+					intent[w] &= this.rows.get(offset + w);
+				}
+			}
+			return;
+		}
+		Arrays.fill(intent, 0L);
+		for (int m = 0; m < this.attributeCount; ++m) {
+			int offset = m * this.columnWords;
+			int w = 0;
+			while ((w < this.columnWords) && ((extent[w] & ~this.columns.get(offset + w)) == 0)) {
+				++w;
+			}
+			if (w == this.columnWords) {
+				BitWords.set(intent, m);
+			}
+		}
+	}
+
+	/**
+	 * Returns the closure operator of this context, i.e., the second
+	 * derivative on sets of attribute indices, computed on the mapped bit
+	 * words. The returned operator has its own scratch space and must not be
+	 * used by several threads at the same time.
+	 *
+	 * @return the closure operator of this context
+	 */
+	public BitClosureOperator closureOperator() {
+		return new BitClosureOperator() {
+
+			private final long[] extent = new long[MappedContext.this.columnWords];
+
+			@Override
+			public int getAttributeCount() {
+				return MappedContext.this.attributeCount;
+			}
+
+			@Override
+			public void closure(long[] x, long[] result) {
+				extent(x, this.extent);
+				intent(this.extent, result);
+			}
+		};
+	}
+
+	/**
+	 * Computes the second derivative of a given set of attributes.
+	 *
+	 * @param x
+	 *            the attribute set whose second derivative is to be computed
+	 * @return the second derivative of <code>x</code>
+	 */
+	@Override
+	public Set<String> doublePrime(Set<String> x) {
+		Set<String> result = cachedDoublePrime(x);
+		if (result != null) {
+			return result;
+		}
+		long[] words = bits(x);
+		long[] intent = new long[this.rowWords];
+		if (words == null) {
+			// no object has an attribute outside the context
+			BitWords.fill(intent, this.attributeCount);
+		} else {
+			long[] extent = new long[this.columnWords];
+			extent(words, extent);
+			intent(extent, intent);
+		}
+		result = attributesOf(intent);
+		cacheDoublePrime(x, result);
+		return result;
+	}
+
+	/**
+	 * Checks whether this context refutes a given implication, i.e., there
+	 * exists an object that does not respect the given implication.
+	 *
+	 * @param imp
+	 *            the implication to be tested
+	 * @return <code>true</code> if some object of this context does not
+	 *         respect <code>imp</code>
+	 */
+	@Override
+	public boolean refutes(FCAImplication<String> imp) {
+		long[] premise = bits(imp.getPremise());
+		if (premise == null) {
+			return false;
+		}
+		long[] extent = new long[this.columnWords];
+		extent(premise, extent);
+		if (BitWords.isEmpty(extent)) {
+			return false;
+		}
+		for (String attribute : imp.getConclusion()) {
+			int m = this.attributes.getIndexOf(attribute);
+			if (m < 0) {
+				return true;
+			}
+			int offset = m * this.columnWords;
+			for (int w = 0; w < this.columnWords; ++w) {
+				if ((extent[w] & ~this.columns.get(offset + w)) != 0) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	@Override
+	public boolean isCounterExampleValid(FullObject<String, String> counterExample, FCAImplication<String> imp) {
+		return !counterExample.respects(imp);
+	}
+
+	/**
+	 * Computes the stem base of this context on the mapped bit words.
+	 *
+	 * @return the stem base of this context
+	 */
+	@Override
+	public Set<FCAImplication<String>> getStemBase() {
+		return computeStemBase(closureOperator());
+	}
+
+	@Override
+	public Set<FCAImplication<String>> getDuquenneGuiguesBase() {
+		return getStemBase();
+	}
+
+	@Override
+	public IndexedSet<String> getAttributes() {
+		return this.attributes;
+	}
+
+	@Override
+	public String getAttributeAtIndex(int index) {
+		return this.attributes.getElementAt(index);
+	}
+
+	@Override
+	public IndexedSet<FullObject<String, String>> getObjects() {
+		return this.objects;
+	}
+
+	@Override
+	public int getObjectCount() {
+		return this.objectCount;
+	}
+
+	/**
+	 * Returns the object with a given name. The object is created from the
+	 * mapped file on every call.
+	 *
+	 * @param id
+	 *            the name of the object
+	 * @return the object, <code>null</code> if there is no such object
+	 */
+	@Override
+	public FullObject<String, String> getObject(String id) {
+		int g = objectIndex(id);
+		return (g < 0) ? null : object(g);
+	}
+
+	@Override
+	public boolean containsObject(String id) {
+		return objectIndex(id) >= 0;
+	}
+
+	@Override
+	public FullObject<String, String> getObjectAtIndex(int index) {
+		return this.objects.getElementAt(index);
+	}
+
+	@Override
+	public boolean objectHasAttribute(FullObject<String, String> object, String attribute) {
+		return object.getDescription().containsAttribute(attribute);
+	}
+
+	@Override
+	public Expert<String, String, FullObject<String, String>> getExpert() {
+		return this.expert;
+	}
+
+	@Override
+	public void setExpert(Expert<String, String, FullObject<String, String>> e) {
+		this.expert = e;
+	}
+
+	private static UnsupportedOperationException readOnly() {
+		return new UnsupportedOperationException("mapped contexts are read-only");
+	}
+
+	@Override
+	public boolean addAttribute(String attribute) {
+		throw readOnly();
+	}
+
+	@Override
+	public boolean addObject(FullObject<String, String> object) {
+		throw readOnly();
+	}
+
+	@Override
+	public boolean removeObject(String id) {
+		throw readOnly();
+	}
+
+	@Override
+	public boolean removeObject(FullObject<String, String> object) {
+		throw readOnly();
+	}
+
+	@Override
+	public void clearObjects() {
+		throw readOnly();
+	}
+
+	@Override
+	public boolean addAttributeToObject(String attribute, String id) {
+		throw readOnly();
+	}
+
+	/**
+	 * The attributes of the file in their order, which cannot be changed.
+	 */
+	private static final class AttributeSet extends AbstractSet<String> implements IndexedSet<String> {
+
+		private final List<String> names;
+
+		private final Map<String, Integer> indices = new HashMap<>();
+
+		AttributeSet(String[] names) {
+			this.names = Collections.unmodifiableList(Arrays.asList(names));
+			for (int m = 0; m < names.length; ++m) {
+				this.indices.put(names[m], m);
+			}
+		}
+
+		@Override
+		public Iterator<String> iterator() {
+			return this.names.iterator();
+		}
+
+		@Override
+		public int size() {
+			return this.names.size();
+		}
+
+		@Override
+		public boolean contains(Object o) {
+			return this.indices.containsKey(o);
+		}
+
+		@Override
+		public int getIndexOf(String e) {
+			Integer m = this.indices.get(e);
+			return (m == null) ? -1 : m;
+		}
+
+		@Override
+		public String getElementAt(int i) {
+			return this.names.get(i);
+		}
+
+		@Override
+		public void changeOrder() {
+			throw readOnly();
+		}
+	}
+
+	/**
+	 * The objects of the file, created on demand.
+	 */
+	private final class ObjectSet extends AbstractSet<FullObject<String, String>>
+			implements IndexedSet<FullObject<String, String>> {
+
+		@Override
+		public Iterator<FullObject<String, String>> iterator() {
+			return new Iterator<FullObject<String, String>>() {
+
+				private int next = 0;
+
+				@Override
+				public boolean hasNext() {
+					return this.next < MappedContext.this.objectCount;
+				}
+
+				@Override
+				public FullObject<String, String> next() {
+					if (!hasNext()) {
+						throw new NoSuchElementException();
+					}
+					return object(this.next++);
+				}
+			};
+		}
+
+		@Override
+		public int size() {
+			return MappedContext.this.objectCount;
+		}
+
+		@Override
+		public boolean contains(Object o) {
+			return (o instanceof FullObject) && (objectIndex(((FullObject<?, ?>) o).getIdentifier()) >= 0);
+		}
+
+		@Override
+		public int getIndexOf(FullObject<String, String> e) {
+			return objectIndex(e.getIdentifier());
+		}
+
+		@Override
+		public FullObject<String, String> getElementAt(int i) {
+			if ((i < 0) || (i >= MappedContext.this.objectCount)) {
+				throw new IndexOutOfBoundsException("Index: " + i + ", Size: " + MappedContext.this.objectCount);
+			}
+			return object(i);
+		}
+
+		@Override
+		public void changeOrder() {
+			throw readOnly();
+		}
+	}
+
+}
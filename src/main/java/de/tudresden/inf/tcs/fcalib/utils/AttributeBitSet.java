@@ -0,0 +1,263 @@
+package de.tudresden.inf.tcs.fcalib.utils;
+
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/*
+ * FCAlib: An open-source extensible library for Formal Concept Analysis
+ *         tool developers
+ * Copyright (C) 2009  Baris Sertkaya
+ *
+ * This file is part of FCAlib.
+ * FCAlib is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FCAlib is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with FCAlib.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/**
+ * A set of attributes stored as bit words over the identifiers of an attribute
+ * dictionary. An attribute takes one bit, instead of an entry in a hash table,
+ * and the words can be combined with those of other sets over the same
+ * dictionary with bitwise operations. Attributes that have not been interned
+ * in the dictionary are kept in a separate hash set, which is only created
+ * when such an attribute is added.
+ * 
+ * @param <T>
+ *            type of the attributes
+ */
+
+public class AttributeBitSet<T> extends AbstractSet<T> {
+
+	/**
+	 * The dictionary that gives the bit of each attribute.
+	 */
+	private final AttributeDictionary<T> dictionary;
+
+	/**
+	 * The attributes of this set that have been interned in the dictionary.
+	 */
+	private long[] words;
+
+	/**
+	 * The attributes of this set that had not been interned in the dictionary
+	 * when they were added, <code>null</code> if there are none.
+	 */
+	private Set<T> others = null;
+
+	/**
+	 * Creates a set over a given dictionary that contains the elements of a
+	 * given collection.
+	 * 
+	 * @param dictionary
+	 *            the dictionary
+	 * @param c
+	 *            the initial elements
+	 */
+	public AttributeBitSet(AttributeDictionary<T> dictionary, Collection<? extends T> c) {
+		this.dictionary = dictionary;
+		this.words = new long[BitWords.wordCount(dictionary.size())];
+		addAll(c);
+	}
+
+	/**
+	 * Returns the dictionary of this set.
+	 * 
+	 * @return the dictionary of this set
+	 */
+	public AttributeDictionary<T> getDictionary() {
+		return this.dictionary;
+	}
+
+	/**
+	 * Returns the bit words of the interned attributes of this set. The array
+	 * is owned by this set and must not be modified. It may have fewer words
+	 * than the dictionary needs, the missing words are empty.
+	 * 
+	 * @return the bit words of this set
+	 */
+	public long[] getWords() {
+		moveInterned();
+		return this.words;
+	}
+
+	/**
+	 * Moves the attributes that have been interned in the dictionary since
+	 * they were added to this set from the hash set to the words.
+	 */
+	private void moveInterned() {
+		if (this.others != null) {
+			for (T element : this.others) {
+				if (this.dictionary.getId(element) >= 0) {
+					Set<T> moved = this.others;
+					this.others = null;
+					addAll(moved);
+					return;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Checks whether this set contains every bit of given words.
+	 * 
+	 * @param bits
+	 *            bit words over the identifiers of the dictionary
+	 * @return <code>true</code> if this set contains the attribute of every
+	 *         bit of <code>bits</code>
+	 */
+	public boolean containsWords(long[] bits) {
+		moveInterned();
+		for (int w = 0; w < bits.length; ++w) {
+			long word = (w < this.words.length) ? this.words[w] : 0L;
+			if ((bits[w] & ~word) != 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Checks whether this set contains the attribute of a bit of given words.
+	 * 
+	 * @param bits
+	 *            bit words over the identifiers of the dictionary
+	 * @return <code>true</code> if this set and <code>bits</code> have a
+	 *         common attribute
+	 */
+	public boolean intersectsWords(long[] bits) {
+		moveInterned();
+		int length = Math.min(bits.length, this.words.length);
+		for (int w = 0; w < length; ++w) {
+			if ((bits[w] & this.words[w]) != 0) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	@Override
+	public int size() {
+		return BitWords.cardinality(this.words) + ((this.others == null) ? 0 : this.others.size());
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return BitWords.isEmpty(this.words) && ((this.others == null) || this.others.isEmpty());
+	}
+
+	@Override
+	public boolean contains(Object o) {
+		int id = this.dictionary.getId(o);
+		if ((id >= 0) && ((id >>> 6) < this.words.length) && BitWords.get(this.words, id)) {
+			return true;
+		}
+		return (this.others != null) && this.others.contains(o);
+	}
+
+	@Override
+	public boolean add(T e) {
+		if (contains(e)) {
+			return false;
+		}
+		int id = this.dictionary.getId(e);
+		if (id < 0) {
+			if (this.others == null) {
+				this.others = new HashSet<>();
+			}
+			return this.others.add(e);
+		}
+		if ((id >>> 6) >= this.words.length) {
+			this.words = Arrays.copyOf(this.words, BitWords.wordCount(this.dictionary.size()));
+		}
+		BitWords.set(this.words, id);
+		return true;
+	}
+
+	@Override
+	public boolean remove(Object o) {
+		int id = this.dictionary.getId(o);
+		if ((id >= 0) && ((id >>> 6) < this.words.length) && BitWords.get(this.words, id)) {
+			BitWords.clear(this.words, id);
+			return true;
+		}
+		return (this.others != null) && this.others.remove(o);
+	}
+
+	@Override
+	public void clear() {
+		Arrays.fill(this.words, 0L);
+		this.others = null;
+	}
+
+	@Override
+	public Iterator<T> iterator() {
+		return new Iterator<T>() {
+
+			private int next = BitWords.nextSetBit(AttributeBitSet.this.words, 0);
+
+			private int last = -1;
+
+			private Iterator<T> rest = null;
+
+			private boolean lastFromRest = false;
+
+			@Override
+			public boolean hasNext() {
+				if (this.next >= 0) {
+					return true;
+				}
+				if (this.rest == null) {
+					Set<T> others = AttributeBitSet.this.others;
+					if (others == null) {
+						return false;
+					}
+					this.rest = others.iterator();
+				}
+				return this.rest.hasNext();
+			}
+
+			@Override
+			public T next() {
+				if (this.next >= 0) {
+					this.last = this.next;
+					this.next = BitWords.nextSetBit(AttributeBitSet.this.words, this.next + 1);
+					return AttributeBitSet.this.dictionary.get(this.last);
+				}
+				if (!hasNext()) {
+					throw new NoSuchElementException();
+				}
+				this.last = -1;
+				this.lastFromRest = true;
+				return this.rest.next();
+			}
+
+			@Override
+			public void remove() {
+				if (this.last >= 0) {
+					BitWords.clear(AttributeBitSet.this.words, this.last);
+					this.last = -1;
+				} else if (this.lastFromRest) {
+					this.rest.remove();
+					this.lastFromRest = false;
+				} else {
+					throw new IllegalStateException();
+				}
+			}
+		};
+	}
+
+}
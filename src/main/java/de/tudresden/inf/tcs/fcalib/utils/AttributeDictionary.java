@@ -0,0 +1,192 @@
+package de.tudresden.inf.tcs.fcalib.utils;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/*
+ * FCAlib: An open-source extensible library for Formal Concept Analysis
+ *         tool developers
+ * Copyright (C) 2009  Baris Sertkaya
+ *
+ * This file is part of FCAlib.
+ * FCAlib is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FCAlib is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with FCAlib.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/**
+ * Interns elements to dense <code>int</code> identifiers. The identifiers are
+ * assigned in the order in which the elements are interned, starting at
+ * <code>0</code>, and never change. Looking up an element first compares it by
+ * identity with the interned instances, which does not call
+ * <code>hashCode</code> or <code>equals</code>, and only falls back to them
+ * for an element that is equal to an interned one but a different instance.
+ * This keeps the lookups cheap for elements whose <code>hashCode</code> is
+ * expensive, as long as the interned instances themselves are passed around.
+ * 
+ * @param <A>
+ *            type of the elements
+ */
+
+public class AttributeDictionary<A> {
+
+	/**
+	 * The interned elements by identifier.
+	 */
+	private Object[] elements = new Object[8];
+
+	/**
+	 * Number of interned elements.
+	 */
+	private int size = 0;
+
+	/**
+	 * Open addressing table of the interned elements, hashed by identity. Its
+	 * length is a power of two and at least twice the number of elements.
+	 */
+	private Object[] identityKeys = new Object[16];
+
+	/**
+	 * Identifier of the element in the same slot of
+	 * <code>identityKeys</code>.
+	 */
+	private int[] identityIds = new int[16];
+
+	/**
+	 * Identifier of each element, by <code>equals</code>.
+	 */
+	private final Map<A, Integer> ids = new HashMap<>();
+
+	/**
+	 * Returns the number of interned elements.
+	 * 
+	 * @return the number of interned elements
+	 */
+	public int size() {
+		return this.size;
+	}
+
+	/**
+	 * Returns the identifier of a given element, interning it if it has not
+	 * been interned yet.
+	 * 
+	 * @param element
+	 *            the element
+	 * @return the identifier of <code>element</code>
+	 */
+	public int intern(A element) {
+		int id = getId(element);
+		if (id >= 0) {
+			return id;
+		}
+		id = this.size;
+		if (id == this.elements.length) {
+			this.elements = Arrays.copyOf(this.elements, 2 * id);
+		}
+		this.elements[id] = element;
+		++this.size;
+		this.ids.put(element, id);
+		if (2 * this.size > this.identityKeys.length) {
+			rehash(2 * this.identityKeys.length);
+		}
+		if (element != null) {
+			putIdentity(element, id);
+		}
+		return id;
+	}
+
+	/**
+	 * Returns the identifier of a given element.
+	 * 
+	 * @param element
+	 *            the element
+	 * @return the identifier of <code>element</code>, <code>-1</code> if it
+	 *         has not been interned
+	 */
+	public int getId(Object element) {
+		if (element != null) {
+			int mask = this.identityKeys.length - 1;
+			for (int slot = hash(element) & mask; this.identityKeys[slot] != null; slot = (slot + 1) & mask) {
+				if (this.identityKeys[slot] == element) {
+					return this.identityIds[slot];
+				}
+			}
+		}
+		Integer id = this.ids.get(element);
+		return (id == null) ? -1 : id;
+	}
+
+	/**
+	 * Returns the element with a given identifier.
+	 * 
+	 * @param id
+	 *            the identifier
+	 * @return the element with identifier <code>id</code>
+	 * @throws IndexOutOfBoundsException
+	 *             if no element has identifier <code>id</code>
+	 */
+	@SuppressWarnings("unchecked")
+	public A get(int id) {
+		if ((id < 0) || (id >= this.size)) {
+			throw new IndexOutOfBoundsException("No element with identifier " + id);
+		}
+		return (A) this.elements[id];
+	}
+
+	/**
+	 * Returns the identifiers of the elements of a given collection as bit
+	 * words. Elements that have not been interned are ignored.
+	 * 
+	 * @param collection
+	 *            the elements
+	 * @return bit words over the identifiers, with
+	 *         {@link BitWords#wordCount(int)} of {@link #size()} words
+	 */
+	public long[] toWords(Iterable<?> collection) {
+		long[] words = new long[BitWords.wordCount(this.size)];
+		for (Object element : collection) {
+			int id = getId(element);
+			if (id >= 0) {
+				BitWords.set(words, id);
+			}
+		}
+		return words;
+	}
+
+	private static int hash(Object element) {
+		int h = System.identityHashCode(element);
+		// identity hash codes are often multiples of 8
+		return h ^ (h >>> 16);
+	}
+
+	private void putIdentity(Object element, int id) {
+		int mask = this.identityKeys.length - 1;
+		int slot = hash(element) & mask;
+		while (this.identityKeys[slot] != null) {
+			slot = (slot + 1) & mask;
+		}
+		this.identityKeys[slot] = element;
+		this.identityIds[slot] = id;
+	}
+
+	private void rehash(int capacity) {
+		this.identityKeys = new Object[capacity];
+		this.identityIds = new int[capacity];
+		for (int id = 0; id < this.size; ++id) {
+			if (this.elements[id] != null) {
+				putIdentity(this.elements[id], id);
+			}
+		}
+	}
+
+}
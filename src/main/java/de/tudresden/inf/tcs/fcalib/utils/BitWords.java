@@ -0,0 +1,300 @@
+package de.tudresden.inf.tcs.fcalib.utils;
+
+/*
+ * FCAlib: An open-source extensible library for Formal Concept Analysis
+ *         tool developers
+ * Copyright (C) 2009  Baris Sertkaya
+ *
+ * This file is part of FCAlib.
+ * FCAlib is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FCAlib is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with FCAlib.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/**
+ * Static helpers for sets of indices represented as arrays of 64-bit words.
+ * Bit <code>i</code> of a set is bit <code>i % 64</code> of word
+ * <code>i / 64</code>, which is the layout used by
+ * {@link java.util.BitSet#valueOf(long[])}. None of the methods allocate
+ * unless stated otherwise.
+ */
+
+public final class BitWords {
+
+	private BitWords() {
+	}
+
+	/**
+	 * Returns the number of words needed to store a given number of bits.
+	 *
+	 * @param bits
+	 *            number of bits
+	 * @return number of words
+	 */
+	public static int wordCount(int bits) {
+		return (bits + 63) >>> 6;
+	}
+
+	/**
+	 * Checks whether a given bit is set.
+	 *
+	 * @param words
+	 *            the set
+	 * @param i
+	 *            index of the bit
+	 * @return <code>true</code> if bit <code>i</code> is set
+	 */
+	public static boolean get(long[] words, int i) {
+		return (words[i >>> 6] & (1L << i)) != 0;
+	}
+
+	/**
+	 * Sets a given bit.
+	 *
+	 * @param words
+	 *            the set
+	 * @param i
+	 *            index of the bit
+	 */
+	public static void set(long[] words, int i) {
+		words[i >>> 6] |= 1L << i;
+	}
+
+	/**
+	 * Clears a given bit.
+	 *
+	 * @param words
+	 *            the set
+	 * @param i
+	 *            index of the bit
+	 */
+	public static void clear(long[] words, int i) {
+		words[i >>> 6] &= ~(1L << i);
+	}
+
+	/**
+	 * Clears all bits whose index is greater than or equal to a given index.
+	 *
+	 * @param words
+	 *            the set
+	 * @param from
+	 *            the first index to be cleared
+	 */
+	public static void clearFrom(long[] words, int from) {
+		int w = from >>> 6;
+		if (w >= words.length) {
+			return;
+		}
+		words[w] &= (1L << from) - 1;
+		for (++w; w < words.length; ++w) {
+			words[w] = 0L;
+		}
+	}
+
+	/**
+	 * Sets the bits whose index is smaller than a given bound and clears all
+	 * others.
+	 *
+	 * @param words
+	 *            the set
+	 * @param bits
+	 *            the exclusive upper bound of the bits to be set
+	 */
+	public static void fill(long[] words, int bits) {
+		int full = bits >>> 6;
+		for (int w = 0; w < full; ++w) {
+			words[w] = -1L;
+		}
+		for (int w = full; w < words.length; ++w) {
+			words[w] = 0L;
+		}
+		if ((bits & 63) != 0) {
+			words[full] = (1L << bits) - 1;
+		}
+	}
+
+	/**
+	 * Removes a given bit and moves all bits with a greater index one position
+	 * down.
+	 *
+	 * @param words
+	 *            the set
+	 * @param i
+	 *            index of the bit to be removed
+	 */
+	public static void removeBit(long[] words, int i) {
+		int w = i >>> 6;
+		long word = words[w];
+		long lowMask = (1L << i) - 1;
+		words[w] = (word & lowMask) | ((word >>> 1) & ~lowMask);
+		for (int k = w + 1; k < words.length; ++k) {
+			words[k - 1] |= words[k] << 63;
+			words[k] >>>= 1;
+		}
+	}
+
+	/**
+	 * Returns the index of the first set bit at or after a given index.
+	 *
+	 * @param words
+	 *            the set
+	 * @param from
+	 *            the index to start from
+	 * @return the index of the next set bit, <code>-1</code> if there is none
+	 */
+	public static int nextSetBit(long[] words, int from) {
+		int w = from >>> 6;
+		if (w >= words.length) {
+			return -1;
+		}
+		long word = words[w] & (-1L << from);
+		while (true) {
+			if (word != 0) {
+				return (w << 6) + Long.numberOfTrailingZeros(word);
+			}
+			if (++w == words.length) {
+				return -1;
+			}
+			word = words[w];
+		}
+	}
+
+	/**
+	 * Returns the index of the last set bit at or before a given index.
+	 *
+	 * @param words
+	 *            the set
+	 * @param from
+	 *            the index to start from, going down
+	 * @return the index of the previous set bit, <code>-1</code> if there is
+	 *         none
+	 */
+	public static int previousSetBit(long[] words, int from) {
+		if (from < 0) {
+			return -1;
+		}
+		int w = from >>> 6;
+		long word;
+		if (w >= words.length) {
+			w = words.length - 1;
+			word = (w < 0) ? 0L : words[w];
+		} else {
+			word = words[w] & (-1L >>> (63 - (from & 63)));
+		}
+		while (true) {
+			if (word != 0) {
+				return (w << 6) + 63 - Long.numberOfLeadingZeros(word);
+			}
+			if (--w < 0) {
+				return -1;
+			}
+			word = words[w];
+		}
+	}
+
+	/**
+	 * Returns the number of set bits.
+	 *
+	 * @param words
+	 *            the set
+	 * @return the cardinality of the set
+	 */
+	public static int cardinality(long[] words) {
+		int count = 0;
+		for (long word : words) {
+			count += Long.bitCount(word);
+		}
+		return count;
+	}
+
+	/**
+	 * Checks whether no bit is set.
+	 *
+	 * @param words
+	 *            the set
+	 * @return <code>true</code> if the set is empty
+	 */
+	public static boolean isEmpty(long[] words) {
+		for (long word : words) {
+			if (word != 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Checks whether the first set is contained in the second one.
+	 *
+	 * @param a
+	 *            the possible subset
+	 * @param b
+	 *            the possible superset
+	 * @return <code>true</code> if every bit of <code>a</code> is also set in
+	 *         <code>b</code>
+	 */
+	public static boolean isSubsetOf(long[] a, long[] b) {
+		for (int w = 0; w < a.length; ++w) {
+			if ((a[w] & ~b[w]) != 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Checks whether a slice of a flat word array is contained in a given set.
+	 * Flat arrays store several sets of equal width one after the other.
+	 *
+	 * @param flat
+	 *            the flat array
+	 * @param offset
+	 *            index of the first word of the slice
+	 * @param b
+	 *            the possible superset
+	 * @return <code>true</code> if every bit of the slice is also set in
+	 *         <code>b</code>
+	 */
+	public static boolean isSubsetOf(long[] flat, int offset, long[] b) {
+		for (int w = 0; w < b.length; ++w) {
+			if ((flat[offset + w] & ~b[w]) != 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Checks whether the first set contains a bit with index smaller than a
+	 * given bound that the second set does not contain.
+	 *
+	 * @param a
+	 *            the first set
+	 * @param b
+	 *            the second set
+	 * @param bound
+	 *            the exclusive upper bound of the indices to be checked
+	 * @return <code>true</code> if there is an index <code>j &lt; bound</code>
+	 *         in <code>a</code> but not in <code>b</code>
+	 */
+	public static boolean hasNewBitBelow(long[] a, long[] b, int bound) {
+		int full = bound >>> 6;
+		for (int w = 0; w < full; ++w) {
+			if ((a[w] & ~b[w]) != 0) {
+				return true;
+			}
+		}
+		int rest = bound & 63;
+		return (rest != 0) && ((a[full] & ~b[full] & ((1L << rest) - 1)) != 0);
+	}
+
+}
@@ -0,0 +1,357 @@
+package de.tudresden.inf.tcs.fcalib.utils;
+
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.ConcurrentModificationException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+import de.tudresden.inf.tcs.fcaapi.utils.IndexedSet;
+
+/*
+ * FCAlib: An open-source extensible library for Formal Concept Analysis
+ *         tool developers
+ * Copyright (C) 2009  Baris Sertkaya
+ *
+ * This file is part of FCAlib.
+ * FCAlib is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FCAlib is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with FCAlib.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/**
+ * A hash-based set implementation whose elements are ordered and can be
+ * accessed with indices. It has the same semantics as {@link ListSet}, but
+ * <code>add</code>, <code>contains</code>, <code>getIndexOf</code>,
+ * <code>getElementAt</code> and <code>changeOrder</code> take constant time.
+ * The elements are stored in a circular array, so that
+ * <code>changeOrder</code> only moves the start of the array, and a hash map
+ * gives the position of each element in this array. Removing an element takes
+ * time linear in the number of elements after it.
+ */
+
+public class HashIndexedSet<T> extends AbstractSet<T> implements IndexedSet<T> {
+
+	/**
+	 * The elements of this set in a circular array.
+	 */
+	private Object[] slots;
+
+	/**
+	 * Position of the first element in <code>slots</code>.
+	 */
+	private int head = 0;
+
+	/**
+	 * Number of elements of this set.
+	 */
+	private int size = 0;
+
+	/**
+	 * Position of each element in <code>slots</code>.
+	 */
+	private final Map<T, Integer> positions = new HashMap<>();
+
+	/**
+	 * Number of structural modifications, used to detect concurrent
+	 * modification during iteration.
+	 */
+	private int modCount = 0;
+
+	/**
+	 * Creates an empty set.
+	 */
+	public HashIndexedSet() {
+		this.slots = new Object[8];
+	}
+
+	/**
+	 * Creates a new set that contains the elements of a given collection in
+	 * the order of its iterator. Duplicate elements in the given collection are
+	 * inserted once, <code>null</code> element is not allowed.
+	 *
+	 * @param c
+	 *            the collection whose elements are to be contained in this set
+	 *            initially
+	 */
+	public HashIndexedSet(Collection<? extends T> c) {
+		this.slots = new Object[Math.max(8, c.size())];
+		addAll(c);
+	}
+
+	/**
+	 * Returns the position in <code>slots</code> of the element with a given
+	 * index.
+	 */
+	private int slot(int index) {
+		int p = this.head + index;
+		return (p < this.slots.length) ? p : p - this.slots.length;
+	}
+
+	@SuppressWarnings("unchecked")
+	private T slotElement(int p) {
+		return (T) this.slots[p];
+	}
+
+	/**
+	 * Adds a given element at the end of this set. Does not allow duplicates.
+	 *
+	 * @param o
+	 *            the element to be added
+	 * @return <code>true</code> if this set did not already contain
+	 *         <code>o</code>
+	 * @throws NullPointerException
+	 *             if the given element is <code>null</code>
+	 */
+	@Override
+	public boolean add(T o) {
+		if (o == null) {
+			throw new NullPointerException();
+		}
+		if (this.positions.containsKey(o)) {
+			return false;
+		}
+		if (this.size == this.slots.length) {
+			Object[] grown = new Object[2 * this.slots.length];
+			for (int i = 0; i < this.size; ++i) {
+				grown[i] = this.slots[slot(i)];
+				this.positions.put(slotElement(slot(i)), i);
+			}
+			this.slots = grown;
+			this.head = 0;
+		}
+		int p = slot(this.size);
+		this.slots[p] = o;
+		this.positions.put(o, p);
+		++this.size;
+		++this.modCount;
+		return true;
+	}
+
+	/**
+	 * Checks if a given element occurs in this set.
+	 *
+	 * @param o
+	 *            the element whose presence is to be tested
+	 * @return <code>true</code> if <code>o</code> occurs in this set
+	 * @throws NullPointerException
+	 *             if <code>o</code> is <code>null</code>
+	 */
+	@Override
+	public boolean contains(Object o) {
+		if (o == null) {
+			throw new NullPointerException();
+		}
+		return this.positions.containsKey(o);
+	}
+
+	/**
+	 * Removes a given element from this set. The elements after it move one
+	 * index down.
+	 *
+	 * @param o
+	 *            the element to be removed
+	 * @return <code>true</code> if this set contained the given element
+	 * @throws NullPointerException
+	 *             if <code>o</code> is <code>null</code>
+	 */
+	@Override
+	public boolean remove(Object o) {
+		if (o == null) {
+			throw new NullPointerException();
+		}
+		Integer p = this.positions.remove(o);
+		if (p == null) {
+			return false;
+		}
+		removeIndex(index(p));
+		return true;
+	}
+
+	/**
+	 * Returns the index of the element at a given position in
+	 * <code>slots</code>.
+	 */
+	private int index(int p) {
+		int i = p - this.head;
+		return (i >= 0) ? i : i + this.slots.length;
+	}
+
+	/**
+	 * Closes the gap left by the element at a given index, whose entry in
+	 * <code>positions</code> has already been removed.
+	 */
+	private void removeIndex(int index) {
+		for (int i = index + 1; i < this.size; ++i) {
+			T e = slotElement(slot(i));
+			int p = slot(i - 1);
+			this.slots[p] = e;
+			this.positions.put(e, p);
+		}
+		this.slots[slot(this.size - 1)] = null;
+		--this.size;
+		++this.modCount;
+	}
+
+	/**
+	 * Removes all of the elements from this set.
+	 */
+	@Override
+	public void clear() {
+		Arrays.fill(this.slots, null);
+		this.positions.clear();
+		this.head = 0;
+		this.size = 0;
+		++this.modCount;
+	}
+
+	/**
+	 * Returns the number of elements of this set.
+	 *
+	 * @return the size of this set
+	 */
+	@Override
+	public int size() {
+		return this.size;
+	}
+
+	/**
+	 * Returns the number of structural modifications of this set so far. It
+	 * changes whenever an element is added or removed, or the order changes.
+	 *
+	 * @return the number of structural modifications of this set
+	 */
+	public int getModificationCount() {
+		return this.modCount;
+	}
+
+	/**
+	 * Returns the index of a given element.
+	 *
+	 * @param e
+	 *            the element whose index is requested
+	 * @return the index of <code>e</code>, <code>-1</code> if <code>e</code> is
+	 *         not found
+	 */
+	@Override
+	public int getIndexOf(T e) {
+		Integer p = this.positions.get(e);
+		return (p == null) ? -1 : index(p);
+	}
+
+	/**
+	 * Returns the element at a specified index.
+	 *
+	 * @param i
+	 *            the index of the requested element
+	 * @return the element at index <code>i</code>
+	 * @throws IndexOutOfBoundsException
+	 *             if the specified index is out of bounds
+	 */
+	@Override
+	public T getElementAt(int i) throws IndexOutOfBoundsException {
+		if ((i < 0) || (i >= this.size)) {
+			throw new IndexOutOfBoundsException("Index: " + i + ", Size: " + this.size);
+		}
+		return slotElement(slot(i));
+	}
+
+	/**
+	 * Changes the order of elements by shifting them right, i.e., the first
+	 * element becomes the last one.
+	 */
+	@Override
+	public void changeOrder() {
+		if (this.size < 2) {
+			return;
+		}
+		if (this.size < this.slots.length) {
+			T first = slotElement(this.head);
+			int p = slot(this.size);
+			this.slots[p] = first;
+			this.slots[this.head] = null;
+			this.positions.put(first, p);
+		}
+		this.head = slot(1);
+		++this.modCount;
+	}
+
+	/**
+	 * Returns an iterator over the elements of this set in index order.
+	 */
+	@Override
+	public Iterator<T> iterator() {
+		return new Iterator<T>() {
+
+			private int next = 0;
+
+			private int last = -1;
+
+			private int expectedModCount = HashIndexedSet.this.modCount;
+
+			@Override
+			public boolean hasNext() {
+				return this.next < HashIndexedSet.this.size;
+			}
+
+			@Override
+			public T next() {
+				checkModification();
+				if (!hasNext()) {
+					throw new NoSuchElementException();
+				}
+				this.last = this.next++;
+				return slotElement(slot(this.last));
+			}
+
+			@Override
+			public void remove() {
+				if (this.last < 0) {
+					throw new IllegalStateException();
+				}
+				checkModification();
+				HashIndexedSet.this.positions.remove(slotElement(slot(this.last)));
+				removeIndex(this.last);
+				this.next = this.last;
+				this.last = -1;
+				this.expectedModCount = HashIndexedSet.this.modCount;
+			}
+
+			private void checkModification() {
+				if (this.expectedModCount != HashIndexedSet.this.modCount) {
+					throw new ConcurrentModificationException();
+				}
+			}
+		};
+	}
+
+	/**
+	 * Returns a string representation of this ordered set.
+	 *
+	 * @return string representation
+	 */
+	@Override
+	public String toString() {
+		if (isEmpty()) {
+			return "{ }\n";
+		}
+		StringBuilder sb = new StringBuilder("{ ");
+		for (T e : this) {
+			sb.append(e).append(' ');
+		}
+		return sb.append('}').toString();
+	}
+
+}
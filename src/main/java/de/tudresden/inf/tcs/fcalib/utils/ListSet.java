@@ -313,7 +313,7 @@ public class ListSet<T> implements IndexedSet<T> {
 	@Override
 	public int getIndexOf(T e) {
 		for (int i = 0; i < size(); ++i) {
-			if (e == getElementAt(i)) {
+			if (e.equals(getElementAt(i))) {
 				return i;
 			}
 		}
@@ -137,7 +137,8 @@ public class NoExpertFull<A> extends AbstractExpert<A,String,FullObject<A,String
 	}
 	
 	/**
-	 * @deprecated
+	 * Does nothing, the implications that follow from the background knowledge
+	 * are accepted without asking.
 	 */
 	public void implicationFollowsFromBackgroundKnowledge(FCAImplication<A> imp) {
 		
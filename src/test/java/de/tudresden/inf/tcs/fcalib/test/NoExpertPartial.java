@@ -151,7 +151,8 @@ public class NoExpertPartial<A> extends AbstractExpert<A,String,PartialObject<A,
 	}
 	
 	/**
-	 * @deprecated
+	 * Does nothing, the implications that follow from the background knowledge
+	 * are accepted without asking.
 	 */
 	public void implicationFollowsFromBackgroundKnowledge(FCAImplication<A> imp) {
 		
@@ -0,0 +1,63 @@
+package de.tudresden.inf.tcs.fcalib.test;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import de.tudresden.inf.tcs.fcaapi.exception.IllegalObjectException;
+import de.tudresden.inf.tcs.fcalib.FormalContext;
+import de.tudresden.inf.tcs.fcalib.FullObject;
+
+/*
+ * FCAlib: An open-source extensible library for Formal Concept Analysis 
+ *         tool developers
+ * Copyright (C) 2009  Baris Sertkaya
+ *
+ * This file is part of FCAlib.
+ * FCAlib is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FCAlib is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with FCAlib.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/**
+ * Random formal contexts shared by the tests.
+ */
+
+public final class RandomContexts {
+
+	private RandomContexts() {
+	}
+
+	/**
+	 * Returns a formal context with attributes <code>m0, m1, ...</code> and
+	 * objects <code>g0, g1, ...</code>, in which every object has every
+	 * attribute with probability 1/3.
+	 */
+	public static FormalContext<String, String> formalContext(Random random, int attributes, int objects)
+			throws IllegalObjectException {
+		FormalContext<String, String> context = new FormalContext<String, String>();
+		for (int i = 0; i < attributes; i++) {
+			context.addAttribute("m" + i);
+		}
+		for (int g = 0; g < objects; g++) {
+			Set<String> intent = new HashSet<>();
+			for (int i = 0; i < attributes; i++) {
+				if (random.nextInt(3) == 0) {
+					intent.add("m" + i);
+				}
+			}
+			context.addObject(new FullObject<String, String>("g" + g, intent));
+		}
+		return context;
+	}
+
+}
@@ -0,0 +1,301 @@
+package de.tudresden.inf.tcs.fcalib.test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import de.tudresden.inf.tcs.fcaapi.FCAImplication;
+import de.tudresden.inf.tcs.fcaapi.exception.IllegalObjectException;
+import de.tudresden.inf.tcs.fcalib.AsyncExpert;
+import de.tudresden.inf.tcs.fcalib.AsyncExpertAdapter;
+import de.tudresden.inf.tcs.fcalib.AsyncExploration;
+import de.tudresden.inf.tcs.fcalib.ExpertAnswer;
+import de.tudresden.inf.tcs.fcalib.FormalContext;
+import de.tudresden.inf.tcs.fcalib.FullObject;
+import de.tudresden.inf.tcs.fcalib.action.CounterExamplesProvidedAction;
+import de.tudresden.inf.tcs.fcalib.action.QuestionConfirmedAction;
+import de.tudresden.inf.tcs.fcalib.action.QuestionRejectedAction;
+import de.tudresden.inf.tcs.fcalib.action.StartExplorationAction;
+
+/*
+ * FCAlib: An open-source extensible library for Formal Concept Analysis 
+ *         tool developers
+ * Copyright (C) 2009  Baris Sertkaya
+ *
+ * This file is part of FCAlib.
+ * FCAlib is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FCAlib is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with FCAlib.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+public class TestAsyncExploration {
+
+	public TestAsyncExploration() {
+	}
+
+	private FormalContext<String, String> emptyContext(int attributes) {
+		FormalContext<String, String> context = new FormalContext<String, String>();
+		for (int i = 0; i < attributes; i++) {
+			context.addAttribute("m" + i);
+		}
+		return context;
+	}
+
+	@Test
+	public void testAdapter() throws Exception {
+		FormalContext<String, String> context = emptyContext(4);
+		NoExpertFull<String> expert = new NoExpertFull<String>(context);
+		expert.addExpertActionListener(context);
+		context.setExpert(expert);
+		StartExplorationAction<String, String, FullObject<String, String>> action = new StartExplorationAction<String, String, FullObject<String, String>>();
+		action.setContext(context);
+		expert.fireExpertAction(action);
+
+		FormalContext<String, String> asyncContext = emptyContext(4);
+		AsyncExpertAdapter<String, String, FullObject<String, String>> adapter = new AsyncExpertAdapter<>(
+				new NoExpertFull<String>(asyncContext));
+		Set<FCAImplication<String>> implications = new AsyncExploration<>(asyncContext, adapter).start().get();
+
+		Assertions.assertEquals(context.getImplications().size(), implications.size());
+		Assertions.assertEquals(context.getObjectCount(), asyncContext.getObjectCount());
+	}
+
+	/**
+	 * An expert that answers on another thread according to a given context.
+	 */
+	private static class ContextExpert implements AsyncExpert<String, String, FullObject<String, String>> {
+
+		private final FormalContext<String, String> truth;
+
+		private final ExecutorService pool;
+
+		ContextExpert(FormalContext<String, String> truth, ExecutorService pool) {
+			this.truth = truth;
+			this.pool = pool;
+		}
+
+		ExpertAnswer<FullObject<String, String>> answer(FCAImplication<String> question) {
+			for (FullObject<String, String> object : this.truth.getObjects()) {
+				if (!object.respects(question)) {
+					return ExpertAnswer.counterExample(new FullObject<String, String>(object.getIdentifier(),
+							object.getDescription().getAttributes()));
+				}
+			}
+			return ExpertAnswer.<FullObject<String, String>> confirm();
+		}
+
+		@Override
+		public CompletableFuture<ExpertAnswer<FullObject<String, String>>> askQuestion(
+				final FCAImplication<String> question) {
+			return CompletableFuture.supplyAsync(() -> answer(question), this.pool);
+		}
+
+		@Override
+		public CompletableFuture<FullObject<String, String>> requestCounterExample(FCAImplication<String> question) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public void counterExampleInvalid(FullObject<String, String> counterExample, int reasonCode) {
+			Assertions.fail("invalid counterexample " + counterExample);
+		}
+
+		@Override
+		public void explorationFinished() {
+		}
+	}
+
+	@Test
+	public void testExplorationFindsStemBase() throws Exception {
+		ExecutorService pool = Executors.newFixedThreadPool(2);
+		try {
+			Random random = new Random(23);
+			for (int round = 0; round < 5; round++) {
+				FormalContext<String, String> truth = emptyContext(7);
+				for (int g = 0; g < 12; g++) {
+					Set<String> intent = new HashSet<>();
+					for (int i = 0; i < 7; i++) {
+						if (random.nextInt(3) == 0) {
+							intent.add("m" + i);
+						}
+					}
+					truth.addObject(new FullObject<String, String>("g" + g, intent));
+				}
+				FormalContext<String, String> context = emptyContext(7);
+				AsyncExploration<String, String, FullObject<String, String>> exploration = new AsyncExploration<>(
+						context, new ContextExpert(truth, pool), pool);
+				Set<FCAImplication<String>> implications = exploration.start().get();
+
+				Set<Set<String>> expected = new HashSet<>();
+				for (FCAImplication<String> imp : truth.getStemBase()) {
+					expected.add(imp.getPremise());
+				}
+				Set<Set<String>> premises = new HashSet<>();
+				for (FCAImplication<String> imp : implications) {
+					premises.add(imp.getPremise());
+				}
+				Assertions.assertEquals(expected, premises);
+				// answers that arrive before the exploration checks for them are not speculated on
+				Assertions.assertTrue(exploration.getSpeculationHits() <= expected.size());
+			}
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	@Test
+	public void testWaitingWithoutSpeculation() throws Exception {
+		final FormalContext<String, String> truth = emptyContext(5);
+		truth.addObject(new FullObject<String, String>("g0", new HashSet<>(Arrays.asList("m0", "m1"))));
+		truth.addObject(new FullObject<String, String>("g1", new HashSet<>(Arrays.asList("m1", "m2", "m3"))));
+		final ContextExpert answers = new ContextExpert(truth, null);
+		final BlockingQueue<Runnable> open = new LinkedBlockingQueue<>();
+		AsyncExpert<String, String, FullObject<String, String>> expert = new AsyncExpert<String, String, FullObject<String, String>>() {
+
+			@Override
+			public CompletableFuture<ExpertAnswer<FullObject<String, String>>> askQuestion(
+					FCAImplication<String> question) {
+				CompletableFuture<ExpertAnswer<FullObject<String, String>>> answer = new CompletableFuture<>();
+				// answered by the test thread later
+				open.add(() -> answer.complete(answers.answer(question)));
+				return answer;
+			}
+
+			@Override
+			public CompletableFuture<FullObject<String, String>> requestCounterExample(
+					FCAImplication<String> question) {
+				throw new UnsupportedOperationException();
+			}
+
+			@Override
+			public void counterExampleInvalid(FullObject<String, String> counterExample, int reasonCode) {
+				Assertions.fail("invalid counterexample " + counterExample);
+			}
+
+			@Override
+			public void explorationFinished() {
+			}
+		};
+		FormalContext<String, String> context = emptyContext(5);
+		final AsyncExploration<String, String, FullObject<String, String>> exploration = new AsyncExploration<>(
+				context, expert, Runnable::run);
+		exploration.setSpeculative(false);
+		// the exploration returns while the first question is open instead of waiting for the answer
+		CompletableFuture<Set<FCAImplication<String>>> result = Assertions
+				.assertTimeoutPreemptively(Duration.ofSeconds(10), () -> exploration.start());
+		Assertions.assertFalse(result.isDone());
+		while (!result.isDone()) {
+			Runnable question = open.poll(10, TimeUnit.SECONDS);
+			Assertions.assertNotNull(question);
+			question.run();
+		}
+		Set<Set<String>> expected = new HashSet<>();
+		for (FCAImplication<String> imp : truth.getStemBase()) {
+			expected.add(imp.getPremise());
+		}
+		Set<Set<String>> premises = new HashSet<>();
+		for (FCAImplication<String> imp : result.get()) {
+			premises.add(imp.getPremise());
+		}
+		Assertions.assertEquals(expected, premises);
+		Assertions.assertEquals(0, exploration.getSpeculationHits() + exploration.getSpeculationMisses());
+	}
+
+	@Test
+	public void testAdapterCounterExampleBatch() throws Exception {
+		final FormalContext<String, String> truth = RandomContexts.formalContext(new Random(41), 7, 20);
+		final FormalContext<String, String> context = emptyContext(7);
+		final AtomicInteger questions = new AtomicInteger();
+		final AtomicInteger requests = new AtomicInteger();
+		final AtomicInteger invalid = new AtomicInteger();
+		// answers with every object of the truth that refutes the question and one invalid object, either
+		// right away or, for every other question, when a counterexample is requested
+		NoExpertFull<String> expert = new NoExpertFull<String>(context) {
+
+			private void provide(FCAImplication<String> question) {
+				List<FullObject<String, String>> counterExamples = new ArrayList<>();
+				for (FullObject<String, String> object : truth.getObjects()) {
+					if (!object.respects(question) && (context.getObject(object.getIdentifier()) == null)) {
+						counterExamples.add(new FullObject<String, String>(object.getIdentifier(),
+								object.getDescription().getAttributes()));
+					}
+				}
+				counterExamples.add(new FullObject<String, String>("x" + questions, context.getAttributes()));
+				fireExpertAction(new CounterExamplesProvidedAction<String, String, FullObject<String, String>>(
+						context, question, counterExamples));
+			}
+
+			@Override
+			public void askQuestion(FCAImplication<String> question) {
+				boolean holds = true;
+				for (FullObject<String, String> object : truth.getObjects()) {
+					holds &= object.respects(question);
+				}
+				if (holds) {
+					QuestionConfirmedAction<String, String, FullObject<String, String>> action = new QuestionConfirmedAction<String, String, FullObject<String, String>>();
+					action.setContext(context);
+					action.setQuestion(question);
+					fireExpertAction(action);
+				} else if (questions.incrementAndGet() % 2 == 0) {
+					provide(question);
+				} else {
+					QuestionRejectedAction<String, String, FullObject<String, String>> action = new QuestionRejectedAction<String, String, FullObject<String, String>>();
+					action.setContext(context);
+					action.setQuestion(question);
+					fireExpertAction(action);
+				}
+			}
+
+			@Override
+			public void requestCounterExample(FCAImplication<String> question) {
+				requests.incrementAndGet();
+				provide(question);
+			}
+
+			@Override
+			public void counterExampleInvalid(FullObject<String, String> counterExample, int reason) {
+				invalid.incrementAndGet();
+			}
+		};
+		AsyncExpertAdapter<String, String, FullObject<String, String>> adapter = new AsyncExpertAdapter<>(expert);
+		Set<FCAImplication<String>> implications = Assertions.assertTimeoutPreemptively(Duration.ofSeconds(10),
+				() -> new AsyncExploration<>(context, adapter, Runnable::run).start().get());
+
+		Set<Set<String>> expected = new HashSet<>();
+		for (FCAImplication<String> imp : truth.getStemBase()) {
+			expected.add(imp.getPremise());
+		}
+		Set<Set<String>> premises = new HashSet<>();
+		for (FCAImplication<String> imp : implications) {
+			premises.add(imp.getPremise());
+		}
+		Assertions.assertEquals(expected, premises);
+		// every batch adds all counterexamples to a rejected question at once
+		Assertions.assertEquals((questions.get() + 1) / 2, requests.get());
+		Assertions.assertEquals(questions.get(), invalid.get());
+	}
+
+}
@@ -0,0 +1,84 @@
+package de.tudresden.inf.tcs.fcalib.test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import de.tudresden.inf.tcs.fcalib.utils.AttributeBitSet;
+import de.tudresden.inf.tcs.fcalib.utils.AttributeDictionary;
+
+/*
+ * FCAlib: An open-source extensible library for Formal Concept Analysis 
+ *         tool developers
+ * Copyright (C) 2009  Baris Sertkaya
+ *
+ * This file is part of FCAlib.
+ * FCAlib is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FCAlib is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with FCAlib.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+public class TestAttributeBitSet {
+
+	public TestAttributeBitSet() {
+	}
+
+	@Test
+	public void testSameAsHashSet() {
+		Random random = new Random(5);
+		AttributeDictionary<String> dictionary = new AttributeDictionary<String>();
+		for (int i = 0; i < 100; i++) {
+			dictionary.intern("m" + i);
+		}
+		Set<String> expected = new HashSet<>();
+		AttributeBitSet<String> actual = new AttributeBitSet<String>(dictionary, expected);
+		for (int k = 0; k < 2000; k++) {
+			// some attributes are interned only after they were added
+			String attribute = "m" + random.nextInt(140);
+			if (k == 1000) {
+				for (int i = 100; i < 120; i++) {
+					dictionary.intern("m" + i);
+				}
+			}
+			if (random.nextBoolean()) {
+				Assertions.assertEquals(expected.add(attribute), actual.add(attribute));
+			} else {
+				Assertions.assertEquals(expected.remove(attribute), actual.remove(attribute));
+			}
+			Assertions.assertEquals(expected.contains(attribute), actual.contains(attribute));
+			Assertions.assertEquals(expected.size(), actual.size());
+		}
+		Assertions.assertEquals(expected, actual);
+		Assertions.assertEquals(expected.hashCode(), actual.hashCode());
+
+		long[] words = dictionary.toWords(Arrays.asList("m3", "m110"));
+		Assertions.assertEquals(actual.contains("m3") && actual.contains("m110"), actual.containsWords(words));
+		Assertions.assertEquals(actual.contains("m3") || actual.contains("m110"), actual.intersectsWords(words));
+
+		for (Iterator<String> it = actual.iterator(); it.hasNext();) {
+			String attribute = it.next();
+			if (attribute.length() == 4) {
+				it.remove();
+				expected.remove(attribute);
+			}
+		}
+		Assertions.assertEquals(expected, actual);
+		actual.clear();
+		Assertions.assertTrue(actual.isEmpty());
+	}
+
+}
@@ -0,0 +1,139 @@
+package de.tudresden.inf.tcs.fcalib.test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import de.tudresden.inf.tcs.fcalib.FormalContext;
+import de.tudresden.inf.tcs.fcalib.FullObject;
+import de.tudresden.inf.tcs.fcalib.Implication;
+import de.tudresden.inf.tcs.fcalib.ImplicationSet;
+import de.tudresden.inf.tcs.fcalib.utils.AttributeDictionary;
+
+/*
+ * FCAlib: An open-source extensible library for Formal Concept Analysis 
+ *         tool developers
+ * Copyright (C) 2009  Baris Sertkaya
+ *
+ * This file is part of FCAlib.
+ * FCAlib is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FCAlib is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with FCAlib.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+public class TestAttributeDictionary {
+
+	public TestAttributeDictionary() {
+	}
+
+	/**
+	 * An attribute that counts the calls of its <code>hashCode</code>.
+	 */
+	private static class Counted {
+
+		static int hashCodes = 0;
+
+		private final String name;
+
+		Counted(String name) {
+			this.name = name;
+		}
+
+		@Override
+		public int hashCode() {
+			++hashCodes;
+			return this.name.hashCode();
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			return (o instanceof Counted) && ((Counted) o).name.equals(this.name);
+		}
+
+		@Override
+		public String toString() {
+			return this.name;
+		}
+	}
+
+	@Test
+	public void testIntern() {
+		AttributeDictionary<String> dictionary = new AttributeDictionary<String>();
+		for (int i = 0; i < 100; i++) {
+			Assertions.assertEquals(i, dictionary.intern("m" + i));
+		}
+		Assertions.assertEquals(100, dictionary.size());
+		for (int i = 0; i < 100; i++) {
+			// equal but not the same instance
+			Assertions.assertEquals(i, dictionary.getId(new String("m" + i)));
+			Assertions.assertEquals(i, dictionary.intern("m" + i));
+			Assertions.assertEquals("m" + i, dictionary.get(i));
+		}
+		Assertions.assertEquals(-1, dictionary.getId("m100"));
+		Assertions.assertEquals(-1, dictionary.getId(null));
+		Assertions.assertThrows(IndexOutOfBoundsException.class, () -> dictionary.get(100));
+		long[] words = dictionary.toWords(Arrays.asList("m3", "m70", "x"));
+		Assertions.assertEquals(2, words.length);
+		Assertions.assertEquals(1L << 3, words[0]);
+		Assertions.assertEquals(1L << 6, words[1]);
+	}
+
+	@Test
+	public void testContextIdentifiers() throws Exception {
+		FormalContext<Counted, String> context = new FormalContext<Counted, String>();
+		Counted[] attributes = new Counted[40];
+		for (int i = 0; i < attributes.length; i++) {
+			attributes[i] = new Counted("m" + i);
+			context.addAttribute(attributes[i]);
+		}
+		for (int g = 0; g < 10; g++) {
+			Set<Counted> intent = new HashSet<>();
+			for (int i = g; i < attributes.length; i += 3) {
+				intent.add(attributes[i]);
+			}
+			context.addObject(new FullObject<Counted, String>("g" + g, intent));
+		}
+		context.getAttributes().changeOrder();
+		AttributeDictionary<Counted> dictionary = context.getAttributeDictionary();
+		for (int i = 0; i < attributes.length; i++) {
+			Assertions.assertEquals(i, dictionary.getId(attributes[i]));
+		}
+
+		ImplicationSet<Counted> implications = new ImplicationSet<Counted>(context);
+		Set<Counted> premise = new HashSet<>(Arrays.asList(attributes[0], attributes[1]));
+		implications.add(new Implication<Counted>(premise, new HashSet<>(Arrays.asList(attributes[2]))));
+		Set<Counted> x = new HashSet<>(Arrays.asList(attributes[0], attributes[1], attributes[5]));
+		implications.closure(x);
+		// once the closure engine is built, the attributes are looked up by identity, so that
+		// only the returned set computes hash codes
+		int before = Counted.hashCodes;
+		Set<Counted> closure = implications.closure(x);
+		Assertions.assertEquals(closure.size(), Counted.hashCodes - before);
+		Assertions.assertTrue(closure.contains(attributes[2]));
+
+		context.setVerticalStorage(true);
+		Assertions.assertEquals(context.toCrossTable().getAttributeCount(), dictionary.size());
+		Assertions.assertTrue(context.doublePrime(new HashSet<>(Arrays.asList(attributes[0]))).contains(attributes[0]));
+
+		// an attribute replaced directly in the set of attributes gets a new identifier
+		context.getAttributes().remove(attributes[39]);
+		Counted extra = new Counted("extra");
+		context.getAttributes().add(extra);
+		Assertions.assertSame(dictionary, context.getAttributeDictionary());
+		Assertions.assertEquals(attributes.length, dictionary.getId(extra));
+		Assertions.assertTrue(context.doublePrime(new HashSet<>(Arrays.asList(extra))).contains(extra));
+	}
+
+}
@@ -0,0 +1,248 @@
+package de.tudresden.inf.tcs.fcalib.test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import de.tudresden.inf.tcs.fcaapi.Context;
+import de.tudresden.inf.tcs.fcaapi.FCAImplication;
+import de.tudresden.inf.tcs.fcaapi.exception.IllegalObjectException;
+import de.tudresden.inf.tcs.fcalib.FormalContext;
+import de.tudresden.inf.tcs.fcalib.FullObject;
+import de.tudresden.inf.tcs.fcalib.CanonicalBasis;
+import de.tudresden.inf.tcs.fcalib.Implication;
+import de.tudresden.inf.tcs.fcalib.ImplicationSet;
+import de.tudresden.inf.tcs.fcalib.PartialContext;
+import de.tudresden.inf.tcs.fcalib.PartialObject;
+import de.tudresden.inf.tcs.fcalib.io.BurmeisterFormat;
+import de.tudresden.inf.tcs.fcalib.io.ContextFormatException;
+import de.tudresden.inf.tcs.fcalib.io.CsvFormat;
+import de.tudresden.inf.tcs.fcalib.io.FimiFormat;
+import de.tudresden.inf.tcs.fcalib.io.ImplicationReader;
+import de.tudresden.inf.tcs.fcalib.io.ImplicationWriter;
+import de.tudresden.inf.tcs.fcalib.io.MappedContext;
+
+/*
+ * FCAlib: An open-source extensible library for Formal Concept Analysis
+ *         tool developers
+ * Copyright (C) 2009  Baris Sertkaya
+ *
+ * This file is part of FCAlib.
+ * FCAlib is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FCAlib is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with FCAlib.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+public class TestContextFormats {
+
+	public TestContextFormats() {
+	}
+
+	private static ByteArrayInputStream input(String text) {
+		return new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8));
+	}
+
+	private static void assertSameContext(FormalContext<?, ?> expected, FormalContext<?, ?> actual) {
+		Assertions.assertEquals(expected.getAttributes().size(), actual.getAttributes().size());
+		assertSameObjects(expected, actual);
+	}
+
+	private static void assertSameObjects(Context<?, ?, ? extends FullObject<?, ?>> expected,
+			Context<?, ?, ? extends FullObject<?, ?>> actual) {
+		Assertions.assertEquals(expected.getObjects().size(), actual.getObjects().size());
+		for (int g = 0; g < expected.getObjects().size(); ++g) {
+			Assertions.assertEquals(expected.getObjectAtIndex(g).getIdentifier(), actual.getObjectAtIndex(g).getIdentifier());
+			Assertions.assertEquals(expected.getObjectAtIndex(g).getDescription().getAttributes(),
+					actual.getObjectAtIndex(g).getDescription().getAttributes());
+		}
+	}
+
+	private static FormalContext<String, String> randomContext(Random random) throws IllegalObjectException {
+		FormalContext<String, String> context = new FormalContext<String, String>();
+		for (int m = 0; m < 7; ++m) {
+			context.addAttribute("attribute, \"" + m + "\"");
+		}
+		for (int g = 0; g < 20; ++g) {
+			Set<String> description = new HashSet<>();
+			for (String attribute : context.getAttributes()) {
+				if (random.nextBoolean()) {
+					description.add(attribute);
+				}
+			}
+			context.addObject(new FullObject<String, String>("object ä" + g, description));
+		}
+		return context;
+	}
+
+	@Test
+	public void testBurmeister() throws IOException, IllegalObjectException {
+		FormalContext<String, String> context = BurmeisterFormat
+				.readFormalContext(input("B\nlive in water\n\n3\n2\n\nfrog\nfish\ndog\nswims\nlegs\nXX\nX.\r\n.X\n"));
+		Assertions.assertEquals(2, context.getAttributes().size());
+		Assertions.assertTrue(context.getObject("fish").getDescription().containsAttribute("swims"));
+		Assertions.assertFalse(context.getObject("fish").getDescription().containsAttribute("legs"));
+		Set<String> legs = new HashSet<>();
+		legs.add("legs");
+		Assertions.assertEquals(legs, context.doublePrime(legs));
+
+		FormalContext<String, String> expected = randomContext(new Random(1));
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		BurmeisterFormat.write(expected, out);
+		assertSameContext(expected, BurmeisterFormat.readFormalContext(new ByteArrayInputStream(out.toByteArray())));
+
+		PartialContext<String, String, PartialObject<String, String>> partial = BurmeisterFormat
+				.readPartialContext(input("B\n\n2\n3\n\ng\nh\na\nb\nc\nX.?\n??X\n"));
+		Assertions.assertTrue(partial.getObject("g").getDescription().containsNegatedAttribute("b"));
+		Assertions.assertFalse(partial.getObject("g").getDescription().containsNegatedAttribute("c"));
+		out.reset();
+		BurmeisterFormat.write(partial, out);
+		Assertions.assertEquals("B\n\n2\n3\n\ng\nh\na\nb\nc\nX.?\n??X\n", new String(out.toByteArray(), StandardCharsets.UTF_8));
+
+		ContextFormatException e = Assertions.assertThrows(ContextFormatException.class,
+				() -> BurmeisterFormat.readFormalContext(input("B\n\n2\n1\n\ng\nh\na\nX\n?\n")));
+		Assertions.assertEquals(10, e.getLine());
+	}
+
+	@Test
+	public void testCsv() throws IOException, IllegalObjectException {
+		FormalContext<String, String> expected = randomContext(new Random(2));
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		CsvFormat.write(expected, out);
+		assertSameContext(expected, CsvFormat.readFormalContext(new ByteArrayInputStream(out.toByteArray())));
+
+		PartialContext<String, String, PartialObject<String, String>> partial = CsvFormat
+				.readPartialContext(input("\uFEFF,a,b,c\ng,X,.,\n\n\"h,1\",?,0\n"));
+		Assertions.assertEquals(2, partial.getObjects().size());
+		Assertions.assertTrue(partial.getObject("g").getDescription().containsAttribute("a"));
+		Assertions.assertTrue(partial.getObject("g").getDescription().containsNegatedAttribute("b"));
+		Assertions.assertFalse(partial.getObject("g").getDescription().containsNegatedAttribute("c"));
+		Assertions.assertTrue(partial.getObject("h,1").getDescription().containsNegatedAttribute("b"));
+		out.reset();
+		CsvFormat.write(partial, out);
+		Assertions.assertEquals("\"\",a,b,c\ng,1,0,?\n\"h,1\",?,0,?\n", new String(out.toByteArray(), StandardCharsets.UTF_8));
+
+		ContextFormatException e = Assertions.assertThrows(ContextFormatException.class,
+				() -> CsvFormat.readFormalContext(input(",a\ng,1\nh,0,1\n")));
+		Assertions.assertEquals(3, e.getLine());
+	}
+
+	@Test
+	public void testFimi() throws IOException {
+		FormalContext<Integer, Integer> context = FimiFormat.readFormalContext(input("3 1 7\n\n7 200 \n1"));
+		Assertions.assertEquals(4, context.getObjects().size());
+		Assertions.assertEquals(4, context.getAttributes().size());
+		Assertions.assertEquals(Integer.valueOf(3), context.getAttributes().getElementAt(0));
+		Assertions.assertTrue(context.getObjectAtIndex(1).getDescription().getAttributes().isEmpty());
+		Assertions.assertTrue(context.getObject(2).getDescription().containsAttribute(200));
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		FimiFormat.write(context, out);
+		Assertions.assertEquals("1 3 7\n\n7 200\n1\n", new String(out.toByteArray(), StandardCharsets.US_ASCII));
+		assertSameContext(context, FimiFormat.readFormalContext(new ByteArrayInputStream(out.toByteArray())));
+
+		ContextFormatException e = Assertions.assertThrows(ContextFormatException.class,
+				() -> FimiFormat.readFormalContext(input("1 2\n3 x\n")));
+		Assertions.assertEquals(2, e.getLine());
+	}
+
+	private static Set<Set<String>> premises(Set<FCAImplication<String>> base) {
+		Set<Set<String>> premises = new HashSet<>();
+		for (FCAImplication<String> imp : base) {
+			premises.add(imp.getPremise());
+		}
+		return premises;
+	}
+
+	@Test
+	public void testMappedContext() throws IOException, IllegalObjectException {
+		Random random = new Random(3);
+		FormalContext<String, String> context = randomContext(random);
+		Path file = Files.createTempFile("context", ".fcab");
+		try {
+			MappedContext.write(context, file);
+			MappedContext mapped = MappedContext.open(file);
+			Assertions.assertEquals(context.getAttributes(), mapped.getAttributes());
+			assertSameObjects(context, mapped);
+			Assertions.assertEquals(context.getObject("object ä7").getDescription().getAttributes(),
+					mapped.getObject("object ä7").getDescription().getAttributes());
+			Assertions.assertNull(mapped.getObject("object 7"));
+
+			for (int k = 0; k < 50; ++k) {
+				Set<String> x = new HashSet<>();
+				Set<String> y = new HashSet<>();
+				for (String attribute : context.getAttributes()) {
+					if (random.nextInt(4) == 0) {
+						x.add(attribute);
+					}
+					if (random.nextInt(3) == 0) {
+						y.add(attribute);
+					}
+				}
+				Assertions.assertEquals(context.doublePrime(x), mapped.doublePrime(x));
+				Implication<String> imp = new Implication<String>(x, y);
+				Assertions.assertEquals(context.refutes(imp), mapped.refutes(imp));
+			}
+			Assertions.assertEquals(premises(context.getStemBase()), premises(mapped.getStemBase()));
+			Assertions.assertThrows(UnsupportedOperationException.class, () -> mapped.addAttribute("new"));
+		} finally {
+			Files.delete(file);
+		}
+	}
+
+	@Test
+	public void testImplicationStreams() throws IOException, IllegalObjectException {
+		FormalContext<String, String> context = randomContext(new Random(4));
+		ImplicationSet<String> base = (ImplicationSet<String>) context.getStemBase();
+		Set<String> all = new HashSet<>(context.getAttributes());
+		base.add(new Implication<String>(new HashSet<String>(), all));
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		ImplicationWriter.write(base, out);
+		ImplicationSet<String> read = ImplicationReader.read(new ByteArrayInputStream(out.toByteArray()), context);
+		Assertions.assertEquals(base.size(), read.size());
+		for (int k = 0; k < 30; ++k) {
+			Set<String> x = new HashSet<>();
+			for (String attribute : context.getAttributes()) {
+				if ((k & 3) == (attribute.hashCode() & 3)) {
+					x.add(attribute);
+				}
+			}
+			Assertions.assertEquals(base.closure(x), read.closure(x));
+		}
+
+		// the base can be streamed while it is computed
+		out.reset();
+		ImplicationWriter<String> writer = new ImplicationWriter<String>(out,
+				new ArrayList<String>(context.getAttributes()));
+		new CanonicalBasis(context.toCrossTable().closureOperator()).compute(writer);
+		writer.finish();
+		ImplicationReader reader = new ImplicationReader(new ByteArrayInputStream(out.toByteArray()));
+		Assertions.assertEquals(context.getAttributeCount(), reader.getAttributes().size());
+		long[] premise = new long[reader.getWordCount()];
+		long[] conclusion = new long[reader.getWordCount()];
+		int count = 0;
+		while (reader.next(premise, conclusion)) {
+			++count;
+		}
+		Assertions.assertEquals(base.size() - 1, count);
+	}
+
+}
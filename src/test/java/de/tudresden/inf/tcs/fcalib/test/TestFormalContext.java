@@ -4,13 +4,32 @@
  */
 package de.tudresden.inf.tcs.fcalib.test;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
+import de.tudresden.inf.tcs.fcaapi.FCAImplication;
 import de.tudresden.inf.tcs.fcaapi.exception.IllegalContextException;
 import de.tudresden.inf.tcs.fcaapi.exception.IllegalExpertException;
 import de.tudresden.inf.tcs.fcaapi.exception.IllegalObjectException;
+import de.tudresden.inf.tcs.fcalib.ConceptSink;
+import de.tudresden.inf.tcs.fcalib.ExplorationCheckpoint;
 import de.tudresden.inf.tcs.fcalib.FormalContext;
 import de.tudresden.inf.tcs.fcalib.FullObject;
+import de.tudresden.inf.tcs.fcalib.Implication;
+import de.tudresden.inf.tcs.fcalib.ImplicationSet;
+import de.tudresden.inf.tcs.fcalib.action.CounterExampleProvidedAction;
+import de.tudresden.inf.tcs.fcalib.action.CounterExamplesProvidedAction;
+import de.tudresden.inf.tcs.fcalib.action.QuestionConfirmedAction;
 import de.tudresden.inf.tcs.fcalib.action.StartExplorationAction;
 
 /*
@@ -62,4 +81,454 @@ public class TestFormalContext {
 		expert.fireExpertAction(action);
 	}
 
+	@Test
+	public void testAllClosures() throws IllegalObjectException {
+		Random random = new Random(7);
+		for (int round = 0; round < 10; round++) {
+			int attributes = 8;
+			FormalContext<String, String> context = RandomContexts.formalContext(random, attributes, 12);
+			Set<Set<String>> expected = new HashSet<>();
+			for (int bits = 0; bits < (1 << attributes); bits++) {
+				Set<String> x = new HashSet<>();
+				for (int i = 0; i < attributes; i++) {
+					if ((bits & (1 << i)) != 0) {
+						x.add("m" + i);
+					}
+				}
+				expected.add(context.doublePrime(x));
+			}
+			context.setParallelism(1);
+			Assertions.assertEquals(expected, context.allClosures());
+			context.setParallelism(4);
+			Assertions.assertEquals(expected, context.allClosures());
+			Assertions.assertEquals(expected.size(), context.getConcepts().size());
+
+			final AtomicInteger count = new AtomicInteger();
+			context.enumerateConcepts(new ConceptSink() {
+				@Override
+				public void concept(long[] extent, long[] intent) {
+					count.incrementAndGet();
+				}
+			});
+			Assertions.assertEquals(expected.size(), count.get());
+		}
+	}
+
+	private void assertSameDoublePrimes(Random random, FormalContext<String, String> expected,
+			FormalContext<String, String> actual) {
+		for (int k = 0; k < 50; k++) {
+			Set<String> x = new HashSet<>();
+			for (String attribute : expected.getAttributes()) {
+				if (random.nextInt(4) == 0) {
+					x.add(attribute);
+				}
+			}
+			Assertions.assertEquals(expected.doublePrime(x), actual.doublePrime(x));
+		}
+	}
+
+	@Test
+	public void testVerticalStorage() throws IllegalObjectException {
+		Random random = new Random(11);
+		FormalContext<String, String> rows = RandomContexts.formalContext(new Random(3), 6, 70);
+		FormalContext<String, String> columns = RandomContexts.formalContext(new Random(3), 6, 70);
+		columns.setVerticalStorage(true);
+		Assertions.assertTrue(columns.isVerticalStorage());
+		assertSameDoublePrimes(random, rows, columns);
+
+		for (int g = 0; g < 70; g += 3) {
+			rows.removeObject("g" + g);
+			columns.removeObject(columns.getObject("g" + g));
+		}
+		assertSameDoublePrimes(random, rows, columns);
+
+		rows.addAttribute("m6");
+		columns.addAttribute("m6");
+		for (int g = 1; g < 70; g += 3) {
+			rows.addAttributeToObject("m6", "g" + g);
+			columns.addAttributeToObject("m6", "g" + g);
+			if (rows.getObject("g" + g).getDescription().containsAttribute("m0")) {
+				rows.removeAttributeFromObject("m0", "g" + g);
+				columns.removeAttributeFromObject("m0", "g" + g);
+			}
+		}
+		Set<String> intent = new HashSet<>();
+		intent.add("m6");
+		intent.add("m7");
+		rows.addObject(new FullObject<String, String>("h", intent));
+		columns.addObject(new FullObject<String, String>("h", intent));
+		rows.getAttributes().changeOrder();
+		columns.getAttributes().changeOrder();
+		assertSameDoublePrimes(random, rows, columns);
+
+		columns.clearObjects();
+		Assertions.assertEquals(new HashSet<>(columns.getAttributes()), columns.doublePrime(new HashSet<String>()));
+	}
+
+	@Test
+	public void testDerivationCache() throws IllegalObjectException {
+		FormalContext<String, String> plain = RandomContexts.formalContext(new Random(5), 6, 40);
+		FormalContext<String, String> cached = RandomContexts.formalContext(new Random(5), 6, 40);
+		cached.setDerivationCache(16);
+		Assertions.assertEquals(16, cached.getDerivationCache().getCapacity());
+		assertSameDoublePrimes(new Random(13), plain, cached);
+		assertSameDoublePrimes(new Random(13), plain, cached);
+		Assertions.assertTrue(cached.getDerivationCache().getHits() > 0);
+
+		// the returned set belongs to the caller
+		Set<String> x = new HashSet<>();
+		x.add("m0");
+		cached.doublePrime(x).clear();
+		Assertions.assertEquals(plain.doublePrime(x), cached.doublePrime(x));
+
+		Random random = new Random(17);
+		for (int g = 40; g < 60; g++) {
+			Set<String> intent = new HashSet<>();
+			for (int i = 0; i < 6; i++) {
+				if (random.nextInt(2) == 0) {
+					intent.add("m" + i);
+				}
+			}
+			plain.addObject(new FullObject<String, String>("g" + g, intent));
+			cached.addObject(new FullObject<String, String>("g" + g, intent));
+			assertSameDoublePrimes(new Random(13), plain, cached);
+		}
+
+		plain.removeObject("g3");
+		cached.removeObject("g3");
+		assertSameDoublePrimes(new Random(13), plain, cached);
+		plain.addAttribute("m6");
+		cached.addAttribute("m6");
+		assertSameDoublePrimes(new Random(13), plain, cached);
+		plain.addAttributeToObject("m6", "g4");
+		cached.addAttributeToObject("m6", "g4");
+		assertSameDoublePrimes(new Random(13), plain, cached);
+
+		cached.setDerivationCache(0);
+		Assertions.assertNull(cached.getDerivationCache());
+		assertSameDoublePrimes(new Random(13), plain, cached);
+	}
+
+	@Test
+	public void testObjectLookup() throws IllegalObjectException {
+		FormalContext<String, String> context = RandomContexts.formalContext(new Random(5), 4, 100);
+		for (int g = 0; g < 100; g++) {
+			Assertions.assertEquals("g" + g, context.getObject("g" + g).getIdentifier());
+		}
+		context.removeObject("g10");
+		context.removeObject(context.getObject("g20"));
+		Assertions.assertNull(context.getObject("g10"));
+		Assertions.assertNull(context.getObject("g20"));
+		Assertions.assertFalse(context.containsObject("g20"));
+		Assertions.assertTrue(context.containsObject("g30"));
+
+		context.getObjects().add(new FullObject<String, String>("direct"));
+		Assertions.assertNotNull(context.getObject("direct"));
+		context.clearObjects();
+		Assertions.assertNull(context.getObject("g30"));
+		context.addObject(new FullObject<String, String>("g30"));
+		Assertions.assertNotNull(context.getObject("g30"));
+	}
+
+	@Test
+	public void testStemBase() throws IllegalObjectException {
+		Random random = new Random(13);
+		for (int round = 0; round < 10; round++) {
+			int attributes = 8;
+			FormalContext<String, String> context = RandomContexts.formalContext(random, attributes, 10);
+			List<Set<String>> subsets = new ArrayList<>();
+			for (int bits = 0; bits < (1 << attributes); bits++) {
+				Set<String> x = new HashSet<>();
+				for (int i = 0; i < attributes; i++) {
+					if ((bits & (1 << i)) != 0) {
+						x.add("m" + i);
+					}
+				}
+				subsets.add(x);
+			}
+			subsets.sort((x, y) -> x.size() - y.size());
+			List<Set<String>> pseudoIntents = new ArrayList<>();
+			for (Set<String> x : subsets) {
+				Set<String> closure = context.doublePrime(x);
+				boolean pseudo = !x.equals(closure);
+				for (Set<String> q : pseudoIntents) {
+					if (x.containsAll(q) && !x.equals(q) && !x.containsAll(context.doublePrime(q))) {
+						pseudo = false;
+					}
+				}
+				if (pseudo) {
+					pseudoIntents.add(x);
+				}
+			}
+
+			Set<FCAImplication<String>> base = context.getStemBase();
+			Set<Set<String>> premises = new HashSet<>();
+			for (FCAImplication<String> imp : base) {
+				premises.add(imp.getPremise());
+				Set<String> closure = new HashSet<>(imp.getPremise());
+				closure.addAll(imp.getConclusion());
+				Assertions.assertEquals(context.doublePrime(imp.getPremise()), closure);
+			}
+			Assertions.assertEquals(new HashSet<>(pseudoIntents), premises);
+			Assertions.assertEquals(pseudoIntents.size(), base.size());
+		}
+	}
+
+	@Test
+	public void testStemBaseManyAttributes() throws IllegalObjectException {
+		Random random = new Random(19);
+		FormalContext<String, String> context = RandomContexts.formalContext(random, 100, 25);
+		ImplicationSet<String> base = (ImplicationSet<String>) context.getStemBase();
+		for (int k = 0; k < 200; k++) {
+			Set<String> x = new HashSet<>();
+			for (String attribute : context.getAttributes()) {
+				if (random.nextInt(30) == 0) {
+					x.add(attribute);
+				}
+			}
+			Assertions.assertEquals(context.doublePrime(x), base.closure(x));
+		}
+	}
+
+	private FormalContext<String, String> allClosedContext(int attributes) throws IllegalObjectException {
+		FormalContext<String, String> context = new FormalContext<String, String>();
+		for (int i = 0; i < attributes; i++) {
+			context.addAttribute("m" + i);
+		}
+		for (int g = 0; g < attributes; g++) {
+			Set<String> intent = new HashSet<>(context.getAttributes());
+			intent.remove("m" + g);
+			context.addObject(new FullObject<String, String>("g" + g, intent));
+		}
+		context.setVerticalStorage(true);
+		return context;
+	}
+
+	@Test
+	public void testLongExploration() throws IllegalObjectException {
+		// every attribute set is closed, so there are 2^17 trivial steps
+		FormalContext<String, String> context = allClosedContext(17);
+		NoExpertFull<String> expert = new NoExpertFull<String>(context);
+		expert.addExpertActionListener(context);
+		context.setExpert(expert);
+
+		StartExplorationAction<String, String, FullObject<String, String>> action = new StartExplorationAction<String, String, FullObject<String, String>>();
+		action.setContext(context);
+		expert.fireExpertAction(action);
+		Assertions.assertFalse(context.hasPendingStep());
+		Assertions.assertTrue(context.getImplications().isEmpty());
+	}
+
+	@Test
+	public void testAdvance() throws IllegalObjectException {
+		FormalContext<String, String> context = allClosedContext(10);
+		NoExpertFull<String> expert = new NoExpertFull<String>(context);
+		expert.addExpertActionListener(context);
+		context.setExpert(expert);
+		context.setAutoAdvance(false);
+
+		StartExplorationAction<String, String, FullObject<String, String>> action = new StartExplorationAction<String, String, FullObject<String, String>>();
+		action.setContext(context);
+		expert.fireExpertAction(action);
+		Assertions.assertTrue(context.hasPendingStep());
+		int calls = 0;
+		while (context.advance(100)) {
+			calls++;
+		}
+		// 2^10 closed sets and the final step
+		Assertions.assertEquals(10, calls);
+		Assertions.assertFalse(context.hasPendingStep());
+	}
+
+	@Test
+	public void testBackgroundKnowledge() {
+		FormalContext<String, String> context = new FormalContext<String, String>();
+		context.addAttribute("a");
+		context.addAttribute("b");
+		context.addAttribute("c");
+		ImplicationSet<String> background = new ImplicationSet<String>(context);
+		Set<String> a = new HashSet<>();
+		a.add("a");
+		Set<String> b = new HashSet<>();
+		b.add("b");
+		background.add(new Implication<String>(a, b));
+		context.setBackgroundKnowledge(background);
+
+		final List<FCAImplication<String>> notified = new ArrayList<>();
+		NoExpertFull<String> expert = new NoExpertFull<String>(context) {
+			@Override
+			public void implicationFollowsFromBackgroundKnowledge(FCAImplication<String> imp) {
+				notified.add(imp);
+			}
+		};
+		expert.addExpertActionListener(context);
+		context.setExpert(expert);
+		StartExplorationAction<String, String, FullObject<String, String>> action = new StartExplorationAction<String, String, FullObject<String, String>>();
+		action.setContext(context);
+		expert.fireExpertAction(action);
+
+		// the expert rejects every question, so only the background knowledge holds
+		Assertions.assertFalse(notified.isEmpty());
+		Assertions.assertEquals(new HashSet<>(notified), context.getImplications());
+		for (FCAImplication<String> imp : context.getImplications()) {
+			Assertions.assertTrue(background.closure(imp.getPremise()).containsAll(imp.getConclusion()));
+		}
+	}
+
+	/**
+	 * Returns an expert that answers according to a given context, confirming
+	 * the questions that hold in it and taking a counterexample from it
+	 * otherwise.
+	 */
+	private NoExpertFull<String> truthExpert(final FormalContext<String, String> truth,
+			final FormalContext<String, String> context) {
+		return truthExpert(truth, context, new AtomicInteger());
+	}
+
+	/**
+	 * Returns an expert like {@link #truthExpert(FormalContext, FormalContext)}
+	 * that also counts the questions it is asked.
+	 */
+	private NoExpertFull<String> truthExpert(final FormalContext<String, String> truth,
+			final FormalContext<String, String> context, final AtomicInteger questions) {
+		NoExpertFull<String> expert = new NoExpertFull<String>(context) {
+			@Override
+			public void askQuestion(FCAImplication<String> question) {
+				questions.incrementAndGet();
+				for (FullObject<String, String> object : truth.getObjects()) {
+					if (!object.respects(question)) {
+						fireExpertAction(new CounterExampleProvidedAction<String, String, FullObject<String, String>>(
+								context, question, new FullObject<String, String>(object.getIdentifier(),
+										object.getDescription().getAttributes())));
+						return;
+					}
+				}
+				confirm(this, context, question);
+			}
+		};
+		expert.addExpertActionListener(context);
+		context.setExpert(expert);
+		return expert;
+	}
+
+	private void confirm(NoExpertFull<String> expert, FormalContext<String, String> context,
+			FCAImplication<String> question) {
+		QuestionConfirmedAction<String, String, FullObject<String, String>> action = new QuestionConfirmedAction<String, String, FullObject<String, String>>();
+		action.setContext(context);
+		action.setQuestion(question);
+		expert.fireExpertAction(action);
+	}
+
+	private void explore(NoExpertFull<String> expert, FormalContext<String, String> context) {
+		StartExplorationAction<String, String, FullObject<String, String>> action = new StartExplorationAction<String, String, FullObject<String, String>>();
+		action.setContext(context);
+		expert.fireExpertAction(action);
+	}
+
+	private Set<Set<String>> premises(Set<FCAImplication<String>> implications) {
+		Set<Set<String>> premises = new HashSet<>();
+		for (FCAImplication<String> imp : implications) {
+			premises.add(imp.getPremise());
+		}
+		return premises;
+	}
+
+	@Test
+	public void testCheckpoint() throws IllegalObjectException, IOException {
+		FormalContext<String, String> truth = RandomContexts.formalContext(new Random(31), 8, 15);
+		Set<Set<String>> expected = premises(truth.getStemBase());
+
+		Path file = Files.createTempFile("fcalib", ".checkpoint");
+		try {
+			for (int steps : new int[] { 0, 1, 7, 40, 1000 }) {
+				FormalContext<String, String> context = new FormalContext<String, String>();
+				for (int i = 7; i >= 0; i--) {
+					context.addAttribute("m" + i);
+				}
+				NoExpertFull<String> expert = truthExpert(truth, context);
+				context.setAutoAdvance(false);
+				explore(expert, context);
+				context.advance(steps);
+				ExplorationCheckpoint.save(context, file);
+
+				FormalContext<String, String> restored = new FormalContext<String, String>();
+				truthExpert(truth, restored);
+				ExplorationCheckpoint.resume(file, restored);
+				Assertions.assertEquals(new ArrayList<>(context.getAttributes()),
+						new ArrayList<>(restored.getAttributes()));
+				Assertions.assertEquals(expected, premises(restored.getImplications()));
+				Assertions.assertFalse(restored.hasPendingStep());
+			}
+		} finally {
+			Files.delete(file);
+		}
+
+		// a checkpoint is only restored into an empty context
+		FormalContext<String, String> nonEmpty = new FormalContext<String, String>();
+		nonEmpty.addAttribute("a");
+		Path other = Files.createTempFile("fcalib", ".checkpoint");
+		try {
+			ExplorationCheckpoint.save(truth, other);
+			Assertions.assertThrows(IllegalArgumentException.class, () -> ExplorationCheckpoint.restore(other, nonEmpty));
+		} finally {
+			Files.delete(other);
+		}
+	}
+
+	@Test
+	public void testCounterExampleBatch() throws IllegalObjectException {
+		final FormalContext<String, String> truth = RandomContexts.formalContext(new Random(37), 8, 25);
+
+		FormalContext<String, String> single = new FormalContext<String, String>();
+		final FormalContext<String, String> batch = new FormalContext<String, String>();
+		for (int i = 0; i < 8; i++) {
+			single.addAttribute("m" + i);
+			batch.addAttribute("m" + i);
+		}
+		AtomicInteger singleQuestions = new AtomicInteger();
+		explore(truthExpert(truth, single, singleQuestions), single);
+
+		// answers with every object of the truth that refutes the question, and two invalid ones
+		final AtomicInteger batchQuestions = new AtomicInteger();
+		final AtomicInteger invalid = new AtomicInteger();
+		NoExpertFull<String> expert = new NoExpertFull<String>(batch) {
+			@Override
+			public void askQuestion(FCAImplication<String> question) {
+				batchQuestions.incrementAndGet();
+				List<FullObject<String, String>> counterExamples = new ArrayList<>();
+				for (FullObject<String, String> object : truth.getObjects()) {
+					if (!object.respects(question) && (batch.getObject(object.getIdentifier()) == null)) {
+						counterExamples.add(new FullObject<String, String>(object.getIdentifier(),
+								object.getDescription().getAttributes()));
+					}
+				}
+				if (counterExamples.isEmpty()) {
+					confirm(this, batch, question);
+					return;
+				}
+				// an object that has all attributes is no counterexample
+				counterExamples.add(new FullObject<String, String>("x" + batchQuestions, batch.getAttributes()));
+				FullObject<String, String> first = counterExamples.get(0);
+				counterExamples.add(new FullObject<String, String>(first.getIdentifier(),
+						first.getDescription().getAttributes()));
+				fireExpertAction(new CounterExamplesProvidedAction<String, String, FullObject<String, String>>(
+						batch, question, counterExamples));
+			}
+
+			@Override
+			public void counterExampleInvalid(FullObject<String, String> counterExample, int reason) {
+				invalid.incrementAndGet();
+			}
+		};
+		expert.addExpertActionListener(batch);
+		batch.setExpert(expert);
+		explore(expert, batch);
+
+		Assertions.assertEquals(premises(truth.getStemBase()), premises(batch.getImplications()));
+		Assertions.assertEquals(premises(single.getImplications()), premises(batch.getImplications()));
+		Assertions.assertTrue(batchQuestions.get() < singleQuestions.get());
+		// the object with all attributes and the repeated one
+		Assertions.assertEquals(2 * (batchQuestions.get() - batch.getImplications().size()), invalid.get());
+	}
+
 }
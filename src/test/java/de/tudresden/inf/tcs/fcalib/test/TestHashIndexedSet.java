@@ -0,0 +1,88 @@
+package de.tudresden.inf.tcs.fcalib.test;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import de.tudresden.inf.tcs.fcalib.utils.HashIndexedSet;
+
+/*
+ * FCAlib: An open-source extensible library for Formal Concept Analysis 
+ *         tool developers
+ * Copyright (C) 2009  Baris Sertkaya
+ *
+ * This file is part of FCAlib.
+ * FCAlib is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FCAlib is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with FCAlib.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+public class TestHashIndexedSet {
+
+	public TestHashIndexedSet() {
+	}
+
+	private void assertEq(HashIndexedSet<Integer> set, List<Integer> list) {
+		Assertions.assertEquals(list.size(), set.size());
+		for (int i = 0; i < list.size(); i++) {
+			Assertions.assertEquals(list.get(i), set.getElementAt(i));
+			Assertions.assertEquals(i, set.getIndexOf(list.get(i)));
+		}
+		Assertions.assertEquals(list, new ArrayList<>(set));
+	}
+
+	@Test
+	public void testAgainstList() {
+		Random random = new Random(17);
+		HashIndexedSet<Integer> set = new HashIndexedSet<>();
+		List<Integer> list = new ArrayList<>();
+		for (int step = 0; step < 5000; step++) {
+			Integer e = random.nextInt(100);
+			switch (random.nextInt(4)) {
+			case 0:
+			case 1:
+				Assertions.assertEquals(!list.contains(e), set.add(e));
+				if (!list.contains(e)) {
+					list.add(e);
+				}
+				break;
+			case 2:
+				Assertions.assertEquals(list.remove(e), set.remove(e));
+				break;
+			default:
+				set.changeOrder();
+				if (list.size() > 1) {
+					list.add(list.remove(0));
+				}
+			}
+			Assertions.assertEquals(list.contains(e), set.contains(e));
+			Assertions.assertEquals(list.indexOf(e), set.getIndexOf(e));
+		}
+		assertEq(set, list);
+
+		for (Iterator<Integer> it = set.iterator(); it.hasNext();) {
+			if ((it.next() % 2) == 0) {
+				it.remove();
+			}
+		}
+		list.removeIf(e -> (e % 2) == 0);
+		assertEq(set, list);
+		set.clear();
+		Assertions.assertTrue(set.isEmpty());
+		Assertions.assertEquals(-1, set.getIndexOf(3));
+	}
+
+}
@@ -0,0 +1,433 @@
+package de.tudresden.inf.tcs.fcalib.test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import de.tudresden.inf.tcs.fcaapi.FCAImplication;
+import de.tudresden.inf.tcs.fcalib.FormalContext;
+import de.tudresden.inf.tcs.fcalib.FrozenImplicationSet;
+import de.tudresden.inf.tcs.fcalib.FullObject;
+import de.tudresden.inf.tcs.fcalib.Implication;
+import de.tudresden.inf.tcs.fcalib.ImplicationSet;
+import de.tudresden.inf.tcs.fcalib.LinClosure;
+
+/*
+ * FCAlib: An open-source extensible library for Formal Concept Analysis
+ *         tool developers
+ * Copyright (C) 2009  Baris Sertkaya
+ *
+ * This file is part of FCAlib.
+ * FCAlib is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FCAlib is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with FCAlib.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+public class TestImplicationSet {
+
+	private static final int ATTRIBUTES = 9;
+
+	public TestImplicationSet() {
+	}
+
+	private FormalContext<String, String> createContext() {
+		FormalContext<String, String> context = new FormalContext<String, String>();
+		for (int i = 0; i < ATTRIBUTES; i++) {
+			context.addAttribute("m" + i);
+		}
+		return context;
+	}
+
+	private Set<String> randomSet(Random random, int size) {
+		Set<String> s = new HashSet<>();
+		for (int i = 0; i < size; i++) {
+			s.add("m" + random.nextInt(ATTRIBUTES));
+		}
+		return s;
+	}
+
+	private ImplicationSet<String> randomImplications(
+			FormalContext<String, String> context, Random random) {
+		ImplicationSet<String> implications = new ImplicationSet<String>(context);
+		for (int i = 0; i < 8; i++) {
+			implications.add(new Implication<String>(randomSet(random, random.nextInt(3)),
+					randomSet(random, 1 + random.nextInt(2))));
+		}
+		return implications;
+	}
+
+	private Set<String> naiveClosure(Set<FCAImplication<String>> implications, Set<String> x) {
+		Set<String> result = new HashSet<>(x);
+		boolean changed = true;
+		while (changed) {
+			changed = false;
+			for (FCAImplication<String> imp : implications) {
+				if (result.containsAll(imp.getPremise())) {
+					changed = result.addAll(imp.getConclusion()) || changed;
+				}
+			}
+		}
+		return result;
+	}
+
+	private Set<String> subset(FormalContext<String, String> context, int bits) {
+		Set<String> s = new HashSet<>();
+		for (int i = 0; i < ATTRIBUTES; i++) {
+			if ((bits & (1 << i)) != 0) {
+				s.add(context.getAttributeAtIndex(i));
+			}
+		}
+		return s;
+	}
+
+	@Test
+	public void testClosure() {
+		Random random = new Random(17);
+		FormalContext<String, String> context = createContext();
+		for (int round = 0; round < 20; round++) {
+			ImplicationSet<String> implications = randomImplications(context, random);
+			for (int bits = 0; bits < (1 << ATTRIBUTES); bits += 7) {
+				Set<String> x = subset(context, bits);
+				Assertions.assertEquals(naiveClosure(implications, x), implications.closure(x));
+			}
+		}
+	}
+
+	@Test
+	public void testAllClosures() {
+		Random random = new Random(42);
+		FormalContext<String, String> context = createContext();
+		for (int round = 0; round < 20; round++) {
+			ImplicationSet<String> implications = randomImplications(context, random);
+			Set<Set<String>> expected = new HashSet<>();
+			for (int bits = 0; bits < (1 << ATTRIBUTES); bits++) {
+				Set<String> x = subset(context, bits);
+				if (naiveClosure(implications, x).equals(x)) {
+					expected.add(x);
+				}
+			}
+			Set<Set<String>> actual = implications.allClosures();
+			Assertions.assertEquals(expected.size(), actual.size());
+			Assertions.assertEquals(expected, new HashSet<>(actual));
+		}
+	}
+
+	@Test
+	public void testIncrementalAdd() {
+		FormalContext<String, String> context = createContext();
+		ImplicationSet<String> implications = new ImplicationSet<String>(context);
+		Set<String> x = new HashSet<>();
+		x.add("m0");
+		Assertions.assertEquals(x, implications.closure(x));
+
+		Set<String> premise = new HashSet<>(x);
+		Set<String> conclusion = new HashSet<>();
+		conclusion.add("m5");
+		implications.add(new Implication<String>(premise, conclusion));
+
+		Set<String> expected = new HashSet<>(x);
+		expected.add("m5");
+		Assertions.assertEquals(expected, implications.closure(x));
+
+		context.getAttributes().changeOrder();
+		Assertions.assertEquals(expected, implications.closure(x));
+
+		// an attribute added after the implication set was created
+		context.addAttribute("n");
+		Set<String> n = new HashSet<>();
+		n.add("n");
+		implications.add(new Implication<String>(new HashSet<>(conclusion), n));
+		Set<String> m1 = new HashSet<>();
+		m1.add("m1");
+		implications.add(new Implication<String>(n, m1));
+		expected.add("n");
+		expected.add("m1");
+		Assertions.assertEquals(expected, implications.closure(x));
+	}
+
+	private Set<String> set(String... attributes) {
+		return new HashSet<>(Arrays.asList(attributes));
+	}
+
+	@Test
+	public void testForeignAttributes() {
+		FormalContext<String, String> context = createContext();
+		ImplicationSet<String> implications = new ImplicationSet<String>(context);
+		implications.add(new Implication<String>(set("m0"), set("m1", "m2")));
+		// the input keeps attributes outside the context
+		Assertions.assertEquals(set("m0", "m1", "m2", "z"), implications.closure(set("m0", "z")));
+
+		// an implication whose premise is not in the context only fires if the whole premise is there
+		implications.add(new Implication<String>(set("m1", "z"), set("m3")));
+		Assertions.assertEquals(set("m1"), implications.closure(set("m1")));
+		Assertions.assertEquals(set("m1", "m3", "z"), implications.closure(set("m1", "z")));
+		BitSet m1 = new BitSet();
+		m1.set(1);
+		Assertions.assertEquals(m1, implications.closure(m1));
+
+		// and implications can lead into and out of attributes outside the context
+		implications.add(new Implication<String>(set("m4"), set("y", "m5")));
+		implications.add(new Implication<String>(set("y", "m5"), set("z")));
+		Assertions.assertEquals(set("m4", "m5", "y", "z", "m1", "m3"),
+				implications.closure(set("m4", "m1")));
+
+		Random random = new Random(29);
+		for (int round = 0; round < 20; round++) {
+			ImplicationSet<String> mixed = randomImplications(context, random);
+			for (int i = 0; i < 4; i++) {
+				Set<String> premise = randomSet(random, random.nextInt(2));
+				premise.add(random.nextBoolean() ? "y" : "z");
+				mixed.add(new Implication<String>(premise, randomSet(random, 1)));
+				mixed.add(new Implication<String>(randomSet(random, 1), set(random.nextBoolean() ? "y" : "z")));
+			}
+			for (int bits = 0; bits < (1 << ATTRIBUTES); bits += 7) {
+				Set<String> x = subset(context, bits);
+				Assertions.assertEquals(naiveClosure(mixed, x), mixed.closure(x));
+				x.add("z");
+				Assertions.assertEquals(naiveClosure(mixed, x), mixed.closure(x));
+			}
+			for (ImplicationSet<String> cover : Arrays.asList(mixed.nonRedundantCover(), mixed.minimalCover(),
+					mixed.canonicalBasis())) {
+				for (int bits = 0; bits < (1 << ATTRIBUTES); bits += 5) {
+					Set<String> x = subset(context, bits);
+					Assertions.assertEquals(naiveClosure(mixed, x), naiveClosure(cover, x));
+					x.add("y");
+					Assertions.assertEquals(naiveClosure(mixed, x), naiveClosure(cover, x));
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testClosureCache() {
+		Random random = new Random(23);
+		FormalContext<String, String> context = createContext();
+		ImplicationSet<String> implications = randomImplications(context, random);
+		implications.setClosureCache(16);
+		for (int round = 0; round < 10; round++) {
+			for (int bits = 0; bits < (1 << ATTRIBUTES); bits += 5) {
+				Set<String> x = subset(context, bits);
+				Assertions.assertEquals(naiveClosure(implications, x), implications.closure(x));
+				Assertions.assertEquals(naiveClosure(implications, x), implications.closure(x));
+			}
+			Assertions.assertTrue(implications.getClosureCache().size() <= 16);
+			implications.add(new Implication<String>(randomSet(random, 2), randomSet(random, 1)));
+			Assertions.assertTrue(implications.getClosureCache().size() <= 16);
+		}
+		Assertions.assertTrue(implications.getClosureCache().getHits() > 0);
+		Assertions.assertTrue(implications.getClosureCache().getMisses() > 0);
+
+		Set<Set<String>> expected = new HashSet<>();
+		for (int bits = 0; bits < (1 << ATTRIBUTES); bits++) {
+			Set<String> x = subset(context, bits);
+			if (naiveClosure(implications, x).equals(x)) {
+				expected.add(x);
+			}
+		}
+		Assertions.assertEquals(expected, new HashSet<>(implications.allClosures()));
+
+		// removing the implication added last keeps the engine and the closures it did not change
+		LinClosure engine = implications.getClosureEngine();
+		Set<String> kept = new HashSet<>();
+		Set<String> keptClosure = implications.closure(kept);
+		Set<String> premise = new HashSet<>(context.getAttributes());
+		premise.removeAll(keptClosure);
+		if (!premise.isEmpty()) {
+			Implication<String> last = new Implication<String>(premise, set("m0", "m1", "m2"));
+			implications.add(last);
+			implications.closure(premise);
+			implications.remove(last);
+			Assertions.assertSame(engine, implications.getClosureEngine());
+			long hits = implications.getClosureCache().getHits();
+			Assertions.assertEquals(keptClosure, implications.closure(kept));
+			Assertions.assertEquals(hits + 1, implications.getClosureCache().getHits());
+		}
+		for (int bits = 0; bits < (1 << ATTRIBUTES); bits++) {
+			Set<String> x = subset(context, bits);
+			Assertions.assertEquals(naiveClosure(implications, x), implications.closure(x));
+		}
+
+		implications.remove(implications.iterator().next());
+		Set<String> x = subset(context, 3);
+		Assertions.assertEquals(naiveClosure(implications, x), implications.closure(x));
+		implications.setClosureCache(0);
+		Assertions.assertNull(implications.getClosureCache());
+	}
+
+	private void assertEquivalent(FormalContext<String, String> context, Set<FCAImplication<String>> expected,
+			Set<FCAImplication<String>> actual) {
+		for (int bits = 0; bits < (1 << ATTRIBUTES); bits++) {
+			Set<String> x = subset(context, bits);
+			Assertions.assertEquals(naiveClosure(expected, x), naiveClosure(actual, x));
+		}
+	}
+
+	private void assertNonRedundant(Set<FCAImplication<String>> implications) {
+		for (FCAImplication<String> imp : implications) {
+			Set<FCAImplication<String>> others = new HashSet<>(implications);
+			others.remove(imp);
+			Assertions.assertFalse(naiveClosure(others, imp.getPremise()).containsAll(imp.getConclusion()));
+		}
+	}
+
+	@Test
+	public void testCovers() throws Exception {
+		Random random = new Random(5);
+		FormalContext<String, String> context = createContext();
+		for (int round = 0; round < 20; round++) {
+			ImplicationSet<String> implications = randomImplications(context, random);
+			// merged with a copy of itself and some consequences
+			for (FCAImplication<String> imp : new ArrayList<>(implications)) {
+				implications.add(new Implication<String>(new HashSet<>(imp.getPremise()),
+						new HashSet<>(imp.getConclusion())));
+				Set<String> premise = randomSet(random, 2);
+				implications.add(new Implication<String>(premise, naiveClosure(implications, premise)));
+			}
+
+			ImplicationSet<String> nonRedundant = implications.nonRedundantCover();
+			Assertions.assertTrue(implications.containsAll(nonRedundant));
+			assertEquivalent(context, implications, nonRedundant);
+			assertNonRedundant(nonRedundant);
+
+			ImplicationSet<String> minimal = implications.minimalCover();
+			assertEquivalent(context, implications, minimal);
+			assertNonRedundant(minimal);
+			for (FCAImplication<String> imp : minimal) {
+				Set<String> closure = naiveClosure(implications, imp.getPremise());
+				Assertions.assertEquals(closure.size(), imp.getPremise().size() + imp.getConclusion().size());
+				Assertions.assertTrue(closure.containsAll(imp.getConclusion()));
+				for (String attribute : imp.getPremise()) {
+					Set<String> smaller = new HashSet<>(imp.getPremise());
+					smaller.remove(attribute);
+					Assertions.assertNotEquals(closure, naiveClosure(implications, smaller));
+				}
+			}
+
+			// the stem base of the context whose intents are the closed sets
+			FormalContext<String, String> closedSets = createContext();
+			for (int bits = 0; bits < (1 << ATTRIBUTES); bits++) {
+				Set<String> x = subset(context, bits);
+				if (naiveClosure(implications, x).equals(x)) {
+					closedSets.addObject(new FullObject<String, String>("g" + bits, x));
+				}
+			}
+			Set<Set<String>> expected = new HashSet<>();
+			for (FCAImplication<String> imp : closedSets.getStemBase()) {
+				expected.add(imp.getPremise());
+			}
+			ImplicationSet<String> basis = implications.canonicalBasis();
+			Set<Set<String>> premises = new HashSet<>();
+			for (FCAImplication<String> imp : basis) {
+				premises.add(imp.getPremise());
+				Assertions.assertEquals(naiveClosure(implications, imp.getPremise()).size(),
+						imp.getPremise().size() + imp.getConclusion().size());
+			}
+			Assertions.assertEquals(basis.size(), premises.size());
+			Assertions.assertEquals(expected, premises);
+			Assertions.assertTrue(minimal.size() >= basis.size());
+		}
+	}
+
+	@Test
+	public void testFrozenImplicationSet() throws Exception {
+		Random random = new Random(11);
+		FormalContext<String, String> context = createContext();
+		for (int round = 0; round < 10; round++) {
+			final ImplicationSet<String> implications = randomImplications(context, random);
+			final FrozenImplicationSet<String> frozen = implications.freeze();
+			Assertions.assertEquals(implications.size(), frozen.getImplicationCount());
+			int words = frozen.getWordCount();
+			long[] xs = new long[(1 << ATTRIBUTES) * words];
+			for (int bits = 0; bits < (1 << ATTRIBUTES); bits++) {
+				Set<String> x = subset(context, bits);
+				Assertions.assertEquals(naiveClosure(implications, x), frozen.closure(x));
+				Set<String> conclusion = randomSet(random, 2);
+				Assertions.assertEquals(naiveClosure(implications, x).containsAll(conclusion),
+						frozen.entails(new Implication<String>(x, conclusion)));
+				xs[bits * words] = bits;
+			}
+			// batch closure, in place
+			long[] expected = new long[xs.length];
+			for (int bits = 0; bits < (1 << ATTRIBUTES); bits++) {
+				long[] x = new long[words];
+				x[0] = bits;
+				frozen.closure(x, x);
+				System.arraycopy(x, 0, expected, bits * words, words);
+			}
+			frozen.closure(xs, xs, 1 << ATTRIBUTES);
+			Assertions.assertArrayEquals(expected, xs);
+
+			// queries from several threads
+			ExecutorService pool = Executors.newFixedThreadPool(4);
+			try {
+				List<Future<Boolean>> results = new ArrayList<>();
+				for (int t = 0; t < 4; t++) {
+					results.add(pool.submit(() -> {
+						long[] x = new long[frozen.getWordCount()];
+						for (int bits = 0; bits < (1 << ATTRIBUTES); bits++) {
+							x[0] = bits;
+							frozen.closure(x, x);
+							if (!Arrays.equals(x, Arrays.copyOfRange(expected, bits * x.length, (bits + 1) * x.length))) {
+								return false;
+							}
+						}
+						return true;
+					}));
+				}
+				for (Future<Boolean> result : results) {
+					Assertions.assertTrue(result.get());
+				}
+			} finally {
+				pool.shutdown();
+			}
+
+			// later changes do not affect the frozen copy
+			Set<String> before = frozen.closure(new HashSet<String>());
+			Set<String> all = new HashSet<>(context.getAttributes());
+			implications.add(new Implication<String>(new HashSet<String>(), all));
+			Assertions.assertEquals(all, implications.closure(new HashSet<String>()));
+			Assertions.assertEquals(before, frozen.closure(new HashSet<String>()));
+		}
+
+		// attributes outside the context
+		ImplicationSet<String> implications = new ImplicationSet<String>(context);
+		implications.add(new Implication<String>(set("m0"), set("m1")));
+		implications.add(new Implication<String>(set("m1", "z"), set("m2")));
+		FrozenImplicationSet<String> frozen = implications.freeze();
+		Assertions.assertEquals(set("m0", "m1", "z"), frozen.closure(set("m0", "z")));
+		Assertions.assertEquals(set("m0", "m1"), frozen.closure(set("m0")));
+		long[] xs = new long[frozen.getWordCount()];
+		BitSet m0 = new BitSet();
+		m0.set(context.getAttributes().getIndexOf("m0"));
+		System.arraycopy(m0.toLongArray(), 0, xs, 0, 1);
+		frozen.closure(xs, xs, 1);
+		Assertions.assertEquals(implications.closure(m0), BitSet.valueOf(xs));
+
+		// an attribute added to the context later is outside the frozen copy
+		context.addAttribute("z");
+		context.getAttributes().changeOrder();
+		Assertions.assertEquals(set("m0", "m1", "z"), frozen.closure(set("m0", "z")));
+		Assertions.assertFalse(frozen.entails(new Implication<String>(set("m1"), set("z"))));
+		Assertions.assertTrue(frozen.entails(new Implication<String>(set("m0", "z"), set("m1", "z"))));
+	}
+
+}
@@ -4,14 +4,35 @@
  */
 package de.tudresden.inf.tcs.fcalib.test;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.logging.Handler;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
+
+import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
+import de.tudresden.inf.tcs.fcaapi.FCAImplication;
 import de.tudresden.inf.tcs.fcaapi.exception.IllegalContextException;
 import de.tudresden.inf.tcs.fcaapi.exception.IllegalExpertException;
 import de.tudresden.inf.tcs.fcaapi.exception.IllegalObjectException;
+import de.tudresden.inf.tcs.fcalib.FormalContext;
+import de.tudresden.inf.tcs.fcalib.FullObject;
+import de.tudresden.inf.tcs.fcalib.Implication;
 import de.tudresden.inf.tcs.fcalib.PartialContext;
 import de.tudresden.inf.tcs.fcalib.PartialObject;
+import de.tudresden.inf.tcs.fcalib.PartialObjectDescription;
 import de.tudresden.inf.tcs.fcalib.action.StartExplorationAction;
+import de.tudresden.inf.tcs.fcalib.utils.AttributeBitSet;
 
 /*
  * FCAlib: An open-source extensible library for Formal Concept Analysis 
@@ -60,6 +81,339 @@ public class TestPartialContext {
 		StartExplorationAction<String, String, PartialObject<String, String>> action = new StartExplorationAction<String, String, PartialObject<String, String>>();
 		action.setContext(context);
 		expert.fireExpertAction(action);
+
+		// every question was answered with a counterexample
+		Assertions.assertTrue(context.getStemBase().isEmpty());
+	}
+
+	private Map<Set<String>, Set<String>> asMap(Set<FCAImplication<String>> implications) {
+		Map<Set<String>, Set<String>> map = new HashMap<>();
+		for (FCAImplication<String> imp : implications) {
+			map.put(imp.getPremise(), imp.getConclusion());
+		}
+		return map;
+	}
+
+	@Test
+	public void testStemBaseOfCompleteObjects() throws IllegalObjectException {
+		Random random = new Random(13);
+		for (boolean vertical : new boolean[] { false, true }) {
+			PartialContext<String, String, PartialObject<String, String>> partial = new PartialContext<String, String, PartialObject<String, String>>();
+			FormalContext<String, String> completed = new FormalContext<String, String>();
+			for (int i = 0; i < 7; i++) {
+				partial.addAttribute("m" + i);
+				completed.addAttribute("m" + i);
+			}
+			for (int g = 0; g < 12; g++) {
+				Set<String> plus = new HashSet<>();
+				Set<String> minus = new HashSet<>();
+				for (int i = 0; i < 7; i++) {
+					if (random.nextInt(3) == 0) {
+						plus.add("m" + i);
+					} else {
+						minus.add("m" + i);
+					}
+				}
+				partial.addObject(new PartialObject<String, String>("g" + g, plus, minus));
+				completed.addObject(new FullObject<String, String>("g" + g, plus));
+			}
+			partial.setVerticalStorage(vertical);
+			Set<FCAImplication<String>> expected = completed.getStemBase();
+			Assertions.assertFalse(expected.isEmpty());
+			Assertions.assertEquals(asMap(expected), asMap(partial.getStemBase()));
+		}
+	}
+
+	private PartialContext<String, String, PartialObject<String, String>> randomContext(Random random,
+			int attributes, int objects) {
+		PartialContext<String, String, PartialObject<String, String>> context = new PartialContext<String, String, PartialObject<String, String>>();
+		for (int i = 0; i < attributes; i++) {
+			context.addAttribute("m" + i);
+		}
+		for (int g = 0; g < objects; g++) {
+			Set<String> plus = new HashSet<>();
+			Set<String> minus = new HashSet<>();
+			for (int i = 0; i < attributes; i++) {
+				int r = random.nextInt(4);
+				if (r == 0) {
+					plus.add("m" + i);
+				} else if (r == 1) {
+					minus.add("m" + i);
+				}
+			}
+			context.addObject(new PartialObject<String, String>("g" + g, plus, minus));
+		}
+		return context;
+	}
+
+	private Set<String> randomSet(Random random, int attributes, int bound) {
+		Set<String> x = new HashSet<>();
+		for (int i = 0; i < attributes; i++) {
+			if (random.nextInt(bound) == 0) {
+				x.add("m" + i);
+			}
+		}
+		return x;
+	}
+
+	private void assertSameAnswers(Random random, PartialContext<String, String, PartialObject<String, String>> expected,
+			PartialContext<String, String, PartialObject<String, String>> actual, int attributes) {
+		for (int k = 0; k < 50; k++) {
+			Set<String> x = randomSet(random, attributes, 5);
+			Assertions.assertEquals(expected.doublePrime(x), actual.doublePrime(x));
+			Implication<String> imp = new Implication<String>(x, randomSet(random, attributes, 3));
+			Assertions.assertEquals(expected.refutes(imp), actual.refutes(imp));
+			for (PartialObject<String, String> object : actual.getObjects()) {
+				Assertions.assertEquals(expected.getObject(object.getIdentifier()).respects(imp), object.respects(imp));
+			}
+		}
+	}
+
+	@Test
+	public void testVerticalStorage() throws IllegalObjectException {
+		Random random = new Random(17);
+		PartialContext<String, String, PartialObject<String, String>> rows = randomContext(new Random(2), 6, 90);
+		PartialContext<String, String, PartialObject<String, String>> columns = randomContext(new Random(2), 6, 90);
+		columns.setVerticalStorage(true);
+		Assertions.assertTrue(columns.isVerticalStorage());
+		Assertions.assertTrue(columns.getObject("g0").getDescription().getAttributes() instanceof AttributeBitSet);
+		Assertions.assertTrue(columns.getObject("g0").getDescription().getNegatedAttributes() instanceof AttributeBitSet);
+		assertSameAnswers(random, rows, columns, 6);
+
+		for (int g = 0; g < 90; g += 4) {
+			rows.removeObject("g" + g);
+			columns.removeObject(columns.getObject("g" + g));
+		}
+		rows.addAttribute("m6");
+		columns.addAttribute("m6");
+		for (int g = 1; g < 90; g += 4) {
+			rows.addAttributeToObject("m6", "g" + g);
+			columns.addAttributeToObject("m6", "g" + g);
+			if (rows.getObject("g" + g).getDescription().containsAttribute("m1")) {
+				rows.removeAttributeFromObject("m1", "g" + g);
+				columns.removeAttributeFromObject("m1", "g" + g);
+			}
+			if (!rows.getObject("g" + g).getDescription().containsAttribute("m2")
+					&& !rows.getObject("g" + g).getDescription().containsNegatedAttribute("m2")) {
+				rows.addNegatedAttributeToObject("m2", "g" + g);
+				columns.addNegatedAttributeToObject("m2", "g" + g);
+			}
+		}
+		Set<String> minus = new HashSet<>();
+		minus.add("m6");
+		rows.addObject(new PartialObject<String, String>("h", new HashSet<String>(), minus));
+		columns.addObject(new PartialObject<String, String>("h", new HashSet<String>(), minus));
+		columns.getAttributes().changeOrder();
+		assertSameAnswers(random, rows, columns, 7);
+
+		// an attribute that is not an attribute of the context
+		rows.getObject("g1").getDescription().addAttribute("z");
+		columns.getObject("g1").getDescription().addAttribute("z");
+		Set<String> z = new HashSet<>(Arrays.asList("z", "m6"));
+		Implication<String> imp = new Implication<String>(z, new HashSet<>(Arrays.asList("m2")));
+		Assertions.assertEquals(rows.getObject("g1").respects(imp), columns.getObject("g1").respects(imp));
+		Assertions.assertEquals(rows.getObject("g1").getDescription().getAttributes(),
+				columns.getObject("g1").getDescription().getAttributes());
+
+		columns.setVerticalStorage(false);
+		Assertions.assertTrue(columns.getObject("g1").getDescription().getAttributes() instanceof HashSet);
+		assertSameAnswers(random, rows, columns, 7);
+		columns.setVerticalStorage(true);
+
+		columns.clearObjects();
+		Assertions.assertEquals(new HashSet<>(columns.getAttributes()), columns.doublePrime(new HashSet<String>()));
+	}
+
+	@Test
+	public void testDerivationCache() throws IllegalObjectException {
+		PartialContext<String, String, PartialObject<String, String>> plain = randomContext(new Random(4), 6, 30);
+		PartialContext<String, String, PartialObject<String, String>> cached = randomContext(new Random(4), 6, 30);
+		cached.setDerivationCache(16);
+		assertSameAnswers(new Random(9), plain, cached, 6);
+		PartialContext<String, String, PartialObject<String, String>> more = randomContext(new Random(6), 6, 10);
+		for (PartialObject<String, String> object : more.getObjects()) {
+			PartialObject<String, String> copy = new PartialObject<String, String>("h" + object.getIdentifier(),
+					object.getDescription().getAttributes(), object.getDescription().getNegatedAttributes());
+			plain.addObject(copy);
+			cached.addObject(new PartialObject<String, String>(copy.getIdentifier(),
+					copy.getDescription().getAttributes(), copy.getDescription().getNegatedAttributes()));
+			assertSameAnswers(new Random(9), plain, cached, 6);
+		}
+		Assertions.assertTrue(cached.getDerivationCache().getHits() > 0);
+		plain.addAttribute("m6");
+		cached.addAttribute("m6");
+		plain.addNegatedAttributeToObject("m6", "hg0");
+		cached.addNegatedAttributeToObject("m6", "hg0");
+		assertSameAnswers(new Random(9), plain, cached, 7);
+	}
+
+	private Set<String> set(String... attributes) {
+		return new HashSet<>(Arrays.asList(attributes));
+	}
+
+	@Test
+	public void testImplicationPropagation() throws IllegalObjectException {
+		for (boolean vertical : new boolean[] { false, true }) {
+			PartialContext<String, String, PartialObject<String, String>> context = new PartialContext<String, String, PartialObject<String, String>>();
+			for (String attribute : set("a", "b", "c", "d")) {
+				context.addAttribute(attribute);
+			}
+			context.addObject(new PartialObject<String, String>("g1", set("a")));
+			context.addObject(new PartialObject<String, String>("g2", set(), set("c")));
+			context.addObject(new PartialObject<String, String>("g3", set("d"), set("b")));
+			context.setVerticalStorage(vertical);
+			context.initializeExploration();
+
+			context.getImplications().add(new Implication<String>(set("a"), set("b")));
+			context.getImplications().add(new Implication<String>(set("b"), set("c")));
+			Assertions.assertEquals(set("a", "b", "c"), context.getObject("g1").getDescription().getAttributes());
+			Assertions.assertEquals(set("a", "b", "c"), context.getObject("g2").getDescription().getNegatedAttributes());
+			Assertions.assertEquals(set("a", "b"), context.getObject("g3").getDescription().getNegatedAttributes());
+			Assertions.assertEquals(set("d"), context.getObject("g3").getDescription().getAttributes());
+
+			// an object added later is completed as well
+			context.addObject(new PartialObject<String, String>("g4", set("b")));
+			Assertions.assertEquals(set("b", "c"), context.getObject("g4").getDescription().getAttributes());
+			Assertions.assertEquals(set("c", "d"), context.doublePrime(set("d")));
+
+			// so is an object whose description is changed directly
+			context.addObject(new PartialObject<String, String>("g5", set()));
+			context.addAttributeToObject("a", "g5");
+			Assertions.assertEquals(set("a", "b", "c"), context.getObject("g5").getDescription().getAttributes());
+			context.addObject(new PartialObject<String, String>("g6", set()));
+			context.addNegatedAttributeToObject("c", "g6");
+			Assertions.assertEquals(set("a", "b", "c"), context.getObject("g6").getDescription().getNegatedAttributes());
+
+			context.setImplicationPropagation(false);
+			context.getImplications().add(new Implication<String>(set("c"), set("d")));
+			Assertions.assertEquals(set("b", "c"), context.getObject("g4").getDescription().getAttributes());
+			context.addObject(new PartialObject<String, String>("g7", set()));
+			context.addAttributeToObject("c", "g7");
+			Assertions.assertEquals(set("c"), context.getObject("g7").getDescription().getAttributes());
+		}
+	}
+
+
+	/**
+	 * Completes a description with the given implications by checking all of them until the
+	 * description does not change.
+	 */
+	private void completeByHand(PartialObjectDescription<String> description, List<FCAImplication<String>> imps) {
+		boolean again = true;
+		while (again) {
+			again = false;
+			for (FCAImplication<String> imp : imps) {
+				Set<String> missing = new HashSet<>(imp.getPremise());
+				missing.removeAll(description.getAttributes());
+				if (missing.isEmpty()) {
+					for (String attribute : imp.getConclusion()) {
+						again |= !description.containsAttribute(attribute) && description.addAttribute(attribute);
+					}
+				} else if (missing.size() == 1 && !Collections.disjoint(description.getNegatedAttributes(), imp.getConclusion())) {
+					again |= description.getNegatedAttributes().addAll(missing);
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testImplicationPropagationIndex() throws IllegalObjectException {
+		Random random = new Random(21);
+		for (boolean vertical : new boolean[] { false, true }) {
+			// the objects are partial views of the objects of a formal context, whose implications are added
+			FormalContext<String, String> hidden = new FormalContext<String, String>();
+			PartialContext<String, String, PartialObject<String, String>> context = new PartialContext<String, String, PartialObject<String, String>>();
+			for (int i = 0; i < 7; i++) {
+				hidden.addAttribute("m" + i);
+				context.addAttribute("m" + i);
+			}
+			context.setVerticalStorage(vertical);
+			context.initializeExploration();
+			List<PartialObjectDescription<String>> expected = new ArrayList<>();
+			List<FCAImplication<String>> imps = new ArrayList<>();
+			for (int g = 0; g < 40; g++) {
+				Set<String> plus = new HashSet<>();
+				Set<String> minus = new HashSet<>();
+				Set<String> row = randomSet(random, 7, 3);
+				for (int i = 0; i < 7; i++) {
+					if (random.nextBoolean()) {
+						(row.contains("m" + i) ? plus : minus).add("m" + i);
+					}
+				}
+				hidden.addObject(new FullObject<String, String>("g" + g, row));
+				context.addObject(new PartialObject<String, String>("g" + g, plus, minus));
+				expected.add(new PartialObjectDescription<String>(plus, minus));
+			}
+			for (int k = 0; k < 15; k++) {
+				Set<String> x = randomSet(random, 7, 4);
+				Implication<String> imp = new Implication<String>(x, hidden.doublePrime(x));
+				imps.add(imp);
+				context.getImplications().add(imp);
+				// and the objects learn a cross or a non-cross of their full view
+				for (int e = 0; e < 5; e++) {
+					String g = "g" + random.nextInt(40);
+					String m = "m" + random.nextInt(7);
+					PartialObjectDescription<String> known = context.getObject(g).getDescription();
+					if (!known.containsAttribute(m) && !known.containsNegatedAttribute(m)) {
+						if (hidden.getObject(g).getDescription().containsAttribute(m)) {
+							context.addAttributeToObject(m, g);
+							expected.get(Integer.parseInt(g.substring(1))).addAttribute(m);
+						} else {
+							context.addNegatedAttributeToObject(m, g);
+							expected.get(Integer.parseInt(g.substring(1))).addNegatedAttribute(m);
+						}
+					}
+				}
+				for (int g = 0; g < 40; g++) {
+					PartialObjectDescription<String> description = expected.get(g);
+					completeByHand(description, imps);
+					Assertions.assertEquals(description.getAttributes(), context.getObject("g" + g).getDescription().getAttributes());
+					Assertions.assertEquals(description.getNegatedAttributes(),
+							context.getObject("g" + g).getDescription().getNegatedAttributes());
+				}
+			}
+			PartialObjectDescription<String> description = new PartialObjectDescription<String>(set("m0"), set("m1", "m2"));
+			context.addObject(new PartialObject<String, String>("h", set("m0"), set("m1", "m2")));
+			completeByHand(description, imps);
+			Assertions.assertEquals(description.getAttributes(), context.getObject("h").getDescription().getAttributes());
+			Assertions.assertEquals(description.getNegatedAttributes(), context.getObject("h").getDescription().getNegatedAttributes());
+		}
+	}
+
+	@Test
+	public void testImplicationPropagationConflict() {
+		PartialContext<String, String, PartialObject<String, String>> context = new PartialContext<String, String, PartialObject<String, String>>();
+		context.addAttribute("a");
+		context.addAttribute("b");
+		context.addObject(new PartialObject<String, String>("g1", set("a"), set("b")));
+		context.initializeExploration();
+		List<LogRecord> records = new ArrayList<>();
+		Handler handler = new Handler() {
+			@Override
+			public void publish(LogRecord record) {
+				records.add(record);
+			}
+
+			@Override
+			public void flush() {
+			}
+
+			@Override
+			public void close() {
+			}
+		};
+		Logger logger = Logger.getLogger(PartialContext.class.getName());
+		logger.addHandler(handler);
+		try {
+			context.getImplications().add(new Implication<String>(set("a"), set("b")));
+		} finally {
+			logger.removeHandler(handler);
+		}
+		Assertions.assertEquals(1, records.size());
+		Assertions.assertEquals(Level.WARNING, records.get(0).getLevel());
+		Assertions.assertTrue(records.get(0).getMessage().contains("g1"));
+		Assertions.assertEquals(set("a"), context.getObject("g1").getDescription().getAttributes());
+		Assertions.assertEquals(set("b"), context.getObject("g1").getDescription().getNegatedAttributes());
 	}
 
 }
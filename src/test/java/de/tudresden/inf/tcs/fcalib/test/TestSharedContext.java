@@ -0,0 +1,234 @@
+package de.tudresden.inf.tcs.fcalib.test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import de.tudresden.inf.tcs.fcaapi.FCAImplication;
+import de.tudresden.inf.tcs.fcaapi.exception.IllegalAttributeException;
+import de.tudresden.inf.tcs.fcaapi.exception.IllegalObjectException;
+import de.tudresden.inf.tcs.fcalib.AbstractExpert;
+import de.tudresden.inf.tcs.fcalib.ExplorationSession;
+import de.tudresden.inf.tcs.fcalib.FormalContext;
+import de.tudresden.inf.tcs.fcalib.FullObject;
+import de.tudresden.inf.tcs.fcalib.SharedContext;
+import de.tudresden.inf.tcs.fcalib.action.CounterExampleProvidedAction;
+import de.tudresden.inf.tcs.fcalib.action.QuestionConfirmedAction;
+import de.tudresden.inf.tcs.fcalib.action.StartExplorationAction;
+
+/*
+ * FCAlib: An open-source extensible library for Formal Concept Analysis 
+ *         tool developers
+ * Copyright (C) 2009  Baris Sertkaya
+ *
+ * This file is part of FCAlib.
+ * FCAlib is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FCAlib is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with FCAlib.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+public class TestSharedContext {
+
+	public TestSharedContext() {
+	}
+
+	/**
+	 * Returns the stem base premises of a context restricted to some of its
+	 * attributes.
+	 */
+	private Set<Set<String>> expectedPremises(FormalContext<String, String> truth, List<String> attributes)
+			throws IllegalObjectException {
+		FormalContext<String, String> restricted = new FormalContext<String, String>();
+		for (String attribute : attributes) {
+			restricted.addAttribute(attribute);
+		}
+		for (FullObject<String, String> object : truth.getObjects()) {
+			Set<String> intent = new HashSet<>(object.getDescription().getAttributes());
+			intent.retainAll(attributes);
+			restricted.addObject(new FullObject<String, String>(object.getIdentifier(), intent));
+		}
+		return premises(restricted.getStemBase());
+	}
+
+	private Set<Set<String>> premises(Set<FCAImplication<String>> implications) {
+		Set<Set<String>> premises = new HashSet<>();
+		for (FCAImplication<String> imp : implications) {
+			premises.add(imp.getPremise());
+		}
+		return premises;
+	}
+
+	/**
+	 * An expert that answers from a given context, and gives counterexamples
+	 * described over all attributes, with identifiers that are unique for the
+	 * session.
+	 */
+	private AbstractExpert<String, String, FullObject<String, String>> truthExpert(
+			final FormalContext<String, String> truth, final ExplorationSession<String, String> session,
+			final String name) {
+		AbstractExpert<String, String, FullObject<String, String>> expert = new AbstractExpert<String, String, FullObject<String, String>>() {
+
+			@Override
+			public void askQuestion(FCAImplication<String> question) {
+				for (FullObject<String, String> object : truth.getObjects()) {
+					if (!object.respects(question)) {
+						fireExpertAction(new CounterExampleProvidedAction<String, String, FullObject<String, String>>(
+								session, question, new FullObject<String, String>(object.getIdentifier() + "@" + name,
+										object.getDescription().getAttributes())));
+						return;
+					}
+				}
+				QuestionConfirmedAction<String, String, FullObject<String, String>> action = new QuestionConfirmedAction<String, String, FullObject<String, String>>();
+				action.setContext(session);
+				action.setQuestion(question);
+				fireExpertAction(action);
+			}
+
+			@Override
+			public void requestCounterExample(FCAImplication<String> question) {
+				Assertions.fail("no counterexample was invalid");
+			}
+
+			@Override
+			public void counterExampleInvalid(FullObject<String, String> counterExample, int reason) {
+			}
+
+			@Override
+			public void forceToCounterExample(FCAImplication<String> implication) {
+			}
+
+			@Override
+			public void explorationFinished() {
+			}
+
+			@Override
+			public void implicationFollowsFromBackgroundKnowledge(FCAImplication<String> implication) {
+			}
+		};
+		expert.addExpertActionListener(session);
+		session.setExpert(expert);
+		return expert;
+	}
+
+	@Test
+	public void testConcurrentSessions() throws Exception {
+		final FormalContext<String, String> truth = RandomContexts.formalContext(new Random(41), 9, 40);
+		FormalContext<String, String> initial = new FormalContext<String, String>();
+		for (String attribute : truth.getAttributes()) {
+			initial.addAttribute(attribute);
+		}
+		for (int g = 0; g < 3; g++) {
+			FullObject<String, String> object = truth.getObjectAtIndex(g);
+			initial.addObject(new FullObject<String, String>(object.getIdentifier(),
+					object.getDescription().getAttributes()));
+		}
+		final SharedContext<String, String> shared = new SharedContext<String, String>(initial);
+		Assertions.assertEquals(3, shared.getObjectCount());
+
+		Random random = new Random(43);
+		List<List<String>> subsets = new ArrayList<>();
+		List<String> all = new ArrayList<>(shared.getAttributes());
+		Collections.reverse(all);
+		subsets.add(all);
+		for (int k = 0; k < 7; k++) {
+			List<String> subset = new ArrayList<>(shared.getAttributes());
+			Collections.shuffle(subset, random);
+			subsets.add(new ArrayList<>(subset.subList(0, 4 + random.nextInt(5))));
+		}
+
+		List<ExplorationSession<String, String>> sessions = new ArrayList<>();
+		List<Future<?>> futures = new ArrayList<>();
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			for (int k = 0; k < subsets.size(); k++) {
+				final ExplorationSession<String, String> session = shared.openSession(subsets.get(k));
+				final AbstractExpert<String, String, FullObject<String, String>> expert = truthExpert(truth, session,
+						"s" + k);
+				sessions.add(session);
+				futures.add(executor.submit(() -> {
+					StartExplorationAction<String, String, FullObject<String, String>> action = new StartExplorationAction<String, String, FullObject<String, String>>();
+					action.setContext(session);
+					expert.fireExpertAction(action);
+				}));
+			}
+			for (Future<?> future : futures) {
+				future.get();
+			}
+		} finally {
+			executor.shutdown();
+		}
+
+		for (int k = 0; k < subsets.size(); k++) {
+			ExplorationSession<String, String> session = sessions.get(k);
+			Set<Set<String>> expected = expectedPremises(truth, subsets.get(k));
+			Assertions.assertEquals(subsets.get(k), new ArrayList<>(session.getAttributes()));
+			Assertions.assertEquals(expected, premises(session.getImplications()));
+			Assertions.assertEquals(expected, premises(session.getStemBase()));
+			for (FCAImplication<String> imp : session.getImplications()) {
+				Assertions.assertFalse(truth.refutes(imp));
+				Assertions.assertFalse(session.refutes(imp));
+			}
+		}
+		Assertions.assertTrue(shared.getObjectCount() > 3);
+		Assertions.assertEquals(shared.getObjectCount(), sessions.get(0).getObjects().size());
+	}
+
+	private Set<String> set(String... attributes) {
+		Set<String> set = new HashSet<>();
+		Collections.addAll(set, attributes);
+		return set;
+	}
+
+	@Test
+	public void testSnapshots() throws IllegalObjectException {
+		FormalContext<String, String> initial = new FormalContext<String, String>();
+		for (String attribute : new String[] { "a", "b", "c", "d" }) {
+			initial.addAttribute(attribute);
+		}
+		SharedContext<String, String> shared = new SharedContext<String, String>(initial);
+		List<String> attributes = new ArrayList<>();
+		attributes.add("c");
+		attributes.add("a");
+		ExplorationSession<String, String> session = shared.openSession(attributes);
+		Assertions.assertThrows(IllegalAttributeException.class, () -> session.addAttribute("e"));
+		Assertions.assertEquals(set("a", "c"), session.doublePrime(set()));
+
+		Set<FullObject<String, String>> before = session.getObjects();
+		for (int g = 0; g < 100; g++) {
+			session.addObject(new FullObject<String, String>("g" + g, (g % 2 == 0) ? set("a", "b") : set("a", "d")));
+		}
+		Assertions.assertThrows(IllegalObjectException.class,
+				() -> session.addObject(new FullObject<String, String>("g0", set())));
+		Assertions.assertTrue(before.isEmpty());
+		Assertions.assertEquals(100, session.getObjects().size());
+		Assertions.assertEquals(set("a"), session.doublePrime(set()));
+		Assertions.assertEquals(set("a", "c"), session.doublePrime(set("b", "d")));
+		Assertions.assertEquals(set("a", "b"), shared.getObject("g42").getDescription().getAttributes());
+		Assertions.assertEquals(42, session.getObjects().getIndexOf(shared.getObject("g42")));
+		Assertions.assertThrows(UnsupportedOperationException.class, () -> session.removeObject("g1"));
+
+		// other sessions see the same objects
+		ExplorationSession<String, String> other = shared.openSession(shared.getAttributes());
+		Assertions.assertEquals(set("a", "b"), other.doublePrime(set("b")));
+		Assertions.assertEquals(1, premises(session.getStemBase()).size());
+	}
+
+}